@@ -39,7 +39,7 @@ public class FeatureGeometryDistanceFn implements
 		this.coordinateDistanceFunction = coordinateDistanceFunction;
 	}
 
-	private Geometry getGeometry(
+	public static Geometry getGeometry(
 			final SimpleFeature x ) {
 		for (final Object attr : x.getAttributes()) {
 			if (attr instanceof Geometry) {
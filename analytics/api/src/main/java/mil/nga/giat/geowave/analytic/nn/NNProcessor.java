@@ -1,6 +1,7 @@
 package mil.nga.giat.geowave.analytic.nn;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -16,6 +17,9 @@ import mil.nga.giat.geowave.core.index.ByteArrayId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
 /**
  * 
  * This class is designed to support secondary partitioning.
@@ -25,6 +29,14 @@ import org.slf4j.LoggerFactory;
  * (2) Process data, perform the O(N^2) (e.g. ~ n^2/2) comparisons within those
  * partitions.
  * 
+ * If a {@link NeighborEnvelopeFn} is provided, the items of each partition are
+ * loaded into a spatial index when the partition is first searched. The
+ * candidate neighbors of each primary are then limited to those whose envelope
+ * intersects the envelope of the primary expanded by the maximum distance,
+ * reducing the comparisons in dense partitions to roughly O(N log N). A
+ * notification callback that changes the envelope of an item must call
+ * 'envelopeChanged' so that the spatial indices of its partitions are rebuilt.
+ * 
  * Custom plug-ins include (1) A factory for the neighbor list to track those
  * pairings of data whose distance feel under the provided minimum. (2) A
  * complete notification callback callback for each primary data.
@@ -67,6 +79,7 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE>
 	protected final double maxDistance;
 	protected final PartitionData parentPartition;
 	private int upperBoundPerPartition = DEFAULT_UPPER_BOUND_PARTIION_SIZE;
+	protected NeighborEnvelopeFn<STORE_VALUE> envelopeFn = null;
 
 	public static final int DEFAULT_UPPER_BOUND_PARTIION_SIZE = 75000;
 
@@ -75,6 +88,9 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE>
 	 */
 	protected ByteArrayId startingPoint;
 	protected NeighborIndex<STORE_VALUE> index;
+	protected Set<ByteArrayId> inspectionSet;
+	// built lazily, a null tree marks a partition that cannot be indexed
+	protected Map<PartitionData, STRtree> spatialIndices;
 
 	public NNProcessor(
 			Partitioner<Object> partitioner,
@@ -115,6 +131,10 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE>
 			LOGGER.warn("At upper bound on partition.  Increase the bounds or condense the data.");
 		}
 		idsSet.add(itemId);
+		// the spatial index of the partition does not contain the new item
+		if (spatialIndices != null) {
+			spatialIndices.remove(singleton);
+		}
 
 		Set<PartitionData> partitionSet = idsToPartition.get(itemId);
 		if (partitionSet == null) {
@@ -145,6 +165,32 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE>
 		}
 	}
 
+	/**
+	 * Notify the processor that the envelope of an item changed during
+	 * processing, such as a point that was condensed into the hull of its
+	 * cluster, so that the spatial indices of its partitions are rebuilt before
+	 * they are searched again.
+	 * 
+	 * @param id
+	 *            the item whose envelope changed
+	 */
+	public void envelopeChanged(
+			final ByteArrayId id ) {
+		if (spatialIndices == null) {
+			return;
+		}
+		// a processed primary is never a candidate neighbor again
+		if (primaries.containsKey(id) && !inspectionSet.contains(id)) {
+			return;
+		}
+		final Set<PartitionData> partitionSet = idsToPartition.get(id);
+		if (partitionSet != null) {
+			for (PartitionData pd : partitionSet) {
+				spatialIndices.remove(pd);
+			}
+		}
+	}
+
 	public void add(
 			final ByteArrayId id,
 			final boolean isPrimary,
@@ -245,11 +291,12 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE>
 
 		index = new NeighborIndex<STORE_VALUE>(
 				listFactory);
+		spatialIndices = new HashMap<PartitionData, STRtree>();
 
 		double farthestDistance = 0;
 		ByteArrayId farthestNeighbor = null;
 		ByteArrayId nextStart = startingPoint;
-		final Set<ByteArrayId> inspectionSet = new HashSet<ByteArrayId>();
+		inspectionSet = new HashSet<ByteArrayId>();
 		inspectionSet.addAll(primaries.keySet());
 
 		if (inspectionSet.size() > 0 && nextStart == null) {
@@ -274,9 +321,12 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE>
 			final NeighborList<STORE_VALUE> primaryList = index.init(
 					primaryId,
 					primary);
+			final Envelope searchEnvelope = getSearchEnvelope(primary);
 
 			for (PartitionData pd : partition) {
-				for (ByteArrayId neighborId : partitionsToIds.get(pd)) {
+				for (ByteArrayId neighborId : getNeighborCandidates(
+						pd,
+						searchEnvelope)) {
 					if (neighborId.equals(primaryId)) continue;
 					boolean isAPrimary = true;
 					STORE_VALUE neighbor = primaries.get(neighborId);
@@ -328,7 +378,62 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE>
 				nextStart = farthestNeighbor;
 			}
 		}
+		spatialIndices = null;
+		inspectionSet = null;
+	}
 
+	private STRtree buildSpatialIndex(
+			final Set<ByteArrayId> ids ) {
+		final STRtree tree = new STRtree();
+		for (final ByteArrayId id : ids) {
+			STORE_VALUE value = primaries.get(id);
+			if (value == null) {
+				value = others.get(id);
+			}
+			if (value == null) {
+				continue;
+			}
+			final Envelope envelope = envelopeFn.getEnvelope(value);
+			if (envelope == null) {
+				// compare every item of this partition
+				return null;
+			}
+			tree.insert(
+					envelope,
+					id);
+		}
+		tree.build();
+		return tree;
+	}
+
+	private Envelope getSearchEnvelope(
+			final STORE_VALUE primary ) {
+		if (envelopeFn == null) {
+			return null;
+		}
+		final Envelope envelope = envelopeFn.getEnvelope(primary);
+		return envelope == null ? null : envelopeFn.expand(
+				envelope,
+				maxDistance);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Collection<ByteArrayId> getNeighborCandidates(
+			final PartitionData pd,
+			final Envelope searchEnvelope ) {
+		if (searchEnvelope == null) {
+			return partitionsToIds.get(pd);
+		}
+		if (!spatialIndices.containsKey(pd)) {
+			spatialIndices.put(
+					pd,
+					buildSpatialIndex(partitionsToIds.get(pd)));
+		}
+		final STRtree tree = spatialIndices.get(pd);
+		if (tree == null) {
+			return partitionsToIds.get(pd);
+		}
+		return tree.query(searchEnvelope);
 	}
 
 	public int getUpperBoundPerPartition() {
@@ -339,4 +444,19 @@ public class NNProcessor<PARTITION_VALUE, STORE_VALUE>
 			int upperBoundPerPartition ) {
 		this.upperBoundPerPartition = upperBoundPerPartition;
 	}
+
+	public NeighborEnvelopeFn<STORE_VALUE> getEnvelopeFn() {
+		return envelopeFn;
+	}
+
+	/**
+	 * 
+	 * @param envelopeFn
+	 *            supplies the envelopes to spatially index partitions, or null
+	 *            to compare every pair of items within a partition
+	 */
+	public void setEnvelopeFn(
+			NeighborEnvelopeFn<STORE_VALUE> envelopeFn ) {
+		this.envelopeFn = envelopeFn;
+	}
 }
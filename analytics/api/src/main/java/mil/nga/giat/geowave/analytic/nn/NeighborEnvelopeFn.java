@@ -0,0 +1,36 @@
+package mil.nga.giat.geowave.analytic.nn;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * Supply the envelopes used to spatially index the items of a partition, so
+ * that the candidate neighbors of an item are found with a range lookup rather
+ * than by comparing the item to every other item in the partition.
+ *
+ * The expanded envelope must be conservative with respect to the distance
+ * function used by the processor: every item within the distance of the given
+ * envelope must intersect the expanded envelope.
+ *
+ * @param <TYPE>
+ */
+public interface NeighborEnvelopeFn<TYPE>
+{
+	/**
+	 *
+	 * @param item
+	 * @return the envelope of the item or null if the item cannot be indexed
+	 */
+	public Envelope getEnvelope(
+			TYPE item );
+
+	/**
+	 *
+	 * @param envelope
+	 * @param distance
+	 * @return the envelope covering everything within the distance of the
+	 *         provided envelope or null if it cannot be bounded
+	 */
+	public Envelope expand(
+			Envelope envelope,
+			double distance );
+}
@@ -0,0 +1,67 @@
+package mil.nga.giat.geowave.analytic.nn;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Envelopes for items with a geometry in longitude and latitude (EPSG:4326),
+ * expanded by an orthodromic distance in meters, as measured by
+ * {@link mil.nga.giat.geowave.analytic.distance.CoordinateCircleDistanceFn}.
+ *
+ * The expansion assumes a sphere with the smallest radius of curvature of the
+ * WGS84 ellipsoid, with a small margin, so it always covers the requested
+ * distance. Envelopes that would reach a pole or cross the date line are not
+ * bounded.
+ *
+ * @param <TYPE>
+ */
+public abstract class OrthodromicEnvelopeFn<TYPE> implements
+		NeighborEnvelopeFn<TYPE>
+{
+	// meridional radius of curvature of WGS84 at the equator
+	private static final double MIN_RADIUS_OF_CURVATURE = 6335439.0;
+	private static final double MARGIN = 1.01;
+
+	protected abstract Geometry getGeometry(
+			TYPE item );
+
+	@Override
+	public Envelope getEnvelope(
+			final TYPE item ) {
+		final Geometry geometry = getGeometry(item);
+		return geometry == null ? null : geometry.getEnvelopeInternal();
+	}
+
+	@Override
+	public Envelope expand(
+			final Envelope envelope,
+			final double distance ) {
+		final double angle = distance / MIN_RADIUS_OF_CURVATURE;
+		final double latDelta = Math.toDegrees(angle) * MARGIN;
+		final double minY = envelope.getMinY() - latDelta;
+		final double maxY = envelope.getMaxY() + latDelta;
+		if ((minY <= -90) || (maxY >= 90)) {
+			return null;
+		}
+		// the farthest longitude reached from a point at latitude lat is
+		// asin(sin(angle) / cos(lat)), which grows towards the poles
+		final double maxLat = Math.max(
+				Math.abs(envelope.getMinY()),
+				Math.abs(envelope.getMaxY()));
+		final double sinLonDelta = Math.sin(angle) / Math.cos(Math.toRadians(maxLat));
+		if (sinLonDelta >= 1) {
+			return null;
+		}
+		final double lonDelta = Math.toDegrees(Math.asin(sinLonDelta)) * MARGIN;
+		final double minX = envelope.getMinX() - lonDelta;
+		final double maxX = envelope.getMaxX() + lonDelta;
+		if ((minX < -180) || (maxX > 180)) {
+			return null;
+		}
+		return new Envelope(
+				minX,
+				maxX,
+				minY,
+				maxY);
+	}
+}
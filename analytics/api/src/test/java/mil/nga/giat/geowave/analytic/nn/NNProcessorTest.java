@@ -1,5 +1,6 @@
 package mil.nga.giat.geowave.analytic.nn;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -27,6 +28,8 @@ import org.apache.hadoop.mapreduce.JobContext;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.vividsolutions.jts.geom.Envelope;
+
 public class NNProcessorTest
 {
 	static Map<Integer, List<Integer>> expectedResults = new HashMap<Integer, List<Integer>>();
@@ -147,29 +150,222 @@ public class NNProcessorTest
 
 		runProcess(
 				buildProcessor(),
-				new CompleteNotifier<Integer>() {
+				createExpectedResultsNotifier());
+	}
+
+	@Test
+	public void testSpatiallyIndexedOp()
+			throws IOException,
+			InterruptedException {
+		final NNProcessor<Integer, Integer> processor = buildProcessor();
+		processor.setEnvelopeFn(new NeighborEnvelopeFn<Integer>() {
+
+			@Override
+			public Envelope getEnvelope(
+					final Integer item ) {
+				return new Envelope(
+						item.doubleValue(),
+						item.doubleValue(),
+						0,
+						0);
+			}
+
+			@Override
+			public Envelope expand(
+					final Envelope envelope,
+					final double distance ) {
+				final Envelope expanded = new Envelope(
+						envelope);
+				expanded.expandBy(distance);
+				return expanded;
+			}
+		});
+		runProcess(
+				processor,
+				createExpectedResultsNotifier());
+	}
+
+	@Test
+	public void testGrowingEnvelopeOp()
+			throws IOException,
+			InterruptedException {
+		// items are intervals, all in a single partition, and the secondary
+		// grows to reach the primary that is processed second
+		final NNProcessor<double[], double[]> processor = new NNProcessor<double[], double[]>(
+				new Partitioner<Object>() {
+
+					@Override
+					public void initialize(
+							final JobContext context,
+							final Class<?> scope )
+							throws IOException {}
+
+					@Override
+					public List<mil.nga.giat.geowave.analytic.partitioner.Partitioner.PartitionData> getCubeIdentifiers(
+							final Object entry ) {
+						return Collections.singletonList(new PartitionData(
+								new ByteArrayId(
+										"0"),
+								true));
+					}
+
+					@Override
+					public void partition(
+							final Object entry,
+							final mil.nga.giat.geowave.analytic.partitioner.Partitioner.PartitionDataCallback callback )
+							throws Exception {
+						for (final PartitionData pd : getCubeIdentifiers(entry)) {
+							callback.partitionWith(pd);
+						}
+					}
+
+					@Override
+					public Collection<ParameterEnum<?>> getParameters() {
+						return Collections.emptyList();
+					}
+
+					@Override
+					public void setup(
+							final PropertyManagement runTimeProperties,
+							final Class<?> scope,
+							final Configuration configuration ) {}
+				},
+				new TypeConverter<double[]>() {
+					@Override
+					public double[] convert(
+							final ByteArrayId id,
+							final Object o ) {
+						return (double[]) o;
+					}
+				},
+				new DistanceProfileGenerateFn<Integer, double[]>() {
+
+					@Override
+					public DistanceProfile<Integer> computeProfile(
+							final double[] item1,
+							final double[] item2 ) {
+						return new DistanceProfile<Integer>(
+								Math.max(
+										0,
+										Math.max(
+												item1[0] - item2[1],
+												item2[0] - item1[1])),
+								0);
+					}
+				},
+				200,
+				new PartitionData(
+						new ByteArrayId(
+								"123"),
+						true));
+		processor.setEnvelopeFn(new NeighborEnvelopeFn<double[]>() {
+
+			@Override
+			public Envelope getEnvelope(
+					final double[] item ) {
+				return new Envelope(
+						item[0],
+						item[1],
+						0,
+						0);
+			}
+
+			@Override
+			public Envelope expand(
+					final Envelope envelope,
+					final double distance ) {
+				final Envelope expanded = new Envelope(
+						envelope);
+				expanded.expandBy(distance);
+				return expanded;
+			}
+		});
+		final ByteArrayId secondaryId = new ByteArrayId(
+				"secondary");
+		final double[] secondary = new double[] {
+			1000,
+			1000
+		};
+		processor.add(
+				new ByteArrayId(
+						"first"),
+				true,
+				new double[] {
+					0,
+					0
+				});
+		processor.add(
+				new ByteArrayId(
+						"second"),
+				true,
+				new double[] {
+					400,
+					400
+				});
+		processor.add(
+				secondaryId,
+				false,
+				secondary);
+		final List<Integer> neighborCounts = new ArrayList<Integer>();
+		processor.process(
+				new NeighborListFactory<double[]>() {
+
+					@Override
+					public NeighborList<double[]> buildNeighborList(
+							final ByteArrayId cnterId,
+							final double[] center ) {
+						return new DefaultNeighborList<double[]>();
+					}
+
+				},
+				new CompleteNotifier<double[]>() {
 
 					@Override
 					public void complete(
 							final ByteArrayId id,
-							final Integer value,
-							final NeighborList<Integer> list )
+							final double[] value,
+							final NeighborList<double[]> list )
 							throws IOException,
 							InterruptedException {
-						final Iterator<Entry<ByteArrayId, Integer>> it = list.iterator();
-						final List<Integer> expectedResultSet = new ArrayList<Integer>(
-								expectedResults.get(value));
-						assertNotNull(expectedResultSet);
-						while (it.hasNext()) {
-							final Integer result = it.next().getValue();
-							assertTrue(
-									"" + value + " with " + result,
-									expectedResultSet.remove(result));
+						neighborCounts.add(list.size());
+						if (neighborCounts.size() == 1) {
+							// grow the secondary to cover both primaries
+							secondary[0] = 0;
+							processor.envelopeChanged(secondaryId);
 						}
-						assertTrue(expectedResultSet.isEmpty());
 					}
-
 				});
+		assertEquals(
+				Arrays.asList(
+						0,
+						1),
+				neighborCounts);
+	}
+
+	private CompleteNotifier<Integer> createExpectedResultsNotifier() {
+		return new CompleteNotifier<Integer>() {
+
+			@Override
+			public void complete(
+					final ByteArrayId id,
+					final Integer value,
+					final NeighborList<Integer> list )
+					throws IOException,
+					InterruptedException {
+				final Iterator<Entry<ByteArrayId, Integer>> it = list.iterator();
+				final List<Integer> expectedResultSet = new ArrayList<Integer>(
+						expectedResults.get(value));
+				assertNotNull(expectedResultSet);
+				while (it.hasNext()) {
+					final Integer result = it.next().getValue();
+					assertTrue(
+							"" + value + " with " + result,
+							expectedResultSet.remove(result));
+				}
+				assertTrue(expectedResultSet.isEmpty());
+			}
+
+		};
 	}
 
 	@Test
@@ -0,0 +1,80 @@
+package mil.nga.giat.geowave.analytic.nn;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.geotools.referencing.GeodeticCalculator;
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class OrthodromicEnvelopeFnTest
+{
+	private final GeometryFactory factory = new GeometryFactory();
+
+	private final OrthodromicEnvelopeFn<Geometry> envelopeFn = new OrthodromicEnvelopeFn<Geometry>() {
+		@Override
+		protected Geometry getGeometry(
+				final Geometry item ) {
+			return item;
+		}
+	};
+
+	@Test
+	public void testCoversDistance() {
+		final double distance = 25000;
+		for (final double lat : new double[] {
+			0,
+			45,
+			-70,
+			85
+		}) {
+			final Coordinate center = new Coordinate(
+					10,
+					lat);
+			final Envelope expanded = envelopeFn.expand(
+					envelopeFn.getEnvelope(factory.createPoint(center)),
+					distance);
+			assertNotNull(expanded);
+			final GeodeticCalculator calc = new GeodeticCalculator();
+			for (int azimuth = -180; azimuth < 180; azimuth += 5) {
+				calc.setStartingGeographicPoint(
+						center.x,
+						center.y);
+				calc.setDirection(
+						azimuth,
+						distance);
+				final Coordinate destination = new Coordinate(
+						calc.getDestinationGeographicPoint().getX(),
+						calc.getDestinationGeographicPoint().getY());
+				assertTrue(
+						"latitude " + lat + " azimuth " + azimuth,
+						expanded.contains(destination));
+			}
+		}
+	}
+
+	@Test
+	public void testUnbounded() {
+		// reaches the pole
+		assertNull(envelopeFn.expand(
+				new Envelope(
+						10,
+						10,
+						89.9,
+						89.9),
+				25000));
+		// crosses the date line
+		assertNull(envelopeFn.expand(
+				new Envelope(
+						179.9,
+						179.9,
+						0,
+						0),
+				25000));
+	}
+}
@@ -28,6 +28,7 @@ import mil.nga.giat.geowave.analytic.nn.NNProcessor;
 import mil.nga.giat.geowave.analytic.nn.NNProcessor.CompleteNotifier;
 import mil.nga.giat.geowave.analytic.nn.NeighborList;
 import mil.nga.giat.geowave.analytic.nn.NeighborListFactory;
+import mil.nga.giat.geowave.analytic.nn.OrthodromicEnvelopeFn;
 import mil.nga.giat.geowave.analytic.nn.TypeConverter;
 import mil.nga.giat.geowave.analytic.param.ClusteringParameters;
 import mil.nga.giat.geowave.analytic.param.GlobalParameters;
@@ -44,6 +45,8 @@ import org.opengis.feature.simple.SimpleFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vividsolutions.jts.geom.Geometry;
+
 /**
  * The approach differs from the approach commonly documented (e.g.
  * https://en.wikipedia.org/wiki/DBSCAN). This approach does not maintain a
@@ -251,6 +254,7 @@ public class DBScanMapReduce
 							else if (cluster.size() > condenseSize) {
 								cluster.finish();
 								value.setGeometry(cluster.getGeometry());
+								processor.envelopeChanged(id);
 								value.setCount(list.size());
 								value.setCompressed();
 								final Iterator<ByteArrayId> it = cluster.getLinkedClusters().iterator();
@@ -399,6 +403,15 @@ public class DBScanMapReduce
 
 			super.distanceFn = new ClusterItemDistanceFn();
 
+			// cluster item distances are orthodromic, in meters
+			envelopeFn = new OrthodromicEnvelopeFn<ClusterItem>() {
+				@Override
+				protected Geometry getGeometry(
+						final ClusterItem item ) {
+					return item.getGeometry();
+				}
+			};
+
 		}
 	}
 }
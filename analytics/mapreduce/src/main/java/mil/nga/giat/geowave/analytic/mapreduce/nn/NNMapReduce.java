@@ -14,6 +14,7 @@ import java.util.Set;
 import mil.nga.giat.geowave.analytic.AdapterWithObjectWritable;
 import mil.nga.giat.geowave.analytic.PropertyManagement;
 import mil.nga.giat.geowave.analytic.ScopedJobConfiguration;
+import mil.nga.giat.geowave.analytic.distance.CoordinateCircleDistanceFn;
 import mil.nga.giat.geowave.analytic.distance.DistanceFn;
 import mil.nga.giat.geowave.analytic.distance.FeatureGeometryDistanceFn;
 import mil.nga.giat.geowave.analytic.nn.DefaultNeighborList;
@@ -21,8 +22,10 @@ import mil.nga.giat.geowave.analytic.nn.DistanceProfile;
 import mil.nga.giat.geowave.analytic.nn.DistanceProfileGenerateFn;
 import mil.nga.giat.geowave.analytic.nn.NNProcessor;
 import mil.nga.giat.geowave.analytic.nn.NNProcessor.CompleteNotifier;
+import mil.nga.giat.geowave.analytic.nn.NeighborEnvelopeFn;
 import mil.nga.giat.geowave.analytic.nn.NeighborList;
 import mil.nga.giat.geowave.analytic.nn.NeighborListFactory;
+import mil.nga.giat.geowave.analytic.nn.OrthodromicEnvelopeFn;
 import mil.nga.giat.geowave.analytic.nn.TypeConverter;
 import mil.nga.giat.geowave.analytic.param.CommonParameters;
 import mil.nga.giat.geowave.analytic.param.ParameterEnum;
@@ -51,6 +54,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.primitives.SignedBytes;
+import com.vividsolutions.jts.geom.Geometry;
 
 /**
  * Find the nearest neighbors to a each item.
@@ -225,6 +229,12 @@ public class NNMapReduce
 
 		protected DistanceProfileGenerateFn<?, VALUEIN> distanceProfileFn = new LocalDistanceProfileGenerateFn();
 
+		/**
+		 * Optional, used to spatially index the contents of each partition
+		 * (see {@link NNProcessor}). It must agree with the distance function.
+		 */
+		protected NeighborEnvelopeFn<VALUEIN> envelopeFn = null;
+
 		@Override
 		protected void reduce(
 				final PartitionDataWritable key,
@@ -241,6 +251,7 @@ public class NNMapReduce
 					key.partitionData);
 
 			processor.setUpperBoundPerPartition(maxNeighbors);
+			processor.setEnvelopeFn(envelopeFn);
 
 			final PARTITION_SUMMARY summary = createSummary();
 
@@ -496,6 +507,27 @@ public class NNMapReduce
 			return Boolean.TRUE;
 		}
 
+		@Override
+		protected void setup(
+				final Reducer<PartitionDataWritable, AdapterWithObjectWritable, Text, Text>.Context context )
+				throws IOException,
+				InterruptedException {
+			super.setup(context);
+			// the envelopes are expanded by the orthodromic distance in
+			// meters, which only holds for the default coordinate distance
+			if ((distanceFn instanceof FeatureGeometryDistanceFn) && (((FeatureGeometryDistanceFn) distanceFn)
+					.getCoordinateDistanceFunction()
+					.getClass() == CoordinateCircleDistanceFn.class)) {
+				envelopeFn = new OrthodromicEnvelopeFn<SimpleFeature>() {
+					@Override
+					protected Geometry getGeometry(
+							final SimpleFeature item ) {
+						return FeatureGeometryDistanceFn.getGeometry(item);
+					}
+				};
+			}
+		}
+
 		@Override
 		protected void processSummary(
 				final PartitionData partitionData,
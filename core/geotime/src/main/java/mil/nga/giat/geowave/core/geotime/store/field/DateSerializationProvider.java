@@ -4,6 +4,8 @@ import java.nio.ByteBuffer;
 import java.util.Date;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldReader;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldWriter;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.data.field.FieldSerializationProviderSpi;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
@@ -23,7 +25,7 @@ public class DateSerializationProvider implements
 	}
 
 	protected static class DateReader implements
-			FieldReader<Date>
+			BatchFieldReader<Date>
 	{
 		@Override
 		public Date readField(
@@ -35,10 +37,21 @@ public class DateSerializationProvider implements
 					ByteBuffer.wrap(
 							fieldData).getLong());
 		}
+
+		@Override
+		public Date readField(
+				final ByteBuffer buffer,
+				final int length ) {
+			if (length < 8) {
+				return null;
+			}
+			return new Date(
+					buffer.getLong());
+		}
 	}
 
 	protected static class DateWriter implements
-			FieldWriter<Object, Date>
+			BatchFieldWriter<Object, Date>
 	{
 		@Override
 		public byte[] writeField(
@@ -52,6 +65,21 @@ public class DateSerializationProvider implements
 			return buf.array();
 		}
 
+		@Override
+		public int getEncodedLength(
+				final Date fieldValue ) {
+			return (fieldValue == null) ? 0 : 8;
+		}
+
+		@Override
+		public void writeField(
+				final Date fieldValue,
+				final ByteBuffer buffer ) {
+			if (fieldValue != null) {
+				buffer.putLong(fieldValue.getTime());
+			}
+		}
+
 		@Override
 		public byte[] getVisibility(
 				final Object rowValue,
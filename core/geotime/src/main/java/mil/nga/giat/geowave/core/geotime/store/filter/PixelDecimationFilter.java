@@ -0,0 +1,178 @@
+package mil.nga.giat.geowave.core.geotime.store.filter;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+import mil.nga.giat.geowave.core.geotime.store.dimension.GeometryWrapper;
+import mil.nga.giat.geowave.core.store.data.IndexedPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.PersistentValue;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * This filter decimates features to the resolution of a rendered image. It
+ * keeps a bitmap of the cells of the image that are already drawn to (where a
+ * cell is pixelSize x pixelSize pixels) and rejects features whose envelope
+ * only covers cells that are already drawn to. A feature only marks its cell as
+ * drawn to when its envelope fits within that cell, because the envelope of a
+ * larger feature does not tell which of its cells are actually drawn to.
+ *
+ * The bitmap is the state of a single scan, so when this filter is distributed
+ * each tablet or region decimates independently. It should be the last of the
+ * filters of a query so that only features that are otherwise accepted are
+ * drawn. Like the decimation process, it assumes an opaque style.
+ *
+ */
+public class PixelDecimationFilter implements
+		DistributableQueryFilter
+{
+	private double minX;
+	private double minY;
+	private double maxX;
+	private double maxY;
+	private int width;
+	private int height;
+	private double pixelSize;
+
+	private int columns;
+	private int rows;
+	private double cellWidth;
+	private double cellHeight;
+	private BitSet drawnCells;
+
+	protected PixelDecimationFilter() {}
+
+	/**
+	 * @param bounds
+	 *            the bounds of the rendered image in the coordinate reference
+	 *            system of the index
+	 * @param width
+	 *            the width of the rendered image in pixels
+	 * @param height
+	 *            the height of the rendered image in pixels
+	 * @param pixelSize
+	 *            the size of the cells to decimate on in pixels
+	 */
+	public PixelDecimationFilter(
+			final Envelope bounds,
+			final int width,
+			final int height,
+			final double pixelSize ) {
+		minX = bounds.getMinX();
+		minY = bounds.getMinY();
+		maxX = bounds.getMaxX();
+		maxY = bounds.getMaxY();
+		this.width = width;
+		this.height = height;
+		this.pixelSize = pixelSize;
+		init();
+	}
+
+	private void init() {
+		final double cellPixels = Math.max(
+				1,
+				pixelSize);
+		columns = Math.max(
+				1,
+				(int) Math.ceil(width / cellPixels));
+		rows = Math.max(
+				1,
+				(int) Math.ceil(height / cellPixels));
+		cellWidth = (maxX - minX) / columns;
+		cellHeight = (maxY - minY) / rows;
+		drawnCells = new BitSet(
+				columns * rows);
+	}
+
+	@Override
+	public boolean accept(
+			final CommonIndexModel indexModel,
+			final IndexedPersistenceEncoding<?> persistenceEncoding ) {
+		if ((cellWidth <= 0) || (cellHeight <= 0)) {
+			return true;
+		}
+		Envelope envelope = null;
+		for (final PersistentValue<?> value : persistenceEncoding.getCommonData().getValues()) {
+			if ((value.getValue() instanceof GeometryWrapper) && (((GeometryWrapper) value.getValue()).getGeometry() != null)) {
+				if (envelope == null) {
+					envelope = new Envelope(
+							((GeometryWrapper) value.getValue()).getGeometry().getEnvelopeInternal());
+				}
+				else {
+					envelope.expandToInclude(((GeometryWrapper) value.getValue()).getGeometry().getEnvelopeInternal());
+				}
+			}
+		}
+		if ((envelope == null) || (envelope.getMaxX() < minX) || (envelope.getMinX() > maxX) || (envelope.getMaxY() < minY) || (envelope.getMinY() > maxY)) {
+			// features that are not drawn within the image are left alone
+			return true;
+		}
+		final int minColumn = getColumn(envelope.getMinX());
+		final int maxColumn = getColumn(envelope.getMaxX());
+		final int minRow = getRow(envelope.getMaxY());
+		final int maxRow = getRow(envelope.getMinY());
+		if ((minColumn == maxColumn) && (minRow == maxRow)) {
+			final int cell = (minRow * columns) + minColumn;
+			if (drawnCells.get(cell)) {
+				return false;
+			}
+			drawnCells.set(cell);
+			return true;
+		}
+		for (int row = minRow; row <= maxRow; row++) {
+			final int rowStart = row * columns;
+			if (drawnCells.nextClearBit(rowStart + minColumn) <= (rowStart + maxColumn)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int getColumn(
+			final double x ) {
+		return Math.max(
+				0,
+				Math.min(
+						columns - 1,
+						(int) ((x - minX) / cellWidth)));
+	}
+
+	private int getRow(
+			final double y ) {
+		// rows are counted from the top of the image
+		return Math.max(
+				0,
+				Math.min(
+						rows - 1,
+						(int) ((maxY - y) / cellHeight)));
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final ByteBuffer buf = ByteBuffer.allocate(48);
+		buf.putDouble(minX);
+		buf.putDouble(minY);
+		buf.putDouble(maxX);
+		buf.putDouble(maxY);
+		buf.putInt(width);
+		buf.putInt(height);
+		buf.putDouble(pixelSize);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		minX = buf.getDouble();
+		minY = buf.getDouble();
+		maxX = buf.getDouble();
+		maxY = buf.getDouble();
+		width = buf.getInt();
+		height = buf.getInt();
+		pixelSize = buf.getDouble();
+		init();
+	}
+}
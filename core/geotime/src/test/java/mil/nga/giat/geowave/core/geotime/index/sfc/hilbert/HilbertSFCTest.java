@@ -1,10 +1,16 @@
 package mil.nga.giat.geowave.core.geotime.index.sfc.hilbert;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
 
 import mil.nga.giat.geowave.core.geotime.index.dimension.LatitudeDefinition;
 import mil.nga.giat.geowave.core.geotime.index.dimension.LongitudeDefinition;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.dimension.BasicDimensionDefinition;
 import mil.nga.giat.geowave.core.index.sfc.RangeDecomposition;
+import mil.nga.giat.geowave.core.index.sfc.RangeDecompositionCache;
 import mil.nga.giat.geowave.core.index.sfc.SFCDimensionDefinition;
 import mil.nga.giat.geowave.core.index.sfc.SFCFactory;
 import mil.nga.giat.geowave.core.index.sfc.SFCFactory.SFCType;
@@ -12,11 +18,17 @@ import mil.nga.giat.geowave.core.index.sfc.SpaceFillingCurve;
 import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
 import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
 import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+import mil.nga.giat.geowave.core.index.sfc.hilbert.HilbertSFC;
+import mil.nga.giat.geowave.core.index.sfc.hilbert.HilbertSFCEncoder;
+import mil.nga.giat.geowave.core.index.sfc.hilbert.PrimitiveHilbertSFCOperations;
+import mil.nga.giat.geowave.core.index.sfc.hilbert.UnboundedHilbertSFCOperations;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.google.common.primitives.SignedBytes;
+import com.google.uzaygezen.core.CompactHilbertCurve;
+import com.google.uzaygezen.core.MultiDimensionalSpec;
 
 public class HilbertSFCTest
 {
@@ -275,5 +287,242 @@ public class HilbertSFCTest
 
 	}
 
+	@Test
+	public void testEncoder_MatchesConvertToHilbert()
+			throws Exception {
+
+		final int LATITUDE_BITS = 31;
+		final int LONGITUDE_BITS = 31;
+
+		final SFCDimensionDefinition[] SPATIAL_DIMENSIONS = new SFCDimensionDefinition[] {
+			new SFCDimensionDefinition(
+					new LatitudeDefinition(),
+					LATITUDE_BITS),
+			new SFCDimensionDefinition(
+					new LongitudeDefinition(),
+					LONGITUDE_BITS)
+		};
+
+		// the edges and a few fixed points, followed by random points
+		final double[][] testValues = new double[104][];
+		testValues[0] = new double[] {
+			90,
+			180
+		};
+		testValues[1] = new double[] {
+			-90,
+			-180
+		};
+		testValues[2] = new double[] {
+			0,
+			0
+		};
+		testValues[3] = new double[] {
+			38.8895,
+			-77.0352
+		};
+		final Random random = new Random(
+				42);
+		for (int i = 4; i < testValues.length; i++) {
+			testValues[i] = new double[] {
+				(random.nextDouble() * 180) - 90,
+				(random.nextDouble() * 360) - 180
+			};
+		}
+
+		// the IDs are expected to match the uzaygezen based conversions that
+		// getId() used before the encoder, both primitive and unbounded
+		final CompactHilbertCurve compactHilbertCurve = new CompactHilbertCurve(
+				new MultiDimensionalSpec(
+						Arrays.asList(
+								LATITUDE_BITS,
+								LONGITUDE_BITS)));
+		final PrimitiveHilbertSFCOperations primitiveOps = new PrimitiveHilbertSFCOperations();
+		primitiveOps.init(SPATIAL_DIMENSIONS);
+		final UnboundedHilbertSFCOperations unboundedOps = new UnboundedHilbertSFCOperations();
+		unboundedOps.init(SPATIAL_DIMENSIONS);
+
+		final HilbertSFC hilbertSFC = (HilbertSFC) SFCFactory.createSpaceFillingCurve(
+				SPATIAL_DIMENSIONS,
+				SFCType.HILBERT);
+		final HilbertSFCEncoder encoder = hilbertSFC.createEncoder();
+
+		final byte[] batchIds = new byte[testValues.length * encoder.getByteCount()];
+		Assert.assertEquals(
+				batchIds.length,
+				encoder.encode(
+						testValues,
+						batchIds,
+						0));
+		final long[] batchLongIds = new long[testValues.length];
+		encoder.encode(
+				testValues,
+				batchLongIds,
+				0);
+
+		for (int i = 0; i < testValues.length; i++) {
+			final byte[] expectedId = primitiveOps.convertToHilbert(
+					testValues[i],
+					compactHilbertCurve,
+					SPATIAL_DIMENSIONS);
+			Assert.assertArrayEquals(
+					expectedId,
+					unboundedOps.convertToHilbert(
+							testValues[i],
+							compactHilbertCurve,
+							SPATIAL_DIMENSIONS));
+			Assert.assertArrayEquals(
+					expectedId,
+					Arrays.copyOfRange(
+							batchIds,
+							i * encoder.getByteCount(),
+							(i + 1) * encoder.getByteCount()));
+			Assert.assertEquals(
+					ByteBuffer.wrap(
+							expectedId).getLong(),
+					batchLongIds[i]);
+			Assert.assertArrayEquals(
+					expectedId,
+					hilbertSFC.getId(testValues[i]));
+		}
+	}
+
+	@Test
+	public void testEncoder_MatchesConvertToHilbertBeyond64Bits()
+			throws Exception {
+
+		final SFCDimensionDefinition[] DIMENSIONS = new SFCDimensionDefinition[] {
+			new SFCDimensionDefinition(
+					new LatitudeDefinition(),
+					31),
+			new SFCDimensionDefinition(
+					new LongitudeDefinition(),
+					31),
+			new SFCDimensionDefinition(
+					new BasicDimensionDefinition(
+							0,
+							1000),
+					20)
+		};
+
+		final double[] testValues = new double[] {
+			-12.5,
+			101.25,
+			427.3
+		};
+
+		final HilbertSFC hilbertSFC = (HilbertSFC) SFCFactory.createSpaceFillingCurve(
+				DIMENSIONS,
+				SFCType.HILBERT);
+		final PrimitiveHilbertSFCOperations primitiveOps = new PrimitiveHilbertSFCOperations();
+		primitiveOps.init(DIMENSIONS);
+		final byte[] expectedId = primitiveOps.convertToHilbert(
+				testValues,
+				new CompactHilbertCurve(
+						new MultiDimensionalSpec(
+								Arrays.asList(
+										31,
+										31,
+										20))),
+				DIMENSIONS);
+
+		final HilbertSFCEncoder encoder = hilbertSFC.createEncoder();
+		final byte[] id = new byte[encoder.getByteCount() + 2];
+		encoder.encode(
+				testValues,
+				id,
+				2);
+		Assert.assertArrayEquals(
+				expectedId,
+				Arrays.copyOfRange(
+						id,
+						2,
+						id.length));
+		Assert.assertArrayEquals(
+				expectedId,
+				hilbertSFC.getId(testValues));
+	}
+
+	@Test
+	public void testDecomposeQuery_TimeBudget() {
+
+		final SFCDimensionDefinition[] SPATIAL_DIMENSIONS = new SFCDimensionDefinition[] {
+			new SFCDimensionDefinition(
+					new LongitudeDefinition(),
+					31),
+			new SFCDimensionDefinition(
+					new LatitudeDefinition(),
+					31)
+		};
+		final HilbertSFC hilbertSFC = (HilbertSFC) SFCFactory.createSpaceFillingCurve(
+				SPATIAL_DIMENSIONS,
+				SFCType.HILBERT);
+		final BasicNumericDataset query = new BasicNumericDataset(
+				new NumericData[] {
+					new NumericRange(
+							11.25,
+							13.7),
+					new NumericRange(
+							-4.1,
+							-2.3)
+				});
+
+		// make sure the full decomposition is not already cached
+		RangeDecompositionCache.getInstance().clear();
+
+		// without any time budget a coarse decomposition is returned
+		final RangeDecomposition coarseDecomposition = hilbertSFC.decomposeRange(
+				query,
+				true,
+				-1,
+				0L);
+		final RangeDecomposition fullDecomposition = hilbertSFC.decomposeRange(
+				query,
+				true,
+				-1);
+		Assert.assertTrue(coarseDecomposition.getRanges().length > 0);
+		Assert.assertTrue(coarseDecomposition.getRanges().length < fullDecomposition.getRanges().length);
+
+		// the coarse decomposition must cover the fully refined one
+		for (final ByteArrayRange fineRange : fullDecomposition.getRanges()) {
+			Assert.assertTrue(isCovered(
+					fineRange.getStart(),
+					coarseDecomposition));
+			Assert.assertTrue(isCovered(
+					fineRange.getEnd(),
+					coarseDecomposition));
+		}
+
+		// an unlimited budget and a cached full decomposition both return the
+		// fully refined ranges
+		Assert.assertArrayEquals(
+				fullDecomposition.getRanges(),
+				hilbertSFC.decomposeRange(
+						query,
+						true,
+						-1,
+						-1L).getRanges());
+		Assert.assertArrayEquals(
+				fullDecomposition.getRanges(),
+				hilbertSFC.decomposeRange(
+						query,
+						true,
+						-1,
+						0L).getRanges());
+	}
+
+	private static boolean isCovered(
+			final ByteArrayId id,
+			final RangeDecomposition decomposition ) {
+		for (final ByteArrayRange range : decomposition.getRanges()) {
+			if ((range.getStart().compareTo(
+					id) <= 0) && (range.getEnd().compareTo(
+					id) >= 0)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/* public void testDecomposeQuery_2DSpatialRanges() {} */
 }
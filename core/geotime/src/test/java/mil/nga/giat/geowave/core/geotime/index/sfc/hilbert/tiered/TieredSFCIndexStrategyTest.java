@@ -22,6 +22,7 @@ import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.ByteArrayRange;
 import mil.nga.giat.geowave.core.index.NumericIndexStrategy;
 import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.RangeDecompositionCache;
 import mil.nga.giat.geowave.core.index.sfc.SFCFactory.SFCType;
 import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
 import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
@@ -29,6 +30,7 @@ import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
 import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
 import mil.nga.giat.geowave.core.index.sfc.data.NumericValue;
 import mil.nga.giat.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import mil.nga.giat.geowave.core.index.sfc.tiered.TieredSFCIndexStrategy;
 
 import org.junit.Test;
 
@@ -388,6 +390,70 @@ public class TieredSFCIndexStrategyTest
 				5));
 	}
 
+	@Test
+	public void testQueryDecompositionTimeBudget() {
+		final TieredSFCIndexStrategy strategy = TieredSFCIndexFactory.createSingleTierStrategy(
+				new NumericDimensionDefinition[] {
+					new LongitudeDefinition(),
+					new LatitudeDefinition()
+				},
+				new int[] {
+					31,
+					31
+				},
+				SFCType.HILBERT);
+		final MultiDimensionalNumericData query = new BasicNumericDataset(
+				new NumericData[] {
+					new NumericRange(
+							11.25,
+							13.7),
+					new NumericRange(
+							-4.1,
+							-2.3)
+				});
+
+		RangeDecompositionCache.getInstance().clear();
+		final List<ByteArrayRange> coarseRanges;
+		TieredSFCIndexStrategy.setQueryDecompositionTimeBudgetMillis(0);
+		try {
+			coarseRanges = strategy.getQueryRanges(
+					query,
+					-1);
+		}
+		finally {
+			TieredSFCIndexStrategy.setQueryDecompositionTimeBudgetMillis(-1);
+		}
+		RangeDecompositionCache.getInstance().clear();
+		final List<ByteArrayRange> fullRanges = strategy.getQueryRanges(
+				query,
+				-1);
+
+		assertFalse(coarseRanges.isEmpty());
+		assertTrue(coarseRanges.size() < fullRanges.size());
+		// the coarse ranges must cover every fully refined range
+		for (final ByteArrayRange fullRange : fullRanges) {
+			assertTrue(isCovered(
+					fullRange.getStart(),
+					coarseRanges));
+			assertTrue(isCovered(
+					fullRange.getEnd(),
+					coarseRanges));
+		}
+	}
+
+	private static boolean isCovered(
+			final ByteArrayId id,
+			final List<ByteArrayRange> ranges ) {
+		for (final ByteArrayRange range : ranges) {
+			if ((range.getStart().compareTo(
+					id) <= 0) && (range.getEnd().compareTo(
+					id) >= 0)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private boolean compare(
 			final byte[] one,
 			final byte[] two,
@@ -0,0 +1,136 @@
+package mil.nga.giat.geowave.core.geotime.store.filter;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import mil.nga.giat.geowave.core.geotime.store.dimension.GeometryAdapter;
+import mil.nga.giat.geowave.core.geotime.store.dimension.GeometryWrapper;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.data.IndexedPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.PersistentDataset;
+import mil.nga.giat.geowave.core.store.data.PersistentValue;
+import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class PixelDecimationFilterTest
+{
+	private final GeometryFactory factory = new GeometryFactory();
+
+	@Test
+	public void testDecimation() {
+		// a 10x10 image of 1 degree pixels, decimated on 2x2 pixel cells
+		final PixelDecimationFilter filter = PersistenceUtils.fromBinary(
+				PersistenceUtils.toBinary(new PixelDecimationFilter(
+						new Envelope(
+								0,
+								10,
+								0,
+								10),
+						10,
+						10,
+						2)),
+				PixelDecimationFilter.class);
+
+		assertTrue(filter.accept(
+				null,
+				createData(point(
+						0.5,
+						0.5))));
+		// the same cell is already drawn to
+		assertFalse(filter.accept(
+				null,
+				createData(point(
+						1.5,
+						1.5))));
+		assertTrue(filter.accept(
+				null,
+				createData(point(
+						2.5,
+						0.5))));
+
+		// a line that is only over drawn cells
+		assertFalse(filter.accept(
+				null,
+				createData(line(
+						0.5,
+						0.5,
+						3.5,
+						1.5))));
+		// a line that reaches a cell that is not drawn to
+		assertTrue(filter.accept(
+				null,
+				createData(line(
+						0.5,
+						0.5,
+						5.5,
+						1.5))));
+		// the line does not mark the cells it spans
+		assertTrue(filter.accept(
+				null,
+				createData(point(
+						4.5,
+						0.5))));
+
+		// features outside of the image are not decimated
+		assertTrue(filter.accept(
+				null,
+				createData(point(
+						20,
+						20))));
+		assertTrue(filter.accept(
+				null,
+				createData(point(
+						20,
+						20))));
+	}
+
+	private Geometry point(
+			final double x,
+			final double y ) {
+		return factory.createPoint(new Coordinate(
+				x,
+				y));
+	}
+
+	private Geometry line(
+			final double x1,
+			final double y1,
+			final double x2,
+			final double y2 ) {
+		return factory.createLineString(new Coordinate[] {
+			new Coordinate(
+					x1,
+					y1),
+			new Coordinate(
+					x2,
+					y2)
+		});
+	}
+
+	private IndexedPersistenceEncoding createData(
+			final Geometry geometry ) {
+		final PersistentDataset<CommonIndexValue> commonData = new PersistentDataset<CommonIndexValue>();
+
+		commonData.addOrUpdateValue(new PersistentValue<CommonIndexValue>(
+				GeometryAdapter.DEFAULT_GEOMETRY_FIELD_ID,
+				new GeometryWrapper(
+						geometry)));
+
+		return new IndexedPersistenceEncoding(
+				new ByteArrayId(
+						"1"),
+				new ByteArrayId(
+						"1"),
+				new ByteArrayId(
+						"1"),
+				1,
+				commonData,
+				new PersistentDataset<byte[]>());
+	}
+}
@@ -5,6 +5,8 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.log4j.Logger;
 
@@ -16,6 +18,7 @@ import org.apache.log4j.Logger;
 public class PersistenceUtils
 {
 	private final static Logger LOGGER = Logger.getLogger(PersistenceUtils.class);
+	private static final ConcurrentMap<String, Constructor<?>> CONSTRUCTOR_CACHE = new ConcurrentHashMap<String, Constructor<?>>();
 
 	public static byte[] toBinary(
 			final Collection<? extends Persistable> persistables ) {
@@ -81,17 +84,19 @@ public class PersistenceUtils
 			final Class<T> expectedType ) {
 		final ByteBuffer buf = ByteBuffer.wrap(bytes);
 		final int classNameLength = buf.getInt();
-		final byte[] classNameBinary = new byte[classNameLength];
-		final byte[] persistableBinary = new byte[bytes.length - classNameLength - 4];
-		buf.get(classNameBinary);
-
-		final String className = StringUtils.stringFromBinary(classNameBinary);
+		final String className = new String(
+				bytes,
+				4,
+				classNameLength,
+				StringUtils.GEOWAVE_CHAR_SET);
 
 		if (LOGGER.isTraceEnabled()) LOGGER.trace("Loading class " + className);
 		final T retVal = classFactory(
 				className,
 				expectedType);
 		if (retVal != null) {
+			final byte[] persistableBinary = new byte[bytes.length - classNameLength - 4];
+			buf.position(4 + classNameLength);
 			buf.get(persistableBinary);
 			retVal.fromBinary(persistableBinary);
 		}
@@ -102,24 +107,12 @@ public class PersistenceUtils
 	public static <T> T classFactory(
 			final String className,
 			final Class<T> expectedType ) {
-		Class<?> factoryType = null;
-
-		try {
-			factoryType = Class.forName(className);
-		}
-		catch (final Throwable e) {
-			LOGGER.warn(
-					"error creating class: could not find class " + className,
-					e);
-		}
+		final Constructor<?> noArgConstructor = getNoArgConstructor(className);
 
-		if (factoryType != null) {
+		if (noArgConstructor != null) {
 			Object factoryClassInst = null;
 
 			try {
-				// use the no arg constructor and make sure its accessible
-				final Constructor<?> noArgConstructor = factoryType.getDeclaredConstructor();
-				noArgConstructor.setAccessible(true);
 				factoryClassInst = noArgConstructor.newInstance();
 			}
 			catch (final Throwable e) {
@@ -141,4 +134,42 @@ public class PersistenceUtils
 
 		return null;
 	}
+
+	/**
+	 * Resolve the class and its no arg constructor once and reuse it for every
+	 * instance, classes that cannot be resolved are not cached so that they
+	 * are retried
+	 */
+	private static Constructor<?> getNoArgConstructor(
+			final String className ) {
+		Constructor<?> noArgConstructor = CONSTRUCTOR_CACHE.get(className);
+		if (noArgConstructor != null) {
+			return noArgConstructor;
+		}
+		final Class<?> factoryType;
+		try {
+			factoryType = Class.forName(className);
+		}
+		catch (final Throwable e) {
+			LOGGER.warn(
+					"error creating class: could not find class " + className,
+					e);
+			return null;
+		}
+		try {
+			// use the no arg constructor and make sure its accessible
+			noArgConstructor = factoryType.getDeclaredConstructor();
+			noArgConstructor.setAccessible(true);
+		}
+		catch (final Throwable e) {
+			LOGGER.warn(
+					"error creating class: could not create class " + className,
+					e);
+			return null;
+		}
+		final Constructor<?> existing = CONSTRUCTOR_CACHE.putIfAbsent(
+				className,
+				noArgConstructor);
+		return (existing != null) ? existing : noArgConstructor;
+	}
 }
@@ -0,0 +1,177 @@
+package mil.nga.giat.geowave.core.index.sfc;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe, least-recently-used cache of range decompositions.
+ * The bound is on the total number of ranges held rather than the number of
+ * decompositions, because a single decomposition can contain anywhere from one
+ * to many thousands of ranges. Repeated queries for the same (or an equivalent,
+ * after quantization) window, such as map tiles requested repeatedly by a WMS
+ * client, will skip the decomposition entirely.
+ *
+ * The key is opaque to this cache and is expected to include everything that
+ * the decomposition depends on, in particular the space filling curve itself.
+ */
+public class RangeDecompositionCache
+{
+	public static final int DEFAULT_MAX_CACHED_RANGES = 100000;
+	private static final RangeDecompositionCache INSTANCE = new RangeDecompositionCache(
+			DEFAULT_MAX_CACHED_RANGES);
+
+	private final LinkedHashMap<Object, RangeDecomposition> cache = new LinkedHashMap<Object, RangeDecomposition>(
+			16,
+			0.75f,
+			true);
+	private final AtomicLong hitCount = new AtomicLong(
+			0);
+	private final AtomicLong missCount = new AtomicLong(
+			0);
+	private int maxCachedRanges;
+	private int cachedRanges = 0;
+
+	public RangeDecompositionCache(
+			final int maxCachedRanges ) {
+		this.maxCachedRanges = maxCachedRanges;
+	}
+
+	/**
+	 * @return the cache shared by all space filling curves in this JVM
+	 */
+	public static RangeDecompositionCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param key
+	 *            the decomposition key
+	 * @return the cached decomposition or null if it is not cached
+	 */
+	public RangeDecomposition get(
+			final Object key ) {
+		final RangeDecomposition decomposition;
+		synchronized (cache) {
+			decomposition = cache.get(key);
+		}
+		if (decomposition == null) {
+			missCount.incrementAndGet();
+		}
+		else {
+			hitCount.incrementAndGet();
+		}
+		return decomposition;
+	}
+
+	/**
+	 * Cache the decomposition, evicting the least recently used decompositions
+	 * until the total number of cached ranges is within the bound. A
+	 * decomposition that on its own exceeds the bound is not cached.
+	 *
+	 * @param key
+	 *            the decomposition key
+	 * @param decomposition
+	 *            the decomposition to cache
+	 */
+	public void put(
+			final Object key,
+			final RangeDecomposition decomposition ) {
+		final int weight = getWeight(decomposition);
+		synchronized (cache) {
+			if (weight > maxCachedRanges) {
+				return;
+			}
+			final RangeDecomposition previous = cache.put(
+					key,
+					decomposition);
+			cachedRanges += weight;
+			if (previous != null) {
+				cachedRanges -= getWeight(previous);
+			}
+			evict();
+		}
+	}
+
+	private void evict() {
+		final Iterator<Map.Entry<Object, RangeDecomposition>> it = cache.entrySet().iterator();
+		while ((cachedRanges > maxCachedRanges) && it.hasNext()) {
+			cachedRanges -= getWeight(it.next().getValue());
+			it.remove();
+		}
+	}
+
+	private static int getWeight(
+			final RangeDecomposition decomposition ) {
+		final int ranges = decomposition.getRanges() != null ? decomposition.getRanges().length : 0;
+		// an empty decomposition still occupies an entry
+		return Math.max(
+				ranges,
+				1);
+	}
+
+	/**
+	 * Change the bound on the total number of cached ranges, a value of 0
+	 * effectively disables caching
+	 *
+	 * @param maxCachedRanges
+	 *            the maximum number of ranges to hold across all cached
+	 *            decompositions
+	 */
+	public void setMaxCachedRanges(
+			final int maxCachedRanges ) {
+		synchronized (cache) {
+			this.maxCachedRanges = maxCachedRanges;
+			evict();
+		}
+	}
+
+	public int getMaxCachedRanges() {
+		synchronized (cache) {
+			return maxCachedRanges;
+		}
+	}
+
+	public boolean isEnabled() {
+		return getMaxCachedRanges() > 0;
+	}
+
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+			cachedRanges = 0;
+		}
+	}
+
+	public int size() {
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	public int getCachedRangeCount() {
+		synchronized (cache) {
+			return cachedRanges;
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public double getHitRate() {
+		final long hits = hitCount.get();
+		final long total = hits + missCount.get();
+		return total == 0 ? 0 : (double) hits / (double) total;
+	}
+
+	public void resetStatistics() {
+		hitCount.set(0);
+		missCount.set(0);
+	}
+}
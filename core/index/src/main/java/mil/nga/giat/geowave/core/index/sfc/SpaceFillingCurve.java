@@ -85,6 +85,32 @@ public interface SpaceFillingCurve extends
 			boolean overInclusiveOnEdge,
 			int maxRanges );
 
+	/***
+	 * Returns a collection of ranges on the 1-d space filling curve that
+	 * correspond to the n-dimensional range described in the query parameter,
+	 * spending at most roughly the given time on the decomposition. A space
+	 * filling curve that can't bound the time of its decomposition returns the
+	 * same ranges as decomposeRange() without a time budget.
+	 * 
+	 * The ranges may be coarser than those returned without a time budget, but
+	 * they will always cover them.
+	 * 
+	 * @param query
+	 *            describes the n-dimensional query window that will be
+	 *            decomposed
+	 * @param timeBudgetMillis
+	 *            the time to spend on the decomposition, negative for an
+	 *            unlimited budget
+	 * @return an object containing the ranges on the SFC that overlap the
+	 *         parameters supplied in the query object
+	 * 
+	 */
+	public RangeDecomposition decomposeRange(
+			MultiDimensionalNumericData query,
+			boolean overInclusiveOnEdge,
+			int maxRanges,
+			long timeBudgetMillis );
+
 	/***
 	 * Determines the estimated number of rows a multi-dimensional range will
 	 * span within this space filling curve
@@ -5,13 +5,16 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import mil.nga.giat.geowave.core.index.ByteArrayUtils;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
 import mil.nga.giat.geowave.core.index.sfc.RangeDecomposition;
+import mil.nga.giat.geowave.core.index.sfc.RangeDecompositionCache;
 import mil.nga.giat.geowave.core.index.sfc.SFCDimensionDefinition;
 import mil.nga.giat.geowave.core.index.sfc.SpaceFillingCurve;
 import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
 
 import com.google.uzaygezen.core.CompactHilbertCurve;
 import com.google.uzaygezen.core.MultiDimensionalSpec;
@@ -29,8 +32,17 @@ public class HilbertSFC implements
 
 	/** Tunables **/
 	private final static boolean REMOVE_VACUUM = true;
+	// the query window is decomposed into at most 2^20 cells by default
+	public final static int DEFAULT_RESOLUTION_BITS = 20;
+	// a time budgeted decomposition starts at 2^8 cells and refines 2^4 at a
+	// time
+	public final static int COARSE_RESOLUTION_BITS = 8;
+	private final static int RESOLUTION_BITS_STEP = 4;
 	protected HilbertSFCOperations getIdOperations;
 	protected HilbertSFCOperations decomposeQueryOperations;
+	// per-thread encoders, only available if primitive operations are used
+	// for getId()
+	private ThreadLocal<HilbertSFCEncoder> encoders;
 
 	protected HilbertSFC() {}
 
@@ -63,6 +75,37 @@ public class HilbertSFC implements
 				totalPrecision,
 				bitsPerDimension,
 				dimensionDefs);
+		if (getIdOperations instanceof PrimitiveHilbertSFCOperations) {
+			encoders = new ThreadLocal<HilbertSFCEncoder>() {
+				@Override
+				protected HilbertSFCEncoder initialValue() {
+					return createEncoder();
+				}
+			};
+		}
+		else {
+			encoders = null;
+		}
+	}
+
+	/**
+	 * Create an encoder that converts raw values to SFC values with no per-call
+	 * allocation. The encoder is not thread-safe and should be confined to a
+	 * single thread.
+	 * 
+	 * @return a new encoder
+	 * @throws UnsupportedOperationException
+	 *             if any dimension has more than 48 bits of precision, in which
+	 *             case primitive encoding cannot be used
+	 */
+	public HilbertSFCEncoder createEncoder() {
+		if (!(getIdOperations instanceof PrimitiveHilbertSFCOperations)) {
+			throw new UnsupportedOperationException(
+					"Primitive encoding is not supported when a dimension has more than 48 bits of precision");
+		}
+		return ((PrimitiveHilbertSFCOperations) getIdOperations).createEncoder(
+				compactHilbertCurve,
+				dimensionDefinitions);
 	}
 
 	protected void setOptimalOperations(
@@ -113,6 +156,15 @@ public class HilbertSFC implements
 	@Override
 	public byte[] getId(
 			final double[] values ) {
+		if (encoders != null) {
+			final HilbertSFCEncoder encoder = encoders.get();
+			final byte[] id = new byte[encoder.getByteCount()];
+			encoder.encode(
+					values,
+					id,
+					0);
+			return id;
+		}
 		return getIdOperations.convertToHilbert(
 				values,
 				compactHilbertCurve,
@@ -143,14 +195,229 @@ public class HilbertSFC implements
 		if (maxFilteredIndexedRanges == -1) {
 			maxFilteredIndexedRanges = Integer.MAX_VALUE;
 		}
+		final RangeDecompositionCache cache = RangeDecompositionCache.getInstance();
+		DecompositionKey key = null;
+		if (cache.isEnabled()) {
+			key = createKey(
+					query,
+					overInclusiveOnEdge,
+					maxFilteredIndexedRanges);
+			final RangeDecomposition cachedDecomposition = cache.get(key);
+			if (cachedDecomposition != null) {
+				return cachedDecomposition;
+			}
+		}
+		final RangeDecomposition decomposition = decomposeRangeAtResolution(
+				query,
+				overInclusiveOnEdge,
+				maxFilteredIndexedRanges,
+				DEFAULT_RESOLUTION_BITS);
+		if (key != null) {
+			cache.put(
+					key,
+					decomposition);
+		}
+		return decomposition;
+	}
+
+	/**
+	 * Decompose the query within a time budget. A coarse decomposition is
+	 * always computed, and then it is refined as long as the next refinement is
+	 * expected to complete within the budget. The ranges returned always cover
+	 * the fully refined decomposition, so a coarser result only means more
+	 * rows will be scanned and filtered, never that rows will be missed.
+	 * 
+	 * Each refinement decomposes the query window again at a higher
+	 * resolution, but as each step is roughly an order of magnitude cheaper
+	 * than the next, the coarse steps add little to the cost of the full
+	 * decomposition. Only the full resolution decomposition is cached.
+	 * 
+	 * @param query
+	 *            describes the n-dimensional query window that will be
+	 *            decomposed
+	 * @param overInclusiveOnEdge
+	 *            whether the decomposition should be over inclusive on the
+	 *            edges of the query window
+	 * @param maxRanges
+	 *            the maximum number of ranges, -1 for unlimited
+	 * @param timeBudgetMillis
+	 *            the time to spend refining the decomposition, negative for
+	 *            an unlimited budget
+	 * @return the finest decomposition computed within the time budget
+	 */
+	@Override
+	public RangeDecomposition decomposeRange(
+			final MultiDimensionalNumericData query,
+			final boolean overInclusiveOnEdge,
+			final int maxRanges,
+			final long timeBudgetMillis ) {
+		if (timeBudgetMillis < 0) {
+			return decomposeRange(
+					query,
+					overInclusiveOnEdge,
+					maxRanges);
+		}
+		final long startTime = System.nanoTime();
+		final long timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+		final RangeDecompositionCache cache = RangeDecompositionCache.getInstance();
+		if (cache.isEnabled()) {
+			// the full decomposition is free if it is already cached
+			final RangeDecomposition cachedDecomposition = cache.get(createKey(
+					query,
+					overInclusiveOnEdge,
+					maxRanges));
+			if (cachedDecomposition != null) {
+				return cachedDecomposition;
+			}
+		}
+		int resolutionBits = COARSE_RESOLUTION_BITS;
+		RangeDecomposition decomposition = decomposeRangeAtResolution(
+				query,
+				overInclusiveOnEdge,
+				maxRanges,
+				resolutionBits);
+		long lastDuration = System.nanoTime() - startTime;
+		while (resolutionBits < DEFAULT_RESOLUTION_BITS) {
+			// the cost of a decomposition grows roughly linearly with the
+			// number of cells
+			final long estimatedDuration = lastDuration << RESOLUTION_BITS_STEP;
+			if (((System.nanoTime() - startTime) + estimatedDuration) > timeBudgetNanos) {
+				break;
+			}
+			resolutionBits = Math.min(
+					resolutionBits + RESOLUTION_BITS_STEP,
+					DEFAULT_RESOLUTION_BITS);
+			final long refinementStart = System.nanoTime();
+			if (resolutionBits == DEFAULT_RESOLUTION_BITS) {
+				// the full resolution decomposition goes through the cache
+				decomposition = decomposeRange(
+						query,
+						overInclusiveOnEdge,
+						maxRanges);
+			}
+			else {
+				decomposition = decomposeRangeAtResolution(
+						query,
+						overInclusiveOnEdge,
+						maxRanges,
+						resolutionBits);
+			}
+			lastDuration = System.nanoTime() - refinementStart;
+		}
+		return decomposition;
+	}
+
+	private DecompositionKey createKey(
+			final MultiDimensionalNumericData query,
+			final boolean overInclusiveOnEdge,
+			final int maxRanges ) {
+		return new DecompositionKey(
+				this,
+				quantize(
+						query.getDataPerDimension(),
+						overInclusiveOnEdge),
+				overInclusiveOnEdge,
+				maxRanges == -1 ? Integer.MAX_VALUE : maxRanges);
+	}
+
+	private RangeDecomposition decomposeRangeAtResolution(
+			final MultiDimensionalNumericData query,
+			final boolean overInclusiveOnEdge,
+			final int maxRanges,
+			final int resolutionBits ) {
 		return decomposeQueryOperations.decomposeRange(
 				query.getDataPerDimension(),
 				compactHilbertCurve,
 				dimensionDefinitions,
 				totalPrecision,
-				maxFilteredIndexedRanges,
+				maxRanges == -1 ? Integer.MAX_VALUE : maxRanges,
 				REMOVE_VACUUM,
-				overInclusiveOnEdge);
+				overInclusiveOnEdge,
+				resolutionBits);
+	}
+
+	/**
+	 * Reduce the query to the values that the decomposition actually depends
+	 * on. When primitive operations are used for the decomposition this is the
+	 * normalized bin of the min and max of each dimension, so that any query
+	 * windows that snap to the same bins share a cache entry. Otherwise the
+	 * raw values are used as is.
+	 */
+	private long[] quantize(
+			final NumericData[] rangePerDimension,
+			final boolean overInclusiveOnEdge ) {
+		final long[] quantized = new long[rangePerDimension.length * 2];
+		final boolean primitive = decomposeQueryOperations instanceof PrimitiveHilbertSFCOperations;
+		for (int d = 0; d < rangePerDimension.length; d++) {
+			if (primitive && (d < dimensionDefinitions.length)) {
+				final long bins = ((PrimitiveHilbertSFCOperations) decomposeQueryOperations).binsPerDimension[d];
+				quantized[2 * d] = PrimitiveHilbertSFCOperations.normalizeDimension(
+						dimensionDefinitions[d],
+						rangePerDimension[d].getMin(),
+						bins,
+						true,
+						overInclusiveOnEdge);
+				quantized[(2 * d) + 1] = PrimitiveHilbertSFCOperations.normalizeDimension(
+						dimensionDefinitions[d],
+						rangePerDimension[d].getMax(),
+						bins,
+						false,
+						overInclusiveOnEdge);
+			}
+			else {
+				quantized[2 * d] = Double.doubleToLongBits(rangePerDimension[d].getMin());
+				quantized[(2 * d) + 1] = Double.doubleToLongBits(rangePerDimension[d].getMax());
+			}
+		}
+		return quantized;
+	}
+
+	private static class DecompositionKey
+	{
+		private final HilbertSFC sfc;
+		private final long[] quantizedQuery;
+		private final boolean overInclusiveOnEdge;
+		private final int maxRanges;
+		private final int hashCode;
+
+		public DecompositionKey(
+				final HilbertSFC sfc,
+				final long[] quantizedQuery,
+				final boolean overInclusiveOnEdge,
+				final int maxRanges ) {
+			this.sfc = sfc;
+			this.quantizedQuery = quantizedQuery;
+			this.overInclusiveOnEdge = overInclusiveOnEdge;
+			this.maxRanges = maxRanges;
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + sfc.hashCode();
+			result = (prime * result) + Arrays.hashCode(quantizedQuery);
+			result = (prime * result) + (overInclusiveOnEdge ? 1231 : 1237);
+			result = (prime * result) + maxRanges;
+			hashCode = result;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(
+				final Object obj ) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final DecompositionKey other = (DecompositionKey) obj;
+			return (hashCode == other.hashCode) && (overInclusiveOnEdge == other.overInclusiveOnEdge)
+					&& (maxRanges == other.maxRanges) && Arrays.equals(
+							quantizedQuery,
+							other.quantizedQuery) && sfc.equals(other.sfc);
+		}
 	}
 
 	protected static byte[] fitExpectedByteCount(
@@ -0,0 +1,175 @@
+package mil.nga.giat.geowave.core.index.sfc.hilbert;
+
+import mil.nga.giat.geowave.core.index.sfc.SFCDimensionDefinition;
+
+import com.google.uzaygezen.core.BitVector;
+import com.google.uzaygezen.core.BitVectorFactories;
+import com.google.uzaygezen.core.CompactHilbertCurve;
+
+/**
+ * A thread-confined encoder which converts raw values (ordered per dimension)
+ * to compact Hilbert SFC values using primitive operations. All of the scratch
+ * space, including the compact Hilbert curve's own working state, is owned by
+ * this encoder and reused across calls, so encoding into a caller-supplied
+ * array does not allocate and does not need to synchronize. An instance must
+ * not be shared across threads; use HilbertSFC.createEncoder() to get one per
+ * thread.
+ */
+public class HilbertSFCEncoder
+{
+	private final CompactHilbertCurve compactHilbertCurve;
+	private final SFCDimensionDefinition[] dimensionDefinitions;
+	private final long[] binsPerDimension;
+	private final BitVector[] dimensionBitVectors;
+	private final BitVector hilbertBitVector;
+	private final int totalPrecision;
+	private final int byteCount;
+
+	protected HilbertSFCEncoder(
+			final CompactHilbertCurve compactHilbertCurve,
+			final SFCDimensionDefinition[] dimensionDefinitions,
+			final long[] binsPerDimension ) {
+		this.compactHilbertCurve = compactHilbertCurve;
+		this.dimensionDefinitions = dimensionDefinitions;
+		this.binsPerDimension = binsPerDimension;
+		dimensionBitVectors = new BitVector[dimensionDefinitions.length];
+		for (int d = 0; d < dimensionDefinitions.length; d++) {
+			dimensionBitVectors[d] = BitVectorFactories.OPTIMAL.apply(dimensionDefinitions[d].getBitsOfPrecision());
+		}
+		totalPrecision = compactHilbertCurve.getSpec().sumBitsPerDimension();
+		hilbertBitVector = BitVectorFactories.OPTIMAL.apply(totalPrecision);
+		byteCount = (totalPrecision + 7) / 8;
+	}
+
+	/**
+	 * @return the number of bytes written for each encoded value, which is the
+	 *         same length as the byte array returned by HilbertSFC.getId()
+	 */
+	public int getByteCount() {
+		return byteCount;
+	}
+
+	/**
+	 * Encode a single point as a big endian Hilbert SFC value, identical to
+	 * HilbertSFC.getId(), into the target array
+	 *
+	 * @param values
+	 *            a raw value per dimension in order
+	 * @param target
+	 *            the array to write the SFC value into
+	 * @param offset
+	 *            the position within the target array to begin writing
+	 * @return the number of bytes written
+	 */
+	public int encode(
+			final double[] values,
+			final byte[] target,
+			final int offset ) {
+		index(values);
+		if (totalPrecision <= 64) {
+			long value = hilbertBitVector.toExactLong();
+			for (int i = (offset + byteCount) - 1; i >= offset; i--) {
+				target[i] = (byte) value;
+				value >>>= 8;
+			}
+		}
+		else {
+			for (int i = offset; i < (offset + byteCount); i++) {
+				target[i] = 0;
+			}
+			for (int bit = 0; bit < totalPrecision; bit++) {
+				if (hilbertBitVector.get(bit)) {
+					target[(offset + byteCount) - 1 - (bit / 8)] |= (byte) (1 << (bit % 8));
+				}
+			}
+		}
+		return byteCount;
+	}
+
+	/**
+	 * Encode a single point as a Hilbert SFC value. This is only supported if
+	 * the total precision of the curve fits within a signed long.
+	 *
+	 * @param values
+	 *            a raw value per dimension in order
+	 * @return the SFC value
+	 */
+	public long encode(
+			final double[] values ) {
+		if (totalPrecision > 63) {
+			throw new UnsupportedOperationException(
+					"Total precision (" + totalPrecision + ") is too large to be represented as a long");
+		}
+		index(values);
+		return hilbertBitVector.toExactLong();
+	}
+
+	/**
+	 * Encode a batch of points as big endian Hilbert SFC values, written
+	 * contiguously into the target array with a stride of getByteCount()
+	 *
+	 * @param points
+	 *            the raw values per dimension for each point
+	 * @param target
+	 *            the array to write the SFC values into, which must have room
+	 *            for points.length * getByteCount() bytes after the offset
+	 * @param offset
+	 *            the position within the target array to begin writing
+	 * @return the total number of bytes written
+	 */
+	public int encode(
+			final double[][] points,
+			final byte[] target,
+			final int offset ) {
+		int position = offset;
+		for (final double[] values : points) {
+			position += encode(
+					values,
+					target,
+					position);
+		}
+		return position - offset;
+	}
+
+	/**
+	 * Encode a batch of points as Hilbert SFC values. This is only supported
+	 * if the total precision of the curve fits within a signed long.
+	 *
+	 * @param points
+	 *            the raw values per dimension for each point
+	 * @param target
+	 *            the array to write the SFC values into
+	 * @param offset
+	 *            the position within the target array to begin writing
+	 */
+	public void encode(
+			final double[][] points,
+			final long[] target,
+			final int offset ) {
+		for (int i = 0; i < points.length; i++) {
+			target[offset + i] = encode(points[i]);
+		}
+	}
+
+	private void index(
+			final double[] values ) {
+		// Compare the number of dimensions to the number of values sent in
+		if (dimensionDefinitions.length != values.length) {
+			throw new ArrayIndexOutOfBoundsException(
+					"Number of dimensions supplied (" + values.length + ") is different than initialized ("
+							+ dimensionDefinitions.length + ").");
+		}
+		for (int d = 0; d < dimensionDefinitions.length; d++) {
+			dimensionBitVectors[d].copyFrom(PrimitiveHilbertSFCOperations.normalizeDimension(
+					dimensionDefinitions[d],
+					values[d],
+					binsPerDimension[d],
+					false,
+					false));
+		}
+		compactHilbertCurve.index(
+				dimensionBitVectors,
+				0,
+				hilbertBitVector);
+	}
+}
@@ -117,6 +117,44 @@ public interface HilbertSFCOperations
 			boolean removeVacuum,
 			boolean overInclusiveOnEdge );
 
+	/**
+	 * Decompose the raw range per dimension values into a set of compact
+	 * Hilbert SFC ranges, only zooming in on the curve until the quads are
+	 * 1/2^resolutionBits of the size of the query window. Lower resolutions
+	 * are faster to compute but more over-inclusive, the ranges returned will
+	 * always cover the ranges of a higher resolution decomposition.
+	 * 
+	 * @param rangePerDimension
+	 *            the raw range per dimension
+	 * @param compactHilbertCurve
+	 *            the compact Hilbert curve to use for the conversion
+	 * @param dimensionDefinitions
+	 *            a set of dimension definitions to use to normalize the raw
+	 *            values
+	 * @param totalPrecision
+	 *            the total precision of the dimension definitions, for
+	 *            convenience
+	 * @param maxFilteredIndexedRanges
+	 *            the maximum number of ranges, if < 0 it will be unlimited
+	 * @param removeVacuum
+	 *            a flag to pass to the compact hilbert curve range
+	 *            decomposition
+	 * @param resolutionBits
+	 *            the log base 2 of the number of cells the query window is
+	 *            decomposed into
+	 * @return the SFC range decomposition for the raw-valued ranges at the
+	 *         given resolution
+	 */
+	public RangeDecomposition decomposeRange(
+			NumericData[] rangePerDimension,
+			CompactHilbertCurve compactHilbertCurve,
+			SFCDimensionDefinition[] dimensionDefinitions,
+			int totalPrecision,
+			int maxFilteredIndexedRanges,
+			boolean removeVacuum,
+			boolean overInclusiveOnEdge,
+			int resolutionBits );
+
 	/**
 	 * Get a quick (minimal complexity calculation) estimate of the total row
 	 * IDs a particular data would require to fully cover with SFC values
@@ -44,9 +44,6 @@ import com.google.uzaygezen.core.ranges.LongRangeHome;
 public class PrimitiveHilbertSFCOperations implements
 		HilbertSFCOperations
 {
-	protected final static long UNIT_CELL_SIZE = (long) Math.pow(
-			2,
-			20);
 	protected long[] binsPerDimension;
 
 	protected long minHilbertValue;
@@ -76,7 +73,7 @@ public class PrimitiveHilbertSFCOperations implements
 			final CompactHilbertCurve compactHilbertCurve,
 			final SFCDimensionDefinition[] dimensionDefinitions ) {
 
-		final List<Long> dimensionValues = new ArrayList<Long>();
+		final long[] dimensionValues = new long[values.length];
 
 		// Compare the number of dimensions to the number of values sent in
 		if (dimensionDefinitions.length != values.length) {
@@ -88,12 +85,12 @@ public class PrimitiveHilbertSFCOperations implements
 		// Loop through each value, then normalize the value based on the
 		// dimension definition
 		for (int i = 0; i < dimensionDefinitions.length; i++) {
-			dimensionValues.add(normalizeDimension(
+			dimensionValues[i] = normalizeDimension(
 					dimensionDefinitions[i],
 					values[i],
 					binsPerDimension[i],
 					false,
-					false));
+					false);
 		}
 
 		// Convert the normalized values to a BitVector
@@ -116,18 +113,18 @@ public class PrimitiveHilbertSFCOperations implements
 	 * @return point on hilbert SFC
 	 */
 	private BitVector convertToHilbert(
-			final List<Long> values,
+			final long[] values,
 			final CompactHilbertCurve compactHilbertCurve,
 			final SFCDimensionDefinition[] dimensionDefinitions ) {
-		final BitVector[] bitVectors = new BitVector[values.size()];
+		final BitVector[] bitVectors = new BitVector[values.length];
 
 		final BitVector hilbertBitVector = BitVectorFactories.OPTIMAL.apply(compactHilbertCurve
 				.getSpec()
 				.sumBitsPerDimension());
 
-		for (int i = 0; i < values.size(); i++) {
+		for (int i = 0; i < values.length; i++) {
 			bitVectors[i] = BitVectorFactories.OPTIMAL.apply(dimensionDefinitions[i].getBitsOfPrecision());
-			bitVectors[i].copyFrom(values.get(i));
+			bitVectors[i].copyFrom(values[i]);
 		}
 		synchronized (compactHilbertCurve) {
 			compactHilbertCurve.index(
@@ -138,6 +135,29 @@ public class PrimitiveHilbertSFCOperations implements
 		return hilbertBitVector;
 	}
 
+	/**
+	 * Create an encoder with its own copy of the compact Hilbert curve and
+	 * scratch space, which can convert values to Hilbert SFC values without
+	 * any per-call allocation or synchronization. The encoder must be confined
+	 * to a single thread.
+	 * 
+	 * @param compactHilbertCurve
+	 *            the compact Hilbert curve whose specification is copied
+	 * @param dimensionDefinitions
+	 *            a set of dimension definitions to use to normalize the raw
+	 *            values
+	 * @return a new thread-confined encoder
+	 */
+	public HilbertSFCEncoder createEncoder(
+			final CompactHilbertCurve compactHilbertCurve,
+			final SFCDimensionDefinition[] dimensionDefinitions ) {
+		return new HilbertSFCEncoder(
+				new CompactHilbertCurve(
+						compactHilbertCurve.getSpec()),
+				dimensionDefinitions,
+				binsPerDimension);
+	}
+
 	@Override
 	public long[] indicesFromHilbert(
 			final byte[] hilbertValue,
@@ -229,7 +249,7 @@ public class PrimitiveHilbertSFCOperations implements
 	 *             thrown when the value passed doesn't fit with in the
 	 *             dimension definition provided
 	 */
-	private long normalizeDimension(
+	protected static long normalizeDimension(
 			final SFCDimensionDefinition boundedDimensionDefinition,
 			final double value,
 			final long bins,
@@ -311,7 +331,28 @@ public class PrimitiveHilbertSFCOperations implements
 			final int totalPrecision,
 			final int maxFilteredIndexedRanges,
 			final boolean removeVacuum,
-			final boolean overInclusiveOnEdge ) {// List of query range minimum
+			final boolean overInclusiveOnEdge ) {
+		return decomposeRange(
+				rangePerDimension,
+				compactHilbertCurve,
+				dimensionDefinitions,
+				totalPrecision,
+				maxFilteredIndexedRanges,
+				removeVacuum,
+				overInclusiveOnEdge,
+				HilbertSFC.DEFAULT_RESOLUTION_BITS);
+	}
+
+	@Override
+	public RangeDecomposition decomposeRange(
+			final NumericData[] rangePerDimension,
+			final CompactHilbertCurve compactHilbertCurve,
+			final SFCDimensionDefinition[] dimensionDefinitions,
+			final int totalPrecision,
+			final int maxFilteredIndexedRanges,
+			final boolean removeVacuum,
+			final boolean overInclusiveOnEdge,
+			final int resolutionBits ) {// List of query range minimum
 													// and
 		// maximum
 		// values
@@ -352,7 +393,8 @@ public class PrimitiveHilbertSFCOperations implements
 
 		final long minQuadSize = getMinimumQuadSize(
 				minRangeList,
-				maxRangeList);
+				maxRangeList,
+				1L << resolutionBits);
 
 		final RegionInspector<LongRange, LongContent> regionInspector = SimpleRegionInspector.create(
 				ImmutableList.of(region),
@@ -460,7 +502,8 @@ public class PrimitiveHilbertSFCOperations implements
 	 */
 	private long getMinimumQuadSize(
 			final List<Long> minRangeList,
-			final List<Long> maxRangeList ) {
+			final List<Long> maxRangeList,
+			final long unitCellSize ) {
 		long maxRange = 1;
 		final int dimensionality = Math.min(
 				minRangeList.size(),
@@ -473,11 +516,11 @@ public class PrimitiveHilbertSFCOperations implements
 		final long maxRangeDecomposed = (long) Math.pow(
 				maxRange,
 				dimensionality);
-		if (maxRangeDecomposed <= UNIT_CELL_SIZE) {
+		if (maxRangeDecomposed <= unitCellSize) {
 			return 1L;
 		}
 
-		return maxRangeDecomposed / UNIT_CELL_SIZE;
+		return maxRangeDecomposed / unitCellSize;
 
 	}
 
@@ -43,10 +43,6 @@ public class UnboundedHilbertSFCOperations implements
 		HilbertSFCOperations
 {
 	private static final BigDecimal TWO = BigDecimal.valueOf(2);
-	protected final static BigInteger UNIT_CELL_SIZE = BigDecimal.valueOf(
-			Math.pow(
-					2,
-					20)).toBigInteger();
 	protected BigDecimal[] binsPerDimension;
 	protected BigInteger minHilbertValue;
 	protected BigInteger maxHilbertValue;
@@ -288,7 +284,28 @@ public class UnboundedHilbertSFCOperations implements
 			final int totalPrecision,
 			final int maxFilteredIndexedRanges,
 			final boolean removeVacuum,
-			final boolean overInclusiveOnEdge ) {// List of query range minimum
+			final boolean overInclusiveOnEdge ) {
+		return decomposeRange(
+				rangePerDimension,
+				compactHilbertCurve,
+				dimensionDefinitions,
+				totalPrecision,
+				maxFilteredIndexedRanges,
+				removeVacuum,
+				overInclusiveOnEdge,
+				HilbertSFC.DEFAULT_RESOLUTION_BITS);
+	}
+
+	@Override
+	public RangeDecomposition decomposeRange(
+			final NumericData[] rangePerDimension,
+			final CompactHilbertCurve compactHilbertCurve,
+			final SFCDimensionDefinition[] dimensionDefinitions,
+			final int totalPrecision,
+			final int maxFilteredIndexedRanges,
+			final boolean removeVacuum,
+			final boolean overInclusiveOnEdge,
+			final int resolutionBits ) {// List of query range minimum
 													// and
 		// maximum
 		// values
@@ -329,7 +346,8 @@ public class UnboundedHilbertSFCOperations implements
 
 		final BigInteger minQuadSize = getMinimumQuadSize(
 				minRangeList,
-				maxRangeList);
+				maxRangeList,
+				BigInteger.ONE.shiftLeft(resolutionBits));
 
 		final RegionInspector<BigIntegerRange, BigIntegerContent> regionInspector = SimpleRegionInspector.create(
 				ImmutableList.of(region),
@@ -435,7 +453,8 @@ public class UnboundedHilbertSFCOperations implements
 	 */
 	private BigInteger getMinimumQuadSize(
 			final List<BigInteger> minRangeList,
-			final List<BigInteger> maxRangeList ) {
+			final List<BigInteger> maxRangeList,
+			final BigInteger unitCellSize ) {
 		BigInteger maxRange = BigInteger.valueOf(1);
 		final int dimensionality = Math.min(
 				minRangeList.size(),
@@ -447,11 +466,11 @@ public class UnboundedHilbertSFCOperations implements
 					BigInteger.ONE));
 		}
 		final BigInteger maxRangeDecomposed = maxRange.pow(dimensionality);
-		if (maxRangeDecomposed.compareTo(UNIT_CELL_SIZE) <= 0) {
+		if (maxRangeDecomposed.compareTo(unitCellSize) <= 0) {
 			return BigInteger.ONE;
 		}
 
-		return maxRangeDecomposed.divide(UNIT_CELL_SIZE);
+		return maxRangeDecomposed.divide(unitCellSize);
 
 	}
 
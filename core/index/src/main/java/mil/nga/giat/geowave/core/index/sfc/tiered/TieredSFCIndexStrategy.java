@@ -51,9 +51,31 @@ public class TieredSFCIndexStrategy implements
 	private NumericDimensionDefinition[] baseDefinitions;
 	private long maxEstimatedDuplicateIds;
 	private BigInteger maxEstimatedDuplicateIdsBigInteger;
+	// the time to spend decomposing each binned query, negative for unlimited
+	private static volatile long queryDecompositionTimeBudgetMillis = -1;
 
 	protected TieredSFCIndexStrategy() {}
 
+	/**
+	 * Bound the time spent decomposing each binned query window into ranges,
+	 * for every tiered index strategy in this JVM. Large query windows on high
+	 * precision indices are then decomposed into coarser ranges, which start
+	 * scanning sooner at the cost of scanning and filtering more rows. Row IDs
+	 * of ingested entries are always fully decomposed.
+	 * 
+	 * @param timeBudgetMillis
+	 *            the time budget in milliseconds, negative for an unlimited
+	 *            budget, which is the default
+	 */
+	public static void setQueryDecompositionTimeBudgetMillis(
+			final long timeBudgetMillis ) {
+		queryDecompositionTimeBudgetMillis = timeBudgetMillis;
+	}
+
+	public static long getQueryDecompositionTimeBudgetMillis() {
+		return queryDecompositionTimeBudgetMillis;
+	}
+
 	/**
 	 * Constructor used to create a Tiered Index Strategy.
 	 * 
@@ -122,7 +144,8 @@ public class TieredSFCIndexStrategy implements
 			final RangeDecomposition rangeDecomp = sfc.decomposeRange(
 					binnedQuery,
 					true,
-					maxRangeDecompositionPerBin);
+					maxRangeDecompositionPerBin,
+					queryDecompositionTimeBudgetMillis);
 			final byte[] tierAndBinId = ByteArrayUtils.combineArrays(
 					new byte[] {
 						tier
@@ -151,6 +151,23 @@ public class ZOrderSFC implements
 				});
 	}
 
+	/***
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RangeDecomposition decomposeRange(
+			final MultiDimensionalNumericData query,
+			final boolean overInclusiveOnEdge,
+			final int maxRanges,
+			final long timeBudgetMillis ) {
+		// the Z-Order decomposition is not refined, so there is nothing to
+		// trade off against the time budget
+		return decomposeRange(
+				query,
+				overInclusiveOnEdge,
+				maxRanges);
+	}
+
 	/***
 	 * {@inheritDoc}
 	 */
@@ -52,4 +52,26 @@ public class PersistenceUtilsTest
 					persistable
 				}))).size() == 2);
 	}
+
+	@Test
+	public void testClassFactory() {
+		final APersistable first = PersistenceUtils.classFactory(
+				APersistable.class.getName(),
+				APersistable.class);
+		final APersistable second = PersistenceUtils.classFactory(
+				APersistable.class.getName(),
+				APersistable.class);
+		// the constructor is cached but every call creates a new instance
+		Assert.assertNotNull(first);
+		Assert.assertNotNull(second);
+		Assert.assertNotSame(
+				first,
+				second);
+		Assert.assertNull(PersistenceUtils.classFactory(
+				APersistable.class.getName(),
+				String.class));
+		Assert.assertNull(PersistenceUtils.classFactory(
+				"mil.nga.giat.geowave.core.index.DoesNotExist",
+				Persistable.class));
+	}
 }
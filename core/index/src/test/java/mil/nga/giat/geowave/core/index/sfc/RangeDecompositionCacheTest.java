@@ -0,0 +1,147 @@
+package mil.nga.giat.geowave.core.index.sfc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.dimension.BasicDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.SFCFactory.SFCType;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+
+import org.junit.Test;
+
+public class RangeDecompositionCacheTest
+{
+	private static RangeDecomposition createDecomposition(
+			final int rangeCount ) {
+		final ByteArrayRange[] ranges = new ByteArrayRange[rangeCount];
+		for (int i = 0; i < rangeCount; i++) {
+			ranges[i] = new ByteArrayRange(
+					new ByteArrayId(
+							"start" + i),
+					new ByteArrayId(
+							"end" + i));
+		}
+		return new RangeDecomposition(
+				ranges);
+	}
+
+	@Test
+	public void testHitsAndMisses() {
+		final RangeDecompositionCache cache = new RangeDecompositionCache(
+				100);
+		final RangeDecomposition decomposition = createDecomposition(10);
+		assertNull(cache.get("a"));
+		cache.put(
+				"a",
+				decomposition);
+		assertSame(
+				decomposition,
+				cache.get("a"));
+		assertEquals(
+				1,
+				cache.getHitCount());
+		assertEquals(
+				1,
+				cache.getMissCount());
+		assertEquals(
+				0.5,
+				cache.getHitRate(),
+				0.0);
+	}
+
+	@Test
+	public void testEvictionByRangeCount() {
+		final RangeDecompositionCache cache = new RangeDecompositionCache(
+				25);
+		cache.put(
+				"a",
+				createDecomposition(10));
+		cache.put(
+				"b",
+				createDecomposition(10));
+		// touch "a" so that "b" is the least recently used
+		cache.get("a");
+		cache.put(
+				"c",
+				createDecomposition(10));
+		assertEquals(
+				2,
+				cache.size());
+		assertEquals(
+				20,
+				cache.getCachedRangeCount());
+		assertNull(cache.get("b"));
+
+		// a decomposition larger than the whole cache is never cached
+		cache.put(
+				"d",
+				createDecomposition(30));
+		assertNull(cache.get("d"));
+		assertEquals(
+				2,
+				cache.size());
+
+		cache.setMaxCachedRanges(0);
+		assertEquals(
+				0,
+				cache.size());
+	}
+
+	@Test
+	public void testHilbertDecompositionIsCached() {
+		final SpaceFillingCurve sfc = SFCFactory.createSpaceFillingCurve(
+				new SFCDimensionDefinition[] {
+					new SFCDimensionDefinition(
+							new BasicDimensionDefinition(
+									-180,
+									180),
+							20),
+					new SFCDimensionDefinition(
+							new BasicDimensionDefinition(
+									-90,
+									90),
+							20)
+				},
+				SFCType.HILBERT);
+		final RangeDecompositionCache cache = RangeDecompositionCache.getInstance();
+		cache.clear();
+		final long hits = cache.getHitCount();
+		final RangeDecomposition first = sfc.decomposeRange(
+				new BasicNumericDataset(
+						new NumericData[] {
+							new NumericRange(
+									10,
+									20),
+							new NumericRange(
+									-5,
+									5)
+						}),
+				true,
+				50);
+		// a window that differs by much less than a single cell falls into
+		// the same bins and shares the cached decomposition
+		final RangeDecomposition second = sfc.decomposeRange(
+				new BasicNumericDataset(
+						new NumericData[] {
+							new NumericRange(
+									10.0000000001,
+									20),
+							new NumericRange(
+									-5,
+									5.0000000001)
+						}),
+				true,
+				50);
+		assertSame(
+				first,
+				second);
+		assertEquals(
+				hits + 1,
+				cache.getHitCount());
+	}
+}
@@ -8,10 +8,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 
@@ -38,7 +42,9 @@ import mil.nga.giat.geowave.core.store.operations.remote.options.VisibilityOptio
 
 /**
  * This class executes the ingestion of intermediate data from a Kafka topic
- * into GeoWave.
+ * into GeoWave. Each topic is consumed by one or more Kafka streams, which
+ * feed a bounded queue that is drained by a pool of workers that convert and
+ * write the messages in parallel, each with its own index writers.
  * 
  */
 public class IngestFromKafkaDriver
@@ -51,6 +57,10 @@ public class IngestFromKafkaDriver
 	private final KafkaConsumerCommandLineOptions kafkaOptions;
 	private final VisibilityOptions ingestOptions;
 	private final List<Future<?>> futures = new ArrayList<Future<?>>();
+	private final Map<IndexProvider, Map<ByteArrayId, PrimaryIndex>> pluginIndices = new ConcurrentHashMap<IndexProvider, Map<ByteArrayId, PrimaryIndex>>();
+	private final static byte[] END_OF_STREAM = new byte[0];
+	private final static long IDLE_FLUSH_MILLIS = 1000;
+	private final static long SHUTDOWN_WAIT_SECONDS = 30;
 
 	public IngestFromKafkaDriver(
 			DataStorePluginOptions storeOptions,
@@ -207,90 +217,119 @@ public class IngestFromKafkaDriver
 			throw new Exception(
 					"Kafka consumer connector is null, unable to create message streams");
 		}
+		final int numStreams = Math.max(
+				kafkaOptions.getNumStreams(),
+				1);
+		final int workerThreads = Math.max(
+				kafkaOptions.getWorkerThreads(),
+				1);
+		final ExecutorService executorService = Executors.newFixedThreadPool(numStreams + workerThreads);
 		try {
 			LOGGER.debug("Kafka consumer setup for format [" + formatPluginName + "] against topic ["
 					+ formatPluginName + "]");
 			final Map<String, Integer> topicCount = new HashMap<>();
 			topicCount.put(
 					formatPluginName,
-					1);
+					numStreams);
 
 			final Map<String, List<KafkaStream<byte[], byte[]>>> consumerStreams = consumer
 					.createMessageStreams(topicCount);
 			final List<KafkaStream<byte[], byte[]>> streams = consumerStreams.get(formatPluginName);
 
 			queue.remove(formatPluginName);
-			consumeMessages(
-					formatPluginName,
-					avroFormatPlugin,
-					ingestRunData,
-					streams.get(0));
+
+			// the bounded queue applies backpressure to the Kafka streams when
+			// the workers can't keep up
+			final BlockingQueue<byte[]> messageQueue = new ArrayBlockingQueue<byte[]>(
+					Math.max(
+							kafkaOptions.getMaxQueuedMessages(),
+							1));
+			final List<Future<?>> workers = new ArrayList<Future<?>>();
+			for (int i = 0; i < workerThreads; i++) {
+				workers.add(executorService.submit(new Runnable() {
+					@Override
+					public void run() {
+						writeMessages(
+								formatPluginName,
+								avroFormatPlugin,
+								ingestRunData,
+								messageQueue);
+					}
+				}));
+			}
+			final List<Future<?>> readers = new ArrayList<Future<?>>();
+			for (final KafkaStream<byte[], byte[]> stream : streams) {
+				readers.add(executorService.submit(new Runnable() {
+					@Override
+					public void run() {
+						consumeMessages(
+								formatPluginName,
+								stream,
+								messageQueue);
+					}
+				}));
+			}
+			for (final Future<?> reader : readers) {
+				reader.get();
+			}
+			for (int i = 0; i < workerThreads; i++) {
+				messageQueue.put(END_OF_STREAM);
+			}
+			for (final Future<?> worker : workers) {
+				worker.get();
+			}
 		}
 		finally {
+			executorService.shutdownNow();
+			// shutting down the consumer ends the streams of any readers
 			consumer.shutdown();
+			// a worker finishes writing its current message once interrupted,
+			// so wait for the workers before closing the writers they share
+			try {
+				while (!executorService.awaitTermination(
+						SHUTDOWN_WAIT_SECONDS,
+						TimeUnit.SECONDS)) {
+					LOGGER.warn("Waiting for the workers of Kafka topic [" + formatPluginName + "] to finish");
+				}
+			}
+			catch (final InterruptedException e) {
+				LOGGER.warn(
+						"Interrupted waiting for the workers of Kafka topic [" + formatPluginName + "] to finish",
+						e);
+				Thread.currentThread().interrupt();
+			}
+			ingestRunData.close();
 		}
 	}
 
-	protected <T> void consumeMessages(
+	/**
+	 * Read the messages from a Kafka stream onto the queue, blocking while the
+	 * queue is full
+	 */
+	protected void consumeMessages(
 			final String formatPluginName,
-			final AvroFormatPlugin<T, ?> avroFormatPlugin,
-			final KafkaIngestRunData ingestRunData,
-			final KafkaStream<byte[], byte[]> stream ) {
-		int currentBatchId = 0;
-		final int batchSize = kafkaOptions.getBatchSize();
+			final KafkaStream<byte[], byte[]> stream,
+			final BlockingQueue<byte[]> messageQueue ) {
 		try {
 			final ConsumerIterator<byte[], byte[]> messageIterator = stream.iterator();
 			while (messageIterator.hasNext()) {
 				final byte[] msg = messageIterator.next().message();
-				LOGGER.info("[" + formatPluginName + "] message received");
-				final T dataRecord = GenericAvroSerializer.deserialize(
-						msg,
-						avroFormatPlugin.getAvroSchema());
-
-				if (dataRecord != null) {
-					try {
-						processMessage(
-								dataRecord,
-								ingestRunData,
-								avroFormatPlugin);
-						if (++currentBatchId > batchSize) {
-							if (LOGGER.isDebugEnabled()) {
-								LOGGER.debug(String.format(
-										"Flushing %d items",
-										currentBatchId));
-							}
-							ingestRunData.flush();
-							currentBatchId = 0;
-						}
-					}
-					catch (final Exception e) {
-						LOGGER.error(
-								"Error processing message: " + e.getMessage(),
-								e);
-					}
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("[" + formatPluginName + "] message received");
 				}
+				messageQueue.put(msg);
 			}
 		}
 		catch (final ConsumerTimeoutException te) {
-			// Flush any outstanding items
-			if (currentBatchId > 0) {
-				if (LOGGER.isDebugEnabled()) {
-					LOGGER.debug(String.format(
-							"Flushing %d items",
-							currentBatchId));
-				}
-				ingestRunData.flush();
-				currentBatchId = 0;
-			}
+			// the workers flush any outstanding items once they are idle
 			if (kafkaOptions.isFlushAndReconnect()) {
 				LOGGER.info(
 						"Consumer timed out from Kafka topic [" + formatPluginName + "]... Reconnecting...",
 						te);
 				consumeMessages(
 						formatPluginName,
-						avroFormatPlugin,
-						ingestRunData,
-						stream);
+						stream,
+						messageQueue);
 			}
 			else {
 				LOGGER.info(
@@ -303,41 +342,85 @@ public class IngestFromKafkaDriver
 					"Consuming from Kafka topic [" + formatPluginName + "] was interrupted... ",
 					e);
 		}
+	}
 
+	/**
+	 * Take messages from the queue, converting and writing them with index
+	 * writers owned by this thread, until the end of the stream is reached.
+	 * The writers are flushed every batch and whenever the queue is idle.
+	 */
+	protected <T> void writeMessages(
+			final String formatPluginName,
+			final AvroFormatPlugin<T, ?> avroFormatPlugin,
+			final KafkaIngestRunData ingestRunData,
+			final BlockingQueue<byte[]> messageQueue ) {
+		int currentBatchId = 0;
+		final int batchSize = kafkaOptions.getBatchSize();
+		try {
+			while (true) {
+				final byte[] msg = messageQueue.poll(
+						IDLE_FLUSH_MILLIS,
+						TimeUnit.MILLISECONDS);
+				if ((msg == null) || (msg == END_OF_STREAM)) {
+					// Flush any outstanding items
+					if (currentBatchId > 0) {
+						if (LOGGER.isDebugEnabled()) {
+							LOGGER.debug(String.format(
+									"Flushing %d items",
+									currentBatchId));
+						}
+						ingestRunData.flush();
+						currentBatchId = 0;
+					}
+					if (msg == END_OF_STREAM) {
+						return;
+					}
+					continue;
+				}
+				try {
+					final T dataRecord = GenericAvroSerializer.deserialize(
+							msg,
+							avroFormatPlugin.getAvroSchema());
+					if (dataRecord == null) {
+						continue;
+					}
+					processMessage(
+							dataRecord,
+							ingestRunData,
+							avroFormatPlugin);
+					if (++currentBatchId > batchSize) {
+						if (LOGGER.isDebugEnabled()) {
+							LOGGER.debug(String.format(
+									"Flushing %d items",
+									currentBatchId));
+						}
+						ingestRunData.flush();
+						currentBatchId = 0;
+					}
+				}
+				catch (final Exception e) {
+					LOGGER.error(
+							"Error processing message: " + e.getMessage(),
+							e);
+				}
+			}
+		}
+		catch (final InterruptedException e) {
+			LOGGER.warn(
+					"Writing from Kafka topic [" + formatPluginName + "] was interrupted... ",
+					e);
+		}
 	}
 
-	synchronized protected <T> void processMessage(
+	protected <T> void processMessage(
 			final T dataRecord,
 			final KafkaIngestRunData ingestRunData,
 			final AvroFormatPlugin<T, ?> plugin )
 			throws IOException {
 
-		IngestPluginBase<T, ?> ingestPlugin = plugin.getIngestWithAvroPlugin();
-		IndexProvider indexProvider = plugin;
-
+		final IngestPluginBase<T, ?> ingestPlugin = plugin.getIngestWithAvroPlugin();
 		final Map<ByteArrayId, IndexWriter> writerMap = new HashMap<ByteArrayId, IndexWriter>();
-		final Map<ByteArrayId, PrimaryIndex> indexMap = new HashMap<ByteArrayId, PrimaryIndex>();
-
-		for (IndexPluginOptions indexOption : indexOptions) {
-			final PrimaryIndex primaryIndex = indexOption.createPrimaryIndex();
-			if (primaryIndex == null) {
-				LOGGER.error("Could not get index instance, getIndex() returned null;");
-				throw new IOException(
-						"Could not get index instance, getIndex() returned null");
-			}
-			indexMap.put(
-					primaryIndex.getId(),
-					primaryIndex);
-		}
-
-		final PrimaryIndex[] requiredIndices = indexProvider.getRequiredIndices();
-		if ((requiredIndices != null) && (requiredIndices.length > 0)) {
-			for (final PrimaryIndex requiredIndex : requiredIndices) {
-				indexMap.put(
-						requiredIndex.getId(),
-						requiredIndex);
-			}
-		}
+		final Map<ByteArrayId, PrimaryIndex> indexMap = getIndexMap(plugin);
 
 		try (CloseableIterator<?> geowaveDataIt = ingestPlugin.toGeoWaveData(
 				dataRecord,
@@ -374,6 +457,44 @@ public class IngestFromKafkaDriver
 		}
 	}
 
+	/**
+	 * The indices only depend on the plugin, so they are created once per
+	 * plugin rather than for every message
+	 */
+	private Map<ByteArrayId, PrimaryIndex> getIndexMap(
+			final IndexProvider indexProvider )
+			throws IOException {
+		Map<ByteArrayId, PrimaryIndex> indexMap = pluginIndices.get(indexProvider);
+		if (indexMap != null) {
+			return indexMap;
+		}
+		indexMap = new HashMap<ByteArrayId, PrimaryIndex>();
+		for (IndexPluginOptions indexOption : indexOptions) {
+			final PrimaryIndex primaryIndex = indexOption.createPrimaryIndex();
+			if (primaryIndex == null) {
+				LOGGER.error("Could not get index instance, getIndex() returned null;");
+				throw new IOException(
+						"Could not get index instance, getIndex() returned null");
+			}
+			indexMap.put(
+					primaryIndex.getId(),
+					primaryIndex);
+		}
+
+		final PrimaryIndex[] requiredIndices = indexProvider.getRequiredIndices();
+		if ((requiredIndices != null) && (requiredIndices.length > 0)) {
+			for (final PrimaryIndex requiredIndex : requiredIndices) {
+				indexMap.put(
+						requiredIndex.getId(),
+						requiredIndex);
+			}
+		}
+		pluginIndices.put(
+				indexProvider,
+				indexMap);
+		return indexMap;
+	}
+
 	public List<Future<?>> getFutures() {
 		return futures;
 	}
@@ -34,6 +34,15 @@ public class KafkaConsumerCommandLineOptions extends
 	@Parameter(names = "--batchSize", description = "The data will automatically flush after this number of entries")
 	private int batchSize = 10000;
 
+	@Parameter(names = "--numStreams", description = "The number of Kafka streams to consume from each topic in parallel, throughput will scale with this up to the number of partitions of the topic")
+	private int numStreams = 1;
+
+	@Parameter(names = "--workerThreads", description = "The number of threads per topic that convert and write the consumed messages")
+	private int workerThreads = 1;
+
+	@Parameter(names = "--maxQueuedMessages", description = "The maximum number of consumed messages waiting to be written for each topic, consuming blocks while this is exceeded")
+	private int maxQueuedMessages = 1000;
+
 	public boolean isFlushAndReconnect() {
 		return reconnectOnTimeout;
 	}
@@ -101,4 +110,31 @@ public class KafkaConsumerCommandLineOptions extends
 		this.batchSize = batchSize;
 	}
 
+	public int getNumStreams() {
+		return numStreams;
+	}
+
+	public void setNumStreams(
+			int numStreams ) {
+		this.numStreams = numStreams;
+	}
+
+	public int getWorkerThreads() {
+		return workerThreads;
+	}
+
+	public void setWorkerThreads(
+			int workerThreads ) {
+		this.workerThreads = workerThreads;
+	}
+
+	public int getMaxQueuedMessages() {
+		return maxQueuedMessages;
+	}
+
+	public void setMaxQueuedMessages(
+			int maxQueuedMessages ) {
+		this.maxQueuedMessages = maxQueuedMessages;
+	}
+
 }
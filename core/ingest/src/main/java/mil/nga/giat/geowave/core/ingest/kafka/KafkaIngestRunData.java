@@ -2,6 +2,7 @@ package mil.nga.giat.geowave.core.ingest.kafka;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,12 +20,24 @@ import mil.nga.giat.geowave.core.store.memory.MemoryAdapterStore;
 
 /**
  * A class to hold intermediate run data that must be used throughout the life
- * of an ingest process.
+ * of an ingest process. Index writers are not thread-safe, so each thread that
+ * writes gets its own set of index writers, which are only flushed by that
+ * thread.
  */
 public class KafkaIngestRunData implements
 		Closeable
 {
-	private final Map<ByteArrayId, IndexWriter> adapterIdToWriterCache = new HashMap<ByteArrayId, IndexWriter>();
+	private final List<Map<ByteArrayId, IndexWriter>> allWriterCaches = new ArrayList<Map<ByteArrayId, IndexWriter>>();
+	private final ThreadLocal<Map<ByteArrayId, IndexWriter>> adapterIdToWriterCache = new ThreadLocal<Map<ByteArrayId, IndexWriter>>() {
+		@Override
+		protected Map<ByteArrayId, IndexWriter> initialValue() {
+			final Map<ByteArrayId, IndexWriter> writerCache = new HashMap<ByteArrayId, IndexWriter>();
+			synchronized (KafkaIngestRunData.this) {
+				allWriterCaches.add(writerCache);
+			}
+			return writerCache;
+		}
+	};
 	private final AdapterStore adapterCache;
 	private final DataStore dataStore;
 
@@ -41,38 +54,52 @@ public class KafkaIngestRunData implements
 		return data.getAdapter(adapterCache);
 	}
 
-	public synchronized IndexWriter getIndexWriter(
+	/**
+	 * @return the index writer for the adapter that is owned by the calling
+	 *         thread
+	 */
+	public IndexWriter getIndexWriter(
 			final DataAdapter<?> adapter,
 			final PrimaryIndex... requiredIndices )
 			throws MismatchedIndexToAdapterMapping {
-		IndexWriter indexWriter = adapterIdToWriterCache.get(adapter.getAdapterId());
+		final Map<ByteArrayId, IndexWriter> writerCache = adapterIdToWriterCache.get();
+		IndexWriter indexWriter = writerCache.get(adapter.getAdapterId());
 		if (indexWriter == null) {
-			indexWriter = dataStore.createWriter(
-					adapter,
-					requiredIndices);
-			adapterIdToWriterCache.put(
+			synchronized (this) {
+				indexWriter = dataStore.createWriter(
+						adapter,
+						requiredIndices);
+			}
+			writerCache.put(
 					adapter.getAdapterId(),
 					indexWriter);
 		}
 		return indexWriter;
 	}
 
+	/**
+	 * Close the index writers of every thread, this should only be called once
+	 * all of the threads are done writing
+	 */
 	@Override
 	public void close()
 			throws IOException {
 		synchronized (this) {
-			for (final IndexWriter indexWriter : adapterIdToWriterCache.values()) {
-				indexWriter.close();
+			for (final Map<ByteArrayId, IndexWriter> writerCache : allWriterCaches) {
+				for (final IndexWriter indexWriter : writerCache.values()) {
+					indexWriter.close();
+				}
+				writerCache.clear();
 			}
-			adapterIdToWriterCache.clear();
 		}
 	}
 
+	/**
+	 * Flush the index writers owned by the calling thread
+	 */
 	public void flush() {
-		synchronized (this) {
-			for (final IndexWriter indexWriter : adapterIdToWriterCache.values()) {
-				indexWriter.flush();
-			}
+		for (final IndexWriter indexWriter : adapterIdToWriterCache.get().values()) {
+			indexWriter.flush();
 		}
 	}
 
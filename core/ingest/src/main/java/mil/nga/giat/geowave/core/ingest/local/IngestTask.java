@@ -34,6 +34,8 @@ public class IngestTask implements
 	private final LocalIngestRunData runData;
 	private final Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes;
 	private final Map<ByteArrayId, PrimaryIndex> requiredIndexMap;
+	private final int batchSize;
+	private final LocalIngestMetrics metrics;
 	private volatile boolean isTerminated = false;
 	private volatile boolean isFinished = false;
 
@@ -43,11 +45,33 @@ public class IngestTask implements
 			Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes,
 			Map<ByteArrayId, PrimaryIndex> requiredIndexMap,
 			BlockingQueue<GeoWaveData<?>> queue ) {
+		this(
+				id,
+				runData,
+				specifiedPrimaryIndexes,
+				requiredIndexMap,
+				queue,
+				1,
+				null);
+	}
+
+	public IngestTask(
+			String id,
+			LocalIngestRunData runData,
+			Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes,
+			Map<ByteArrayId, PrimaryIndex> requiredIndexMap,
+			BlockingQueue<GeoWaveData<?>> queue,
+			int batchSize,
+			LocalIngestMetrics metrics ) {
 		this.id = id;
 		this.runData = runData;
 		this.specifiedPrimaryIndexes = specifiedPrimaryIndexes;
 		this.requiredIndexMap = requiredIndexMap;
 		this.readQueue = queue;
+		this.batchSize = Math.max(
+				batchSize,
+				1);
+		this.metrics = metrics;
 	}
 
 	/**
@@ -78,7 +102,9 @@ public class IngestTask implements
 
 	/**
 	 * This function will continue to read from the BlockingQueue until
-	 * isTerminated is true and the queue is empty.
+	 * isTerminated is true and the queue is empty. Items are drained from the
+	 * queue in batches of up to batchSize, to take the queue's lock once per
+	 * batch rather than once per item.
 	 */
 	@SuppressWarnings({
 		"unchecked",
@@ -95,11 +121,17 @@ public class IngestTask implements
 						"Worker executing for plugin [%s]",
 						this.getId()));
 			}
+			final List<GeoWaveData<?>> batch = new ArrayList<GeoWaveData<?>>(
+					batchSize);
 			while (true) {
-				GeoWaveData<?> geowaveData = readQueue.poll(
+				final long waitStart = System.nanoTime();
+				GeoWaveData<?> firstData = readQueue.poll(
 						100,
 						TimeUnit.MILLISECONDS);
-				if (geowaveData == null) {
+				if (metrics != null) {
+					metrics.writerIdle(System.nanoTime() - waitStart);
+				}
+				if (firstData == null) {
 					if (isTerminated && readQueue.size() == 0) {
 						// Done!
 						break;
@@ -113,61 +145,74 @@ public class IngestTask implements
 					}
 					continue;
 				}
-
-				// Ingest the data!
-				final WritableDataAdapter adapter = runData.getDataAdapter(geowaveData);
-				if (adapter == null) {
-					LOGGER.warn(String.format(
-							"Adapter not found for [%s] worker [%s]",
-							geowaveData.getValue(),
-							this.getId()));
-					continue;
+				batch.clear();
+				batch.add(firstData);
+				if (batchSize > 1) {
+					readQueue.drainTo(
+							batch,
+							batchSize - 1);
 				}
 
-				AdapterToIndexMapping mapping = adapterMappings.get(adapter.getAdapterId());
+				final int countBeforeBatch = count;
+				for (final GeoWaveData<?> geowaveData : batch) {
+					// Ingest the data!
+					final WritableDataAdapter adapter = runData.getDataAdapter(geowaveData);
+					if (adapter == null) {
+						LOGGER.warn(String.format(
+								"Adapter not found for [%s] worker [%s]",
+								geowaveData.getValue(),
+								this.getId()));
+						continue;
+					}
+
+					AdapterToIndexMapping mapping = adapterMappings.get(adapter.getAdapterId());
 
-				if (mapping == null) {
+					if (mapping == null) {
 
-					List<PrimaryIndex> indices = new ArrayList<PrimaryIndex>();
-					for (final ByteArrayId indexId : geowaveData.getIndexIds()) {
-						PrimaryIndex index = specifiedPrimaryIndexes.get(indexId);
-						if (index == null) {
-							index = requiredIndexMap.get(indexId);
+						List<PrimaryIndex> indices = new ArrayList<PrimaryIndex>();
+						for (final ByteArrayId indexId : geowaveData.getIndexIds()) {
+							PrimaryIndex index = specifiedPrimaryIndexes.get(indexId);
 							if (index == null) {
-								LOGGER.warn(String.format(
-										"Index '%s' not found for %s; worker [%s]",
-										indexId.getString(),
-										geowaveData.getValue(),
-										this.getId()));
-								continue;
+								index = requiredIndexMap.get(indexId);
+								if (index == null) {
+									LOGGER.warn(String.format(
+											"Index '%s' not found for %s; worker [%s]",
+											indexId.getString(),
+											geowaveData.getValue(),
+											this.getId()));
+									continue;
+								}
 							}
+							indices.add(index);
+						}
+						runData.addIndices(indices);
+						runData.addAdapter(adapter);
+
+						mapping = new AdapterToIndexMapping(
+								adapter.getAdapterId(),
+								indices.toArray(new PrimaryIndex[indices.size()]));
+						adapterMappings.put(
+								mapping.getAdapterId(),
+								mapping);
+
+						// If we have the index checked out already, use that.
+						if (!indexWriters.containsKey(mapping)) {
+							indexWriters.put(
+									mapping,
+									runData.getIndexWriter(mapping));
 						}
-						indices.add(index);
-					}
-					runData.addIndices(indices);
-					runData.addAdapter(adapter);
-
-					mapping = new AdapterToIndexMapping(
-							adapter.getAdapterId(),
-							indices.toArray(new PrimaryIndex[indices.size()]));
-					adapterMappings.put(
-							mapping.getAdapterId(),
-							mapping);
-
-					// If we have the index checked out already, use that.
-					if (!indexWriters.containsKey(mapping)) {
-						indexWriters.put(
-								mapping,
-								runData.getIndexWriter(mapping));
 					}
-				}
 
-				// Write the data to the data store.
-				IndexWriter writer = indexWriters.get(mapping);
+					// Write the data to the data store.
+					IndexWriter writer = indexWriters.get(mapping);
 
-				writer.write(geowaveData.getValue());
+					writer.write(geowaveData.getValue());
 
-				count++;
+					count++;
+				}
+				if (metrics != null) {
+					metrics.recordsWritten(count - countBeforeBatch);
+				}
 			}
 		}
 		catch (Exception e) {
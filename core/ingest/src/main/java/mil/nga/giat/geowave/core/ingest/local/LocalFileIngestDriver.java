@@ -11,6 +11,7 @@ import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -34,6 +35,7 @@ public class LocalFileIngestDriver extends
 		AbstractLocalFileDriver<LocalFileIngestPlugin<?>, LocalIngestRunData>
 {
 	public final static int INGEST_BATCH_SIZE = 500;
+	public final static int DEFAULT_WRITE_BATCH_SIZE = 100;
 	private final static Logger LOGGER = LoggerFactory.getLogger(LocalFileIngestDriver.class);
 	protected DataStorePluginOptions storeOptions;
 	protected List<IndexPluginOptions> indexOptions;
@@ -41,6 +43,9 @@ public class LocalFileIngestDriver extends
 	protected Map<String, LocalFileIngestPlugin<?>> ingestPlugins;
 	protected int threads;
 	protected ExecutorService ingestExecutor;
+	protected int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+	protected int metricsIntervalSeconds = 0;
+	protected LocalIngestMetrics metrics;
 
 	public LocalFileIngestDriver(
 			DataStorePluginOptions storeOptions,
@@ -58,6 +63,33 @@ public class LocalFileIngestDriver extends
 		this.threads = threads;
 	}
 
+	/**
+	 * @param writeBatchSize
+	 *            the maximum number of items each ingest task drains from the
+	 *            queue at a time
+	 */
+	public void setWriteBatchSize(
+			int writeBatchSize ) {
+		this.writeBatchSize = writeBatchSize;
+	}
+
+	/**
+	 * @param metricsIntervalSeconds
+	 *            how often to log the ingest metrics while ingesting, 0 to
+	 *            only log them once the ingest is complete
+	 */
+	public void setMetricsIntervalSeconds(
+			int metricsIntervalSeconds ) {
+		this.metricsIntervalSeconds = metricsIntervalSeconds;
+	}
+
+	/**
+	 * @return the metrics of the current or most recent ingest
+	 */
+	public LocalIngestMetrics getMetrics() {
+		return metrics;
+	}
+
 	public boolean runOperation(
 			String inputPath ) {
 		// first collect the local file ingest plugins
@@ -81,6 +113,8 @@ public class LocalFileIngestDriver extends
 		}
 
 		DataStore dataStore = storeOptions.createDataStore();
+		metrics = new LocalIngestMetrics();
+		final ScheduledExecutorService metricsReporter = startMetricsReporter();
 		try (LocalIngestRunData runData = new LocalIngestRunData(
 				adapters,
 				dataStore)) {
@@ -109,10 +143,32 @@ public class LocalFileIngestDriver extends
 		}
 		finally {
 			shutdownExecutor();
+			if (metricsReporter != null) {
+				metricsReporter.shutdownNow();
+			}
+			LOGGER.info("Ingest complete: " + metrics.toString());
 		}
 		return true;
 	}
 
+	private ScheduledExecutorService startMetricsReporter() {
+		if (metricsIntervalSeconds <= 0) {
+			return null;
+		}
+		final ScheduledExecutorService metricsReporter = Executors.newSingleThreadScheduledExecutor();
+		metricsReporter.scheduleAtFixedRate(
+				new Runnable() {
+					@Override
+					public void run() {
+						LOGGER.info("Ingest progress: " + metrics.toString());
+					}
+				},
+				metricsIntervalSeconds,
+				metricsIntervalSeconds,
+				TimeUnit.SECONDS);
+		return metricsReporter;
+	}
+
 	/**
 	 * Create a basic thread pool to ingest file data. We limit it to the amount
 	 * of threads specified on the command line.
@@ -195,6 +251,8 @@ public class LocalFileIngestDriver extends
 		// complete. Ingest batch size is the total max number of items to read
 		// from the file at a time for the worker threads to execute.
 		BlockingQueue<GeoWaveData<?>> queue = LocalIngestRunData.createBlockingQueue(INGEST_BATCH_SIZE);
+		metrics.fileRead(file.length());
+		metrics.setQueue(queue);
 
 		// Create our Jobs. We submit as many jobs as we have executors for.
 		// These folks will read our blocking queue
@@ -214,7 +272,9 @@ public class LocalFileIngestDriver extends
 						ingestRunData,
 						specifiedPrimaryIndexes,
 						requiredIndexMap,
-						queue);
+						queue,
+						writeBatchSize,
+						metrics);
 				ingestTasks.add(task);
 				ingestExecutor.submit(task);
 			}
@@ -227,6 +287,8 @@ public class LocalFileIngestDriver extends
 
 				while (geowaveDataIt.hasNext()) {
 					final GeoWaveData<?> geowaveData = (GeoWaveData<?>) geowaveDataIt.next();
+					metrics.recordConverted();
+					final long offerStart = System.nanoTime();
 					try {
 						while (!queue.offer(
 								geowaveData,
@@ -266,6 +328,9 @@ public class LocalFileIngestDriver extends
 						throw new RuntimeException(
 								"Interrupted placing GeoWaveData on queue");
 					}
+					finally {
+						metrics.readerBlocked(System.nanoTime() - offerStart);
+					}
 				}
 			}
 		}
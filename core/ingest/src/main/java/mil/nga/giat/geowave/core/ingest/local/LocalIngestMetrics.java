@@ -0,0 +1,116 @@
+package mil.nga.giat.geowave.core.ingest.local;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps track of the throughput of each stage of a local ingest:
+ * reading and converting files into GeoWaveData on the reading thread, and
+ * writing the GeoWaveData on the ingest tasks. The time the reading thread is
+ * blocked on a full queue and the time the ingest tasks are waiting on an
+ * empty queue tell whether the data store or the file parsing is the
+ * bottleneck.
+ */
+public class LocalIngestMetrics
+{
+	private final long startTime = System.nanoTime();
+	private final AtomicLong filesRead = new AtomicLong(
+			0);
+	private final AtomicLong bytesRead = new AtomicLong(
+			0);
+	private final AtomicLong recordsConverted = new AtomicLong(
+			0);
+	private final AtomicLong recordsWritten = new AtomicLong(
+			0);
+	private final AtomicLong readerBlockedNanos = new AtomicLong(
+			0);
+	private final AtomicLong writerIdleNanos = new AtomicLong(
+			0);
+	private volatile BlockingQueue<?> queue;
+
+	public void fileRead(
+			final long bytes ) {
+		filesRead.incrementAndGet();
+		bytesRead.addAndGet(bytes);
+	}
+
+	public void recordConverted() {
+		recordsConverted.incrementAndGet();
+	}
+
+	public void recordsWritten(
+			final int count ) {
+		recordsWritten.addAndGet(count);
+	}
+
+	/**
+	 * @param nanos
+	 *            the time the reading thread was blocked on a full queue
+	 */
+	public void readerBlocked(
+			final long nanos ) {
+		readerBlockedNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * @param nanos
+	 *            the time an ingest task waited on an empty queue
+	 */
+	public void writerIdle(
+			final long nanos ) {
+		writerIdleNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * @param queue
+	 *            the queue currently being used, to report its depth
+	 */
+	public void setQueue(
+			final BlockingQueue<?> queue ) {
+		this.queue = queue;
+	}
+
+	public long getFilesRead() {
+		return filesRead.get();
+	}
+
+	public long getBytesRead() {
+		return bytesRead.get();
+	}
+
+	public long getRecordsConverted() {
+		return recordsConverted.get();
+	}
+
+	public long getRecordsWritten() {
+		return recordsWritten.get();
+	}
+
+	public int getQueueDepth() {
+		final BlockingQueue<?> currentQueue = queue;
+		return currentQueue == null ? 0 : currentQueue.size();
+	}
+
+	public double getElapsedSeconds() {
+		return (System.nanoTime() - startTime) / (double) TimeUnit.SECONDS.toNanos(1);
+	}
+
+	@Override
+	public String toString() {
+		final double elapsedSeconds = Math.max(
+				getElapsedSeconds(),
+				1e-9);
+		return String.format(
+				"read %d files (%.1f KB/s); converted %d records (%.1f/s); wrote %d records (%.1f/s); queue depth %d; reader blocked on full queue %.1fs; writers idle on empty queue %.1fs",
+				filesRead.get(),
+				bytesRead.get() / 1024.0 / elapsedSeconds,
+				recordsConverted.get(),
+				recordsConverted.get() / elapsedSeconds,
+				recordsWritten.get(),
+				recordsWritten.get() / elapsedSeconds,
+				getQueueDepth(),
+				readerBlockedNanos.get() / (double) TimeUnit.SECONDS.toNanos(1),
+				writerIdleNanos.get() / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+}
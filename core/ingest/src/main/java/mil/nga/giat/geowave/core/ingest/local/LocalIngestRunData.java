@@ -11,6 +11,7 @@ import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
 
 import mil.nga.giat.geowave.core.ingest.GeoWaveData;
 import mil.nga.giat.geowave.core.store.AdapterToIndexMapping;
@@ -25,9 +26,11 @@ import mil.nga.giat.geowave.core.store.memory.MemoryAdapterStore;
 import mil.nga.giat.geowave.core.store.memory.MemoryIndexStore;
 
 /**
- * This class maintains a pool of index writers keyed by the primary index. In
- * addition, it contains a static method to help create the blocking queue
- * needed by threads to execute ingest of individual GeoWaveData items.
+ * This class maintains a pool of index writers keyed by the primary index.
+ * Each ingest task borrows its own writers, so writers are never shared
+ * between threads. In addition, it contains a static method to help create the
+ * blocking queue needed by threads to execute ingest of individual GeoWaveData
+ * items.
  * 
  */
 public class LocalIngestRunData implements
@@ -47,8 +50,16 @@ public class LocalIngestRunData implements
 		// added to after this point. It's a static list.
 		adapterCache = new MemoryAdapterStore(
 				adapters.toArray(new WritableDataAdapter[adapters.size()]));
+		// every ingest task holds its own writer for each mapping, so the pool
+		// must not block or destroy writers when there are more tasks than the
+		// default limit of writers per key
+		final GenericKeyedObjectPoolConfig poolConfig = new GenericKeyedObjectPoolConfig();
+		poolConfig.setMaxTotal(-1);
+		poolConfig.setMaxTotalPerKey(-1);
+		poolConfig.setMaxIdlePerKey(-1);
 		indexWriterPool = new GenericKeyedObjectPool<>(
-				new IndexWriterFactory());
+				new IndexWriterFactory(),
+				poolConfig);
 		this.indexCache = new MemoryIndexStore();
 	}
 
@@ -50,6 +50,12 @@ public class LocalToGeowaveCommand implements
 	}, description = "number of threads to use for ingest, default to 1 (optional)")
 	private int threads = 1;
 
+	@Parameter(names = "--writeBatchSize", description = "the maximum number of entries each ingest thread takes from the read queue at a time (optional)")
+	private int writeBatchSize = LocalFileIngestDriver.DEFAULT_WRITE_BATCH_SIZE;
+
+	@Parameter(names = "--metricsInterval", description = "log the read, convert, and write throughput every this many seconds, 0 to only log it once ingest completes (optional)")
+	private int metricsInterval = 0;
+
 	private DataStorePluginOptions inputStoreOptions = null;
 
 	private List<IndexPluginOptions> inputIndexOptions = null;
@@ -118,6 +124,8 @@ public class LocalToGeowaveCommand implements
 				ingestOptions,
 				localInputOptions,
 				threads);
+		driver.setWriteBatchSize(writeBatchSize);
+		driver.setMetricsIntervalSeconds(metricsInterval);
 
 		// Execute
 		if (!driver.runOperation(inputPath)) {
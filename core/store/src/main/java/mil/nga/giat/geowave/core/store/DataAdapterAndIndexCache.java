@@ -1,44 +1,42 @@
 package mil.nga.giat.geowave.core.store;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 
 public class DataAdapterAndIndexCache
 {
-	private static Map<String, DataAdapterAndIndexCache> CACHE_MAP = new HashMap<String, DataAdapterAndIndexCache>();
+	private static final ConcurrentMap<String, DataAdapterAndIndexCache> CACHE_MAP = new ConcurrentHashMap<String, DataAdapterAndIndexCache>();
 
-	public static synchronized DataAdapterAndIndexCache getInstance(
+	public static DataAdapterAndIndexCache getInstance(
 			final String cacheId ) {
 		DataAdapterAndIndexCache instance = CACHE_MAP.get(cacheId);
 		if (instance == null) {
 			instance = new DataAdapterAndIndexCache();
-			CACHE_MAP.put(
+			final DataAdapterAndIndexCache existing = CACHE_MAP.putIfAbsent(
 					cacheId,
 					instance);
+			if (existing != null) {
+				instance = existing;
+			}
 		}
 		return instance;
 	}
 
-	private final Set<DataAdapterAndIndex> cache = new HashSet<DataAdapterAndIndex>();
+	private final Set<DataAdapterAndIndex> cache = Collections.newSetFromMap(new ConcurrentHashMap<DataAdapterAndIndex, Boolean>());
 
-	public synchronized boolean add(
+	/**
+	 * @return true if the adapter and index pair was already in the cache
+	 */
+	public boolean add(
 			final ByteArrayId adapterId,
 			final String indexId ) {
-		if (cache.contains(new DataAdapterAndIndex(
+		return !cache.add(new DataAdapterAndIndex(
 				adapterId,
-				indexId))) {
-			return true;
-		}
-		else {
-			cache.add(new DataAdapterAndIndex(
-					adapterId,
-					indexId));
-			return false;
-		}
+				indexId));
 	}
 
 	private static class DataAdapterAndIndex
@@ -12,6 +12,7 @@ import mil.nga.giat.geowave.core.store.adapter.WritableDataAdapter;
 import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatisticsStore;
 import mil.nga.giat.geowave.core.store.adapter.statistics.StatisticsProvider;
 import mil.nga.giat.geowave.core.store.adapter.statistics.StatsCompositionTool;
+import mil.nga.giat.geowave.core.store.index.AsyncSecondaryIndexDataStore;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndexDataAdapter;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndexDataManager;
@@ -22,7 +23,11 @@ public class DataStoreCallbackManager
 
 	final private DataStatisticsStore statsStore;
 	private boolean persistStats = true;
+	private boolean asyncSecondaryIndexing = false;
 	final private SecondaryIndexDataStore secondaryIndexStore;
+	// shared by every ingest and delete callback so that the updates to the
+	// secondary indices are written in the order they were made
+	private AsyncSecondaryIndexDataStore asyncSecondaryIndexStore = null;
 
 	final private boolean captureAdapterStats;
 
@@ -54,7 +59,7 @@ public class DataStoreCallbackManager
 			}
 			if (captureAdapterStats && writableAdapter instanceof SecondaryIndexDataAdapter<?>) {
 				callbackList.add(new SecondaryIndexDataManager<T>(
-						secondaryIndexStore,
+						getSecondaryIndexStore(),
 						(SecondaryIndexDataAdapter<T>) writableAdapter,
 						index.getId()));
 			}
@@ -72,6 +77,26 @@ public class DataStoreCallbackManager
 		this.persistStats = persistStats;
 	}
 
+	/**
+	 * Write secondary indices in the background rather than on the ingest
+	 * thread, they are brought up to date when the callbacks are closed
+	 */
+	public void setAsyncSecondaryIndexing(
+			final boolean asyncSecondaryIndexing ) {
+		this.asyncSecondaryIndexing = asyncSecondaryIndexing;
+	}
+
+	private SecondaryIndexDataStore getSecondaryIndexStore() {
+		if (!asyncSecondaryIndexing || (secondaryIndexStore == null)) {
+			return secondaryIndexStore;
+		}
+		if (asyncSecondaryIndexStore == null) {
+			asyncSecondaryIndexStore = new AsyncSecondaryIndexDataStore(
+					secondaryIndexStore);
+		}
+		return asyncSecondaryIndexStore;
+	}
+
 	public <T> DeleteCallback<T> getDeleteCallback(
 			final WritableDataAdapter<T> writableAdapter,
 			final PrimaryIndex index ) {
@@ -88,7 +113,7 @@ public class DataStoreCallbackManager
 			}
 			if (captureAdapterStats && writableAdapter instanceof SecondaryIndexDataAdapter<?>) {
 				callbackList.add(new SecondaryIndexDataManager<T>(
-						secondaryIndexStore,
+						getSecondaryIndexStore(),
 						(SecondaryIndexDataAdapter<T>) writableAdapter,
 						index.getId()));
 			}
@@ -113,5 +138,10 @@ public class DataStoreCallbackManager
 				((Closeable) callback).close();
 			}
 		}
+		if (asyncSecondaryIndexStore != null) {
+			// writes the queued updates and stops the background writer
+			asyncSecondaryIndexStore.close();
+			asyncSecondaryIndexStore = null;
+		}
 	}
 }
@@ -0,0 +1,121 @@
+package mil.nga.giat.geowave.core.store;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import mil.nga.giat.geowave.core.store.query.SortKey;
+import mil.nga.giat.geowave.core.store.query.TopKCollector;
+
+/**
+ * This merges iterators that are each ordered by a sort key into a single
+ * iterator in the same order. Only the next entry of each iterator is held,
+ * so the merged entries are streamed. Entries with equal sort values are
+ * returned in the order of the iterators.
+ *
+ * @param <E>
+ *            The type to iterate on
+ */
+public class MergingCloseableIterator<E> implements
+		CloseableIterator<E>
+{
+	private final List<CloseableIterator<E>> iterators;
+	private final SortKey<E> sortKey;
+	private PriorityQueue<Head<E>> heads = null;
+
+	public MergingCloseableIterator(
+			final List<CloseableIterator<E>> iterators,
+			final SortKey<E> sortKey ) {
+		this.iterators = iterators;
+		this.sortKey = sortKey;
+	}
+
+	private PriorityQueue<Head<E>> getHeads() {
+		if (heads == null) {
+			final boolean ascending = sortKey.isAscending();
+			heads = new PriorityQueue<Head<E>>(
+					Math.max(
+							iterators.size(),
+							1),
+					new Comparator<Head<E>>() {
+						@Override
+						public int compare(
+								final Head<E> o1,
+								final Head<E> o2 ) {
+							final int comparison = TopKCollector.compareSortValues(
+									ascending,
+									o1.value,
+									o2.value);
+							if (comparison != 0) {
+								return comparison;
+							}
+							return Integer.compare(
+									o1.index,
+									o2.index);
+						}
+					});
+			for (int i = 0; i < iterators.size(); i++) {
+				advance(new Head<E>(
+						i,
+						iterators.get(i)));
+			}
+		}
+		return heads;
+	}
+
+	private void advance(
+			final Head<E> head ) {
+		if (head.iterator.hasNext()) {
+			head.entry = head.iterator.next();
+			head.value = sortKey.getSortValue(head.entry);
+			heads.add(head);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !getHeads().isEmpty();
+	}
+
+	@Override
+	public E next() {
+		final Head<E> head = getHeads().poll();
+		if (head == null) {
+			throw new NoSuchElementException();
+		}
+		final E entry = head.entry;
+		advance(head);
+		return entry;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException(
+				"Merged entries cannot be removed");
+	}
+
+	@Override
+	public void close()
+			throws IOException {
+		for (final CloseableIterator<E> iterator : iterators) {
+			iterator.close();
+		}
+	}
+
+	private static class Head<E>
+	{
+		private final int index;
+		private final CloseableIterator<E> iterator;
+		private E entry;
+		private Comparable<?> value;
+
+		private Head(
+				final int index,
+				final CloseableIterator<E> iterator ) {
+			this.index = index;
+			this.iterator = iterator;
+		}
+	}
+}
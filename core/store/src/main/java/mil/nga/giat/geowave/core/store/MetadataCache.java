@@ -0,0 +1,379 @@
+package mil.nga.giat.geowave.core.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+
+/**
+ * A concurrent cache of persisted metadata objects such as adapters, indices
+ * and statistics. A single instance is shared by every metadata store that
+ * persists the same type of object to the same table, so that a lookup by one
+ * store benefits all of the others within the JVM.
+ *
+ * Lookups never lock. Entries can expire after a time to live, and the cache
+ * is bounded in size by evicting the least recently accessed entries. Objects
+ * that were looked up but do not exist can be cached as well (negative caching)
+ * with a separate time to live, which is disabled by default because the
+ * absence of an object can depend on the authorizations of the lookup.
+ *
+ * The cache also remembers the version of the persisted metadata it was
+ * populated from. Metadata stores periodically read the version, which is
+ * changed on every write or delete, and the cache is cleared if another
+ * process has changed the metadata since.
+ *
+ * @param <T>
+ *            The type of object that is cached
+ */
+public class MetadataCache<T>
+{
+	public static final long NO_EXPIRATION = -1;
+	public static final long DEFAULT_TTL_MILLIS = NO_EXPIRATION;
+	public static final long DEFAULT_NEGATIVE_TTL_MILLIS = 0;
+	public static final long DEFAULT_VERSION_CHECK_INTERVAL_MILLIS = 30000;
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+	private static final ConcurrentMap<String, MetadataCache<?>> CACHE_MAP = new ConcurrentHashMap<String, MetadataCache<?>>();
+
+	private final ConcurrentMap<ByteArrayId, CacheEntry<T>> cache = new ConcurrentHashMap<ByteArrayId, CacheEntry<T>>();
+	private final AtomicBoolean evicting = new AtomicBoolean(
+			false);
+	private final AtomicLong hitCount = new AtomicLong(
+			0);
+	private final AtomicLong missCount = new AtomicLong(
+			0);
+	private volatile long ttlMillis = DEFAULT_TTL_MILLIS;
+	private volatile long negativeTtlMillis = DEFAULT_NEGATIVE_TTL_MILLIS;
+	private volatile long versionCheckIntervalMillis = DEFAULT_VERSION_CHECK_INTERVAL_MILLIS;
+	private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+	private boolean versionKnown = false;
+	private byte[] version = null;
+
+	/**
+	 * @param cacheId
+	 *            identifies the persisted metadata, which should include
+	 *            everything that distinguishes it from other metadata such as
+	 *            the instance, the table name and the type of object
+	 * @return the cache shared by all metadata stores with this cache ID
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> MetadataCache<T> getInstance(
+			final String cacheId ) {
+		MetadataCache<?> instance = CACHE_MAP.get(cacheId);
+		if (instance == null) {
+			instance = new MetadataCache<T>();
+			final MetadataCache<?> existing = CACHE_MAP.putIfAbsent(
+					cacheId,
+					instance);
+			if (existing != null) {
+				instance = existing;
+			}
+		}
+		return (MetadataCache<T>) instance;
+	}
+
+	/**
+	 * Clear every shared metadata cache
+	 */
+	public static void clearAll() {
+		for (final MetadataCache<?> instance : CACHE_MAP.values()) {
+			instance.clear();
+		}
+	}
+
+	/**
+	 * @param id
+	 *            the ID of the object
+	 * @return the cached object, or null if it is not cached or is cached as
+	 *         absent
+	 */
+	public T get(
+			final ByteArrayId id ) {
+		final CacheEntry<T> entry = getEntry(id);
+		if ((entry == null) || (entry.value == null)) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * @param id
+	 *            the ID of the object
+	 * @return true if the object was recently looked up and did not exist
+	 */
+	public boolean isCachedAsAbsent(
+			final ByteArrayId id ) {
+		final CacheEntry<T> entry = getEntry(id);
+		return (entry != null) && (entry.value == null);
+	}
+
+	private CacheEntry<T> getEntry(
+			final ByteArrayId id ) {
+		final CacheEntry<T> entry = cache.get(id);
+		if (entry == null) {
+			return null;
+		}
+		final long now = System.currentTimeMillis();
+		if (entry.isExpired(now)) {
+			cache.remove(
+					id,
+					entry);
+			return null;
+		}
+		entry.lastAccessTime = now;
+		return entry;
+	}
+
+	public void put(
+			final ByteArrayId id,
+			final T value ) {
+		if (value == null) {
+			remove(id);
+			return;
+		}
+		putEntry(
+				id,
+				value,
+				ttlMillis);
+	}
+
+	/**
+	 * Record that the object does not exist, this is a no-op unless a positive
+	 * negative cache time to live is set
+	 *
+	 * @param id
+	 *            the ID of the object
+	 */
+	public void putAbsent(
+			final ByteArrayId id ) {
+		final long negativeTtl = negativeTtlMillis;
+		if (negativeTtl > 0) {
+			putEntry(
+					id,
+					null,
+					negativeTtl);
+		}
+	}
+
+	private void putEntry(
+			final ByteArrayId id,
+			final T value,
+			final long entryTtlMillis ) {
+		if (maxEntries <= 0) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		cache.put(
+				id,
+				new CacheEntry<T>(
+						value,
+						entryTtlMillis == NO_EXPIRATION ? Long.MAX_VALUE : now + entryTtlMillis,
+						now));
+		if (cache.size() > maxEntries) {
+			evict();
+		}
+	}
+
+	/**
+	 * @param id
+	 *            the ID of the object
+	 * @return true if an object (not an absent marker) was cached with this ID
+	 */
+	public boolean remove(
+			final ByteArrayId id ) {
+		final CacheEntry<T> entry = cache.remove(id);
+		return (entry != null) && (entry.value != null);
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	private void evict() {
+		// only one thread needs to evict at a time, the others carry on
+		if (!evicting.compareAndSet(
+				false,
+				true)) {
+			return;
+		}
+		try {
+			final long now = System.currentTimeMillis();
+			final List<Map.Entry<ByteArrayId, CacheEntry<T>>> entries = new ArrayList<Map.Entry<ByteArrayId, CacheEntry<T>>>();
+			for (final Map.Entry<ByteArrayId, CacheEntry<T>> entry : cache.entrySet()) {
+				if (entry.getValue().isExpired(now)) {
+					cache.remove(
+							entry.getKey(),
+							entry.getValue());
+				}
+				else {
+					entries.add(entry);
+				}
+			}
+			final int excess = entries.size() - maxEntries;
+			if (excess <= 0) {
+				return;
+			}
+			// snapshot the access times, which concurrent lookups keep
+			// changing, and evict the entries accessed least recently
+			final long[] accessTimes = new long[entries.size()];
+			for (int i = 0; i < accessTimes.length; i++) {
+				accessTimes[i] = entries.get(
+						i).getValue().lastAccessTime;
+			}
+			final long[] sortedAccessTimes = Arrays.copyOf(
+					accessTimes,
+					accessTimes.length);
+			Arrays.sort(sortedAccessTimes);
+			final long threshold = sortedAccessTimes[excess - 1];
+			int evicted = 0;
+			for (int i = 0; (i < accessTimes.length) && (evicted < excess); i++) {
+				if (accessTimes[i] <= threshold) {
+					final Map.Entry<ByteArrayId, CacheEntry<T>> entry = entries.get(i);
+					cache.remove(
+							entry.getKey(),
+							entry.getValue());
+					evicted++;
+				}
+			}
+		}
+		finally {
+			evicting.set(false);
+		}
+	}
+
+	/**
+	 * Compare the version of the persisted metadata with the version this
+	 * cache was populated from, and clear the cache if it has changed
+	 *
+	 * @param currentVersion
+	 *            the persisted version, or null if there is none
+	 * @return true if the cache was cleared
+	 */
+	public synchronized boolean validateVersion(
+			final byte[] currentVersion ) {
+		final boolean changed = versionKnown && !Arrays.equals(
+				version,
+				currentVersion);
+		if (changed) {
+			clear();
+		}
+		setVersion(currentVersion);
+		return changed;
+	}
+
+	/**
+	 * Set the version of the persisted metadata without clearing the cache,
+	 * used after this process changed the metadata itself
+	 *
+	 * @param currentVersion
+	 *            the persisted version
+	 */
+	public synchronized void setVersion(
+			final byte[] currentVersion ) {
+		version = currentVersion;
+		versionKnown = true;
+	}
+
+	/**
+	 * @param ttlMillis
+	 *            how long an object is cached after it is loaded, or
+	 *            NO_EXPIRATION
+	 */
+	public void setTtlMillis(
+			final long ttlMillis ) {
+		this.ttlMillis = ttlMillis;
+	}
+
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	/**
+	 * @param negativeTtlMillis
+	 *            how long an object that does not exist is cached as absent,
+	 *            0 disables negative caching
+	 */
+	public void setNegativeTtlMillis(
+			final long negativeTtlMillis ) {
+		this.negativeTtlMillis = negativeTtlMillis;
+	}
+
+	public long getNegativeTtlMillis() {
+		return negativeTtlMillis;
+	}
+
+	/**
+	 * @param versionCheckIntervalMillis
+	 *            the minimum time between reads of the persisted version by
+	 *            each metadata store, a negative value disables the checks
+	 */
+	public void setVersionCheckIntervalMillis(
+			final long versionCheckIntervalMillis ) {
+		this.versionCheckIntervalMillis = versionCheckIntervalMillis;
+	}
+
+	public long getVersionCheckIntervalMillis() {
+		return versionCheckIntervalMillis;
+	}
+
+	/**
+	 * @param maxEntries
+	 *            the maximum number of cached entries, 0 disables caching
+	 */
+	public void setMaxEntries(
+			final int maxEntries ) {
+		this.maxEntries = maxEntries;
+		if (maxEntries <= 0) {
+			clear();
+		}
+		else if (cache.size() > maxEntries) {
+			evict();
+		}
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	private static class CacheEntry<T>
+	{
+		// a null value marks an object that does not exist
+		private final T value;
+		private final long expirationTime;
+		private volatile long lastAccessTime;
+
+		private CacheEntry(
+				final T value,
+				final long expirationTime,
+				final long lastAccessTime ) {
+			this.value = value;
+			this.expirationTime = expirationTime;
+			this.lastAccessTime = lastAccessTime;
+		}
+
+		private boolean isExpired(
+				final long now ) {
+			return now >= expirationTime;
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package mil.nga.giat.geowave.core.store.adapter.statistics;
 
+import java.util.Collection;
+
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
 
@@ -32,6 +34,18 @@ public interface DataStatisticsStore
 	public void incorporateStatistics(
 			DataStatistics<?> statistics );
 
+	/**
+	 * Add each of the statistics to the store as with incorporateStatistics,
+	 * writing them all at once if the store is able to. A failure to write the
+	 * statistics is thrown as an unchecked exception so that the caller can
+	 * retry them.
+	 * 
+	 * @param statistics
+	 *            the data statistics
+	 */
+	public void incorporateAllStatistics(
+			Collection<? extends DataStatistics<?>> statistics );
+
 	/**
 	 * Get all data statistics from the store by a data adapter ID
 	 * 
@@ -2,9 +2,21 @@ package mil.nga.giat.geowave.core.store.adapter.statistics;
 
 import java.io.Closeable;
 import java.io.Flushable;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
 
@@ -15,11 +27,19 @@ import mil.nga.giat.geowave.core.store.IngestCallback;
 import mil.nga.giat.geowave.core.store.ScanCallback;
 
 /**
- * 
+ *
  * This tool does not react to callbacks if the provided statistics store is
  * null or the provided data adapter does not implement
  * {@link DataStatisticsStore}.
- * 
+ *
+ * Each thread accumulates its own partial statistics so that callbacks from
+ * different threads do not contend with each other. A background flusher
+ * periodically, or once a thread has seen FLUSH_STATS_THRESHOLD entries,
+ * merges the partial statistics and incorporates them into the store in a
+ * single batch. If the store fails, the merged statistics are kept and retried
+ * on the next flush without blocking the callbacks. Flushing and closing the
+ * tool write the statistics on the calling thread.
+ *
  * @param <T>
  *            Entry type
  */
@@ -33,13 +53,33 @@ public class StatsCompositionTool<T> implements
 {
 	private final static Logger LOGGER = Logger.getLogger(StatsCompositionTool.class);
 	public static final int FLUSH_STATS_THRESHOLD = 16384;
+	public static final long FLUSH_STATS_PERIOD_MILLIS = 30000;
 
-	int updateCount = 0;
-	DataStatisticsStore statisticsStore;
-	List<DataStatisticsBuilder<T>> statisticsBuilders = null;
-	final Object MUTEX = new Object();
+	private static final ScheduledExecutorService FLUSH_EXECUTOR = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(
+				final Runnable r ) {
+			final Thread thread = new Thread(
+					r,
+					"StatsCompositionTool-flush");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	volatile DataStatisticsStore statisticsStore;
+	StatisticsProvider<T> statisticsProvider = null;
 	protected boolean skipFlush = false;
 
+	private final ThreadLocal<PartialStatistics<T>> threadPartials = new ThreadLocal<PartialStatistics<T>>();
+	private final Queue<PartialStatistics<T>> partials = new ConcurrentLinkedQueue<PartialStatistics<T>>();
+	// statistics drained from the partials that have not yet been written,
+	// by statistics ID and visibility
+	private final Map<ByteArrayId, Map<ByteArrayId, DataStatistics<T>>> pending = new HashMap<ByteArrayId, Map<ByteArrayId, DataStatistics<T>>>();
+	private final AtomicBoolean flushQueued = new AtomicBoolean(
+			false);
+	private ScheduledFuture<?> periodicFlush = null;
+
 	public StatsCompositionTool() {
 		statisticsStore = null;
 	}
@@ -59,14 +99,7 @@ public class StatsCompositionTool<T> implements
 
 	private void init(
 			final StatisticsProvider<T> statisticsProvider ) {
-		final ByteArrayId[] statisticsIds = statisticsProvider.getSupportedStatisticsIds();
-		statisticsBuilders = new ArrayList<DataStatisticsBuilder<T>>(
-				statisticsIds.length);
-		for (final ByteArrayId id : statisticsIds) {
-			statisticsBuilders.add(new DataStatisticsBuilder<T>(
-					statisticsProvider,
-					id));
-		}
+		this.statisticsProvider = statisticsProvider;
 		try {
 			final Object v = System.getProperty("StatsCompositionTool.skipFlush");
 			skipFlush = ((v != null) && v.toString().equalsIgnoreCase(
@@ -83,39 +116,40 @@ public class StatsCompositionTool<T> implements
 	public void entryDeleted(
 			final DataStoreEntryInfo entryInfo,
 			final T entry ) {
-		if (statisticsBuilders == null) {
+		if (statisticsProvider == null) {
 			return;
 		}
-		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
+		final PartialStatistics<T> partial = getPartial();
+		final boolean flush;
+		synchronized (partial) {
+			for (final DataStatisticsBuilder<T> builder : partial.builders) {
 				builder.entryDeleted(
 						entryInfo,
 						entry);
 			}
-			updateCount++;
-			checkStats();
+			flush = partial.entryUpdated();
 		}
-
+		checkStats(flush);
 	}
 
 	@Override
 	public void entryScanned(
 			final DataStoreEntryInfo entryInfo,
 			final T entry ) {
-		if (statisticsBuilders == null) {
+		if (statisticsProvider == null) {
 			return;
 		}
-
-		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
+		final PartialStatistics<T> partial = getPartial();
+		final boolean flush;
+		synchronized (partial) {
+			for (final DataStatisticsBuilder<T> builder : partial.builders) {
 				builder.entryScanned(
 						entryInfo,
 						entry);
 			}
-			updateCount++;
-			checkStats();
+			flush = partial.entryUpdated();
 		}
-
+		checkStats(flush);
 	}
 
 	/**
@@ -123,34 +157,29 @@ public class StatsCompositionTool<T> implements
 	 */
 	@Override
 	public void flush() {
-		if (statisticsBuilders == null) {
+		if (statisticsProvider == null) {
 			return;
 		}
-
-		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
-				final Collection<DataStatistics<T>> statistics = builder.getStatistics();
-				for (final DataStatistics<T> s : statistics) {
-					statisticsStore.incorporateStatistics(s);
-				}
-				statistics.clear();
-			}
-		}
+		writeStats(true);
 	}
 
 	/**
 	 * Reset statistics, losing and updates since last flush
 	 */
 	public void reset() {
-		if (statisticsBuilders == null) {
+		if (statisticsProvider == null) {
 			return;
 		}
 
-		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
-				final Collection<DataStatistics<T>> statistics = builder.getStatistics();
-				statistics.clear();
+		synchronized (pending) {
+			for (final PartialStatistics<T> partial : partials) {
+				synchronized (partial) {
+					for (final DataStatisticsBuilder<T> builder : partial.builders) {
+						builder.getStatistics().clear();
+					}
+				}
 			}
+			pending.clear();
 		}
 	}
 
@@ -158,24 +187,42 @@ public class StatsCompositionTool<T> implements
 	public void entryIngested(
 			final DataStoreEntryInfo entryInfo,
 			final T entry ) {
-		if (statisticsBuilders == null) {
+		if (statisticsProvider == null) {
 			return;
 		}
-
-		synchronized (MUTEX) {
-			for (final DataStatisticsBuilder<T> builder : statisticsBuilders) {
+		final PartialStatistics<T> partial = getPartial();
+		final boolean flush;
+		synchronized (partial) {
+			for (final DataStatisticsBuilder<T> builder : partial.builders) {
 				builder.entryIngested(
 						entryInfo,
 						entry);
 			}
-			updateCount++;
-			checkStats();
+			flush = partial.entryUpdated();
 		}
+		checkStats(flush);
 	}
 
 	@Override
 	public void close() {
+		synchronized (this) {
+			if (periodicFlush != null) {
+				periodicFlush.cancel(false);
+				periodicFlush = null;
+			}
+		}
 		flush();
+		synchronized (pending) {
+			// the partials of other threads would otherwise be kept by their
+			// thread locals for as long as those threads live
+			for (final PartialStatistics<T> partial : partials) {
+				synchronized (partial) {
+					partial.retire();
+				}
+			}
+			partials.clear();
+		}
+		threadPartials.remove();
 	}
 
 	public void setStatisticsStore(
@@ -183,10 +230,217 @@ public class StatsCompositionTool<T> implements
 		this.statisticsStore = statisticsStore;
 	}
 
-	private void checkStats() {
-		if (!skipFlush && (updateCount > FLUSH_STATS_THRESHOLD)) {
-			updateCount = 0;
+	private PartialStatistics<T> getPartial() {
+		PartialStatistics<T> partial = threadPartials.get();
+		if ((partial == null) || partial.isRetired()) {
+			partial = new PartialStatistics<T>(
+					statisticsProvider);
+			threadPartials.set(partial);
+			partials.add(partial);
+			schedulePeriodicFlush();
 		}
+		return partial;
 	}
 
+	private synchronized void schedulePeriodicFlush() {
+		if (skipFlush || (periodicFlush != null)) {
+			return;
+		}
+		final PeriodicFlush<T> task = new PeriodicFlush<T>(
+				this);
+		periodicFlush = FLUSH_EXECUTOR.scheduleWithFixedDelay(
+				task,
+				FLUSH_STATS_PERIOD_MILLIS,
+				FLUSH_STATS_PERIOD_MILLIS,
+				TimeUnit.MILLISECONDS);
+		task.setFuture(periodicFlush);
+	}
+
+	private void checkStats(
+			final boolean thresholdReached ) {
+		if (!skipFlush && thresholdReached && flushQueued.compareAndSet(
+				false,
+				true)) {
+			FLUSH_EXECUTOR.execute(new Runnable() {
+				@Override
+				public void run() {
+					flushQueued.set(false);
+					writeStats(false);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Merge the partial statistics of every thread with any statistics that
+	 * previously failed to be written and incorporate them all into the store
+	 *
+	 * @param finalAttempt
+	 *            if true, statistics that fail to be written are dropped
+	 *            rather than retried on the next flush
+	 */
+	private void writeStats(
+			final boolean finalAttempt ) {
+		final DataStatisticsStore store = statisticsStore;
+		synchronized (pending) {
+			final Iterator<PartialStatistics<T>> it = partials.iterator();
+			while (it.hasNext()) {
+				final PartialStatistics<T> partial = it.next();
+				// a finished thread cannot update its partial statistics
+				// again, so once drained they can be discarded
+				final boolean ownerFinished = partial.isOwnerFinished();
+				final List<DataStatistics<T>> drained = new ArrayList<DataStatistics<T>>();
+				synchronized (partial) {
+					for (final DataStatisticsBuilder<T> builder : partial.builders) {
+						final Collection<DataStatistics<T>> statistics = builder.getStatistics();
+						drained.addAll(statistics);
+						statistics.clear();
+					}
+				}
+				for (final DataStatistics<T> s : drained) {
+					addPending(s);
+				}
+				if (ownerFinished) {
+					it.remove();
+				}
+			}
+			if (pending.isEmpty() || (store == null)) {
+				return;
+			}
+			final List<DataStatistics<T>> batch = new ArrayList<DataStatistics<T>>();
+			for (final Map<ByteArrayId, DataStatistics<T>> statistics : pending.values()) {
+				batch.addAll(statistics.values());
+			}
+			try {
+				store.incorporateAllStatistics(batch);
+				pending.clear();
+			}
+			catch (final RuntimeException e) {
+				if (finalAttempt) {
+					pending.clear();
+					LOGGER.error(
+							"Unable to write statistics",
+							e);
+				}
+				else {
+					LOGGER.warn(
+							"Unable to write statistics, retrying on the next flush",
+							e);
+				}
+			}
+		}
+	}
+
+	private void addPending(
+			final DataStatistics<T> statistics ) {
+		Map<ByteArrayId, DataStatistics<T>> statisticsByVisibility = pending.get(statistics.getStatisticsId());
+		if (statisticsByVisibility == null) {
+			statisticsByVisibility = new HashMap<ByteArrayId, DataStatistics<T>>();
+			pending.put(
+					statistics.getStatisticsId(),
+					statisticsByVisibility);
+		}
+		final ByteArrayId visibility = new ByteArrayId(
+				statistics.getVisibility());
+		final DataStatistics<T> existing = statisticsByVisibility.get(visibility);
+		if (existing == null) {
+			statisticsByVisibility.put(
+					visibility,
+					statistics);
+		}
+		else {
+			existing.merge(statistics);
+		}
+	}
+
+	/**
+	 * The statistics accumulated by a single thread, which are only contended
+	 * while they are drained by a flush
+	 */
+	private static class PartialStatistics<T>
+	{
+		private final List<DataStatisticsBuilder<T>> builders;
+		private final WeakReference<Thread> owner = new WeakReference<Thread>(
+				Thread.currentThread());
+		private int updateCount = 0;
+		private volatile boolean retired = false;
+
+		private PartialStatistics(
+				final StatisticsProvider<T> statisticsProvider ) {
+			final ByteArrayId[] statisticsIds = statisticsProvider.getSupportedStatisticsIds();
+			builders = new ArrayList<DataStatisticsBuilder<T>>(
+					statisticsIds.length);
+			for (final ByteArrayId id : statisticsIds) {
+				builders.add(new DataStatisticsBuilder<T>(
+						statisticsProvider,
+						id));
+			}
+		}
+
+		/**
+		 * @return true if enough entries have been seen to flush
+		 */
+		private boolean entryUpdated() {
+			if (++updateCount > FLUSH_STATS_THRESHOLD) {
+				updateCount = 0;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Release the builders once the tool is closed, the owning thread
+		 * starts a new partial if it updates the tool again
+		 */
+		private void retire() {
+			builders.clear();
+			retired = true;
+		}
+
+		private boolean isRetired() {
+			return retired;
+		}
+
+		private boolean isOwnerFinished() {
+			final Thread thread = owner.get();
+			return (thread == null) || !thread.isAlive();
+		}
+	}
+
+	/**
+	 * Periodically flushes a tool that is only weakly referenced, so that a
+	 * tool that is never closed can still be garbage collected, at which point
+	 * the flush is cancelled. This must not be an inner class, which would
+	 * strongly reference the tool.
+	 */
+	static class PeriodicFlush<T> implements
+			Runnable
+	{
+		private final WeakReference<StatsCompositionTool<T>> toolRef;
+		private volatile ScheduledFuture<?> future;
+
+		PeriodicFlush(
+				final StatsCompositionTool<T> tool ) {
+			toolRef = new WeakReference<StatsCompositionTool<T>>(
+					tool);
+		}
+
+		private void setFuture(
+				final ScheduledFuture<?> future ) {
+			this.future = future;
+		}
+
+		@Override
+		public void run() {
+			final StatsCompositionTool<T> tool = toolRef.get();
+			if (tool == null) {
+				final ScheduledFuture<?> f = future;
+				if (f != null) {
+					f.cancel(false);
+				}
+				return;
+			}
+			tool.writeStats(false);
+		}
+	}
 }
@@ -17,10 +17,13 @@ public class ArrayReader<FieldType> implements
 {
 
 	private final FieldReader<FieldType> reader;
+	// reads the elements directly from the array's buffer when supported
+	private final BatchFieldReader<FieldType> batchReader;
 
 	public ArrayReader(
 			final FieldReader<FieldType> reader ) {
 		this.reader = reader;
+		batchReader = (reader instanceof BatchFieldReader) ? (BatchFieldReader<FieldType>) reader : null;
 	}
 
 	@Override
@@ -60,7 +63,7 @@ public class ArrayReader<FieldType> implements
 
 		final int bytesPerEntry = buff.getInt();
 
-		final byte[] data = new byte[bytesPerEntry];
+		final byte[] data = (batchReader == null) ? new byte[bytesPerEntry] : null;
 
 		while (buff.remaining() > 0) {
 
@@ -74,8 +77,15 @@ public class ArrayReader<FieldType> implements
 
 				if ((header & mask) != 0) {
 					if (buff.remaining() > 0) {
-						buff.get(data);
-						result.add(reader.readField(data));
+						if (batchReader != null) {
+							result.add(readEntry(
+									buff,
+									bytesPerEntry));
+						}
+						else {
+							buff.get(data);
+							result.add(reader.readField(data));
+						}
 					}
 					else {
 						break;
@@ -112,9 +122,16 @@ public class ArrayReader<FieldType> implements
 		while (buff.remaining() >= 4) {
 			final int size = buff.getInt();
 			if (size > 0) {
-				final byte[] bytes = new byte[size];
-				buff.get(bytes);
-				result.add(reader.readField(bytes));
+				if (batchReader != null) {
+					result.add(readEntry(
+							buff,
+							size));
+				}
+				else {
+					final byte[] bytes = new byte[size];
+					buff.get(bytes);
+					result.add(reader.readField(bytes));
+				}
 			}
 			else {
 				result.add(null);
@@ -128,6 +145,18 @@ public class ArrayReader<FieldType> implements
 		return result.toArray(resultArray);
 	}
 
+	private FieldType readEntry(
+			final ByteBuffer buff,
+			final int length ) {
+		final int start = buff.position();
+		final FieldType value = batchReader.readField(
+				buff,
+				length);
+		// always advance by the entry's length regardless of what was read
+		buff.position(start + length);
+		return value;
+	}
+
 	public static class FixedSizeObjectArrayReader<FieldType> extends
 			ArrayReader<FieldType>
 	{
@@ -31,6 +31,8 @@ abstract public class ArrayWriter<RowType, FieldType> implements
 
 	private FieldVisibilityHandler<RowType, Object> visibilityHandler;
 	private FieldWriter<RowType, FieldType> writer;
+	// writes the elements directly into the array's buffer when supported
+	private BatchFieldWriter<RowType, FieldType> batchWriter;
 
 	public ArrayWriter(
 			final FieldWriter<RowType, FieldType> writer ) {
@@ -44,6 +46,9 @@ abstract public class ArrayWriter<RowType, FieldType> implements
 			final FieldVisibilityHandler<RowType, Object> visibilityHandler ) {
 		this.writer = writer;
 		this.visibilityHandler = visibilityHandler;
+		if (writer instanceof BatchFieldWriter) {
+			batchWriter = (BatchFieldWriter<RowType, FieldType>) writer;
+		}
 	}
 
 	protected byte[] writeFixedSizeField(
@@ -54,16 +59,19 @@ abstract public class ArrayWriter<RowType, FieldType> implements
 		}
 
 		final byte[][] byteData = getBytes(fieldValue);
+		final int[] lengths = getLengths(
+				fieldValue,
+				byteData);
 
-		final ByteBuffer buf = ByteBuffer.allocate(5 + (int) Math.ceil(fieldValue.length / 8.0) + getLength(byteData));
+		final ByteBuffer buf = ByteBuffer.allocate(5 + (int) Math.ceil(fieldValue.length / 8.0) + getLength(lengths));
 
 		// this is a header value to indicate how data should be read/written
 		buf.put(Encoding.FIXED_SIZE_ENCODING.getByteEncoding());
 
 		int bytesPerEntry = 0;
-		for (final byte[] bytes : byteData) {
-			if (bytes.length > 0) {
-				bytesPerEntry = bytes.length;
+		for (final int length : lengths) {
+			if (length > 0) {
+				bytesPerEntry = length;
 			}
 		}
 
@@ -85,7 +93,11 @@ abstract public class ArrayWriter<RowType, FieldType> implements
 					header = header & mask;
 				}
 				else {
-					buf.put(byteData[i + j]);
+					putEntry(
+							buf,
+							fieldValue,
+							byteData,
+							i + j);
 				}
 			}
 
@@ -104,15 +116,22 @@ abstract public class ArrayWriter<RowType, FieldType> implements
 		}
 
 		final byte[][] bytes = getBytes(fieldValue);
-		final ByteBuffer buf = ByteBuffer.allocate(1 + (4 * fieldValue.length) + getLength(bytes));
+		final int[] lengths = getLengths(
+				fieldValue,
+				bytes);
+		final ByteBuffer buf = ByteBuffer.allocate(1 + (4 * fieldValue.length) + getLength(lengths));
 
 		// this is a header value to indicate how data should be read/written
 		buf.put(Encoding.VARIABLE_SIZE_ENCODING.getByteEncoding());
 
-		for (final byte[] entry : bytes) {
-			buf.putInt(entry.length);
-			if (entry.length > 0) {
-				buf.put(entry);
+		for (int i = 0; i < fieldValue.length; i++) {
+			buf.putInt(lengths[i]);
+			if (lengths[i] > 0) {
+				putEntry(
+						buf,
+						fieldValue,
+						bytes,
+						i);
 			}
 		}
 
@@ -133,9 +152,15 @@ abstract public class ArrayWriter<RowType, FieldType> implements
 		return new byte[] {};
 	}
 
+	/**
+	 * @return the serialized elements, or null if the elements are written
+	 *         directly into the array's buffer
+	 */
 	private byte[][] getBytes(
 			final FieldType[] fieldData ) {
-
+		if (batchWriter != null) {
+			return null;
+		}
 		final byte[][] bytes = new byte[fieldData.length][];
 		for (int i = 0; i < fieldData.length; i++) {
 			if (fieldData[i] == null) {
@@ -148,15 +173,45 @@ abstract public class ArrayWriter<RowType, FieldType> implements
 		return bytes;
 	}
 
-	private int getLength(
+	private int[] getLengths(
+			final FieldType[] fieldData,
 			final byte[][] bytes ) {
+		final int[] lengths = new int[fieldData.length];
+		for (int i = 0; i < fieldData.length; i++) {
+			if (bytes != null) {
+				lengths[i] = bytes[i].length;
+			}
+			else if (fieldData[i] != null) {
+				lengths[i] = batchWriter.getEncodedLength(fieldData[i]);
+			}
+		}
+		return lengths;
+	}
+
+	private int getLength(
+			final int[] lengths ) {
 		int length = 0;
-		for (final byte[] entry : bytes) {
-			length += entry.length;
+		for (final int entryLength : lengths) {
+			length += entryLength;
 		}
 		return length;
 	}
 
+	private void putEntry(
+			final ByteBuffer buf,
+			final FieldType[] fieldData,
+			final byte[][] bytes,
+			final int index ) {
+		if (bytes != null) {
+			buf.put(bytes[index]);
+		}
+		else {
+			batchWriter.writeField(
+					fieldData[index],
+					buf);
+		}
+	}
+
 	public static class FixedSizeObjectArrayWriter<RowType, FieldType> extends
 			ArrayWriter<RowType, FieldType>
 	{
@@ -0,0 +1,29 @@
+package mil.nga.giat.geowave.core.store.data.field;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This interface extends a field reader to deserialize a field directly from a
+ * buffer that is shared by a batch of values, such as the elements of an array
+ * field or the fields of a row that are persisted as a single value, rather
+ * than copying each value into its own byte array
+ * 
+ * @param <FieldType>
+ */
+public interface BatchFieldReader<FieldType> extends
+		FieldReader<FieldType>
+{
+	/**
+	 * Deserializes the field from the buffer at its current position
+	 * 
+	 * @param buffer
+	 *            The buffer containing the binary serialization of the data
+	 *            object
+	 * @param length
+	 *            The number of bytes of the serialization
+	 * @return The deserialization of the entry
+	 */
+	public FieldType readField(
+			ByteBuffer buffer,
+			int length );
+}
@@ -0,0 +1,40 @@
+package mil.nga.giat.geowave.core.store.data.field;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This interface extends a field writer to serialize a field's value directly
+ * into a buffer that is shared by a batch of values, such as the elements of an
+ * array field or the fields of a row that are persisted as a single value,
+ * rather than allocating a byte array for each value. The shared buffer is
+ * sized up front using getEncodedLength() and becomes the serialized value of
+ * the batch, so it is allocated once, at its exact size, rather than reused.
+ * 
+ * @param <RowType>
+ * @param <FieldType>
+ */
+public interface BatchFieldWriter<RowType, FieldType> extends
+		FieldWriter<RowType, FieldType>
+{
+	/**
+	 * @param fieldValue
+	 *            The data object to serialize
+	 * @return The number of bytes the data object is serialized to, 0 for null
+	 */
+	public int getEncodedLength(
+			FieldType fieldValue );
+
+	/**
+	 * Serializes the entry into the buffer at its current position, writing
+	 * the same bytes as {@link #writeField(Object)}
+	 * 
+	 * @param fieldValue
+	 *            The data object to serialize
+	 * @param buffer
+	 *            The buffer to write to, with at least getEncodedLength()
+	 *            bytes remaining
+	 */
+	public void writeField(
+			FieldType fieldValue,
+			ByteBuffer buffer );
+}
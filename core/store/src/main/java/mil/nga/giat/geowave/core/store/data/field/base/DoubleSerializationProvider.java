@@ -3,6 +3,8 @@ package mil.nga.giat.geowave.core.store.data.field.base;
 import java.nio.ByteBuffer;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldReader;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldWriter;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.data.field.FieldSerializationProviderSpi;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
@@ -21,7 +23,7 @@ public class DoubleSerializationProvider implements
 	}
 
 	protected static class DoubleReader implements
-			FieldReader<Double>
+			BatchFieldReader<Double>
 	{
 		@Override
 		public Double readField(
@@ -32,10 +34,20 @@ public class DoubleSerializationProvider implements
 			return ByteBuffer.wrap(
 					fieldData).getDouble();
 		}
+
+		@Override
+		public Double readField(
+				final ByteBuffer buffer,
+				final int length ) {
+			if (length < 8) {
+				return null;
+			}
+			return buffer.getDouble();
+		}
 	}
 
 	protected static class DoubleWriter implements
-			FieldWriter<Object, Double>
+			BatchFieldWriter<Object, Double>
 	{
 		@Override
 		public byte[] writeField(
@@ -49,6 +61,21 @@ public class DoubleSerializationProvider implements
 			return buf.array();
 		}
 
+		@Override
+		public int getEncodedLength(
+				final Double fieldValue ) {
+			return (fieldValue == null) ? 0 : 8;
+		}
+
+		@Override
+		public void writeField(
+				final Double fieldValue,
+				final ByteBuffer buffer ) {
+			if (fieldValue != null) {
+				buffer.putDouble(fieldValue);
+			}
+		}
+
 		@Override
 		public byte[] getVisibility(
 				final Object rowValue,
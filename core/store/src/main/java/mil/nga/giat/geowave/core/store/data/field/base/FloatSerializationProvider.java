@@ -3,6 +3,8 @@ package mil.nga.giat.geowave.core.store.data.field.base;
 import java.nio.ByteBuffer;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldReader;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldWriter;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.data.field.FieldSerializationProviderSpi;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
@@ -21,7 +23,7 @@ public class FloatSerializationProvider implements
 	}
 
 	protected static class FloatReader implements
-			FieldReader<Float>
+			BatchFieldReader<Float>
 	{
 		@Override
 		public Float readField(
@@ -32,10 +34,20 @@ public class FloatSerializationProvider implements
 			return ByteBuffer.wrap(
 					fieldData).getFloat();
 		}
+
+		@Override
+		public Float readField(
+				final ByteBuffer buffer,
+				final int length ) {
+			if (length < 4) {
+				return null;
+			}
+			return buffer.getFloat();
+		}
 	}
 
 	protected static class FloatWriter implements
-			FieldWriter<Object, Float>
+			BatchFieldWriter<Object, Float>
 	{
 		@Override
 		public byte[] writeField(
@@ -48,6 +60,21 @@ public class FloatSerializationProvider implements
 			return buf.array();
 		}
 
+		@Override
+		public int getEncodedLength(
+				final Float fieldValue ) {
+			return (fieldValue == null) ? 0 : 4;
+		}
+
+		@Override
+		public void writeField(
+				final Float fieldValue,
+				final ByteBuffer buffer ) {
+			if (fieldValue != null) {
+				buffer.putFloat(fieldValue);
+			}
+		}
+
 		@Override
 		public byte[] getVisibility(
 				final Object rowValue,
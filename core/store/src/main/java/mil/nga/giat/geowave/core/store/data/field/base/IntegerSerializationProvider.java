@@ -3,6 +3,8 @@ package mil.nga.giat.geowave.core.store.data.field.base;
 import java.nio.ByteBuffer;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldReader;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldWriter;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.data.field.FieldSerializationProviderSpi;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
@@ -22,7 +24,7 @@ public class IntegerSerializationProvider implements
 	}
 
 	protected static class IntegerReader implements
-			FieldReader<Integer>
+			BatchFieldReader<Integer>
 	{
 		@Override
 		public Integer readField(
@@ -34,10 +36,19 @@ public class IntegerSerializationProvider implements
 					fieldData).getInt();
 		}
 
+		@Override
+		public Integer readField(
+				final ByteBuffer buffer,
+				final int length ) {
+			if (length < 4) {
+				return null;
+			}
+			return buffer.getInt();
+		}
 	}
 
 	protected static class IntegerWriter implements
-			FieldWriter<Object, Integer>
+			BatchFieldWriter<Object, Integer>
 	{
 		@Override
 		public byte[] writeField(
@@ -51,6 +62,21 @@ public class IntegerSerializationProvider implements
 			return buf.array();
 		}
 
+		@Override
+		public int getEncodedLength(
+				final Integer fieldValue ) {
+			return (fieldValue == null) ? 0 : 4;
+		}
+
+		@Override
+		public void writeField(
+				final Integer fieldValue,
+				final ByteBuffer buffer ) {
+			if (fieldValue != null) {
+				buffer.putInt(fieldValue);
+			}
+		}
+
 		@Override
 		public byte[] getVisibility(
 				final Object rowValue,
@@ -3,6 +3,8 @@ package mil.nga.giat.geowave.core.store.data.field.base;
 import java.nio.ByteBuffer;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldReader;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldWriter;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.data.field.FieldSerializationProviderSpi;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
@@ -21,7 +23,7 @@ public class LongSerializationProvider implements
 	}
 
 	protected static class LongReader implements
-			FieldReader<Long>
+			BatchFieldReader<Long>
 	{
 		@Override
 		public Long readField(
@@ -32,10 +34,20 @@ public class LongSerializationProvider implements
 			return ByteBuffer.wrap(
 					fieldData).getLong();
 		}
+
+		@Override
+		public Long readField(
+				final ByteBuffer buffer,
+				final int length ) {
+			if (length < 8) {
+				return null;
+			}
+			return buffer.getLong();
+		}
 	}
 
 	protected static class LongWriter implements
-			FieldWriter<Object, Long>
+			BatchFieldWriter<Object, Long>
 	{
 		public LongWriter() {
 			super();
@@ -53,6 +65,21 @@ public class LongSerializationProvider implements
 			return buf.array();
 		}
 
+		@Override
+		public int getEncodedLength(
+				final Long fieldValue ) {
+			return (fieldValue == null) ? 0 : 8;
+		}
+
+		@Override
+		public void writeField(
+				final Long fieldValue,
+				final ByteBuffer buffer ) {
+			if (fieldValue != null) {
+				buffer.putLong(fieldValue);
+			}
+		}
+
 		@Override
 		public byte[] getVisibility(
 				final Object rowValue,
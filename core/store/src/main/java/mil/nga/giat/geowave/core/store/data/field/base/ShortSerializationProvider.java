@@ -3,6 +3,8 @@ package mil.nga.giat.geowave.core.store.data.field.base;
 import java.nio.ByteBuffer;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldReader;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldWriter;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.data.field.FieldSerializationProviderSpi;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
@@ -22,7 +24,7 @@ public class ShortSerializationProvider implements
 	}
 
 	protected static class ShortReader implements
-			FieldReader<Short>
+			BatchFieldReader<Short>
 	{
 		@Override
 		public Short readField(
@@ -33,10 +35,20 @@ public class ShortSerializationProvider implements
 			return ByteBuffer.wrap(
 					fieldData).getShort();
 		}
+
+		@Override
+		public Short readField(
+				final ByteBuffer buffer,
+				final int length ) {
+			if (length < 2) {
+				return null;
+			}
+			return buffer.getShort();
+		}
 	}
 
 	protected static class ShortWriter implements
-			FieldWriter<Object, Short>
+			BatchFieldWriter<Object, Short>
 	{
 		@Override
 		public byte[] writeField(
@@ -50,6 +62,21 @@ public class ShortSerializationProvider implements
 			return buf.array();
 		}
 
+		@Override
+		public int getEncodedLength(
+				final Short fieldValue ) {
+			return (fieldValue == null) ? 0 : 2;
+		}
+
+		@Override
+		public void writeField(
+				final Short fieldValue,
+				final ByteBuffer buffer ) {
+			if (fieldValue != null) {
+				buffer.putShort(fieldValue);
+			}
+		}
+
 		@Override
 		public byte[] getVisibility(
 				final Object rowValue,
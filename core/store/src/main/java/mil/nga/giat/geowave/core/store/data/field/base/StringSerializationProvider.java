@@ -1,7 +1,11 @@
 package mil.nga.giat.geowave.core.store.data.field.base;
 
+import java.nio.ByteBuffer;
+
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldReader;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldWriter;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.data.field.FieldSerializationProviderSpi;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
@@ -21,7 +25,7 @@ public class StringSerializationProvider implements
 	}
 
 	protected static class StringReader implements
-			FieldReader<String>
+			BatchFieldReader<String>
 	{
 
 		@Override
@@ -37,10 +41,34 @@ public class StringSerializationProvider implements
 			// fieldData,
 			// StringUtils.UTF8_CHAR_SET);
 		}
+
+		@Override
+		public String readField(
+				final ByteBuffer buffer,
+				final int length ) {
+			if (length < 1) {
+				return null;
+			}
+			final String value;
+			if (buffer.hasArray()) {
+				value = new String(
+						buffer.array(),
+						buffer.arrayOffset() + buffer.position(),
+						length,
+						StringUtils.GEOWAVE_CHAR_SET);
+				buffer.position(buffer.position() + length);
+			}
+			else {
+				final byte[] fieldData = new byte[length];
+				buffer.get(fieldData);
+				value = StringUtils.stringFromBinary(fieldData);
+			}
+			return value;
+		}
 	}
 
 	protected static class StringWriter implements
-			FieldWriter<Object, String>
+			BatchFieldWriter<Object, String>
 	{
 		@Override
 		public byte[] writeField(
@@ -54,6 +82,35 @@ public class StringSerializationProvider implements
 			// return fieldValue.getBytes(StringUtils.UTF8_CHAR_SET);
 		}
 
+		// the following encode a string the same as StringUtils.stringToBinary,
+		// which uses ISO-8859-1: a single byte per character, and '?' for a
+		// character that cannot be mapped
+
+		@Override
+		public int getEncodedLength(
+				final String fieldValue ) {
+			if (fieldValue == null) {
+				return 0;
+			}
+			return fieldValue.codePointCount(
+					0,
+					fieldValue.length());
+		}
+
+		@Override
+		public void writeField(
+				final String fieldValue,
+				final ByteBuffer buffer ) {
+			if (fieldValue == null) {
+				return;
+			}
+			for (int i = 0; i < fieldValue.length();) {
+				final int codePoint = fieldValue.codePointAt(i);
+				buffer.put((codePoint <= 0xFF) ? (byte) codePoint : (byte) '?');
+				i += Character.charCount(codePoint);
+			}
+		}
+
 		@Override
 		public byte[] getVisibility(
 				final Object rowValue,
@@ -1,9 +1,7 @@
 package mil.nga.giat.geowave.core.store.filter;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.store.data.IndexedPersistenceEncoding;
@@ -13,17 +11,25 @@ import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
  * This filter will perform de-duplication using the combination of data adapter
  * ID and data ID to determine uniqueness. It can be performed client-side
  * and/or distributed.
- * 
+ *
+ * Each row of a duplicated entry records how many other rows the entry was
+ * written to within the index. When de-duplicating within a single index whose
+ * query ranges are known to be disjoint, each row is visited at most once, so
+ * a data ID is only remembered until all of its rows have been visited. This
+ * bounds the memory used to the entries with rows still to come rather than
+ * every duplicated entry visited by the query. Otherwise a row can be visited
+ * again, and every data ID is remembered for the whole query.
  */
 public class DedupeFilter implements
 		DistributableQueryFilter
 {
-	private final Map<ByteArrayId, Set<ByteArrayId>> adapterIdToVisitedDataIdMap;
+	private final Map<ByteArrayId, Map<ByteArrayId, Integer>> adapterIdToVisitedDataIdMap;
 
 	private boolean dedupAcrossIndices = false;
+	private boolean disjointRanges = false;
 
 	public DedupeFilter() {
-		adapterIdToVisitedDataIdMap = new HashMap<ByteArrayId, Set<ByteArrayId>>();
+		adapterIdToVisitedDataIdMap = new HashMap<ByteArrayId, Map<ByteArrayId, Integer>>();
 	}
 
 	@Override
@@ -44,20 +50,48 @@ public class DedupeFilter implements
 		}
 		final ByteArrayId adapterId = persistenceEncoding.getAdapterId();
 		final ByteArrayId dataId = persistenceEncoding.getDataId();
-		Set<ByteArrayId> visitedDataIds = adapterIdToVisitedDataIdMap.get(adapterId);
+		Map<ByteArrayId, Integer> visitedDataIds = adapterIdToVisitedDataIdMap.get(adapterId);
 		if (visitedDataIds == null) {
-			visitedDataIds = new HashSet<ByteArrayId>();
+			visitedDataIds = new HashMap<ByteArrayId, Integer>();
 			adapterIdToVisitedDataIdMap.put(
 					adapterId,
 					visitedDataIds);
 		}
-		else if (visitedDataIds.contains(dataId)) {
-			return false;
+		else {
+			final Integer remainingDuplicates = visitedDataIds.get(dataId);
+			if (remainingDuplicates != null) {
+				if (remainingDuplicates <= 1) {
+					// this was the last row of the entry, it can be forgotten
+					visitedDataIds.remove(dataId);
+				}
+				else {
+					visitedDataIds.put(
+							dataId,
+							remainingDuplicates - 1);
+				}
+				return false;
+			}
 		}
-		visitedDataIds.add(dataId);
+		// the number of duplicates is per index and only counts each row once,
+		// otherwise the data ID must be remembered for the whole query
+		visitedDataIds.put(
+				dataId,
+				(isDedupAcrossIndices() || !isDisjointRanges()) ? Integer.MAX_VALUE : persistenceEncoding
+						.getDuplicateCount());
 		return true;
 	}
 
+	/**
+	 * @return the number of data IDs currently remembered by this filter
+	 */
+	public int getVisitedDataIdCount() {
+		int count = 0;
+		for (final Map<ByteArrayId, Integer> visitedDataIds : adapterIdToVisitedDataIdMap.values()) {
+			count += visitedDataIds.size();
+		}
+		return count;
+	}
+
 	public void setDedupAcrossIndices(
 			boolean dedupAcrossIndices ) {
 		this.dedupAcrossIndices = dedupAcrossIndices;
@@ -67,6 +101,21 @@ public class DedupeFilter implements
 		return dedupAcrossIndices;
 	}
 
+	/**
+	 * @param disjointRanges
+	 *            true if the ranges of the query do not overlap or repeat, so
+	 *            that no row is visited more than once and a data ID can be
+	 *            forgotten once all of its rows have been visited
+	 */
+	public void setDisjointRanges(
+			final boolean disjointRanges ) {
+		this.disjointRanges = disjointRanges;
+	}
+
+	public boolean isDisjointRanges() {
+		return disjointRanges;
+	}
+
 	@Override
 	public byte[] toBinary() {
 		return new byte[] {};
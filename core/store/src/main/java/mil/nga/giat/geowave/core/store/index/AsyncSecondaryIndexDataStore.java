@@ -0,0 +1,459 @@
+package mil.nga.giat.geowave.core.store.index;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.log4j.Logger;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+
+/**
+ * Takes secondary index maintenance off of the ingest path. Stores and deletes
+ * are buffered in a bounded queue and written by a single background thread,
+ * which groups each batch of operations by secondary index so that the
+ * updates to each index are written to the delegate as one batch. A full
+ * queue blocks the ingest thread, which bounds how far the secondary indices
+ * can lag behind the primary index.
+ *
+ * Queries are not buffered, so entries are only guaranteed to be visible to
+ * secondary index queries after a call to flush. Once the store is closed, or
+ * if the background thread fails, updates are written directly.
+ */
+public class AsyncSecondaryIndexDataStore implements
+		SecondaryIndexDataStore,
+		Closeable
+{
+	private final static Logger LOGGER = Logger.getLogger(AsyncSecondaryIndexDataStore.class);
+	public static final int DEFAULT_QUEUE_SIZE = 10000;
+	private static final int MAX_BATCH_SIZE = 1000;
+	// queued by close, the background writer stops when it reaches it
+	private static final Operation STOP = new Operation(
+			null,
+			null,
+			null);
+
+	private final SecondaryIndexDataStore delegate;
+	private final BlockingQueue<Operation> operations;
+	private final Thread worker;
+	// updates and flushes are queued under the read lock, so that close can
+	// wait for them to be queued before it stops the background writer
+	private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+	// serializes the writes of threads other than the background writer
+	private final Object directWriteLock = new Object();
+	private final AtomicLong pendingOperations = new AtomicLong(
+			0);
+	private final AtomicLong writtenOperations = new AtomicLong(
+			0);
+	// the time the oldest operation of the batch being written was queued, or
+	// 0 when no batch is being written
+	private volatile long writingSinceNanos = 0;
+	private volatile boolean closed = false;
+	// set by the background writer before it stops without being closed
+	private volatile boolean failed = false;
+
+	public AsyncSecondaryIndexDataStore(
+			final SecondaryIndexDataStore delegate ) {
+		this(
+				delegate,
+				DEFAULT_QUEUE_SIZE);
+	}
+
+	public AsyncSecondaryIndexDataStore(
+			final SecondaryIndexDataStore delegate,
+			final int queueSize ) {
+		this.delegate = delegate;
+		operations = new ArrayBlockingQueue<Operation>(
+				Math.max(
+						1,
+						queueSize));
+		worker = new Thread(
+				new Runnable() {
+					@Override
+					public void run() {
+						writeOperations();
+					}
+				},
+				"GeoWave secondary index writer");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	@Override
+	public void store(
+			final SecondaryIndex<?> secondaryIndex,
+			final ByteArrayId primaryIndexId,
+			final ByteArrayId primaryIndexRowId,
+			final List<FieldInfo<?>> indexedAttributes ) {
+		enqueue(new Operation(
+				secondaryIndex,
+				new SecondaryIndexUpdate(
+						primaryIndexId,
+						primaryIndexRowId,
+						indexedAttributes),
+				null));
+	}
+
+	@Override
+	public void delete(
+			final SecondaryIndex<?> secondaryIndex,
+			final List<FieldInfo<?>> indexedAttributes ) {
+		enqueue(new Operation(
+				secondaryIndex,
+				new SecondaryIndexUpdate(
+						indexedAttributes),
+				null));
+	}
+
+	@Override
+	public void write(
+			final SecondaryIndex<?> secondaryIndex,
+			final List<SecondaryIndexUpdate> updates ) {
+		for (final SecondaryIndexUpdate update : updates) {
+			enqueue(new Operation(
+					secondaryIndex,
+					update,
+					null));
+		}
+	}
+
+	private void enqueue(
+			final Operation operation ) {
+		stateLock.readLock().lock();
+		try {
+			if (!closed && !failed) {
+				pendingOperations.incrementAndGet();
+				operations.put(operation);
+				if (failed) {
+					// the background writer stopped while this was queued
+					writeQueued();
+				}
+				return;
+			}
+		}
+		catch (final InterruptedException e) {
+			LOGGER.warn(
+					"Interrupted while queueing secondary index update, writing it directly",
+					e);
+			pendingOperations.decrementAndGet();
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			stateLock.readLock().unlock();
+		}
+		// the background writer is no longer available
+		synchronized (directWriteLock) {
+			writeToDelegate(
+					operation.secondaryIndex,
+					Collections.singletonList(operation.update));
+		}
+		writtenOperations.incrementAndGet();
+	}
+
+	@Override
+	public CloseableIterator<ByteArrayId> query(
+			final SecondaryIndex<?> secondaryIndex,
+			final List<ByteArrayRange> ranges,
+			final List<DistributableQueryFilter> constraints,
+			final ByteArrayId primaryIndexId,
+			final String... visibility ) {
+		return delegate.query(
+				secondaryIndex,
+				ranges,
+				constraints,
+				primaryIndexId,
+				visibility);
+	}
+
+	/**
+	 * Blocks until every update queued before this call is written and the
+	 * secondary index writers are flushed
+	 */
+	@Override
+	public void flush() {
+		final CountDownLatch flushed = new CountDownLatch(
+				1);
+		boolean queued = false;
+		stateLock.readLock().lock();
+		try {
+			if (!closed && !failed) {
+				operations.put(new Operation(
+						null,
+						null,
+						flushed));
+				queued = true;
+				if (failed) {
+					// the background writer stopped while this was queued
+					writeQueued();
+				}
+			}
+		}
+		catch (final InterruptedException e) {
+			LOGGER.warn(
+					"Interrupted while flushing secondary index updates",
+					e);
+			Thread.currentThread().interrupt();
+			return;
+		}
+		finally {
+			stateLock.readLock().unlock();
+		}
+		if (!queued) {
+			synchronized (directWriteLock) {
+				delegate.flush();
+			}
+			return;
+		}
+		try {
+			flushed.await();
+		}
+		catch (final InterruptedException e) {
+			LOGGER.warn(
+					"Interrupted while flushing secondary index updates",
+					e);
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the number of queued updates that are not yet written
+	 */
+	public long getPendingOperations() {
+		return pendingOperations.get();
+	}
+
+	/**
+	 * @return the number of updates written since this store was created
+	 */
+	public long getWrittenOperations() {
+		return writtenOperations.get();
+	}
+
+	/**
+	 * @return how long the oldest update that is not yet written has been
+	 *         queued, in milliseconds, or 0 if every update is written
+	 */
+	public long getLagMillis() {
+		long oldest = writingSinceNanos;
+		final Operation next = operations.peek();
+		if ((next != null) && (next.update != null) && ((oldest == 0) || (next.queuedNanos < oldest))) {
+			oldest = next.queuedNanos;
+		}
+		if (oldest == 0) {
+			return 0;
+		}
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+	}
+
+	/**
+	 * Writes every queued update and stops the background writer, subsequent
+	 * updates are written directly
+	 */
+	@Override
+	public void close() {
+		// updates that are being queued are queued before the writer is
+		// stopped, and later updates wait until it has written the queue so
+		// that they are written in order
+		stateLock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			boolean stopQueued = false;
+			boolean interrupted = false;
+			while (true) {
+				try {
+					if (!stopQueued && !failed) {
+						operations.put(STOP);
+						stopQueued = true;
+					}
+					worker.join();
+					break;
+				}
+				catch (final InterruptedException e) {
+					// the writer must be stopped before updates are written
+					// directly
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			writeQueued();
+			synchronized (directWriteLock) {
+				delegate.flush();
+			}
+		}
+		finally {
+			stateLock.writeLock().unlock();
+		}
+	}
+
+	private void writeOperations() {
+		final List<Operation> batch = new ArrayList<Operation>(
+				MAX_BATCH_SIZE);
+		boolean stopped = false;
+		try {
+			while (!stopped) {
+				batch.add(operations.take());
+				operations.drainTo(
+						batch,
+						MAX_BATCH_SIZE - 1);
+				stopped = writeBatch(batch);
+				batch.clear();
+			}
+		}
+		catch (final InterruptedException e) {
+			LOGGER.error(
+					"Secondary index writer interrupted, updates will be written directly",
+					e);
+		}
+		catch (final RuntimeException e) {
+			LOGGER.error(
+					"Secondary index writer failed, updates will be written directly",
+					e);
+		}
+		finally {
+			if (!stopped) {
+				// nothing may wait on this thread anymore, updates of the
+				// failed batch that were not written are lost but its flushes
+				// are released, and whatever is still queued is written
+				failed = true;
+				releaseFlushes(batch);
+				writeQueued();
+			}
+		}
+	}
+
+	/**
+	 * Write the queued operations on the calling thread, used once the
+	 * background writer is stopped
+	 */
+	private void writeQueued() {
+		final List<Operation> batch = new ArrayList<Operation>(
+				MAX_BATCH_SIZE);
+		synchronized (directWriteLock) {
+			while (operations.drainTo(
+					batch,
+					MAX_BATCH_SIZE) > 0) {
+				try {
+					writeBatch(batch);
+				}
+				finally {
+					releaseFlushes(batch);
+				}
+				batch.clear();
+			}
+		}
+	}
+
+	private static void releaseFlushes(
+			final List<Operation> batch ) {
+		for (final Operation operation : batch) {
+			if (operation.flushed != null) {
+				operation.flushed.countDown();
+			}
+		}
+	}
+
+	/**
+	 * @return true if the batch contains the operation that stops the writer
+	 */
+	private boolean writeBatch(
+			final List<Operation> batch ) {
+		final Map<ByteArrayId, List<Operation>> operationsPerIndex = new LinkedHashMap<ByteArrayId, List<Operation>>();
+		boolean stopped = false;
+		for (final Operation operation : batch) {
+			if (operation == STOP) {
+				stopped = true;
+				continue;
+			}
+			if (operation.flushed != null) {
+				writeGroups(operationsPerIndex);
+				delegate.flush();
+				operation.flushed.countDown();
+				continue;
+			}
+			if (writingSinceNanos == 0) {
+				writingSinceNanos = operation.queuedNanos;
+			}
+			final ByteArrayId indexId = operation.secondaryIndex.getId();
+			List<Operation> indexOperations = operationsPerIndex.get(indexId);
+			if (indexOperations == null) {
+				indexOperations = new ArrayList<Operation>();
+				operationsPerIndex.put(
+						indexId,
+						indexOperations);
+			}
+			indexOperations.add(operation);
+		}
+		writeGroups(operationsPerIndex);
+		return stopped;
+	}
+
+	private void writeGroups(
+			final Map<ByteArrayId, List<Operation>> operationsPerIndex ) {
+		for (final List<Operation> indexOperations : operationsPerIndex.values()) {
+			final List<SecondaryIndexUpdate> updates = new ArrayList<SecondaryIndexUpdate>(
+					indexOperations.size());
+			for (final Operation operation : indexOperations) {
+				updates.add(operation.update);
+			}
+			writeToDelegate(
+					indexOperations.get(
+							0).secondaryIndex,
+					updates);
+			pendingOperations.addAndGet(-indexOperations.size());
+			writtenOperations.addAndGet(indexOperations.size());
+		}
+		operationsPerIndex.clear();
+		writingSinceNanos = 0;
+	}
+
+	private void writeToDelegate(
+			final SecondaryIndex<?> secondaryIndex,
+			final List<SecondaryIndexUpdate> updates ) {
+		try {
+			delegate.write(
+					secondaryIndex,
+					updates);
+		}
+		catch (final RuntimeException e) {
+			LOGGER.error(
+					"Unable to update secondary index '" + secondaryIndex.getId().getString() + "'",
+					e);
+		}
+	}
+
+	private static class Operation
+	{
+		private final SecondaryIndex<?> secondaryIndex;
+		private final SecondaryIndexUpdate update;
+		private final CountDownLatch flushed;
+		private final long queuedNanos = System.nanoTime();
+
+		private Operation(
+				final SecondaryIndex<?> secondaryIndex,
+				final SecondaryIndexUpdate update,
+				final CountDownLatch flushed ) {
+			this.secondaryIndex = secondaryIndex;
+			this.update = update;
+			this.flushed = flushed;
+		}
+	}
+}
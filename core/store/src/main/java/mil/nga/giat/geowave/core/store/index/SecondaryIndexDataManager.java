@@ -27,13 +27,35 @@ public class SecondaryIndexDataManager<T> implements
 	private final SecondaryIndexDataAdapter<T> adapter;
 	final SecondaryIndexDataStore secondaryIndexStore;
 	final ByteArrayId primaryIndexId;
+	// true if this manager created the background writer and has to stop it
+	private final boolean ownsAsyncStore;
 
 	public SecondaryIndexDataManager(
 			final SecondaryIndexDataStore secondaryIndexStore,
 			final SecondaryIndexDataAdapter<T> adapter,
 			final ByteArrayId primaryIndexId ) {
+		this(
+				secondaryIndexStore,
+				adapter,
+				primaryIndexId,
+				false);
+	}
+
+	/**
+	 * @param asyncMaintenance
+	 *            if true the secondary indices are written by a background
+	 *            thread and are only guaranteed to be up to date after a call
+	 *            to flush or close
+	 */
+	public SecondaryIndexDataManager(
+			final SecondaryIndexDataStore secondaryIndexStore,
+			final SecondaryIndexDataAdapter<T> adapter,
+			final ByteArrayId primaryIndexId,
+			final boolean asyncMaintenance ) {
 		this.adapter = adapter;
-		this.secondaryIndexStore = secondaryIndexStore;
+		ownsAsyncStore = asyncMaintenance && (secondaryIndexStore != null);
+		this.secondaryIndexStore = ownsAsyncStore ? new AsyncSecondaryIndexDataStore(
+				secondaryIndexStore) : secondaryIndexStore;
 		this.primaryIndexId = primaryIndexId;
 
 	}
@@ -98,10 +120,47 @@ public class SecondaryIndexDataManager<T> implements
 		return null;
 	}
 
+	/**
+	 * Blocks until every update to the secondary indices so far is written
+	 */
+	public void flush() {
+		if (secondaryIndexStore != null) {
+			secondaryIndexStore.flush();
+		}
+	}
+
+	/**
+	 * @return the number of updates to the secondary indices that are not yet
+	 *         written, which is always 0 unless the maintenance is
+	 *         asynchronous
+	 */
+	public long getPendingOperations() {
+		if (secondaryIndexStore instanceof AsyncSecondaryIndexDataStore) {
+			return ((AsyncSecondaryIndexDataStore) secondaryIndexStore).getPendingOperations();
+		}
+		return 0;
+	}
+
+	/**
+	 * @return how far the secondary indices lag behind the primary index in
+	 *         milliseconds, which is always 0 unless the maintenance is
+	 *         asynchronous
+	 */
+	public long getLagMillis() {
+		if (secondaryIndexStore instanceof AsyncSecondaryIndexDataStore) {
+			return ((AsyncSecondaryIndexDataStore) secondaryIndexStore).getLagMillis();
+		}
+		return 0;
+	}
+
 	@Override
 	public void close()
 			throws IOException {
-		if (secondaryIndexStore != null) {
+		if (ownsAsyncStore) {
+			// flushes the queued updates and stops the background writer
+			((AsyncSecondaryIndexDataStore) secondaryIndexStore).close();
+		}
+		else if (secondaryIndexStore != null) {
 			secondaryIndexStore.flush();
 		}
 	}
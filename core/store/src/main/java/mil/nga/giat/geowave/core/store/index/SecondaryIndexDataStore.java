@@ -36,6 +36,16 @@ public interface SecondaryIndexDataStore
 			final SecondaryIndex<?> secondaryIndex,
 			final List<FieldInfo<?>> indexedAttributes );
 
+	/**
+	 * Write a batch of stores and deletes to a secondary index, in order
+	 * 
+	 * @param secondaryIndex
+	 * @param updates
+	 */
+	public void write(
+			SecondaryIndex<?> secondaryIndex,
+			List<SecondaryIndexUpdate> updates );
+
 	/**
 	 * 
 	 * @param secondaryIndex
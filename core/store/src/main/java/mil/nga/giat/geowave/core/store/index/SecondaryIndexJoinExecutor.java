@@ -0,0 +1,261 @@
+package mil.nga.giat.geowave.core.store.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Iterators;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.CloseableIteratorWrapper;
+import mil.nga.giat.geowave.core.store.DataStore;
+import mil.nga.giat.geowave.core.store.query.QueryOptions;
+import mil.nga.giat.geowave.core.store.query.RowIdQuery;
+
+/**
+ * Joins the primary index row IDs returned by the SecondaryIndexQueryManager
+ * to the entries they reference. Rather than resolving each ID on its own, the
+ * IDs are grouped into sorted batches and each batch is resolved with a single
+ * row ID query, which the data stores execute as one multi-range scan. Up to
+ * the given number of batches are resolved in parallel and the entries are
+ * streamed back in the order of the batches.
+ *
+ * Each join resolves its batches with its own pool of daemon threads, which
+ * is shut down once the joined entries are exhausted or closed.
+ */
+public class SecondaryIndexJoinExecutor
+{
+	private final static Logger LOGGER = Logger.getLogger(SecondaryIndexJoinExecutor.class);
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	public static final int DEFAULT_PARALLELISM = 4;
+	// static so that the pool does not reference the join
+	private static final ThreadFactory JOIN_THREAD_FACTORY = new ThreadFactory() {
+		@Override
+		public Thread newThread(
+				final Runnable r ) {
+			final Thread thread = new Thread(
+					r,
+					"GeoWave secondary index join");
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+
+	private final DataStore dataStore;
+	private final int batchSize;
+	private final int parallelism;
+
+	public SecondaryIndexJoinExecutor(
+			final DataStore dataStore ) {
+		this(
+				dataStore,
+				DEFAULT_BATCH_SIZE,
+				DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * @param dataStore
+	 *            the data store holding the primary index
+	 * @param batchSize
+	 *            the number of row IDs resolved by each query
+	 * @param parallelism
+	 *            the number of batches resolved at once, which also bounds
+	 *            the number of resolved batches held in memory
+	 */
+	public SecondaryIndexJoinExecutor(
+			final DataStore dataStore,
+			final int batchSize,
+			final int parallelism ) {
+		this.dataStore = dataStore;
+		this.batchSize = Math.max(
+				1,
+				batchSize);
+		this.parallelism = Math.max(
+				1,
+				parallelism);
+	}
+
+	/**
+	 * @param queryOptions
+	 *            the adapter and primary index to query, along with any other
+	 *            options of the row ID queries; the limit applies to the
+	 *            joined entries
+	 * @param primaryRowIds
+	 *            the row IDs from the secondary index, which are closed along
+	 *            with the joined entries
+	 * @return the joined entries
+	 */
+	public <T> CloseableIterator<T> join(
+			final QueryOptions queryOptions,
+			final CloseableIterator<ByteArrayId> primaryRowIds ) {
+		final JoinIterator<T> it = new JoinIterator<T>(
+				queryOptions,
+				primaryRowIds);
+		final Integer limit = queryOptions.getLimit();
+		if ((limit != null) && (limit > 0)) {
+			return new CloseableIteratorWrapper<T>(
+					it,
+					Iterators.limit(
+							it,
+							limit));
+		}
+		return it;
+	}
+
+	private class JoinIterator<T> implements
+			CloseableIterator<T>
+	{
+		private final QueryOptions queryOptions;
+		private final CloseableIterator<ByteArrayId> primaryRowIds;
+		// a row ID can be referenced by more than one secondary index entry,
+		// so every distinct row ID joined so far is kept until the join is
+		// exhausted or closed, and the memory used grows with the number of
+		// row IDs the secondary index query returns
+		private final Set<ByteArrayId> joinedRowIds = new HashSet<ByteArrayId>();
+		private final LinkedList<Future<List<T>>> pendingBatches = new LinkedList<Future<List<T>>>();
+		private final ExecutorService executor;
+		private List<T> currentBatch = Collections.emptyList();
+		private int currentIndex = 0;
+		private boolean cancelled = false;
+
+		private JoinIterator(
+				final QueryOptions queryOptions,
+				final CloseableIterator<ByteArrayId> primaryRowIds ) {
+			this.queryOptions = queryOptions;
+			this.primaryRowIds = primaryRowIds;
+			executor = Executors.newFixedThreadPool(
+					parallelism,
+					JOIN_THREAD_FACTORY);
+		}
+
+		private void submitBatches() {
+			while ((pendingBatches.size() < parallelism) && primaryRowIds.hasNext()) {
+				final List<ByteArrayId> batch = new ArrayList<ByteArrayId>(
+						batchSize);
+				while ((batch.size() < batchSize) && primaryRowIds.hasNext()) {
+					final ByteArrayId rowId = primaryRowIds.next();
+					if (joinedRowIds.add(rowId)) {
+						batch.add(rowId);
+					}
+				}
+				if (batch.isEmpty()) {
+					continue;
+				}
+				// sorted IDs become ranges that are contiguous on each tablet
+				// or region
+				Collections.sort(batch);
+				pendingBatches.add(executor.submit(new Callable<List<T>>() {
+					@Override
+					public List<T> call()
+							throws Exception {
+						return resolveBatch(batch);
+					}
+				}));
+			}
+		}
+
+		private List<T> resolveBatch(
+				final List<ByteArrayId> batch )
+				throws IOException {
+			final List<T> entries = new ArrayList<T>(
+					batch.size());
+			final QueryOptions batchOptions = new QueryOptions(
+					queryOptions);
+			// the limit applies to the joined entries rather than each batch
+			batchOptions.setLimit(-1);
+			try (CloseableIterator<T> it = dataStore.query(
+					batchOptions,
+					new RowIdQuery(
+							batch))) {
+				while (it.hasNext()) {
+					entries.add(it.next());
+				}
+			}
+			return entries;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (currentIndex >= currentBatch.size()) {
+				if (cancelled) {
+					return false;
+				}
+				submitBatches();
+				final Future<List<T>> nextBatch = pendingBatches.poll();
+				if (nextBatch == null) {
+					// every batch is resolved, nothing is left for the pool
+					cancel();
+					return false;
+				}
+				try {
+					currentBatch = nextBatch.get();
+				}
+				catch (final InterruptedException e) {
+					LOGGER.warn(
+							"Interrupted while joining secondary index entries",
+							e);
+					Thread.currentThread().interrupt();
+					cancel();
+					return false;
+				}
+				catch (final ExecutionException e) {
+					// the entries of the batch would otherwise be silently
+					// dropped
+					cancel();
+					throw new RuntimeException(
+							"Unable to join a batch of secondary index entries",
+							e.getCause());
+				}
+				currentIndex = 0;
+			}
+			return true;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return currentBatch.get(currentIndex++);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException(
+					"Joined entries cannot be removed");
+		}
+
+		@Override
+		public void close()
+				throws IOException {
+			cancel();
+			primaryRowIds.close();
+		}
+
+		private void cancel() {
+			cancelled = true;
+			for (final Future<List<T>> pendingBatch : pendingBatches) {
+				pendingBatch.cancel(true);
+			}
+			pendingBatches.clear();
+			currentBatch = Collections.emptyList();
+			currentIndex = 0;
+			joinedRowIds.clear();
+			executor.shutdownNow();
+		}
+	}
+}
@@ -2,7 +2,9 @@ package mil.nga.giat.geowave.core.store.index;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.DataStore;
 import mil.nga.giat.geowave.core.store.query.BasicQuery;
+import mil.nga.giat.geowave.core.store.query.QueryOptions;
 
 /**
  * Manages query the secondary indices given a query. Eventually is replaced by
@@ -15,10 +17,36 @@ import mil.nga.giat.geowave.core.store.query.BasicQuery;
 public class SecondaryIndexQueryManager
 {
 	final SecondaryIndexDataStore secondaryIndexDataStore;
+	final SecondaryIndexJoinExecutor joinExecutor;
 
 	public SecondaryIndexQueryManager(
 			final SecondaryIndexDataStore secondaryIndexDataStore ) {
+		this(
+				secondaryIndexDataStore,
+				(SecondaryIndexJoinExecutor) null);
+	}
+
+	/**
+	 * 
+	 * @param secondaryIndexDataStore
+	 * @param dataStore
+	 *            the data store holding the primary indices, used to join the
+	 *            secondary index results to their entries
+	 */
+	public SecondaryIndexQueryManager(
+			final SecondaryIndexDataStore secondaryIndexDataStore,
+			final DataStore dataStore ) {
+		this(
+				secondaryIndexDataStore,
+				new SecondaryIndexJoinExecutor(
+						dataStore));
+	}
+
+	public SecondaryIndexQueryManager(
+			final SecondaryIndexDataStore secondaryIndexDataStore,
+			final SecondaryIndexJoinExecutor joinExecutor ) {
 		this.secondaryIndexDataStore = secondaryIndexDataStore;
+		this.joinExecutor = joinExecutor;
 	}
 
 	/**
@@ -45,4 +73,36 @@ public class SecondaryIndexQueryManager
 		return new CloseableIterator.Empty<ByteArrayId>();
 	}
 
+	/**
+	 * Query the secondary index and join the primary index row IDs it returns
+	 * to the entries they reference
+	 * 
+	 * @param query
+	 * @param secondaryIndex
+	 * @param queryOptions
+	 *            the adapter and primary index of the entries, the
+	 *            authorizations are also used to query the secondary index
+	 * @return the entries referenced by the secondary index
+	 */
+	public <T> CloseableIterator<T> queryEntries(
+			final BasicQuery query,
+			final SecondaryIndex<?> secondaryIndex,
+			final QueryOptions queryOptions ) {
+		if (joinExecutor == null) {
+			throw new IllegalStateException(
+					"A data store is required to join secondary index entries");
+		}
+		if (queryOptions.getIndex() == null) {
+			throw new IllegalArgumentException(
+					"The primary index to join secondary index entries to must be provided");
+		}
+		return joinExecutor.join(
+				queryOptions,
+				query(
+						query,
+						secondaryIndex,
+						queryOptions.getIndex(),
+						queryOptions.getAuthorizations()));
+	}
+
 }
@@ -0,0 +1,62 @@
+package mil.nga.giat.geowave.core.store.index;
+
+import java.util.List;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
+
+/**
+ * A store or a delete of the entries of a single primary index row within a
+ * secondary index, so that a batch of them can be written together
+ */
+public class SecondaryIndexUpdate
+{
+	private final ByteArrayId primaryIndexId;
+	private final ByteArrayId primaryIndexRowId;
+	private final List<FieldInfo<?>> indexedAttributes;
+
+	/**
+	 * Create a delete of the entries of the indexed attributes
+	 *
+	 * @param indexedAttributes
+	 */
+	public SecondaryIndexUpdate(
+			final List<FieldInfo<?>> indexedAttributes ) {
+		this(
+				null,
+				null,
+				indexedAttributes);
+	}
+
+	/**
+	 * Create a store of the entries of the indexed attributes
+	 *
+	 * @param primaryIndexId
+	 * @param primaryIndexRowId
+	 * @param indexedAttributes
+	 */
+	public SecondaryIndexUpdate(
+			final ByteArrayId primaryIndexId,
+			final ByteArrayId primaryIndexRowId,
+			final List<FieldInfo<?>> indexedAttributes ) {
+		this.primaryIndexId = primaryIndexId;
+		this.primaryIndexRowId = primaryIndexRowId;
+		this.indexedAttributes = indexedAttributes;
+	}
+
+	public boolean isDelete() {
+		return primaryIndexRowId == null;
+	}
+
+	public ByteArrayId getPrimaryIndexId() {
+		return primaryIndexId;
+	}
+
+	public ByteArrayId getPrimaryIndexRowId() {
+		return primaryIndexRowId;
+	}
+
+	public List<FieldInfo<?>> getIndexedAttributes() {
+		return indexedAttributes;
+	}
+}
@@ -6,8 +6,11 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.log4j.Logger;
 
@@ -18,10 +21,12 @@ import mil.nga.giat.geowave.core.index.IndexMetaData;
 import mil.nga.giat.geowave.core.index.NumericIndexStrategy;
 import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
 import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
 import mil.nga.giat.geowave.core.store.IngestCallback;
 import mil.nga.giat.geowave.core.store.adapter.AdapterPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.adapter.AdapterStore;
 import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
 import mil.nga.giat.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
 import mil.nga.giat.geowave.core.store.adapter.WritableDataAdapter;
@@ -46,6 +51,10 @@ import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 public class DataStoreUtils
 {
 	private final static Logger LOGGER = Logger.getLogger(DataStoreUtils.class);
+	private static final int MAX_CACHED_VISIBILITIES = 10000;
+	// an empty disjunction is never satisfied
+	private static final VisibilityExpression INVALID_VISIBILITY = new OrExpression();
+	private static final ConcurrentMap<ByteArrayId, VisibilityExpression> COMPILED_VISIBILITIES = new ConcurrentHashMap<ByteArrayId, VisibilityExpression>();
 
 	@SuppressWarnings({
 		"rawtypes",
@@ -96,23 +105,125 @@ public class DataStoreUtils
 		}
 	}
 
+	/**
+	 * @param adapterStore
+	 *            the store to get the adapters from
+	 * @param adapterIds
+	 *            the IDs of the adapters, null or empty for all adapters
+	 * @return the adapters with the given IDs that exist in the store, or
+	 *         every adapter in the store if no IDs are given
+	 */
+	public static List<DataAdapter<?>> getAdapters(
+			final AdapterStore adapterStore,
+			final List<ByteArrayId> adapterIds ) {
+		final List<DataAdapter<?>> adapters = new ArrayList<DataAdapter<?>>();
+		if ((adapterIds != null) && !adapterIds.isEmpty()) {
+			for (final ByteArrayId adapterId : adapterIds) {
+				final DataAdapter<?> adapter = adapterStore.getAdapter(adapterId);
+				if (adapter != null) {
+					adapters.add(adapter);
+				}
+			}
+		}
+		else {
+			final CloseableIterator<DataAdapter<?>> it = adapterStore.getAdapters();
+			try {
+				while (it.hasNext()) {
+					adapters.add(it.next());
+				}
+			}
+			finally {
+				try {
+					it.close();
+				}
+				catch (final IOException e) {
+					LOGGER.warn(
+							"Unable to close adapter iterator",
+							e);
+				}
+			}
+		}
+		return adapters;
+	}
+
 	public static boolean isAuthorized(
 			final byte[] visibility,
 			final String[] authorizations ) {
 		if ((visibility == null) || (visibility.length == 0)) {
 			return true;
 		}
-		VisibilityExpression expr;
-		try {
-			expr = new VisibilityExpressionParser().parse(visibility);
+		return compileVisibility(
+				visibility).ok(
+				authorizations);
+	}
+
+	/**
+	 * Parse the visibility into an expression, reusing the expression parsed
+	 * previously for the same visibility
+	 */
+	private static VisibilityExpression compileVisibility(
+			final byte[] visibility ) {
+		final ByteArrayId key = new ByteArrayId(
+				visibility);
+		VisibilityExpression expr = COMPILED_VISIBILITIES.get(key);
+		if (expr == null) {
+			try {
+				expr = new VisibilityExpressionParser().parse(visibility);
+			}
+			catch (final IOException e) {
+				LOGGER.error(
+						"invalid visibility " + Arrays.toString(visibility),
+						e);
+				expr = INVALID_VISIBILITY;
+			}
+			// there are typically only a handful of distinct visibilities, so
+			// rather than tracking their use the cache is reset when it is full
+			if (COMPILED_VISIBILITIES.size() >= MAX_CACHED_VISIBILITIES) {
+				COMPILED_VISIBILITIES.clear();
+			}
+			COMPILED_VISIBILITIES.put(
+					key,
+					expr);
+		}
+		return expr;
+	}
+
+	/**
+	 * Evaluates visibilities against a fixed set of authorizations, caching
+	 * the result per distinct visibility. This is intended to be used by a
+	 * single thread for the duration of a query.
+	 */
+	public static class VisibilityEvaluator
+	{
+		private final String[] authorizations;
+		private final Map<ByteArrayId, Boolean> results = new HashMap<ByteArrayId, Boolean>();
+
+		public VisibilityEvaluator(
+				final String... authorizations ) {
+			this.authorizations = authorizations;
 		}
-		catch (final IOException e) {
-			LOGGER.error(
-					"invalid visibility " + Arrays.toString(visibility),
-					e);
-			return false;
+
+		public boolean isAuthorized(
+				final byte[] visibility ) {
+			if ((visibility == null) || (visibility.length == 0)) {
+				return true;
+			}
+			final ByteArrayId key = new ByteArrayId(
+					visibility);
+			Boolean result = results.get(key);
+			if (result == null) {
+				result = compileVisibility(
+						visibility).ok(
+						authorizations);
+				if (results.size() >= MAX_CACHED_VISIBILITIES) {
+					results.clear();
+				}
+				results.put(
+						key,
+						result);
+			}
+			return result;
 		}
-		return expr.ok(authorizations);
 	}
 
 	public static String getQualifiedTableName(
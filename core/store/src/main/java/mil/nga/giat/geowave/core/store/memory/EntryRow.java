@@ -24,6 +24,17 @@ public class EntryRow implements
 		this.info = info;
 	}
 
+	/**
+	 * Create a row with only a row ID, to use as a boundary when scanning a
+	 * sorted set of rows
+	 */
+	protected EntryRow(
+			final EntryRowID rowId ) {
+		this.rowId = rowId;
+		entry = null;
+		info = null;
+	}
+
 	public EntryRowID getTableRowId() {
 		return rowId;
 	}
@@ -121,7 +121,10 @@ public class EntryRowID implements
 			if (b.length <= j) {
 				break;
 			}
-			final int val = aByte - b[j];
+			// compare as unsigned bytes, consistent with ByteArrayId and the
+			// row ordering of Accumulo and HBase, so that ranges of row IDs
+			// are contiguous
+			final int val = (aByte & 0xff) - (b[j] & 0xff);
 			if (val != 0) {
 				return val;
 			}
@@ -2,8 +2,8 @@ package mil.nga.giat.geowave.core.store.memory;
 
 import java.io.IOException;
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
@@ -27,7 +27,7 @@ public class MemoryAdapterIndexMappingStore implements
 	private Map<ByteArrayId, AdapterToIndexMapping> toIndexMapping;
 
 	public MemoryAdapterIndexMappingStore() {
-		toIndexMapping = new HashMap<ByteArrayId, AdapterToIndexMapping>();
+		toIndexMapping = new ConcurrentHashMap<ByteArrayId, AdapterToIndexMapping>();
 	}
 
 	private void writeObject(
@@ -47,7 +47,7 @@ public class MemoryAdapterIndexMappingStore implements
 			throws IOException,
 			ClassNotFoundException {
 		final int count = in.readInt();
-		toIndexMapping = new HashMap<ByteArrayId, AdapterToIndexMapping>();
+		toIndexMapping = new ConcurrentHashMap<ByteArrayId, AdapterToIndexMapping>();
 		for (int i = 0; i < count; i++) {
 			final ByteArrayId id = (ByteArrayId) in.readObject();
 			final byte[] data = (byte[]) in.readObject();
@@ -69,7 +69,7 @@ public class MemoryAdapterIndexMappingStore implements
 	}
 
 	@Override
-	public void addAdapterIndexMapping(
+	public synchronized void addAdapterIndexMapping(
 			AdapterToIndexMapping mapping )
 			throws MismatchedIndexToAdapterMapping {
 		final AdapterToIndexMapping oldMapping = toIndexMapping.get(mapping.getAdapterId());
@@ -3,11 +3,12 @@ package mil.nga.giat.geowave.core.store.memory;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.apache.log4j.Logger;
@@ -26,7 +27,7 @@ public class MemoryDataStatisticsStore implements
 		DataStatisticsStore
 {
 	private final static Logger LOGGER = Logger.getLogger(MemoryDataStatisticsStore.class);
-	private Map<Key, DataStatistics<?>> statsMap = new HashMap<Key, DataStatistics<?>>();
+	private Map<Key, DataStatistics<?>> statsMap = new ConcurrentHashMap<Key, DataStatistics<?>>();
 
 	/**
 	 * This will write the statistics to the underlying store. Note that this
@@ -57,7 +58,7 @@ public class MemoryDataStatisticsStore implements
 	 *            the data statistics
 	 */
 	@Override
-	public void incorporateStatistics(
+	public synchronized void incorporateStatistics(
 			final DataStatistics<?> statistics ) {
 		final Key key = new Key(
 				statistics.getDataAdapterId(),
@@ -80,6 +81,14 @@ public class MemoryDataStatisticsStore implements
 		}
 	}
 
+	@Override
+	public synchronized void incorporateAllStatistics(
+			final Collection<? extends DataStatistics<?>> statistics ) {
+		for (final DataStatistics<?> s : statistics) {
+			incorporateStatistics(s);
+		}
+	}
+
 	/**
 	 * Get all data statistics from the store by a data adapter ID
 	 * 
@@ -3,14 +3,16 @@ package mil.nga.giat.geowave.core.store.memory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.log4j.Logger;
@@ -18,6 +20,10 @@ import org.apache.log4j.Logger;
 import com.google.common.collect.Iterators;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.ByteArrayRange.MergeOperation;
+import mil.nga.giat.geowave.core.index.NumericIndexStrategy;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
 import mil.nga.giat.geowave.core.store.AdapterToIndexMapping;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.CloseableIteratorWrapper;
@@ -42,15 +48,34 @@ import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
 import mil.nga.giat.geowave.core.store.index.IndexStore;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndexDataStore;
+import mil.nga.giat.geowave.core.store.memory.DataStoreUtils.VisibilityEvaluator;
 import mil.nga.giat.geowave.core.store.query.Query;
 import mil.nga.giat.geowave.core.store.query.QueryOptions;
-
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
+import mil.nga.giat.geowave.core.store.query.SortKey;
+import mil.nga.giat.geowave.core.store.query.TopKCollector;
+
+/**
+ * An in memory data store. Rows are kept sorted per index in concurrent skip
+ * lists, so any number of writers and readers can work against the store at
+ * the same time without locking, and queries only scan the ranges of rows
+ * that the index strategy decomposes the query constraints into. The total
+ * size of the rows held can optionally be bounded by a byte budget, after
+ * which further rows are rejected.
+ */
 public class MemoryDataStore implements
 		DataStore
 {
 	private final static Logger LOGGER = Logger.getLogger(MemoryDataStore.class);
-	private final Map<ByteArrayId, TreeSet<EntryRow>> storeData = Collections
-			.synchronizedMap(new HashMap<ByteArrayId, TreeSet<EntryRow>>());
+	public static final long UNBOUNDED = 0;
+	private static final int MAX_RANGE_DECOMPOSITION = 5000;
+	// rough per row and per field overhead of the heap objects that hold them
+	private static final int ROW_OVERHEAD_BYTES = 128;
+	private static final int FIELD_OVERHEAD_BYTES = 64;
+	private final ConcurrentMap<ByteArrayId, ConcurrentSkipListSet<EntryRow>> storeData = new ConcurrentHashMap<ByteArrayId, ConcurrentSkipListSet<EntryRow>>();
+	private final AtomicLong usedBytes = new AtomicLong(
+			0);
+	private volatile long maxBytes = UNBOUNDED;
 	private final AdapterStore adapterStore;
 	private final IndexStore indexStore;
 	private final DataStatisticsStore statsStore;
@@ -80,6 +105,22 @@ public class MemoryDataStore implements
 		this.adapterIndexMappingStore = adapterIndexMappingStore;
 	}
 
+	public MemoryDataStore(
+			final AdapterStore adapterStore,
+			final IndexStore indexStore,
+			final DataStatisticsStore statsStore,
+			final SecondaryIndexDataStore secondaryIndexDataStore,
+			final AdapterIndexMappingStore adapterIndexMappingStore,
+			final long maxBytes ) {
+		this(
+				adapterStore,
+				indexStore,
+				statsStore,
+				secondaryIndexDataStore,
+				adapterIndexMappingStore);
+		this.maxBytes = maxBytes;
+	}
+
 	@Override
 	public <T> IndexWriter createWriter(
 			final DataAdapter<T> adapter,
@@ -158,13 +199,25 @@ public class MemoryDataStore implements
 					entry,
 					callback,
 					fieldVisibilityWriter);
+			final ConcurrentSkipListSet<EntryRow> rowSet = getRowsForIndex(index.getId());
 			for (final EntryRow row : rows) {
-				ids.add(row.getRowId());
-				final TreeSet<EntryRow> rowTreeSet = getRowsForIndex(index.getId());
-				if (rowTreeSet.contains(row)) {
-					rowTreeSet.remove(row);
+				// rows are ordered by row ID alone, so an existing row with the
+				// same ID is replaced
+				final EntryRow existingRow = rowSet.ceiling(row);
+				if ((existingRow != null) && (existingRow.compareTo(row) == 0) && rowSet.remove(existingRow)) {
+					usedBytes.addAndGet(-getApproximateSize(existingRow));
+				}
+				final long size = getApproximateSize(row);
+				if (!reserve(size)) {
+					LOGGER.warn("Unable to add new entry, the memory store has reached its limit of " + maxBytes
+							+ " bytes");
+					continue;
+				}
+				if (rowSet.add(row)) {
+					ids.add(row.getRowId());
 				}
-				if (!rowTreeSet.add(row)) {
+				else {
+					usedBytes.addAndGet(-size);
 					LOGGER.warn("Unable to add new entry");
 				}
 			}
@@ -193,18 +246,85 @@ public class MemoryDataStore implements
 
 	}
 
-	private TreeSet<EntryRow> getRowsForIndex(
+	private ConcurrentSkipListSet<EntryRow> getRowsForIndex(
 			final ByteArrayId id ) {
-		TreeSet<EntryRow> set = storeData.get(id);
+		ConcurrentSkipListSet<EntryRow> set = storeData.get(id);
 		if (set == null) {
-			set = new TreeSet<EntryRow>();
-			storeData.put(
+			set = new ConcurrentSkipListSet<EntryRow>();
+			final ConcurrentSkipListSet<EntryRow> existingSet = storeData.putIfAbsent(
 					id,
 					set);
+			if (existingSet != null) {
+				set = existingSet;
+			}
 		}
 		return set;
 	}
 
+	private boolean reserve(
+			final long size ) {
+		while (true) {
+			final long currentBytes = usedBytes.get();
+			final long limit = maxBytes;
+			if ((limit > UNBOUNDED) && ((currentBytes + size) > limit)) {
+				return false;
+			}
+			if (usedBytes.compareAndSet(
+					currentBytes,
+					currentBytes + size)) {
+				return true;
+			}
+		}
+	}
+
+	private static long getApproximateSize(
+			final EntryRow row ) {
+		final EntryRowID rowId = row.getTableRowId();
+		long size = ROW_OVERHEAD_BYTES + rowId.getInsertionId().length + rowId.getDataId().length
+				+ rowId.getAdapterId().length;
+		if (row.getInfo() != null) {
+			for (final FieldInfo<?> info : row.getColumns()) {
+				size += FIELD_OVERHEAD_BYTES;
+				if (info.getWrittenValue() != null) {
+					size += info.getWrittenValue().length;
+				}
+				if (info.getVisibility() != null) {
+					size += info.getVisibility().length;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the approximate number of bytes held by the rows in this store
+	 */
+	public long getUsedBytes() {
+		return usedBytes.get();
+	}
+
+	/**
+	 * @return the byte budget for the rows in this store, UNBOUNDED if there
+	 *         is no limit
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Set the byte budget for the rows in this store. Rows that are already
+	 * stored are kept, but new rows are rejected while the store is over the
+	 * budget.
+	 * 
+	 * @param maxBytes
+	 *            the approximate maximum number of bytes to hold, UNBOUNDED
+	 *            for no limit
+	 */
+	public void setMaxBytes(
+			final long maxBytes ) {
+		this.maxBytes = maxBytes;
+	}
+
 	@Override
 	public boolean delete(
 			final QueryOptions queryOptions,
@@ -261,6 +381,8 @@ public class MemoryDataStore implements
 			final boolean isDelete ) {
 		final DedupeFilter filter = new DedupeFilter();
 		filter.setDedupAcrossIndices(false);
+		// overlapping ranges are only scanned once, see getRowsInRanges()
+		filter.setDisjointRanges(true);
 		try {
 			// keep a list of adapters that have been queried, to only low an
 			// adapter to be queried
@@ -294,6 +416,14 @@ public class MemoryDataStore implements
 							callbackManager);
 				}
 			}
+			if (!isDelete && (queryOptions.getSortKey() != null)) {
+				// the rows of each adapter are only ordered by row ID, so the
+				// top entries of each are sorted and then merged
+				return TopKCollector.sortAndMerge(
+						results,
+						(SortKey<T>) queryOptions.getSortKey(),
+						queryOptions.getLimit());
+			}
 			return new CloseableIteratorWrapper<T>(
 					new Closeable() {
 						@Override
@@ -328,9 +458,31 @@ public class MemoryDataStore implements
 			final QueryOptions queryOptions,
 			final boolean isDelete,
 			final DataStoreCallbackManager callbackCache ) {
-		final TreeSet<EntryRow> set = getRowsForIndex(index.getId());
-		final Iterator<EntryRow> rowIt = ((query == null) || query.isSupported(index)) ? ((TreeSet<EntryRow>) set
-				.clone()).iterator() : Collections.<EntryRow> emptyIterator();
+		final ConcurrentSkipListSet<EntryRow> set = getRowsForIndex(index.getId());
+		final QueryProfile profile = queryOptions.getProfile();
+		if (profile != null) {
+			profile.indexQueried(index.getId());
+		}
+		// skip list iterators are weakly consistent, so the rows can be
+		// scanned while they are concurrently written or deleted
+		final Iterator<EntryRow> rowIt;
+		if ((query == null) || query.isSupported(index)) {
+			final long decompositionStart = System.nanoTime();
+			final List<ByteArrayRange> ranges = getRanges(
+					index,
+					query);
+			if (profile != null) {
+				profile.rangesDecomposed(
+						ranges.size(),
+						System.nanoTime() - decompositionStart);
+			}
+			rowIt = getRowsInRanges(
+					set,
+					ranges);
+		}
+		else {
+			rowIt = Collections.<EntryRow> emptyIterator();
+		}
 		final List<QueryFilter> filters = (query == null) ? new ArrayList<QueryFilter>() : new ArrayList<QueryFilter>(
 				query.createFilters(index.getIndexModel()));
 		filters.add(new QueryFilter() {
@@ -346,32 +498,51 @@ public class MemoryDataStore implements
 			}
 		});
 		if (filter != null) filters.add(filter);
+		final VisibilityEvaluator visibilityEvaluator = new VisibilityEvaluator(
+				queryOptions.getAuthorizations());
 		results.add(new CloseableIterator<T>() {
 			EntryRow nextRow = null;
 			EntryRow currentRow = null;
 			IndexedPersistenceEncoding encoding = null;
 
 			private boolean getNext() {
-				while ((nextRow == null) && rowIt.hasNext()) {
+				while (nextRow == null) {
+					final long scanStart = System.nanoTime();
+					if (!rowIt.hasNext()) {
+						if (profile != null) {
+							profile.scannerWaited(System.nanoTime() - scanStart);
+						}
+						break;
+					}
 					final EntryRow row = rowIt.next();
-					final DataAdapter<?> adapter = adapterStore.getAdapter(new ByteArrayId(
-							row.getTableRowId().getAdapterId()));
-					encoding = DataStoreUtils.getEncoding(
-							index.getIndexModel(),
-							adapter,
-							row);
-					boolean ok = true;
-					for (final QueryFilter filter : filters) {
-						if (!filter.accept(
+					final long decodeStart = System.nanoTime();
+					// check the visibility first so that rows which are not
+					// authorized are neither decoded nor seen by the filters
+					boolean ok = isAuthorized(
+							row,
+							visibilityEvaluator);
+					if (ok) {
+						final DataAdapter<?> adapter = adapterStore.getAdapter(new ByteArrayId(
+								row.getTableRowId().getAdapterId()));
+						encoding = DataStoreUtils.getEncoding(
 								index.getIndexModel(),
-								encoding)) {
-							ok = false;
-							break;
+								adapter,
+								row);
+						for (final QueryFilter filter : filters) {
+							if (!filter.accept(
+									index.getIndexModel(),
+									encoding)) {
+								ok = false;
+								break;
+							}
 						}
 					}
-					ok &= isAuthorized(
-							row,
-							queryOptions.getAuthorizations());
+					if (profile != null) {
+						profile.rowScanned(decodeStart - scanStart);
+						profile.rowDecoded(
+								ok,
+								System.nanoTime() - decodeStart);
+					}
 					if (ok) {
 						nextRow = row;
 						break;
@@ -407,8 +578,8 @@ public class MemoryDataStore implements
 
 			@Override
 			public void remove() {
-				if (currentRow != null) {
-					set.remove(currentRow);
+				if ((currentRow != null) && set.remove(currentRow)) {
+					usedBytes.addAndGet(-getApproximateSize(currentRow));
 				}
 			}
 
@@ -424,13 +595,115 @@ public class MemoryDataStore implements
 
 	}
 
+	private static List<ByteArrayRange> getRanges(
+			final PrimaryIndex index,
+			final Query query ) {
+		if (query == null) {
+			return Collections.emptyList();
+		}
+		final NumericIndexStrategy indexStrategy = index.getIndexStrategy();
+		final List<MultiDimensionalNumericData> constraints = query.getIndexConstraints(indexStrategy);
+		if ((constraints == null) || constraints.isEmpty()) {
+			return Collections.emptyList();
+		}
+		final List<ByteArrayRange> ranges = new ArrayList<ByteArrayRange>();
+		for (final MultiDimensionalNumericData constraint : constraints) {
+			final List<ByteArrayRange> constraintRanges = indexStrategy.getQueryRanges(
+					constraint,
+					MAX_RANGE_DECOMPOSITION);
+			if ((constraintRanges == null) || constraintRanges.isEmpty()) {
+				// the index strategy is unable to constrain the query, so all
+				// rows are scanned and left to the filters
+				return Collections.emptyList();
+			}
+			ranges.addAll(constraintRanges);
+		}
+		if (constraints.size() > 1) {
+			return ByteArrayRange.mergeIntersections(
+					ranges,
+					MergeOperation.UNION);
+		}
+		return ranges;
+	}
+
+	/**
+	 * Scan the rows within each range, or every row if there are no ranges.
+	 * The range ends are inclusive of any row whose insertion ID begins with
+	 * the end of the range. Where ranges overlap the rows are only scanned
+	 * once.
+	 */
+	private static Iterator<EntryRow> getRowsInRanges(
+			final ConcurrentSkipListSet<EntryRow> set,
+			final List<ByteArrayRange> ranges ) {
+		if (ranges.isEmpty()) {
+			return set.iterator();
+		}
+		final List<ByteArrayRange> sortedRanges = new ArrayList<ByteArrayRange>(
+				ranges);
+		Collections.sort(sortedRanges);
+		final List<Iterator<EntryRow>> rangeIterators = new ArrayList<Iterator<EntryRow>>(
+				sortedRanges.size());
+		// the end of the rows scanned by the previous ranges
+		EntryRow scannedEndRow = null;
+		for (final ByteArrayRange range : sortedRanges) {
+			EntryRow startRow = new EntryRow(
+					new EntryRowID(
+							range.getStart().getBytes(),
+							new byte[0],
+							new byte[0],
+							0));
+			if ((scannedEndRow != null) && (startRow.compareTo(scannedEndRow) < 0)) {
+				startRow = scannedEndRow;
+			}
+			final byte[] endPrefix = getNextPrefix(range.getEnd().getBytes());
+			if (endPrefix == null) {
+				rangeIterators.add(set.tailSet(
+						startRow,
+						true).iterator());
+				// every remaining row has been scanned
+				break;
+			}
+			final EntryRow endRow = new EntryRow(
+					new EntryRowID(
+							endPrefix,
+							new byte[0],
+							new byte[0],
+							0));
+			if (startRow.compareTo(endRow) < 0) {
+				rangeIterators.add(set.subSet(
+						startRow,
+						true,
+						endRow,
+						false).iterator());
+				scannedEndRow = endRow;
+			}
+		}
+		return Iterators.concat(rangeIterators.iterator());
+	}
+
+	/**
+	 * @return the smallest byte array that is greater than every byte array
+	 *         beginning with the prefix, or null if there is none
+	 */
+	private static byte[] getNextPrefix(
+			final byte[] prefix ) {
+		for (int i = prefix.length - 1; i >= 0; i--) {
+			if (prefix[i] != (byte) 0xff) {
+				final byte[] nextPrefix = Arrays.copyOf(
+						prefix,
+						i + 1);
+				nextPrefix[i]++;
+				return nextPrefix;
+			}
+		}
+		return null;
+	}
+
 	private boolean isAuthorized(
 			final EntryRow row,
-			final String... authorizations ) {
+			final VisibilityEvaluator visibilityEvaluator ) {
 		for (final FieldInfo info : row.info.getFieldInfo()) {
-			if (!DataStoreUtils.isAuthorized(
-					info.getVisibility(),
-					authorizations)) {
+			if (!visibilityEvaluator.isAuthorized(info.getVisibility())) {
 				return false;
 			}
 		}
@@ -14,11 +14,24 @@ public class MemoryDataStoreFactory extends
 	@Override
 	public DataStore createStore(
 			StoreFactoryOptions configOptions ) {
+		if (configOptions instanceof MemoryRequiredOptions) {
+			return createStore(
+					configOptions.getGeowaveNamespace(),
+					((MemoryRequiredOptions) configOptions).getMaxMemoryBytes());
+		}
 		return createStore(configOptions.getGeowaveNamespace());
 	}
 
-	protected static synchronized DataStore createStore(
+	protected static DataStore createStore(
 			final String namespace ) {
+		return createStore(
+				namespace,
+				MemoryDataStore.UNBOUNDED);
+	}
+
+	protected static synchronized DataStore createStore(
+			final String namespace,
+			final long maxMemoryBytes ) {
 		DataStore store = DATA_STORE_CACHE.get(namespace);
 		if (store == null) {
 			store = new MemoryDataStore(
@@ -26,7 +39,8 @@ public class MemoryDataStoreFactory extends
 					MemoryIndexStoreFactory.createStore(namespace),
 					MemoryDataStatisticsStoreFactory.createStore(namespace),
 					MemorySecondaryIndexStoreFactory.createStore(namespace),
-					MemoryAdapterIndexMappingStoreFactory.createStore(namespace));
+					MemoryAdapterIndexMappingStoreFactory.createStore(namespace),
+					maxMemoryBytes);
 			DATA_STORE_CACHE.put(
 					namespace,
 					store);
@@ -1,11 +1,24 @@
 package mil.nga.giat.geowave.core.store.memory;
 
+import com.beust.jcommander.Parameter;
+
 import mil.nga.giat.geowave.core.store.StoreFactoryOptions;
 
 /**
- * No additional options for memory.
+ * Options for memory, the only option is the byte budget for the data store.
  */
 public class MemoryRequiredOptions extends
 		StoreFactoryOptions
 {
+	@Parameter(names = "--maxMemoryBytes", description = "The approximate maximum number of bytes of rows to hold in the data store (optional; default is unbounded)")
+	private long maxMemoryBytes = MemoryDataStore.UNBOUNDED;
+
+	public long getMaxMemoryBytes() {
+		return maxMemoryBytes;
+	}
+
+	public void setMaxMemoryBytes(
+			final long maxMemoryBytes ) {
+		this.maxMemoryBytes = maxMemoryBytes;
+	}
 }
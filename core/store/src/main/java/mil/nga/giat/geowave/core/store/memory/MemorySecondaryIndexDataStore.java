@@ -9,6 +9,7 @@ import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
 import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndex;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndexDataStore;
+import mil.nga.giat.geowave.core.store.index.SecondaryIndexUpdate;
 
 public class MemorySecondaryIndexDataStore implements
 		SecondaryIndexDataStore
@@ -32,6 +33,14 @@ public class MemorySecondaryIndexDataStore implements
 
 	}
 
+	@Override
+	public void write(
+			SecondaryIndex<?> secondaryIndex,
+			List<SecondaryIndexUpdate> updates ) {
+		// TODO Auto-generated method stub
+
+	}
+
 	@Override
 	public CloseableIterator<ByteArrayId> query(
 			SecondaryIndex<?> secondaryIndex,
@@ -88,6 +88,8 @@ public class QueryOptions implements
 	private Integer limit = -1;
 	private double[] maxResolutionSubsamplingPerDimension = null;
 	private transient ScanCallback<?> scanCallback = DEFAULT_CALLBACK;
+	private transient QueryProfile profile = null;
+	private transient SortKey<?> sortKey = null;
 	private String[] authorizations = new String[0];
 	private Pair<List<String>, DataAdapter<?>> fieldIdsAdapterPair;
 
@@ -148,6 +150,8 @@ public class QueryOptions implements
 		adapters = options.adapters;
 		index = options.index;
 		aggregationAdapterPair = options.aggregationAdapterPair;
+		profile = options.profile;
+		sortKey = options.sortKey;
 	}
 
 	/**
@@ -321,6 +325,42 @@ public class QueryOptions implements
 		this.scanCallback = scanCallback;
 	}
 
+	/**
+	 * @return the profile to fill in with counters and timings while the query
+	 *         is run, or null if the query is not profiled
+	 */
+	public QueryProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @param profile
+	 *            a profile to fill in with counters and timings while the
+	 *            query is run, which is not serialized with these options
+	 */
+	public void setProfile(
+			final QueryProfile profile ) {
+		this.profile = profile;
+	}
+
+	/**
+	 * @return the order of the results, or null if they are unordered
+	 */
+	public SortKey<?> getSortKey() {
+		return sortKey;
+	}
+
+	/**
+	 * @param sortKey
+	 *            the order of the results, combined with the limit only the
+	 *            first entries in this order are returned. This is not
+	 *            serialized with these options.
+	 */
+	public void setSortKey(
+			final SortKey<?> sortKey ) {
+		this.sortKey = sortKey;
+	}
+
 	/**
 	 * 
 	 * @return authorizations to apply to the query in addition to the
@@ -0,0 +1,198 @@
+package mil.nga.giat.geowave.core.store.query;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+
+/**
+ * An opt-in profile of a single query, set on the QueryOptions, which data
+ * stores fill in with counters and timings for each stage of the query:
+ * decomposing the constraints into ranges, setting up the scanners, waiting on
+ * the scanners for rows, and decoding and filtering the rows on the client.
+ *
+ * Rows that are rejected by distributable filters on the server are never
+ * returned to the client, so they are not included in the rows scanned. A
+ * profile is thread-safe and can be shared across the queries issued to each
+ * index.
+ */
+public class QueryProfile
+{
+	private final long startTime = System.nanoTime();
+	private volatile long endTime = -1;
+	private final Set<String> indices = new CopyOnWriteArraySet<String>();
+	private final AtomicLong ranges = new AtomicLong(
+			0);
+	private final AtomicLong rangeDecompositionNanos = new AtomicLong(
+			0);
+	private final AtomicLong scannerSetupNanos = new AtomicLong(
+			0);
+	private final AtomicLong rowsScanned = new AtomicLong(
+			0);
+	private final AtomicLong scanNanos = new AtomicLong(
+			0);
+	private final AtomicLong rowsRejected = new AtomicLong(
+			0);
+	private final AtomicLong rowsAccepted = new AtomicLong(
+			0);
+	private final AtomicLong decodeNanos = new AtomicLong(
+			0);
+
+	/**
+	 * @param indexId
+	 *            an index that is queried
+	 */
+	public void indexQueried(
+			final ByteArrayId indexId ) {
+		indices.add(indexId.getString());
+	}
+
+	/**
+	 * @param rangeCount
+	 *            the number of ranges the constraints were decomposed into
+	 * @param nanos
+	 *            the time taken by the decomposition
+	 */
+	public void rangesDecomposed(
+			final int rangeCount,
+			final long nanos ) {
+		ranges.addAndGet(rangeCount);
+		rangeDecompositionNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * @param nanos
+	 *            the time taken to create and configure a scanner
+	 */
+	public void scannerCreated(
+			final long nanos ) {
+		scannerSetupNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * @param nanos
+	 *            the time spent waiting on the scanner for the row, which is
+	 *            mostly spent in hasNext() while the scanner fetches the next
+	 *            batch of rows
+	 */
+	public void rowScanned(
+			final long nanos ) {
+		rowsScanned.incrementAndGet();
+		scanNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * @param nanos
+	 *            the time spent waiting on the scanner without it returning a
+	 *            row, such as the final hasNext() of an exhausted scanner
+	 */
+	public void scannerWaited(
+			final long nanos ) {
+		scanNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * @param accepted
+	 *            false if the row was rejected by a client side filter,
+	 *            including the de-duplication filter
+	 * @param nanos
+	 *            the time taken to decode and filter the row
+	 */
+	public void rowDecoded(
+			final boolean accepted,
+			final long nanos ) {
+		if (accepted) {
+			rowsAccepted.incrementAndGet();
+		}
+		else {
+			rowsRejected.incrementAndGet();
+		}
+		decodeNanos.addAndGet(nanos);
+	}
+
+	/**
+	 * Mark the query as finished, typically when its results are closed. Only
+	 * the first call has an effect.
+	 *
+	 * @return true if this call finished the query
+	 */
+	public synchronized boolean finish() {
+		if (endTime < 0) {
+			endTime = System.nanoTime();
+			return true;
+		}
+		return false;
+	}
+
+	public Set<String> getIndices() {
+		return indices;
+	}
+
+	public long getRanges() {
+		return ranges.get();
+	}
+
+	public long getRangeDecompositionNanos() {
+		return rangeDecompositionNanos.get();
+	}
+
+	public long getScannerSetupNanos() {
+		return scannerSetupNanos.get();
+	}
+
+	public long getRowsScanned() {
+		return rowsScanned.get();
+	}
+
+	public long getScanNanos() {
+		return scanNanos.get();
+	}
+
+	public long getRowsRejected() {
+		return rowsRejected.get();
+	}
+
+	public long getRowsAccepted() {
+		return rowsAccepted.get();
+	}
+
+	public long getDecodeNanos() {
+		return decodeNanos.get();
+	}
+
+	/**
+	 * @return the time since the profile was created until it was finished, or
+	 *         until now if it is not finished
+	 */
+	public long getElapsedNanos() {
+		final long end = endTime;
+		return (end < 0 ? System.nanoTime() : end) - startTime;
+	}
+
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(getElapsedNanos());
+	}
+
+	private static double toMillis(
+			final long nanos ) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"query of indices %s took %.1f ms: %d ranges (%.1f ms to decompose); %.1f ms to set up scanners; %d rows scanned (%.1f ms waiting on scanners); %d rows rejected and %d accepted on the client (%.1f ms decoding and filtering)",
+				indices,
+				toMillis(getElapsedNanos()),
+				ranges.get(),
+				toMillis(rangeDecompositionNanos.get()),
+				toMillis(scannerSetupNanos.get()),
+				rowsScanned.get(),
+				toMillis(scanNanos.get()),
+				rowsRejected.get(),
+				rowsAccepted.get(),
+				toMillis(decodeNanos.get()));
+	}
+}
@@ -0,0 +1,32 @@
+package mil.nga.giat.geowave.core.store.query;
+
+import mil.nga.giat.geowave.core.index.Persistable;
+
+/**
+ * Orders the results of a query by a value derived from each entry, typically
+ * one of its fields. Combined with a limit on the query options this is a top
+ * K query. Data stores that compute the top K entries of each range
+ * server-side serialize the sort key to do so, so the value must be derived
+ * from the entry alone.
+ *
+ * @param <T>
+ *            The type of entry
+ */
+public interface SortKey<T> extends
+		Persistable
+{
+	/**
+	 * @param entry
+	 *            the entry to order
+	 * @return the value to order the entry by, entries with a null value are
+	 *         ordered last regardless of the direction
+	 */
+	public Comparable<?> getSortValue(
+			T entry );
+
+	/**
+	 * @return true to order the entries from the lowest value to the highest,
+	 *         false to order them from the highest to the lowest
+	 */
+	public boolean isAscending();
+}
@@ -0,0 +1,261 @@
+package mil.nga.giat.geowave.core.store.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.CloseableIteratorWrapper;
+import mil.nga.giat.geowave.core.store.MergingCloseableIterator;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * Keeps the K entries with the best sort values seen so far, in a bounded heap
+ * with the worst of the kept entries at its head so that each new entry is
+ * compared against it in constant time. An ID can be given with each entry so
+ * that an entry written to several rows is only kept once.
+ *
+ * @param <T>
+ *            The type of entry kept, which does not have to be the type the
+ *            sort values were derived from
+ */
+public class TopKCollector<T>
+{
+	private final static Logger LOGGER = Logger.getLogger(TopKCollector.class);
+	private final boolean ascending;
+	private final int k;
+	private final Comparator<Candidate<T>> bestFirst;
+	private final PriorityQueue<Candidate<T>> worstFirst;
+	private final Set<ByteArrayId> ids = new HashSet<ByteArrayId>();
+
+	/**
+	 * @param ascending
+	 *            the direction of the sort
+	 * @param k
+	 *            the number of entries to keep, a value <= 0 keeps every
+	 *            entry
+	 */
+	public TopKCollector(
+			final boolean ascending,
+			final int k ) {
+		this.ascending = ascending;
+		this.k = k;
+		bestFirst = new Comparator<Candidate<T>>() {
+			@Override
+			public int compare(
+					final Candidate<T> o1,
+					final Candidate<T> o2 ) {
+				return compareSortValues(
+						ascending,
+						o1.value,
+						o2.value);
+			}
+		};
+		worstFirst = new PriorityQueue<Candidate<T>>(
+				k > 0 ? k + 1 : 11,
+				Collections.reverseOrder(bestFirst));
+	}
+
+	/**
+	 * @return true if an entry with the sort value would be kept
+	 */
+	public boolean isCandidate(
+			final Comparable<?> value ) {
+		return (k <= 0) || (worstFirst.size() < k) || (compareSortValues(
+				ascending,
+				value,
+				worstFirst.peek().value) < 0);
+	}
+
+	/**
+	 * @param id
+	 *            identifies the entry, an entry with the same ID as one that
+	 *            is already kept is ignored, or null if entries are unique
+	 * @param value
+	 *            the sort value of the entry
+	 * @param entry
+	 *            the entry
+	 * @return true if the entry is kept, at least until a better entry is
+	 *         added
+	 */
+	public boolean add(
+			final ByteArrayId id,
+			final Comparable<?> value,
+			final T entry ) {
+		if (!isCandidate(value) || ((id != null) && ids.contains(id))) {
+			return false;
+		}
+		worstFirst.add(new Candidate<T>(
+				id,
+				value,
+				entry));
+		if (id != null) {
+			ids.add(id);
+		}
+		if ((k > 0) && (worstFirst.size() > k)) {
+			final Candidate<T> evicted = worstFirst.poll();
+			if (evicted.id != null) {
+				ids.remove(evicted.id);
+			}
+		}
+		return true;
+	}
+
+	public int getK() {
+		return k;
+	}
+
+	public int size() {
+		return worstFirst.size();
+	}
+
+	public void clear() {
+		worstFirst.clear();
+		ids.clear();
+	}
+
+	/**
+	 * @return the kept entries from the best sort value to the worst
+	 */
+	public List<T> getSorted() {
+		final List<Candidate<T>> candidates = new ArrayList<Candidate<T>>(
+				worstFirst);
+		Collections.sort(
+				candidates,
+				bestFirst);
+		final List<T> entries = new ArrayList<T>(
+				candidates.size());
+		for (final Candidate<T> candidate : candidates) {
+			entries.add(candidate.entry);
+		}
+		return entries;
+	}
+
+	/**
+	 * Compare sort values in the order of the sort, with null values last
+	 */
+	@SuppressWarnings({
+		"rawtypes",
+		"unchecked"
+	})
+	public static int compareSortValues(
+			final boolean ascending,
+			final Comparable<?> value1,
+			final Comparable<?> value2 ) {
+		if (value1 == null) {
+			return value2 == null ? 0 : 1;
+		}
+		if (value2 == null) {
+			return -1;
+		}
+		final int comparison = ((Comparable) value1).compareTo(value2);
+		return ascending ? comparison : -comparison;
+	}
+
+	/**
+	 * Sort the top entries of the results, closing the results once they are
+	 * read
+	 *
+	 * @param results
+	 *            the results to sort
+	 * @param sortKey
+	 *            the order of the results
+	 * @param limit
+	 *            the number of entries to keep, null or a value <= 0 keeps
+	 *            every entry
+	 * @return the sorted entries
+	 */
+	public static <T> CloseableIterator<T> sort(
+			final CloseableIterator<T> results,
+			final SortKey<T> sortKey,
+			final Integer limit ) {
+		final TopKCollector<T> collector = new TopKCollector<T>(
+				sortKey.isAscending(),
+				limit == null ? -1 : limit);
+		try {
+			while (results.hasNext()) {
+				final T entry = results.next();
+				collector.add(
+						null,
+						sortKey.getSortValue(entry),
+						entry);
+			}
+		}
+		finally {
+			try {
+				results.close();
+			}
+			catch (final IOException e) {
+				LOGGER.warn(
+						"Unable to close results",
+						e);
+			}
+		}
+		return new CloseableIterator.Wrapper<T>(
+				collector.getSorted().iterator());
+	}
+
+	/**
+	 * Sort each of the results and merge them into a single sorted result,
+	 * streaming the merged entries
+	 *
+	 * @param results
+	 *            the results to sort, each of which holds at most the limit
+	 *            of entries in memory while it is read
+	 * @param sortKey
+	 *            the order of the results
+	 * @param limit
+	 *            the total number of entries to return, null or a value <= 0
+	 *            returns every entry
+	 * @return the merged entries
+	 */
+	public static <T> CloseableIterator<T> sortAndMerge(
+			final List<CloseableIterator<T>> results,
+			final SortKey<T> sortKey,
+			final Integer limit ) {
+		final List<CloseableIterator<T>> sortedResults = new ArrayList<CloseableIterator<T>>(
+				results.size());
+		for (final CloseableIterator<T> result : results) {
+			sortedResults.add(sort(
+					result,
+					sortKey,
+					limit));
+		}
+		final MergingCloseableIterator<T> merged = new MergingCloseableIterator<T>(
+				sortedResults,
+				sortKey);
+		if ((limit == null) || (limit <= 0)) {
+			return merged;
+		}
+		return new CloseableIteratorWrapper<T>(
+				merged,
+				Iterators.limit(
+						merged,
+						limit));
+	}
+
+	private static class Candidate<T>
+	{
+		private final ByteArrayId id;
+		private final Comparable<?> value;
+		private final T entry;
+
+		private Candidate(
+				final ByteArrayId id,
+				final Comparable<?> value,
+				final T entry ) {
+			this.id = id;
+			this.value = value;
+			this.entry = entry;
+		}
+	}
+}
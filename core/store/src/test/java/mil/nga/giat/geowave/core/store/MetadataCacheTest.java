@@ -0,0 +1,104 @@
+package mil.nga.giat.geowave.core.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.StringUtils;
+
+import org.junit.Test;
+
+public class MetadataCacheTest
+{
+	@Test
+	public void testNegativeCaching() {
+		final MetadataCache<String> cache = new MetadataCache<String>();
+		final ByteArrayId id = new ByteArrayId(
+				"a");
+		// negative caching is disabled by default
+		cache.putAbsent(id);
+		assertFalse(cache.isCachedAsAbsent(id));
+
+		cache.setNegativeTtlMillis(60000);
+		cache.putAbsent(id);
+		assertTrue(cache.isCachedAsAbsent(id));
+		assertNull(cache.get(id));
+
+		cache.put(
+				id,
+				"value");
+		assertFalse(cache.isCachedAsAbsent(id));
+		assertEquals(
+				"value",
+				cache.get(id));
+	}
+
+	@Test
+	public void testExpiration()
+			throws InterruptedException {
+		final MetadataCache<String> cache = new MetadataCache<String>();
+		cache.setTtlMillis(1);
+		final ByteArrayId id = new ByteArrayId(
+				"a");
+		cache.put(
+				id,
+				"value");
+		Thread.sleep(10);
+		assertNull(cache.get(id));
+		assertEquals(
+				0,
+				cache.size());
+	}
+
+	@Test
+	public void testEviction() {
+		final MetadataCache<String> cache = new MetadataCache<String>();
+		cache.setMaxEntries(10);
+		for (int i = 0; i < 20; i++) {
+			cache.put(
+					new ByteArrayId(
+							Integer.toString(i)),
+					Integer.toString(i));
+		}
+		assertEquals(
+				10,
+				cache.size());
+	}
+
+	@Test
+	public void testVersionInvalidation() {
+		final MetadataCache<String> cache = new MetadataCache<String>();
+		final ByteArrayId id = new ByteArrayId(
+				"a");
+		cache.put(
+				id,
+				"value");
+		// the first version read only establishes the version
+		assertFalse(cache.validateVersion(null));
+		assertEquals(
+				"value",
+				cache.get(id));
+
+		// a version written by this process does not clear the cache
+		cache.setVersion(StringUtils.stringToBinary("1"));
+		assertFalse(cache.validateVersion(StringUtils.stringToBinary("1")));
+		assertEquals(
+				"value",
+				cache.get(id));
+
+		// a version written by another process does
+		assertTrue(cache.validateVersion(StringUtils.stringToBinary("2")));
+		assertNull(cache.get(id));
+	}
+
+	@Test
+	public void testSharedInstance() {
+		final MetadataCache<String> cache = MetadataCache.getInstance("test");
+		assertSame(
+				cache,
+				MetadataCache.<String> getInstance("test"));
+	}
+}
@@ -0,0 +1,222 @@
+package mil.nga.giat.geowave.core.store.adapter.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
+import mil.nga.giat.geowave.core.store.EntryVisibilityHandler;
+import mil.nga.giat.geowave.core.store.memory.MemoryDataStatisticsStore;
+
+import org.junit.Test;
+
+public class StatsCompositionToolTest
+{
+	private static final ByteArrayId ADAPTER_ID = new ByteArrayId(
+			"adapter");
+
+	private static class CountProvider implements
+			StatisticsProvider<Integer>
+	{
+		@Override
+		public ByteArrayId[] getSupportedStatisticsIds() {
+			return new ByteArrayId[] {
+				CountDataStatistics.STATS_ID
+			};
+		}
+
+		@Override
+		public DataStatistics<Integer> createDataStatistics(
+				final ByteArrayId statisticsId ) {
+			return new CountDataStatistics<Integer>(
+					ADAPTER_ID);
+		}
+
+		@Override
+		public EntryVisibilityHandler<Integer> getVisibilityHandler(
+				final ByteArrayId statisticsId ) {
+			return new EmptyStatisticVisibility<Integer>();
+		}
+	}
+
+	private static DataStoreEntryInfo createEntryInfo(
+			final int id ) {
+		return new DataStoreEntryInfo(
+				Integer.toString(
+						id).getBytes(),
+				Collections.<ByteArrayId> emptyList(),
+				Collections.<FieldInfo<?>> emptyList());
+	}
+
+	private static long getCount(
+			final DataStatisticsStore store ) {
+		return ((CountDataStatistics<?>) store.getDataStatistics(
+				ADAPTER_ID,
+				CountDataStatistics.STATS_ID)).getCount();
+	}
+
+	@Test
+	public void testFlush() {
+		final MemoryDataStatisticsStore store = new MemoryDataStatisticsStore();
+		final StatsCompositionTool<Integer> tool = new StatsCompositionTool<Integer>(
+				new CountProvider(),
+				store);
+		for (int i = 0; i < 10; i++) {
+			tool.entryIngested(
+					createEntryInfo(i),
+					i);
+		}
+		assertNull(store.getDataStatistics(
+				ADAPTER_ID,
+				CountDataStatistics.STATS_ID));
+		tool.flush();
+		assertEquals(
+				10,
+				getCount(store));
+
+		// only the entries since the last flush are incorporated
+		for (int i = 10; i < 15; i++) {
+			tool.entryIngested(
+					createEntryInfo(i),
+					i);
+		}
+		tool.close();
+		assertEquals(
+				15,
+				getCount(store));
+	}
+
+	@Test
+	public void testMultipleThreads()
+			throws InterruptedException {
+		final MemoryDataStatisticsStore store = new MemoryDataStatisticsStore();
+		final StatsCompositionTool<Integer> tool = new StatsCompositionTool<Integer>(
+				new CountProvider(),
+				store);
+		final int threadCount = 4;
+		// enough entries per thread for the threshold to trigger flushes
+		final int entriesPerThread = (StatsCompositionTool.FLUSH_STATS_THRESHOLD * 2) + 1;
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < threadCount; t++) {
+			threads.add(new Thread(
+					new Runnable() {
+						@Override
+						public void run() {
+							for (int i = 0; i < entriesPerThread; i++) {
+								tool.entryIngested(
+										createEntryInfo(i),
+										i);
+							}
+						}
+					}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		tool.close();
+		assertEquals(
+				threadCount * entriesPerThread,
+				getCount(store));
+	}
+
+	@Test
+	public void testFailedWriteIsRetried() {
+		final AtomicInteger attempts = new AtomicInteger(
+				0);
+		final MemoryDataStatisticsStore store = new MemoryDataStatisticsStore() {
+			@Override
+			public synchronized void incorporateAllStatistics(
+					final Collection<? extends DataStatistics<?>> statistics ) {
+				if (attempts.incrementAndGet() == 1) {
+					throw new IllegalStateException(
+							"unable to write");
+				}
+				super.incorporateAllStatistics(statistics);
+			}
+		};
+		final StatsCompositionTool<Integer> tool = new StatsCompositionTool<Integer>(
+				new CountProvider(),
+				store);
+		for (int i = 0; i < 10; i++) {
+			tool.entryIngested(
+					createEntryInfo(i),
+					i);
+		}
+		// the background flush fails and keeps the statistics
+		new StatsCompositionTool.PeriodicFlush<Integer>(
+				tool).run();
+		assertNull(store.getDataStatistics(
+				ADAPTER_ID,
+				CountDataStatistics.STATS_ID));
+		for (int i = 10; i < 15; i++) {
+			tool.entryIngested(
+					createEntryInfo(i),
+					i);
+		}
+		tool.flush();
+		assertEquals(
+				2,
+				attempts.get());
+		assertEquals(
+				15,
+				getCount(store));
+		tool.close();
+	}
+
+	@Test
+	public void testUpdatesAfterClose()
+			throws InterruptedException {
+		final MemoryDataStatisticsStore store = new MemoryDataStatisticsStore();
+		final StatsCompositionTool<Integer> tool = new StatsCompositionTool<Integer>(
+				new CountProvider(),
+				store);
+		final CountDownLatch ingested = new CountDownLatch(
+				1);
+		final CountDownLatch closed = new CountDownLatch(
+				1);
+		final Thread thread = new Thread(
+				new Runnable() {
+					@Override
+					public void run() {
+						tool.entryIngested(
+								createEntryInfo(0),
+								0);
+						ingested.countDown();
+						try {
+							closed.await();
+						}
+						catch (final InterruptedException e) {
+							return;
+						}
+						tool.entryIngested(
+								createEntryInfo(1),
+								1);
+					}
+				});
+		thread.start();
+		ingested.await();
+		// close releases the partial statistics of the other thread, which
+		// starts a new one for its later updates
+		tool.close();
+		assertEquals(
+				1,
+				getCount(store));
+		closed.countDown();
+		thread.join();
+		tool.close();
+		assertEquals(
+				2,
+				getCount(store));
+	}
+}
@@ -1,10 +1,17 @@
 package mil.nga.giat.geowave.core.store.data.field;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import junit.framework.Assert;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.field.ArrayReader.FixedSizeObjectArrayReader;
+import mil.nga.giat.geowave.core.store.data.field.ArrayReader.VariableSizeObjectArrayReader;
+import mil.nga.giat.geowave.core.store.data.field.ArrayWriter.FixedSizeObjectArrayWriter;
+import mil.nga.giat.geowave.core.store.data.field.ArrayWriter.VariableSizeObjectArrayWriter;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -422,6 +429,118 @@ public class BasicReaderWriterTest
 						primByteArrayActual));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testBatchReadWrite() {
+		final FieldWriter<Object, Double> batchWriter = (FieldWriter<Object, Double>) FieldUtils
+				.getDefaultWriterForClass(Double.class);
+		final FieldReader<Double> batchReader = FieldUtils.getDefaultReaderForClass(Double.class);
+		Assert.assertTrue(batchWriter instanceof BatchFieldWriter);
+		Assert.assertTrue(batchReader instanceof BatchFieldReader);
+
+		// hide the batch interfaces to encode each element separately
+		final FieldWriter<Object, Double> valueWriter = new FieldWriter<Object, Double>() {
+			@Override
+			public byte[] getVisibility(
+					final Object rowValue,
+					final ByteArrayId fieldId,
+					final Double fieldValue ) {
+				return new byte[] {};
+			}
+
+			@Override
+			public byte[] writeField(
+					final Double fieldValue ) {
+				return batchWriter.writeField(fieldValue);
+			}
+		};
+
+		final byte[] fixedBatch = new FixedSizeObjectArrayWriter<Object, Double>(
+				batchWriter).writeField(doubleArrayExpected);
+		Assert.assertTrue(
+				"FAILED test of fixed size batch writer",
+				Arrays.equals(
+						new FixedSizeObjectArrayWriter<Object, Double>(
+								valueWriter).writeField(doubleArrayExpected),
+						fixedBatch));
+		final byte[] variableBatch = new VariableSizeObjectArrayWriter<Object, Double>(
+				batchWriter).writeField(doubleArrayExpected);
+		Assert.assertTrue(
+				"FAILED test of variable size batch writer",
+				Arrays.equals(
+						new VariableSizeObjectArrayWriter<Object, Double>(
+								valueWriter).writeField(doubleArrayExpected),
+						variableBatch));
+
+		Assert.assertTrue(
+				"FAILED test of fixed size batch reader",
+				Arrays.deepEquals(
+						doubleArrayExpected,
+						new FixedSizeObjectArrayReader<Double>(
+								batchReader).readField(fixedBatch)));
+		Assert.assertTrue(
+				"FAILED test of variable size batch reader",
+				Arrays.deepEquals(
+						doubleArrayExpected,
+						new VariableSizeObjectArrayReader<Double>(
+								batchReader).readField(variableBatch)));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testStringBatchReadWrite() {
+		final FieldWriter<Object, String> batchWriter = (FieldWriter<Object, String>) FieldUtils
+				.getDefaultWriterForClass(String.class);
+		final FieldReader<String> batchReader = FieldUtils.getDefaultReaderForClass(String.class);
+		Assert.assertTrue(batchWriter instanceof BatchFieldWriter);
+		Assert.assertTrue(batchReader instanceof BatchFieldReader);
+
+		// characters outside of ISO-8859-1, including a surrogate pair, are
+		// each encoded as a single '?'
+		final String[] values = new String[] {
+			"test",
+			null,
+			"caf\u00e9",
+			"\u65e5\u672c",
+			"a\uD83D\uDE00b"
+		};
+		final byte[] batch = new VariableSizeObjectArrayWriter<Object, String>(
+				batchWriter).writeField(values);
+		final ByteArrayOutputStream expectedBatch = new ByteArrayOutputStream();
+		expectedBatch.write(ArrayWriter.Encoding.VARIABLE_SIZE_ENCODING.getByteEncoding());
+		for (final String value : values) {
+			final byte[] bytes = (value == null) ? new byte[] {} : batchWriter.writeField(value);
+			expectedBatch.write(
+					ByteBuffer.allocate(
+							4).putInt(
+							bytes.length).array(),
+					0,
+					4);
+			expectedBatch.write(
+					bytes,
+					0,
+					bytes.length);
+		}
+		Assert.assertTrue(
+				"FAILED test of String batch writer",
+				Arrays.equals(
+						expectedBatch.toByteArray(),
+						batch));
+
+		final String[] expected = new String[values.length];
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				expected[i] = batchReader.readField(batchWriter.writeField(values[i]));
+			}
+		}
+		Assert.assertTrue(
+				"FAILED test of String batch reader/writer",
+				Arrays.deepEquals(
+						expected,
+						new VariableSizeObjectArrayReader<String>(
+								batchReader).readField(batch)));
+	}
+
 	@Test
 	public void testNullReadWrite() {
 
@@ -0,0 +1,153 @@
+package mil.nga.giat.geowave.core.store.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.IndexedPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.PersistentDataset;
+
+import org.junit.Test;
+
+public class DedupeFilterTest
+{
+	private static final ByteArrayId ADAPTER_ID = new ByteArrayId(
+			"adapter");
+
+	private static IndexedPersistenceEncoding<Object> createEncoding(
+			final String dataId,
+			final int duplicateCount ) {
+		return createEncoding(
+				dataId,
+				"row",
+				duplicateCount);
+	}
+
+	private static IndexedPersistenceEncoding<Object> createEncoding(
+			final String dataId,
+			final String insertionId,
+			final int duplicateCount ) {
+		return new IndexedPersistenceEncoding<Object>(
+				ADAPTER_ID,
+				new ByteArrayId(
+						dataId),
+				new ByteArrayId(
+						insertionId),
+				duplicateCount,
+				new PersistentDataset<Object>(),
+				new PersistentDataset<byte[]>());
+	}
+
+	@Test
+	public void testForgetsFullyVisitedEntries() {
+		final DedupeFilter filter = new DedupeFilter();
+		filter.setDisjointRanges(true);
+		// an entry written to three rows
+		assertTrue(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						2)));
+		assertEquals(
+				1,
+				filter.getVisitedDataIdCount());
+		assertFalse(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						2)));
+		assertEquals(
+				1,
+				filter.getVisitedDataIdCount());
+		assertFalse(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						2)));
+		// every row of the entry has been visited
+		assertEquals(
+				0,
+				filter.getVisitedDataIdCount());
+
+		// entries that are not duplicated are never remembered
+		assertTrue(filter.accept(
+				null,
+				createEncoding(
+						"b",
+						0)));
+		assertEquals(
+				0,
+				filter.getVisitedDataIdCount());
+	}
+
+	@Test
+	public void testOverlappingRanges() {
+		final DedupeFilter filter = new DedupeFilter();
+		// an entry written to two rows, where the first row is within two
+		// overlapping ranges and so is visited twice
+		assertTrue(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						"row1",
+						1)));
+		assertFalse(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						"row1",
+						1)));
+		assertFalse(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						"row2",
+						1)));
+		// the rows can still be visited again by another range
+		assertEquals(
+				1,
+				filter.getVisitedDataIdCount());
+		assertFalse(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						"row2",
+						1)));
+	}
+
+	@Test
+	public void testDedupAcrossIndices() {
+		final DedupeFilter filter = new DedupeFilter();
+		filter.setDedupAcrossIndices(true);
+		assertTrue(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						1)));
+		assertFalse(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						1)));
+		// the entry can have more rows in another index
+		assertFalse(filter.accept(
+				null,
+				createEncoding(
+						"a",
+						1)));
+		assertTrue(filter.accept(
+				null,
+				createEncoding(
+						"b",
+						0)));
+		assertFalse(filter.accept(
+				null,
+				createEncoding(
+						"b",
+						0)));
+		assertEquals(
+				2,
+				filter.getVisitedDataIdCount());
+	}
+}
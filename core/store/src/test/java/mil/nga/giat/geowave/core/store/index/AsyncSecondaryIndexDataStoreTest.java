@@ -0,0 +1,244 @@
+package mil.nga.giat.geowave.core.store.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+import mil.nga.giat.geowave.core.store.index.numeric.NumericIndexStrategy;
+
+import org.junit.Test;
+
+public class AsyncSecondaryIndexDataStoreTest
+{
+	private static class CountingSecondaryIndexDataStore implements
+			SecondaryIndexDataStore
+	{
+		final AtomicInteger stored = new AtomicInteger(
+				0);
+		final AtomicInteger deleted = new AtomicInteger(
+				0);
+		final AtomicInteger flushed = new AtomicInteger(
+				0);
+		final AtomicInteger batches = new AtomicInteger(
+				0);
+
+		@Override
+		public void store(
+				final SecondaryIndex<?> secondaryIndex,
+				final ByteArrayId primaryIndexId,
+				final ByteArrayId primaryIndexRowId,
+				final List<FieldInfo<?>> indexedAttributes ) {
+			stored.incrementAndGet();
+		}
+
+		@Override
+		public void delete(
+				final SecondaryIndex<?> secondaryIndex,
+				final List<FieldInfo<?>> indexedAttributes ) {
+			deleted.incrementAndGet();
+		}
+
+		@Override
+		public void write(
+				final SecondaryIndex<?> secondaryIndex,
+				final List<SecondaryIndexUpdate> updates ) {
+			batches.incrementAndGet();
+			for (final SecondaryIndexUpdate update : updates) {
+				if (update.isDelete()) {
+					delete(
+							secondaryIndex,
+							update.getIndexedAttributes());
+				}
+				else {
+					store(
+							secondaryIndex,
+							update.getPrimaryIndexId(),
+							update.getPrimaryIndexRowId(),
+							update.getIndexedAttributes());
+				}
+			}
+		}
+
+		@Override
+		public CloseableIterator<ByteArrayId> query(
+				final SecondaryIndex<?> secondaryIndex,
+				final List<ByteArrayRange> ranges,
+				final List<DistributableQueryFilter> constraints,
+				final ByteArrayId primaryIndexId,
+				final String... visibility ) {
+			return new CloseableIterator.Empty<ByteArrayId>();
+		}
+
+		@Override
+		public void flush() {
+			flushed.incrementAndGet();
+		}
+	}
+
+	private final SecondaryIndex<Object> index = new SecondaryIndex<Object>(
+			new NumericIndexStrategy(),
+			new ByteArrayId[] {
+				new ByteArrayId(
+						"field")
+			});
+	private final ByteArrayId primaryIndexId = new ByteArrayId(
+			"primary");
+
+	@Test
+	public void testFlushBarrier() {
+		final CountingSecondaryIndexDataStore delegate = new CountingSecondaryIndexDataStore();
+		// a small queue so that ingest is blocked by the background writer
+		final AsyncSecondaryIndexDataStore store = new AsyncSecondaryIndexDataStore(
+				delegate,
+				10);
+		for (int i = 0; i < 100; i++) {
+			store.store(
+					index,
+					primaryIndexId,
+					new ByteArrayId(
+							Integer.toString(i)),
+					Collections.<FieldInfo<?>> emptyList());
+		}
+		store.delete(
+				index,
+				Collections.<FieldInfo<?>> emptyList());
+		store.flush();
+		assertEquals(
+				100,
+				delegate.stored.get());
+		assertEquals(
+				1,
+				delegate.deleted.get());
+		assertEquals(
+				1,
+				delegate.flushed.get());
+		assertEquals(
+				0,
+				store.getPendingOperations());
+		assertEquals(
+				101,
+				store.getWrittenOperations());
+		assertEquals(
+				0,
+				store.getLagMillis());
+
+		store.close();
+		// updates after closing are written directly
+		store.delete(
+				index,
+				Collections.<FieldInfo<?>> emptyList());
+		assertEquals(
+				2,
+				delegate.deleted.get());
+	}
+
+	@Test(timeout = 10000)
+	public void testBatchedWrites()
+			throws InterruptedException {
+		final CountDownLatch writing = new CountDownLatch(
+				1);
+		final CountDownLatch release = new CountDownLatch(
+				1);
+		final CountingSecondaryIndexDataStore delegate = new CountingSecondaryIndexDataStore() {
+			@Override
+			public void write(
+					final SecondaryIndex<?> secondaryIndex,
+					final List<SecondaryIndexUpdate> updates ) {
+				writing.countDown();
+				try {
+					release.await();
+				}
+				catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.write(
+						secondaryIndex,
+						updates);
+			}
+		};
+		final AsyncSecondaryIndexDataStore store = new AsyncSecondaryIndexDataStore(
+				delegate,
+				1000);
+		store.store(
+				index,
+				primaryIndexId,
+				new ByteArrayId(
+						"0"),
+				Collections.<FieldInfo<?>> emptyList());
+		// the updates queued while the first batch is written are written
+		// together
+		writing.await();
+		for (int i = 1; i < 100; i++) {
+			store.store(
+					index,
+					primaryIndexId,
+					new ByteArrayId(
+							Integer.toString(i)),
+					Collections.<FieldInfo<?>> emptyList());
+		}
+		release.countDown();
+		store.close();
+		assertEquals(
+				100,
+				delegate.stored.get());
+		assertEquals(
+				2,
+				delegate.batches.get());
+	}
+
+	@Test(timeout = 10000)
+	public void testWriterFailure() {
+		final CountingSecondaryIndexDataStore delegate = new CountingSecondaryIndexDataStore() {
+			@Override
+			public void flush() {
+				if (flushed.incrementAndGet() == 1) {
+					throw new IllegalStateException(
+							"flush failed");
+				}
+			}
+		};
+		final AsyncSecondaryIndexDataStore store = new AsyncSecondaryIndexDataStore(
+				delegate,
+				10);
+		for (int i = 0; i < 5; i++) {
+			store.store(
+					index,
+					primaryIndexId,
+					new ByteArrayId(
+							Integer.toString(i)),
+					Collections.<FieldInfo<?>> emptyList());
+		}
+		// the failed flush kills the background writer, which must not leave
+		// this flush waiting
+		store.flush();
+		assertEquals(
+				5,
+				delegate.stored.get());
+
+		// later updates and flushes are written directly
+		for (int i = 5; i < 50; i++) {
+			store.store(
+					index,
+					primaryIndexId,
+					new ByteArrayId(
+							Integer.toString(i)),
+					Collections.<FieldInfo<?>> emptyList());
+		}
+		assertEquals(
+				50,
+				delegate.stored.get());
+		store.flush();
+		assertEquals(
+				2,
+				delegate.flushed.get());
+		store.close();
+	}
+}
@@ -0,0 +1,333 @@
+package mil.nga.giat.geowave.core.store.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.DataStore;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
+import mil.nga.giat.geowave.core.store.IndexWriter;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+import mil.nga.giat.geowave.core.store.index.numeric.NumericGreaterThanOrEqualToConstraint;
+import mil.nga.giat.geowave.core.store.index.numeric.NumericIndexStrategy;
+import mil.nga.giat.geowave.core.store.query.BasicQuery;
+import mil.nga.giat.geowave.core.store.query.Query;
+import mil.nga.giat.geowave.core.store.query.QueryOptions;
+import mil.nga.giat.geowave.core.store.query.RowIdQuery;
+
+import org.junit.Test;
+
+public class SecondaryIndexJoinExecutorTest
+{
+	private static final ByteArrayId FIELD_ID = new ByteArrayId(
+			"field");
+	private static final PrimaryIndex PRIMARY_INDEX = new NullIndex(
+			"primary");
+
+	/**
+	 * Resolves each row ID to its string value, unless the row ID is missing
+	 * or fails
+	 */
+	private static class RowIdDataStore implements
+			DataStore
+	{
+		private final AtomicInteger queries = new AtomicInteger(
+				0);
+		private final ByteArrayId missingRowId;
+		private final ByteArrayId failingRowId;
+
+		private RowIdDataStore(
+				final ByteArrayId missingRowId,
+				final ByteArrayId failingRowId ) {
+			this.missingRowId = missingRowId;
+			this.failingRowId = failingRowId;
+		}
+
+		@Override
+		public <T> IndexWriter createWriter(
+				final DataAdapter<T> adapter,
+				final PrimaryIndex... index ) {
+			throw new UnsupportedOperationException();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> CloseableIterator<T> query(
+				final QueryOptions queryOptions,
+				final Query query ) {
+			queries.incrementAndGet();
+			final List<T> entries = new ArrayList<T>();
+			for (final ByteArrayId rowId : ((RowIdQuery) query).getRowIds()) {
+				if (rowId.equals(failingRowId)) {
+					throw new IllegalStateException(
+							"Unable to resolve " + rowId.getString());
+				}
+				if (!rowId.equals(missingRowId)) {
+					entries.add((T) rowId.getString());
+				}
+			}
+			return new CloseableIterator.Wrapper<T>(
+					entries.iterator());
+		}
+
+		@Override
+		public boolean delete(
+				final QueryOptions queryOptions,
+				final Query query ) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static class FixedSecondaryIndexDataStore implements
+			SecondaryIndexDataStore
+	{
+		private final List<ByteArrayId> rowIds;
+
+		private FixedSecondaryIndexDataStore(
+				final List<ByteArrayId> rowIds ) {
+			this.rowIds = rowIds;
+		}
+
+		@Override
+		public void store(
+				final SecondaryIndex<?> secondaryIndex,
+				final ByteArrayId primaryIndexId,
+				final ByteArrayId primaryIndexRowId,
+				final List<FieldInfo<?>> indexedAttributes ) {}
+
+		@Override
+		public void delete(
+				final SecondaryIndex<?> secondaryIndex,
+				final List<FieldInfo<?>> indexedAttributes ) {}
+
+		@Override
+		public void write(
+				final SecondaryIndex<?> secondaryIndex,
+				final List<SecondaryIndexUpdate> updates ) {}
+
+		@Override
+		public CloseableIterator<ByteArrayId> query(
+				final SecondaryIndex<?> secondaryIndex,
+				final List<ByteArrayRange> ranges,
+				final List<DistributableQueryFilter> constraints,
+				final ByteArrayId primaryIndexId,
+				final String... visibility ) {
+			return new CloseableIterator.Wrapper<ByteArrayId>(
+					rowIds.iterator());
+		}
+
+		@Override
+		public void flush() {}
+	}
+
+	private static List<ByteArrayId> createRowIds(
+			final int count ) {
+		final List<ByteArrayId> rowIds = new ArrayList<ByteArrayId>();
+		for (int i = 0; i < count; i++) {
+			rowIds.add(new ByteArrayId(
+					String.format(
+							"row%03d",
+							i)));
+		}
+		return rowIds;
+	}
+
+	private static List<String> drain(
+			final CloseableIterator<String> it )
+			throws IOException {
+		final List<String> entries = new ArrayList<String>();
+		try {
+			while (it.hasNext()) {
+				entries.add(it.next());
+			}
+		}
+		finally {
+			it.close();
+		}
+		return entries;
+	}
+
+	@Test
+	public void testJoin()
+			throws IOException {
+		final List<ByteArrayId> rowIds = createRowIds(25);
+		final RowIdDataStore dataStore = new RowIdDataStore(
+				rowIds.get(3),
+				null);
+		// a row ID can be referenced by more than one secondary index entry
+		final List<ByteArrayId> secondaryResults = new ArrayList<ByteArrayId>(
+				rowIds);
+		secondaryResults.add(rowIds.get(0));
+		Collections.reverse(secondaryResults);
+		final List<String> entries = drain(new SecondaryIndexJoinExecutor(
+				dataStore,
+				10,
+				2).<String> join(
+				new QueryOptions(
+						PRIMARY_INDEX),
+				new CloseableIterator.Wrapper<ByteArrayId>(
+						secondaryResults.iterator())));
+		// each row is joined once and missing rows are skipped
+		assertEquals(
+				24,
+				entries.size());
+		assertEquals(
+				24,
+				new HashSet<String>(
+						entries).size());
+		assertTrue(!entries.contains(rowIds.get(
+				3).getString()));
+		// the row IDs are resolved in batches
+		assertEquals(
+				3,
+				dataStore.queries.get());
+	}
+
+	@Test
+	public void testExhaustedJoinReleasesThreads()
+			throws InterruptedException {
+		final CloseableIterator<String> it = new SecondaryIndexJoinExecutor(
+				new RowIdDataStore(
+						null,
+						null),
+				10,
+				4).join(
+				new QueryOptions(
+						PRIMARY_INDEX),
+				new CloseableIterator.Wrapper<ByteArrayId>(
+						createRowIds(
+								100).iterator()));
+		int count = 0;
+		// the join is exhausted but deliberately not closed
+		while (it.hasNext()) {
+			it.next();
+			count++;
+		}
+		assertEquals(
+				100,
+				count);
+		final long deadline = System.currentTimeMillis() + 10000;
+		while (countJoinThreads() > 0) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("the threads of an exhausted join must be released");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private static int countJoinThreads() {
+		int count = 0;
+		for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.isAlive() && thread.getName().equals(
+					"GeoWave secondary index join")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void testLimit()
+			throws IOException {
+		final QueryOptions queryOptions = new QueryOptions(
+				PRIMARY_INDEX);
+		queryOptions.setLimit(5);
+		final List<String> entries = drain(new SecondaryIndexJoinExecutor(
+				new RowIdDataStore(
+						null,
+						null),
+				2,
+				2).<String> join(
+				queryOptions,
+				new CloseableIterator.Wrapper<ByteArrayId>(
+						createRowIds(
+								20).iterator())));
+		assertEquals(
+				5,
+				entries.size());
+	}
+
+	@Test
+	public void testFailedBatchIsRethrown()
+			throws IOException {
+		final List<ByteArrayId> rowIds = createRowIds(30);
+		final CloseableIterator<String> it = new SecondaryIndexJoinExecutor(
+				new RowIdDataStore(
+						null,
+						rowIds.get(15)),
+				10,
+				1).join(
+				new QueryOptions(
+						PRIMARY_INDEX),
+				new CloseableIterator.Wrapper<ByteArrayId>(
+						rowIds.iterator()));
+		int count = 0;
+		try {
+			while (it.hasNext()) {
+				it.next();
+				count++;
+			}
+			fail("the failed batch must not be silently skipped");
+		}
+		catch (final RuntimeException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		finally {
+			it.close();
+		}
+		assertEquals(
+				10,
+				count);
+	}
+
+	@Test
+	public void testQueryManagerJoin()
+			throws IOException {
+		final List<ByteArrayId> rowIds = createRowIds(5);
+		final SecondaryIndexQueryManager queryManager = new SecondaryIndexQueryManager(
+				new FixedSecondaryIndexDataStore(
+						rowIds),
+				new RowIdDataStore(
+						null,
+						null));
+		final SecondaryIndex<Object> secondaryIndex = new SecondaryIndex<Object>(
+				new NumericIndexStrategy(),
+				new ByteArrayId[] {
+					FIELD_ID
+				});
+		final Map<ByteArrayId, FilterableConstraints> additionalConstraints = new HashMap<ByteArrayId, FilterableConstraints>();
+		additionalConstraints.put(
+				FIELD_ID,
+				new NumericGreaterThanOrEqualToConstraint(
+						FIELD_ID,
+						100));
+		final List<String> entries = drain(queryManager.<String> queryEntries(
+				new BasicQuery(
+						new BasicQuery.Constraints(),
+						additionalConstraints),
+				secondaryIndex,
+				new QueryOptions(
+						PRIMARY_INDEX)));
+		final List<String> expected = new ArrayList<String>();
+		for (final ByteArrayId rowId : rowIds) {
+			expected.add(rowId.getString());
+		}
+		Collections.sort(entries);
+		assertEquals(
+				expected,
+				entries);
+	}
+}
@@ -0,0 +1,117 @@
+package mil.nga.giat.geowave.core.store.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopKCollectorTest
+{
+	@Test
+	public void testSortAndMergeRegionResults()
+			throws IOException {
+		// each result holds the unsorted top K entries of every region it
+		// scanned
+		final List<CloseableIterator<Integer>> results = new ArrayList<CloseableIterator<Integer>>();
+		results.add(new CloseableIterator.Wrapper<Integer>(
+				Arrays.asList(
+						7,
+						2,
+						9,
+						4,
+						8).iterator()));
+		results.add(new CloseableIterator.Wrapper<Integer>(
+				Arrays.asList(
+						5,
+						1,
+						6,
+						3).iterator()));
+
+		final CloseableIterator<Integer> merged = TopKCollector.sortAndMerge(
+				results,
+				new IntegerSortKey(
+						false),
+				4);
+		final List<Integer> actual = new ArrayList<Integer>();
+		while (merged.hasNext()) {
+			actual.add(merged.next());
+		}
+		merged.close();
+
+		Assert.assertEquals(
+				Arrays.asList(
+						9,
+						8,
+						7,
+						6),
+				actual);
+	}
+
+	@Test
+	public void testDuplicateIdsAreKeptOnce() {
+		final TopKCollector<String> collector = new TopKCollector<String>(
+				true,
+				2);
+		collector.add(
+				new ByteArrayId(
+						"a"),
+				1,
+				"a");
+		collector.add(
+				new ByteArrayId(
+						"a"),
+				1,
+				"a");
+		collector.add(
+				null,
+				3,
+				"c");
+		collector.add(
+				null,
+				2,
+				"b");
+
+		Assert.assertEquals(
+				Arrays.asList(
+						"a",
+						"b"),
+				collector.getSorted());
+	}
+
+	private static class IntegerSortKey implements
+			SortKey<Integer>
+	{
+		private final boolean ascending;
+
+		private IntegerSortKey(
+				final boolean ascending ) {
+			this.ascending = ascending;
+		}
+
+		@Override
+		public Comparable<?> getSortValue(
+				final Integer entry ) {
+			return entry;
+		}
+
+		@Override
+		public boolean isAscending() {
+			return ascending;
+		}
+
+		@Override
+		public byte[] toBinary() {
+			return new byte[0];
+		}
+
+		@Override
+		public void fromBinary(
+				final byte[] bytes ) {}
+	}
+}
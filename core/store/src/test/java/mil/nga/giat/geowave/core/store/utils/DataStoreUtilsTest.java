@@ -23,6 +23,7 @@ import mil.nga.giat.geowave.core.store.data.visibility.GlobalVisibilityHandler;
 import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.memory.DataStoreUtils;
+import mil.nga.giat.geowave.core.store.memory.DataStoreUtils.VisibilityEvaluator;
 import mil.nga.giat.geowave.core.store.memory.EntryRow;
 
 import org.junit.Test;
@@ -128,6 +129,23 @@ public class DataStoreUtilsTest
 
 	}
 
+	@Test
+	public void testVisibilityEvaluator() {
+		final VisibilityEvaluator evaluator = new VisibilityEvaluator(
+				"aaa",
+				"eee");
+		// evaluate each visibility twice to exercise the cached results
+		for (int i = 0; i < 2; i++) {
+			assertTrue(evaluator.isAuthorized("aaa&(ccc|eee)".getBytes()));
+			assertFalse(evaluator.isAuthorized("aaa&ccc".getBytes()));
+			assertTrue(evaluator.isAuthorized(new byte[0]));
+			assertTrue(evaluator.isAuthorized(null));
+		}
+		// the compiled expressions are shared by other authorizations
+		assertFalse(new VisibilityEvaluator(
+				"aaa").isAuthorized("aaa&(ccc|eee)".getBytes()));
+	}
+
 	protected static class TestStringAdapter extends
 			AbstractDataAdapter<String> implements
 			StatisticsProvider<String>
@@ -41,11 +41,14 @@ import mil.nga.giat.geowave.core.store.filter.QueryFilter;
 import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
 import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.memory.MemoryDataStore;
 import mil.nga.giat.geowave.core.store.memory.MemoryRequiredOptions;
 import mil.nga.giat.geowave.core.store.memory.MemoryStoreFactoryFamily;
 import mil.nga.giat.geowave.core.store.query.DataIdQuery;
 import mil.nga.giat.geowave.core.store.query.Query;
 import mil.nga.giat.geowave.core.store.query.QueryOptions;
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
+import mil.nga.giat.geowave.core.store.query.SortKey;
 
 public class MemoryDataStoreTest
 {
@@ -444,6 +447,278 @@ public class MemoryDataStoreTest
 
 	}
 
+	@Test
+	public void testMaxMemoryBytes()
+			throws IOException,
+			MismatchedIndexToAdapterMapping {
+		final PrimaryIndex index = new PrimaryIndex(
+				new MockComponents.MockIndexStrategy(),
+				new MockComponents.TestIndexModel());
+		final MemoryDataStore dataStore = new MemoryDataStore();
+		final WritableDataAdapter<Integer> adapter = new MockComponents.MockAbstractDataAdapter();
+
+		try (final IndexWriter indexWriter = dataStore.createWriter(
+				adapter,
+				index)) {
+			assertEquals(
+					1,
+					indexWriter.write(
+							new Integer(
+									25)).size());
+			assertTrue(dataStore.getUsedBytes() > 0);
+			dataStore.setMaxBytes(dataStore.getUsedBytes() + 1);
+
+			// replacing an existing row frees the bytes of the existing row
+			assertEquals(
+					1,
+					indexWriter.write(
+							new Integer(
+									25)).size());
+			assertTrue(indexWriter.write(
+					new Integer(
+							35)).isEmpty());
+		}
+
+		try (CloseableIterator<?> itemIt = dataStore.query(
+				new QueryOptions(
+						adapter,
+						index),
+				new TestQuery(
+						23,
+						36))) {
+			assertTrue(itemIt.hasNext());
+			assertEquals(
+					new Integer(
+							25),
+					itemIt.next());
+			assertFalse(itemIt.hasNext());
+		}
+
+		dataStore.delete(
+				new QueryOptions(
+						adapter,
+						index),
+				new TestQuery(
+						23,
+						26));
+		assertEquals(
+				0,
+				dataStore.getUsedBytes());
+	}
+
+	@Test
+	public void testQueryProfile()
+			throws IOException,
+			MismatchedIndexToAdapterMapping {
+		final PrimaryIndex index = new PrimaryIndex(
+				new MockComponents.MockIndexStrategy(),
+				new MockComponents.TestIndexModel());
+		final DataStore dataStore = new MemoryDataStore();
+		final WritableDataAdapter<Integer> adapter = new MockComponents.MockAbstractDataAdapter();
+
+		final VisibilityWriter<Integer> visWriter = new VisibilityWriter<Integer>() {
+			@Override
+			public FieldVisibilityHandler<Integer, Object> getFieldVisibilityHandler(
+					ByteArrayId fieldId ) {
+				return new GlobalVisibilityHandler(
+						"aaa&bbb");
+			}
+		};
+
+		try (final IndexWriter indexWriter = dataStore.createWriter(
+				adapter,
+				index)) {
+			indexWriter.write(
+					new Integer(
+							25),
+					visWriter);
+			indexWriter.write(
+					new Integer(
+							35),
+					visWriter);
+		}
+
+		// both rows are scanned but rejected by the authorization check
+		final QueryProfile rejectedProfile = new QueryProfile();
+		final QueryOptions rejectedOptions = new QueryOptions(
+				adapter,
+				index,
+				new String[] {
+					"aaa"
+				});
+		rejectedOptions.setProfile(rejectedProfile);
+		try (CloseableIterator<?> itemIt = dataStore.query(
+				rejectedOptions,
+				new TestQuery(
+						23,
+						36))) {
+			assertFalse(itemIt.hasNext());
+		}
+		assertTrue(rejectedProfile.getIndices().contains(
+				index.getId().getString()));
+		// the mock index strategy does not decompose queries into ranges, so
+		// every row of the index is scanned
+		assertEquals(
+				0,
+				rejectedProfile.getRanges());
+		assertEquals(
+				2,
+				rejectedProfile.getRowsScanned());
+		assertEquals(
+				2,
+				rejectedProfile.getRowsRejected());
+		assertEquals(
+				0,
+				rejectedProfile.getRowsAccepted());
+
+		final QueryProfile acceptedProfile = new QueryProfile();
+		final QueryOptions acceptedOptions = new QueryOptions(
+				adapter,
+				index,
+				new String[] {
+					"aaa",
+					"bbb"
+				});
+		acceptedOptions.setProfile(acceptedProfile);
+		try (CloseableIterator<?> itemIt = dataStore.query(
+				acceptedOptions,
+				new TestQuery(
+						23,
+						36))) {
+			assertTrue(itemIt.hasNext());
+			itemIt.next();
+			assertTrue(itemIt.hasNext());
+			itemIt.next();
+			assertFalse(itemIt.hasNext());
+		}
+		assertTrue(acceptedProfile.finish());
+		assertFalse(acceptedProfile.finish());
+		assertEquals(
+				2,
+				acceptedProfile.getRowsScanned());
+		assertEquals(
+				0,
+				acceptedProfile.getRowsRejected());
+		assertEquals(
+				2,
+				acceptedProfile.getRowsAccepted());
+	}
+
+	@Test
+	public void testConcurrentWriters()
+			throws Exception {
+		final PrimaryIndex index = new PrimaryIndex(
+				new MockComponents.MockIndexStrategy(),
+				new MockComponents.TestIndexModel());
+		final MemoryDataStore dataStore = new MemoryDataStore();
+		final WritableDataAdapter<Integer> adapter = new MockComponents.MockAbstractDataAdapter();
+		final int threadCount = 4;
+		final int entriesPerThread = 100;
+		final Thread[] threads = new Thread[threadCount];
+		for (int t = 0; t < threadCount; t++) {
+			final int offset = t * entriesPerThread;
+			threads[t] = new Thread(
+					new Runnable() {
+						@Override
+						public void run() {
+							try (final IndexWriter indexWriter = dataStore.createWriter(
+									adapter,
+									index)) {
+								for (int i = 0; i < entriesPerThread; i++) {
+									indexWriter.write(new Integer(
+											offset + i));
+								}
+							}
+							catch (final Exception e) {
+								throw new RuntimeException(
+										e);
+							}
+						}
+					});
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		int count = 0;
+		try (CloseableIterator<?> itemIt = dataStore.query(
+				new QueryOptions(
+						adapter,
+						index),
+				new TestQuery(
+						0,
+						threadCount * entriesPerThread))) {
+			while (itemIt.hasNext()) {
+				itemIt.next();
+				count++;
+			}
+		}
+		assertEquals(
+				threadCount * entriesPerThread,
+				count);
+	}
+
+	@Test
+	public void testSortedQuery()
+			throws IOException,
+			MismatchedIndexToAdapterMapping {
+		final PrimaryIndex index = new PrimaryIndex(
+				new MockComponents.MockIndexStrategy(),
+				new MockComponents.TestIndexModel());
+		final DataStore dataStore = new MemoryDataStore();
+		final WritableDataAdapter<Integer> adapter = new MockComponents.MockAbstractDataAdapter();
+
+		try (final IndexWriter indexWriter = dataStore.createWriter(
+				adapter,
+				index)) {
+			for (int i = 0; i < 20; i++) {
+				indexWriter.write(new Integer(
+						i));
+			}
+		}
+
+		final QueryOptions options = new QueryOptions(
+				adapter,
+				index);
+		options.setLimit(3);
+		options.setSortKey(new IntegerSortKey(
+				false));
+		try (CloseableIterator<?> itemIt = dataStore.query(
+				options,
+				new TestQuery(
+						0,
+						15))) {
+			// the three highest values within the query
+			for (int i = 14; i > 11; i--) {
+				assertTrue(itemIt.hasNext());
+				assertEquals(
+						new Integer(
+								i),
+						itemIt.next());
+			}
+			assertFalse(itemIt.hasNext());
+		}
+
+		options.setLimit(-1);
+		options.setSortKey(new IntegerSortKey(
+				true));
+		try (CloseableIterator<?> itemIt = dataStore.query(
+				options,
+				new TestQuery(
+						0,
+						15))) {
+			for (int i = 0; i < 15; i++) {
+				assertTrue(itemIt.hasNext());
+				assertEquals(
+						new Integer(
+								i),
+						itemIt.next());
+			}
+			assertFalse(itemIt.hasNext());
+		}
+	}
+
 	private boolean checkStats(
 			final Iterator<DataStatistics<?>> statIt,
 			final int count,
@@ -459,6 +734,41 @@ public class MemoryDataStoreTest
 		return true;
 	}
 
+	private static class IntegerSortKey implements
+			SortKey<Integer>
+	{
+		private boolean ascending;
+
+		public IntegerSortKey(
+				final boolean ascending ) {
+			this.ascending = ascending;
+		}
+
+		@Override
+		public Comparable<?> getSortValue(
+				final Integer entry ) {
+			return entry;
+		}
+
+		@Override
+		public boolean isAscending() {
+			return ascending;
+		}
+
+		@Override
+		public byte[] toBinary() {
+			return new byte[] {
+				(byte) (ascending ? 1 : 0)
+			};
+		}
+
+		@Override
+		public void fromBinary(
+				final byte[] bytes ) {
+			ascending = bytes[0] == 1;
+		}
+	}
+
 	private class TestQueryFilter implements
 			QueryFilter
 	{
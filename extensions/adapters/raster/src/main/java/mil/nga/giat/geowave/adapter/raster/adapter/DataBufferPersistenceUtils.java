@@ -0,0 +1,245 @@
+package mil.nga.giat.geowave.adapter.raster.adapter;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+
+import javax.media.jai.remote.SerializableState;
+
+/**
+ * This class encodes data buffers as the raw elements of each bank, preceded
+ * by a small header with the format version, the compression, the data type
+ * and the dimensions of the banks. The elements are not compressed because the
+ * data stores already compress their blocks. Binaries written as a Java serialized JAI
+ * SerializableState by prior versions are recognized by the stream magic of
+ * Java serialization and are still decoded.
+ *
+ */
+public class DataBufferPersistenceUtils
+{
+	// the first byte of Java serialization is 0xAC so this never matches an
+	// encoding written by prior versions
+	private static final byte FORMAT_VERSION = 1;
+	// the only compression that is written, which is kept in the header so
+	// that a compressed encoding can be added without a new format version
+	private static final byte NO_COMPRESSION = 0;
+	private static final int HEADER_LENGTH = 15;
+
+	public static byte[] getDataBufferBinary(
+			final DataBuffer dataBuffer ) {
+		final int dataType = dataBuffer.getDataType();
+		final int numBanks = dataBuffer.getNumBanks();
+		final int size = dataBuffer.getSize();
+		final int elementsLength = numBanks * size * (DataBuffer.getDataTypeSize(dataType) / 8);
+		final ByteBuffer buf = ByteBuffer.allocate(HEADER_LENGTH + elementsLength);
+		buf.put(FORMAT_VERSION);
+		buf.put(NO_COMPRESSION);
+		buf.put((byte) dataType);
+		buf.putInt(numBanks);
+		buf.putInt(size);
+		buf.putInt(elementsLength);
+		for (int b = 0; b < numBanks; b++) {
+			writeBank(
+					dataBuffer,
+					b,
+					buf);
+		}
+		return buf.array();
+	}
+
+	public static DataBuffer getDataBuffer(
+			final byte[] binary )
+			throws IOException,
+			ClassNotFoundException {
+		if ((binary.length == 0) || (binary[0] != FORMAT_VERSION)) {
+			return getLegacyDataBuffer(binary);
+		}
+		final ByteBuffer buf = ByteBuffer.wrap(binary);
+		buf.get();
+		final int compression = buf.get();
+		if (compression != NO_COMPRESSION) {
+			throw new IOException(
+					"Unsupported data buffer compression '" + compression + "'");
+		}
+		final int dataType = buf.get();
+		final int numBanks = buf.getInt();
+		final int size = buf.getInt();
+		// the length of the elements
+		buf.getInt();
+		final ByteBuffer elements = buf.slice();
+		switch (dataType) {
+			case DataBuffer.TYPE_BYTE: {
+				final byte[][] banks = new byte[numBanks][size];
+				for (final byte[] bank : banks) {
+					elements.get(bank);
+				}
+				return new DataBufferByte(
+						banks,
+						size);
+			}
+			case DataBuffer.TYPE_USHORT: {
+				final short[][] banks = new short[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					elements.asShortBuffer().get(
+							banks[b]);
+					elements.position(elements.position() + (size * 2));
+				}
+				return new DataBufferUShort(
+						banks,
+						size);
+			}
+			case DataBuffer.TYPE_SHORT: {
+				final short[][] banks = new short[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					elements.asShortBuffer().get(
+							banks[b]);
+					elements.position(elements.position() + (size * 2));
+				}
+				return new DataBufferShort(
+						banks,
+						size);
+			}
+			case DataBuffer.TYPE_INT: {
+				final int[][] banks = new int[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					elements.asIntBuffer().get(
+							banks[b]);
+					elements.position(elements.position() + (size * 4));
+				}
+				return new DataBufferInt(
+						banks,
+						size);
+			}
+			case DataBuffer.TYPE_FLOAT: {
+				final float[][] banks = new float[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					elements.asFloatBuffer().get(
+							banks[b]);
+					elements.position(elements.position() + (size * 4));
+				}
+				return new DataBufferFloat(
+						banks,
+						size);
+			}
+			case DataBuffer.TYPE_DOUBLE: {
+				final double[][] banks = new double[numBanks][size];
+				for (int b = 0; b < numBanks; b++) {
+					elements.asDoubleBuffer().get(
+							banks[b]);
+					elements.position(elements.position() + (size * 8));
+				}
+				return new DataBufferDouble(
+						banks,
+						size);
+			}
+			default:
+				throw new IOException(
+						"Unsupported data buffer type '" + dataType + "'");
+		}
+	}
+
+	private static void writeBank(
+			final DataBuffer dataBuffer,
+			final int bank,
+			final ByteBuffer elements ) {
+		final int size = dataBuffer.getSize();
+		final int offset = dataBuffer.getOffsets()[bank];
+		// use bulk copies for the standard data buffers and fall back to
+		// element access for any other implementation
+		if (dataBuffer instanceof DataBufferByte) {
+			elements.put(
+					((DataBufferByte) dataBuffer).getData(bank),
+					offset,
+					size);
+			return;
+		}
+		if (dataBuffer instanceof DataBufferUShort) {
+			elements.asShortBuffer().put(
+					((DataBufferUShort) dataBuffer).getData(bank),
+					offset,
+					size);
+		}
+		else if (dataBuffer instanceof DataBufferShort) {
+			elements.asShortBuffer().put(
+					((DataBufferShort) dataBuffer).getData(bank),
+					offset,
+					size);
+		}
+		else if (dataBuffer instanceof DataBufferInt) {
+			elements.asIntBuffer().put(
+					((DataBufferInt) dataBuffer).getData(bank),
+					offset,
+					size);
+		}
+		else if (dataBuffer instanceof DataBufferFloat) {
+			elements.asFloatBuffer().put(
+					((DataBufferFloat) dataBuffer).getData(bank),
+					offset,
+					size);
+		}
+		else if (dataBuffer instanceof DataBufferDouble) {
+			elements.asDoubleBuffer().put(
+					((DataBufferDouble) dataBuffer).getData(bank),
+					offset,
+					size);
+		}
+		else {
+			for (int i = 0; i < size; i++) {
+				switch (dataBuffer.getDataType()) {
+					case DataBuffer.TYPE_BYTE:
+						elements.put((byte) dataBuffer.getElem(
+								bank,
+								i));
+						break;
+					case DataBuffer.TYPE_USHORT:
+					case DataBuffer.TYPE_SHORT:
+						elements.putShort((short) dataBuffer.getElem(
+								bank,
+								i));
+						break;
+					case DataBuffer.TYPE_INT:
+						elements.putInt(dataBuffer.getElem(
+								bank,
+								i));
+						break;
+					case DataBuffer.TYPE_FLOAT:
+						elements.putFloat(dataBuffer.getElemFloat(
+								bank,
+								i));
+						break;
+					default:
+						elements.putDouble(dataBuffer.getElemDouble(
+								bank,
+								i));
+						break;
+				}
+			}
+			return;
+		}
+		// the views above do not advance the position of the elements
+		elements.position(elements.position() + (size * (DataBuffer.getDataTypeSize(dataBuffer.getDataType()) / 8)));
+	}
+
+	private static DataBuffer getLegacyDataBuffer(
+			final byte[] binary )
+			throws IOException,
+			ClassNotFoundException {
+		final ByteArrayInputStream bais = new ByteArrayInputStream(
+				binary);
+		final ObjectInputStream ois = new ObjectInputStream(
+				bais);
+		final Object o = ois.readObject();
+		if ((o instanceof SerializableState) && (((SerializableState) o).getObject() instanceof DataBuffer)) {
+			return (DataBuffer) ((SerializableState) o).getObject();
+		}
+		return null;
+	}
+}
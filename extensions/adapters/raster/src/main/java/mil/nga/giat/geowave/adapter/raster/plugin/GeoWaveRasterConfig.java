@@ -38,7 +38,17 @@ public class GeoWaveRasterConfig
 		INTERPOLATION(
 				"interpolationOverride"),
 		EQUALIZE_HISTOGRAM(
-				"equalizeHistogramOverride");
+				"equalizeHistogramOverride"),
+		// the following are optional parameters for fetching tiles, a tile
+		// cache size of 0 disables caching decoded tiles; the cache is only
+		// expired by time, so newly ingested tiles are not visible until the
+		// cached tiles of their cells expire
+		TILE_CACHE_SIZE(
+				"tileCacheSizeMB"),
+		TILE_CACHE_EXPIRATION(
+				"tileCacheExpirationSeconds"),
+		TILE_FETCH_THREADS(
+				"tileFetchThreads");
 		private String configName;
 
 		private ConfigParameter(
@@ -62,6 +72,12 @@ public class GeoWaveRasterConfig
 
 	private Integer interpolationOverride = null;
 
+	private int tileCacheSizeMB = RasterTileFetcher.DEFAULT_CACHE_SIZE_MB;
+
+	private int tileCacheExpirationSeconds = RasterTileFetcher.DEFAULT_CACHE_EXPIRATION_SECONDS;
+
+	private int tileFetchThreads = RasterTileFetcher.DEFAULT_FETCH_THREADS;
+
 	protected GeoWaveRasterConfig() {}
 
 	public static GeoWaveRasterConfig createConfig(
@@ -191,6 +207,18 @@ public class GeoWaveRasterConfig
 		if (params.containsKey(ConfigParameter.INTERPOLATION.getConfigName())) {
 			result.interpolationOverride = Integer.parseInt(params.get(ConfigParameter.INTERPOLATION.getConfigName()));
 		}
+		if (params.containsKey(ConfigParameter.TILE_CACHE_SIZE.getConfigName())) {
+			result.tileCacheSizeMB = Integer.parseInt(params.get(
+					ConfigParameter.TILE_CACHE_SIZE.getConfigName()).trim());
+		}
+		if (params.containsKey(ConfigParameter.TILE_CACHE_EXPIRATION.getConfigName())) {
+			result.tileCacheExpirationSeconds = Integer.parseInt(params.get(
+					ConfigParameter.TILE_CACHE_EXPIRATION.getConfigName()).trim());
+		}
+		if (params.containsKey(ConfigParameter.TILE_FETCH_THREADS.getConfigName())) {
+			result.tileFetchThreads = Integer.parseInt(params.get(
+					ConfigParameter.TILE_FETCH_THREADS.getConfigName()).trim());
+		}
 	}
 
 	public synchronized DataStore getDataStore() {
@@ -257,4 +285,16 @@ public class GeoWaveRasterConfig
 		}
 		return equalizeHistogramOverride;
 	}
+
+	public int getTileCacheSizeMB() {
+		return tileCacheSizeMB;
+	}
+
+	public int getTileCacheExpirationSeconds() {
+		return tileCacheExpirationSeconds;
+	}
+
+	public int getTileFetchThreads() {
+		return tileFetchThreads;
+	}
 }
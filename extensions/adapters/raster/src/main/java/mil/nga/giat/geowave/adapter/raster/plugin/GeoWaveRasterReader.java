@@ -40,7 +40,6 @@ import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatistics;
 import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatisticsStore;
 import mil.nga.giat.geowave.core.store.index.CustomIdIndex;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
-import mil.nga.giat.geowave.core.store.query.Query;
 import mil.nga.giat.geowave.core.store.query.QueryOptions;
 
 import org.apache.log4j.Logger;
@@ -96,6 +95,8 @@ public class GeoWaveRasterReader extends
 
 	private PrimaryIndex rasterIndex;
 
+	private RasterTileFetcher tileFetcher;
+
 	protected final static CoordinateOperationFactory OPERATION_FACTORY = new BufferedCoordinateOperationFactory(
 			new Hints(
 					Hints.LENIENT_DATUM_SHIFT,
@@ -186,6 +187,11 @@ public class GeoWaveRasterReader extends
 
 		rasterIndex = new SpatialIndexBuilder().setAllTiers(
 				true).createIndex();
+		tileFetcher = new RasterTileFetcher(
+				geowaveDataStore,
+				config.getTileCacheSizeMB(),
+				config.getTileCacheExpirationSeconds(),
+				config.getTileFetchThreads());
 		crs = GeoWaveGTRasterFormat.DEFAULT_CRS;
 	}
 
@@ -692,23 +698,32 @@ public class GeoWaveRasterReader extends
 			final double levelResY,
 			final RasterDataAdapter adapter )
 			throws IOException {
-		return queryForTiles(
-				adapter,
+		final Envelope envelope = new Envelope(
+				requestEnvelope.getMinimum(0),
+				requestEnvelope.getMaximum(0),
+				requestEnvelope.getMinimum(1),
+				requestEnvelope.getMaximum(1));
+		final PrimaryIndex index = getIndexForResolution(new double[] {
+			levelResX * adapter.getTileSize(),
+			levelResY * adapter.getTileSize()
+		});
+		if (index != rasterIndex) {
+			// the index has a single tier so its tiles can be fetched and
+			// cached cell by cell
+			return tileFetcher.fetchTiles(
+					adapter,
+					index,
+					envelope);
+		}
+		return geowaveDataStore.query(
+				new QueryOptions(
+						adapter,
+						index),
 				new IndexOnlySpatialQuery(
-						new GeometryFactory().toGeometry(new Envelope(
-								requestEnvelope.getMinimum(0),
-								requestEnvelope.getMaximum(0),
-								requestEnvelope.getMinimum(1),
-								requestEnvelope.getMaximum(1)))),
-				new double[] {
-					levelResX * adapter.getTileSize(),
-					levelResY * adapter.getTileSize()
-				});
+						new GeometryFactory().toGeometry(envelope)));
 	}
 
-	private CloseableIterator<GridCoverage> queryForTiles(
-			final RasterDataAdapter adapter,
-			final Query query,
+	private PrimaryIndex getIndexForResolution(
 			final double[] targetResolutionPerDimension ) {
 		// determine the correct tier to query for the given resolution
 		final NumericIndexStrategy strategy = rasterIndex.getIndexStrategy();
@@ -752,31 +767,25 @@ public class GeoWaveRasterReader extends
 				// dimension, which is the highest precision)
 				targetIndexStrategy = sortedStrategies.firstEntry().getValue();
 			}
-			return geowaveDataStore.query(
-					new QueryOptions(
-							adapter,
-							new CustomIdIndex(
-									// replace the index strategy with a single
-									// substrategy that fits the target
-									// resolution
-									targetIndexStrategy.getIndexStrategy(),
-									rasterIndex.getIndexModel(),
-									rasterIndex.getId())), // make sure the
-															// index ID is
-															// the
-					// same as the orginal so that we
-					// are querying the correct table
-					query);
+			// replace the index strategy with a single substrategy that fits
+			// the target resolution, and make sure the index ID is the same
+			// as the orginal so that we are querying the correct table
+			return new CustomIdIndex(
+					targetIndexStrategy.getIndexStrategy(),
+					rasterIndex.getIndexModel(),
+					rasterIndex.getId());
 		}
 		else {
-			return geowaveDataStore.query(
-					new QueryOptions(
-							adapter,
-							rasterIndex),
-					query);
+			return rasterIndex;
 		}
 	}
 
+	@Override
+	public void dispose() {
+		tileFetcher.close();
+		super.dispose();
+	}
+
 	private GridCoverage2D transformResult(
 			final GridCoverage2D coverage,
 			final Rectangle pixelDimension,
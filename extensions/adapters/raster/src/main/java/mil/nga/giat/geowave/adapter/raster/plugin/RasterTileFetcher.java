@@ -0,0 +1,317 @@
+package mil.nga.giat.geowave.adapter.raster.plugin;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.RenderedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.nga.giat.geowave.adapter.raster.adapter.RasterDataAdapter;
+import mil.nga.giat.geowave.adapter.raster.query.IndexOnlySpatialQuery;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.NumericIndexStrategy;
+import mil.nga.giat.geowave.core.index.sfc.data.BasicNumericDataset;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericData;
+import mil.nga.giat.geowave.core.index.sfc.data.NumericRange;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.DataStore;
+import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.query.QueryOptions;
+
+import org.apache.log4j.Logger;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.opengis.coverage.grid.GridCoverage;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+/**
+ * This class fetches the tiles of a single tier of the raster index for a
+ * requested envelope. Each cell of the tier that intersects the envelope holds
+ * at most one (merged) tile, so the cells are fetched independently, in
+ * parallel, and the decoded tiles of each cell are cached. The cache is
+ * bounded by the size of the decoded tiles. It is not invalidated when tiles
+ * are ingested, instead its entries expire after a fixed time so that newly
+ * ingested tiles become visible.
+ *
+ */
+public class RasterTileFetcher implements
+		Closeable
+{
+	private final static Logger LOGGER = Logger.getLogger(RasterTileFetcher.class);
+	public static final int DEFAULT_CACHE_SIZE_MB = 128;
+	public static final int DEFAULT_CACHE_EXPIRATION_SECONDS = 60;
+	public static final int DEFAULT_FETCH_THREADS = 4;
+	// beyond this many cells a single query is cheaper than one per cell
+	private static final int MAX_CELLS_PER_REQUEST = 256;
+	private static final int EMPTY_CELL_WEIGHT = 64;
+
+	private final DataStore dataStore;
+	private final ExecutorService executor;
+	private final Cache<CellKey, List<GridCoverage>> cache;
+
+	public RasterTileFetcher(
+			final DataStore dataStore,
+			final int cacheSizeMB,
+			final int cacheExpirationSeconds,
+			final int fetchThreads ) {
+		this.dataStore = dataStore;
+		final AtomicInteger threadCount = new AtomicInteger(
+				0);
+		executor = Executors.newFixedThreadPool(
+				Math.max(
+						1,
+						fetchThreads),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(
+							final Runnable r ) {
+						final Thread thread = new Thread(
+								r,
+								"GeoWave raster tile fetcher " + threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		if (cacheSizeMB > 0) {
+			cache = CacheBuilder.newBuilder().maximumWeight(
+					cacheSizeMB * 1024L * 1024L).weigher(
+					new Weigher<CellKey, List<GridCoverage>>() {
+						@Override
+						public int weigh(
+								final CellKey key,
+								final List<GridCoverage> value ) {
+							return getWeight(value);
+						}
+					}).expireAfterWrite(
+					Math.max(
+							1,
+							cacheExpirationSeconds),
+					TimeUnit.SECONDS).build();
+		}
+		else {
+			cache = null;
+		}
+	}
+
+	/**
+	 * @param adapter
+	 *            the coverage to fetch
+	 * @param index
+	 *            the index with the single tier to fetch from
+	 * @param envelope
+	 *            the requested envelope in the coordinate reference system of
+	 *            the index
+	 * @return the tiles that intersect the envelope
+	 * @throws IOException
+	 *             if the tiles of any cell could not be fetched
+	 */
+	public CloseableIterator<GridCoverage> fetchTiles(
+			final RasterDataAdapter adapter,
+			final PrimaryIndex index,
+			final Envelope envelope )
+			throws IOException {
+		final NumericIndexStrategy indexStrategy = index.getIndexStrategy();
+		final List<ByteArrayId> cellIds = indexStrategy.getInsertionIds(new BasicNumericDataset(
+				new NumericData[] {
+					new NumericRange(
+							envelope.getMinX(),
+							envelope.getMaxX()),
+					new NumericRange(
+							envelope.getMinY(),
+							envelope.getMaxY())
+				}));
+		if (cellIds.isEmpty() || (cellIds.size() > MAX_CELLS_PER_REQUEST)) {
+			return query(
+					adapter,
+					index,
+					envelope);
+		}
+		final List<List<GridCoverage>> cells = new ArrayList<List<GridCoverage>>(
+				cellIds.size());
+		final List<Future<List<GridCoverage>>> fetches = new ArrayList<Future<List<GridCoverage>>>(
+				cellIds.size());
+		for (final ByteArrayId cellId : cellIds) {
+			final CellKey key = new CellKey(
+					adapter.getAdapterId(),
+					index.getId(),
+					cellId);
+			final List<GridCoverage> cachedTiles = cache != null ? cache.getIfPresent(key) : null;
+			cells.add(cachedTiles);
+			fetches.add(cachedTiles != null ? null : executor.submit(new Callable<List<GridCoverage>>() {
+				@Override
+				public List<GridCoverage> call()
+						throws Exception {
+					final List<GridCoverage> tiles = fetchCell(
+							adapter,
+							index,
+							indexStrategy.getRangeForId(cellId));
+					if (cache != null) {
+						cache.put(
+								key,
+								tiles);
+					}
+					return tiles;
+				}
+			}));
+		}
+		final List<GridCoverage> tiles = new ArrayList<GridCoverage>();
+		boolean fetched = false;
+		try {
+			for (int i = 0; i < cells.size(); i++) {
+				final List<GridCoverage> cellTiles = cells.get(i);
+				if (cellTiles != null) {
+					tiles.addAll(cellTiles);
+				}
+				else {
+					tiles.addAll(fetches.get(
+							i).get());
+				}
+			}
+			fetched = true;
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(
+					"Interrupted while fetching raster tiles",
+					e);
+		}
+		catch (final ExecutionException e) {
+			throw new IOException(
+					"Unable to fetch raster tiles",
+					e.getCause());
+		}
+		finally {
+			if (!fetched) {
+				// a partial mosaic is never returned, so the remaining cells
+				// are not needed
+				for (final Future<List<GridCoverage>> fetch : fetches) {
+					if (fetch != null) {
+						fetch.cancel(true);
+					}
+				}
+			}
+		}
+		return new CloseableIterator.Wrapper<GridCoverage>(
+				tiles.iterator());
+	}
+
+	private List<GridCoverage> fetchCell(
+			final RasterDataAdapter adapter,
+			final PrimaryIndex index,
+			final MultiDimensionalNumericData cellRange )
+			throws IOException {
+		final double[] min = cellRange.getMinValuesPerDimension();
+		final double[] max = cellRange.getMaxValuesPerDimension();
+		// query the interior of the cell so that the tiles of the adjacent
+		// cells, which share its edges, are not included
+		final double bufferX = (max[0] - min[0]) / 4;
+		final double bufferY = (max[1] - min[1]) / 4;
+		try (CloseableIterator<GridCoverage> it = query(
+				adapter,
+				index,
+				new Envelope(
+						min[0] + bufferX,
+						max[0] - bufferX,
+						min[1] + bufferY,
+						max[1] - bufferY))) {
+			if (!it.hasNext()) {
+				return Collections.emptyList();
+			}
+			final List<GridCoverage> tiles = new ArrayList<GridCoverage>(
+					1);
+			while (it.hasNext()) {
+				tiles.add(it.next());
+			}
+			return tiles;
+		}
+	}
+
+	private CloseableIterator<GridCoverage> query(
+			final RasterDataAdapter adapter,
+			final PrimaryIndex index,
+			final Envelope envelope ) {
+		return dataStore.query(
+				new QueryOptions(
+						adapter,
+						index),
+				new IndexOnlySpatialQuery(
+						new GeometryFactory().toGeometry(envelope)));
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+		if (cache != null) {
+			cache.invalidateAll();
+		}
+	}
+
+	private static int getWeight(
+			final List<GridCoverage> tiles ) {
+		long weight = EMPTY_CELL_WEIGHT;
+		for (final GridCoverage tile : tiles) {
+			if (tile instanceof GridCoverage2D) {
+				final RenderedImage image = ((GridCoverage2D) tile).getRenderedImage();
+				weight += ((long) image.getWidth() * image.getHeight() * image.getSampleModel().getNumBands() * DataBuffer
+						.getDataTypeSize(image.getSampleModel().getDataType())) / 8;
+			}
+		}
+		return (int) Math.min(
+				weight,
+				Integer.MAX_VALUE);
+	}
+
+	private static class CellKey
+	{
+		private final ByteArrayId adapterId;
+		private final ByteArrayId indexId;
+		private final ByteArrayId cellId;
+
+		private CellKey(
+				final ByteArrayId adapterId,
+				final ByteArrayId indexId,
+				final ByteArrayId cellId ) {
+			this.adapterId = adapterId;
+			this.indexId = indexId;
+			this.cellId = cellId;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + adapterId.hashCode();
+			result = (prime * result) + indexId.hashCode();
+			result = (prime * result) + cellId.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(
+				final Object obj ) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final CellKey other = (CellKey) obj;
+			return adapterId.equals(other.adapterId) && indexId.equals(other.indexId) && cellId.equals(other.cellId);
+		}
+	}
+}
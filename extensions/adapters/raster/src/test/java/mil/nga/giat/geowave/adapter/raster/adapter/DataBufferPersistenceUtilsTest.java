@@ -0,0 +1,142 @@
+package mil.nga.giat.geowave.adapter.raster.adapter;
+
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import javax.media.jai.remote.SerializerFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DataBufferPersistenceUtilsTest
+{
+	private static final int SIZE = 64;
+	private static final int NUM_BANKS = 3;
+
+	@Test
+	public void testRoundTrip()
+			throws Exception {
+		final DataBuffer[] dataBuffers = new DataBuffer[] {
+			new DataBufferByte(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferUShort(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferShort(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferInt(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferFloat(
+					SIZE,
+					NUM_BANKS),
+			new DataBufferDouble(
+					SIZE,
+					NUM_BANKS)
+		};
+		for (final DataBuffer dataBuffer : dataBuffers) {
+			fill(dataBuffer);
+			assertEquals(
+					dataBuffer,
+					DataBufferPersistenceUtils.getDataBuffer(DataBufferPersistenceUtils.getDataBufferBinary(dataBuffer)));
+		}
+	}
+
+	@Test
+	public void testOffsets()
+			throws Exception {
+		final double[] data = new double[SIZE + 10];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = i;
+		}
+		final DataBuffer dataBuffer = new DataBufferDouble(
+				data,
+				SIZE,
+				10);
+		assertEquals(
+				dataBuffer,
+				DataBufferPersistenceUtils.getDataBuffer(DataBufferPersistenceUtils.getDataBufferBinary(dataBuffer)));
+	}
+
+	@Test
+	public void testLegacyEncoding()
+			throws Exception {
+		final DataBuffer dataBuffer = new DataBufferFloat(
+				SIZE,
+				NUM_BANKS);
+		fill(dataBuffer);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final ObjectOutputStream oos = new ObjectOutputStream(
+				baos);
+		oos.writeObject(SerializerFactory.getState(dataBuffer));
+		assertEquals(
+				dataBuffer,
+				DataBufferPersistenceUtils.getDataBuffer(baos.toByteArray()));
+	}
+
+	@Test
+	public void testUnknownCompression()
+			throws Exception {
+		final byte[] binary = DataBufferPersistenceUtils.getDataBufferBinary(new DataBufferByte(
+				SIZE,
+				NUM_BANKS));
+		// the compression follows the format version
+		binary[1] = 1;
+		try {
+			DataBufferPersistenceUtils.getDataBuffer(binary);
+			Assert.fail("an unknown compression must be rejected");
+		}
+		catch (final IOException e) {
+			Assert.assertTrue(e.getMessage().contains(
+					"compression"));
+		}
+	}
+
+	private static void fill(
+			final DataBuffer dataBuffer ) {
+		for (int b = 0; b < dataBuffer.getNumBanks(); b++) {
+			for (int i = 0; i < dataBuffer.getSize(); i++) {
+				dataBuffer.setElemDouble(
+						b,
+						i,
+						(b * 100) + i + 0.5);
+			}
+		}
+	}
+
+	private static void assertEquals(
+			final DataBuffer expected,
+			final DataBuffer actual ) {
+		Assert.assertEquals(
+				expected.getDataType(),
+				actual.getDataType());
+		Assert.assertEquals(
+				expected.getNumBanks(),
+				actual.getNumBanks());
+		Assert.assertEquals(
+				expected.getSize(),
+				actual.getSize());
+		for (int b = 0; b < expected.getNumBanks(); b++) {
+			for (int i = 0; i < expected.getSize(); i++) {
+				Assert.assertEquals(
+						expected.getElemDouble(
+								b,
+								i),
+						actual.getElemDouble(
+								b,
+								i),
+						0);
+			}
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package mil.nga.giat.geowave.adapter.raster.plugin;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mil.nga.giat.geowave.adapter.raster.RasterUtils;
+import mil.nga.giat.geowave.adapter.raster.adapter.RasterDataAdapter;
+import mil.nga.giat.geowave.core.geotime.index.dimension.LatitudeDefinition;
+import mil.nga.giat.geowave.core.geotime.index.dimension.LongitudeDefinition;
+import mil.nga.giat.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.SFCFactory.SFCType;
+import mil.nga.giat.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.DataStore;
+import mil.nga.giat.geowave.core.store.IndexWriter;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.index.CustomIdIndex;
+import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.query.Query;
+import mil.nga.giat.geowave.core.store.query.QueryOptions;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.coverage.grid.GridCoverage;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+public class RasterTileFetcherTest
+{
+	// 5 bits per dimension splits the world into 32 x 32 cells
+	private static final PrimaryIndex INDEX = new CustomIdIndex(
+			TieredSFCIndexFactory.createSingleTierStrategy(
+					new NumericDimensionDefinition[] {
+						new LongitudeDefinition(),
+						new LatitudeDefinition()
+					},
+					new int[] {
+						5,
+						5
+					},
+					SFCType.HILBERT),
+			new SpatialDimensionalityTypeProvider().createPrimaryIndex().getIndexModel(),
+			new ByteArrayId(
+					"test"));
+	// intersects two cells
+	private static final Envelope TWO_CELLS = new Envelope(
+			1,
+			20,
+			1,
+			5);
+
+	private final RasterDataAdapter adapter = RasterUtils.createDataAdapterTypeDouble(
+			"test",
+			1,
+			256);
+	private TileDataStore dataStore;
+	private RasterTileFetcher fetcher;
+
+	@Before
+	public void setUp() {
+		dataStore = new TileDataStore();
+		fetcher = new RasterTileFetcher(
+				dataStore,
+				RasterTileFetcher.DEFAULT_CACHE_SIZE_MB,
+				RasterTileFetcher.DEFAULT_CACHE_EXPIRATION_SECONDS,
+				2);
+	}
+
+	@After
+	public void tearDown() {
+		fetcher.close();
+	}
+
+	@Test
+	public void testCachedCells()
+			throws IOException {
+		Assert.assertEquals(
+				2,
+				count(fetcher.fetchTiles(
+						adapter,
+						INDEX,
+						TWO_CELLS)));
+		Assert.assertEquals(
+				2,
+				dataStore.queries.get());
+
+		// both cells are cached
+		Assert.assertEquals(
+				2,
+				count(fetcher.fetchTiles(
+						adapter,
+						INDEX,
+						TWO_CELLS)));
+		Assert.assertEquals(
+				2,
+				dataStore.queries.get());
+
+		// only the cell that is not cached yet is fetched
+		Assert.assertEquals(
+				2,
+				count(fetcher.fetchTiles(
+						adapter,
+						INDEX,
+						new Envelope(
+								12,
+								30,
+								1,
+								5))));
+		Assert.assertEquals(
+				3,
+				dataStore.queries.get());
+	}
+
+	@Test
+	public void testManyCellsAreQueriedAtOnce()
+			throws IOException {
+		// the whole world is 1024 cells, which is fetched in a single query
+		Assert.assertEquals(
+				1,
+				count(fetcher.fetchTiles(
+						adapter,
+						INDEX,
+						new Envelope(
+								-180,
+								180,
+								-90,
+								90))));
+		Assert.assertEquals(
+				1,
+				dataStore.queries.get());
+	}
+
+	@Test
+	public void testFailedFetch()
+			throws IOException {
+		dataStore.failing = true;
+		try {
+			fetcher.fetchTiles(
+					adapter,
+					INDEX,
+					TWO_CELLS);
+			Assert.fail("a partial mosaic should not be returned");
+		}
+		catch (final IOException e) {
+			// expected
+		}
+
+		// the failed cells are not cached
+		dataStore.failing = false;
+		final int queries = dataStore.queries.get();
+		Assert.assertEquals(
+				2,
+				count(fetcher.fetchTiles(
+						adapter,
+						INDEX,
+						TWO_CELLS)));
+		Assert.assertEquals(
+				queries + 2,
+				dataStore.queries.get());
+	}
+
+	private static int count(
+			final CloseableIterator<GridCoverage> it )
+			throws IOException {
+		int count = 0;
+		while (it.hasNext()) {
+			Assert.assertNotNull(it.next());
+			count++;
+		}
+		it.close();
+		return count;
+	}
+
+	/**
+	 * Returns a single tile for every query
+	 */
+	private static class TileDataStore implements
+			DataStore
+	{
+		private final AtomicInteger queries = new AtomicInteger(
+				0);
+		private volatile boolean failing = false;
+
+		@Override
+		public <T> IndexWriter createWriter(
+				final DataAdapter<T> adapter,
+				final PrimaryIndex... index ) {
+			throw new UnsupportedOperationException();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> CloseableIterator<T> query(
+				final QueryOptions queryOptions,
+				final Query query ) {
+			queries.incrementAndGet();
+			if (failing) {
+				throw new RuntimeException(
+						"Unable to query");
+			}
+			final GridCoverage tile = (GridCoverage) Proxy.newProxyInstance(
+					GridCoverage.class.getClassLoader(),
+					new Class<?>[] {
+						GridCoverage.class
+					},
+					new InvocationHandler() {
+						@Override
+						public Object invoke(
+								final Object proxy,
+								final Method method,
+								final Object[] args ) {
+							return null;
+						}
+					});
+			return (CloseableIterator<T>) new CloseableIterator.Wrapper<GridCoverage>(
+					Collections.singletonList(
+							tile).iterator());
+		}
+
+		@Override
+		public boolean delete(
+				final QueryOptions queryOptions,
+				final Query query ) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
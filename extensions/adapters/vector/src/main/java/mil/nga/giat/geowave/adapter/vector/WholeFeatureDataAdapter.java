@@ -35,7 +35,6 @@ import mil.nga.giat.geowave.core.store.adapter.statistics.StatisticsProvider;
 import mil.nga.giat.geowave.core.store.data.PersistentDataset;
 import mil.nga.giat.geowave.core.store.data.PersistentValue;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
-import mil.nga.giat.geowave.core.store.data.field.FieldUtils;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
 import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
 import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
@@ -222,17 +221,14 @@ public class WholeFeatureDataAdapter extends
 			final PrimaryIndex index ) {
 		final PersistentValue<Object> obj = data.getAdapterExtendedData().getValues().get(
 				0);
-		final byte[][] bytes = (byte[][]) obj.getValue();
+		final Object[] values = (Object[]) obj.getValue();
 		int i = 0;
 		final SimpleFeatureBuilder bldr = getBuilder();
-		for (final byte[] f : bytes) {
-			if (f != null) {
-				final FieldReader reader = FieldUtils.getDefaultReaderForClass(featureType.getType(
-						i).getBinding());
-
+		for (final Object value : values) {
+			if (value != null) {
 				bldr.set(
 						i,
-						reader.readField(f));
+						value);
 			}
 			i++;
 		}
@@ -1,41 +1,47 @@
 package mil.nga.giat.geowave.adapter.vector.field;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldReader;
+import mil.nga.giat.geowave.core.store.data.field.BatchFieldWriter;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.data.field.FieldUtils;
 import mil.nga.giat.geowave.core.store.data.field.FieldWriter;
 
 import org.opengis.feature.simple.SimpleFeatureType;
 
+/**
+ * The whole feature is serialized as a single value, each attribute preceded
+ * by its length (-1 for null). The attributes whose field writer and reader
+ * support batches are written directly into, and read directly from, the
+ * feature's buffer.
+ */
 public class SimpleFeatureSerializationProvider
 {
 
 	public static class WholeFeatureReader implements
-			FieldReader<byte[][]>
+			FieldReader<Object[]>
 	{
 		SimpleFeatureType type;
+		private final FieldReader<?>[] readers;
 
 		public WholeFeatureReader(
 				SimpleFeatureType type ) {
 			super();
 			this.type = type;
-
+			readers = new FieldReader<?>[type.getAttributeCount()];
 		}
 
 		@Override
-		public byte[][] readField(
+		public Object[] readField(
 				final byte[] fieldData ) {
 			if (fieldData == null) {
 				return null;
 			}
 			final ByteBuffer input = ByteBuffer.wrap(fieldData);
 			int attrCnt = type.getAttributeCount();
-			byte[][] retVal = new byte[attrCnt][];
+			Object[] retVal = new Object[attrCnt];
 			for (int i = 0; i < attrCnt; i++) {
 				int byteLength;
 				byteLength = input.getInt();
@@ -43,13 +49,32 @@ public class SimpleFeatureSerializationProvider
 					retVal[i] = null;
 					continue;
 				}
-				byte[] fieldValue = new byte[byteLength];
-				input.get(fieldValue);
-				retVal[i] = fieldValue;
+				final FieldReader<?> reader = getReader(i);
+				final int start = input.position();
+				if (reader instanceof BatchFieldReader) {
+					retVal[i] = ((BatchFieldReader<?>) reader).readField(
+							input,
+							byteLength);
+				}
+				else {
+					byte[] fieldValue = new byte[byteLength];
+					input.get(fieldValue);
+					retVal[i] = reader.readField(fieldValue);
+				}
+				input.position(start + byteLength);
 			}
 			return retVal;
 		}
 
+		private FieldReader<?> getReader(
+				final int attributeIndex ) {
+			if (readers[attributeIndex] == null) {
+				readers[attributeIndex] = FieldUtils.getDefaultReaderForClass(type.getType(
+						attributeIndex).getBinding());
+			}
+			return readers[attributeIndex];
+		}
+
 	}
 
 	public static class WholeFeatureWriter implements
@@ -60,35 +85,56 @@ public class SimpleFeatureSerializationProvider
 
 		}
 
+		@SuppressWarnings({
+			"rawtypes",
+			"unchecked"
+		})
 		@Override
 		public byte[] writeField(
 				final Object[] fieldValue ) {
 			if (fieldValue == null) {
 				return new byte[] {};
 			}
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			final DataOutputStream output = new DataOutputStream(
-					baos);
-
-			try {
-				for (Object attr : fieldValue) {
-					if (attr == null) {
-						output.writeInt(-1);
-
-						continue;
-					}
-					FieldWriter writer = FieldUtils.getDefaultWriterForClass(attr.getClass());
-					byte[] binary = writer.writeField(attr);
-					output.writeInt(binary.length);
-					output.write(binary);
+			// size the feature first so that it is allocated once, the
+			// attributes that do not support batches are serialized up front
+			final FieldWriter[] writers = new FieldWriter[fieldValue.length];
+			final byte[][] binaries = new byte[fieldValue.length][];
+			final int[] lengths = new int[fieldValue.length];
+			int length = 0;
+			for (int i = 0; i < fieldValue.length; i++) {
+				length += 4;
+				final Object attr = fieldValue[i];
+				if (attr == null) {
+					continue;
+				}
+				writers[i] = FieldUtils.getDefaultWriterForClass(attr.getClass());
+				if (writers[i] instanceof BatchFieldWriter) {
+					lengths[i] = ((BatchFieldWriter) writers[i]).getEncodedLength(attr);
+				}
+				else {
+					binaries[i] = writers[i].writeField(attr);
+					lengths[i] = binaries[i].length;
 				}
-				output.close();
+				length += lengths[i];
 			}
-			catch (IOException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+			final ByteBuffer output = ByteBuffer.allocate(length);
+			for (int i = 0; i < fieldValue.length; i++) {
+				if (fieldValue[i] == null) {
+					output.putInt(-1);
+				}
+				else {
+					output.putInt(lengths[i]);
+					if (binaries[i] != null) {
+						output.put(binaries[i]);
+					}
+					else {
+						((BatchFieldWriter) writers[i]).writeField(
+								fieldValue[i],
+								output);
+					}
+				}
 			}
-			return baos.toByteArray();
+			return output.array();
 		}
 
 		@Override
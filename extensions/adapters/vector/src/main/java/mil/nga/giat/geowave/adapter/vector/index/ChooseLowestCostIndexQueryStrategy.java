@@ -0,0 +1,212 @@
+package mil.nga.giat.geowave.adapter.vector.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.giat.geowave.adapter.vector.index.IndexCostEstimate.Source;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.adapter.statistics.CountDataStatistics;
+import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatistics;
+import mil.nga.giat.geowave.core.store.adapter.statistics.RowRangeDataStatistics;
+import mil.nga.giat.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.memory.DataStoreUtils;
+import mil.nga.giat.geowave.core.store.query.BasicQuery;
+
+import org.apache.log4j.Logger;
+import org.opengis.feature.simple.SimpleFeature;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * Chooses the index that is estimated to scan the fewest rows for the query.
+ * The rows scanned by each index are estimated from the stored row range
+ * histogram of the index, or if there is none, by assuming the adapter's
+ * entries are spread evenly between the minimum and maximum row IDs of the
+ * index. If any constrained index has neither statistic the choice falls back
+ * to the heuristic match.
+ *
+ * The heuristic match remains the default, this strategy is used when "Lowest
+ * Cost" is configured as the query index strategy.
+ */
+public class ChooseLowestCostIndexQueryStrategy implements
+		IndexQueryStrategySPI
+{
+	public static final String NAME = "Lowest Cost";
+	private final static Logger LOGGER = Logger.getLogger(ChooseLowestCostIndexQueryStrategy.class);
+	private static final int MAX_RANGE_DECOMPOSITION = 5000;
+
+	@Override
+	public String toString() {
+		return NAME;
+	}
+
+	@Override
+	public CloseableIterator<Index<?, ?>> getIndices(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats,
+			final BasicQuery query,
+			final PrimaryIndex[] indices ) {
+		final List<IndexCostEstimate> estimates = estimateCosts(
+				stats,
+				query,
+				indices);
+		if (estimates.isEmpty()) {
+			return new CloseableIterator.Empty<Index<?, ?>>();
+		}
+		for (final IndexCostEstimate estimate : estimates) {
+			if (!estimate.isKnown() && (estimate.getSource() != Source.FULL_TABLE_SCAN)) {
+				LOGGER.debug("Unable to estimate the cost of " + estimate
+						+ ", requires statistic RowRangeHistogramStatistics or RowRangeDataStatistics for each index; falling back to "
+						+ ChooseHeuristicMatchIndexQueryStrategy.NAME);
+				return new ChooseHeuristicMatchIndexQueryStrategy().getIndices(
+						stats,
+						query,
+						indices);
+			}
+		}
+		Collections.sort(estimates);
+		final IndexCostEstimate best = estimates.get(0);
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Chose " + best + " from " + estimates);
+		}
+		return new CloseableIterator.Wrapper<Index<?, ?>>(
+				Iterators.<Index<?, ?>> singletonIterator(best.getIndex()));
+	}
+
+	/**
+	 * Estimate the cost of answering the query with each index, in the order
+	 * of the given indices, skipping indices without dimensions
+	 *
+	 * @param stats
+	 *            the statistics of the adapter being queried
+	 * @param query
+	 *            the query
+	 * @param indices
+	 *            the candidate indices
+	 * @return a cost estimate per candidate index
+	 */
+	public List<IndexCostEstimate> estimateCosts(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats,
+			final BasicQuery query,
+			final PrimaryIndex[] indices ) {
+		final List<IndexCostEstimate> estimates = new ArrayList<IndexCostEstimate>();
+		for (final PrimaryIndex index : indices) {
+			if (index.getIndexStrategy().getOrderedDimensionDefinitions().length == 0) {
+				continue;
+			}
+			estimates.add(estimateCost(
+					stats,
+					query,
+					index));
+		}
+		return estimates;
+	}
+
+	public static IndexCostEstimate estimateCost(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats,
+			final BasicQuery query,
+			final PrimaryIndex index ) {
+		final RowRangeHistogramStatistics<?> histogram = (RowRangeHistogramStatistics<?>) stats.get(RowRangeHistogramStatistics.composeId(index.getId()));
+		final RowRangeDataStatistics<?> rowRange = (RowRangeDataStatistics<?>) stats.get(RowRangeDataStatistics.getId(index.getId()));
+		final CountDataStatistics<?> count = (CountDataStatistics<?>) stats.get(CountDataStatistics.STATS_ID);
+
+		final List<MultiDimensionalNumericData> constraints = query.getIndexConstraints(index.getIndexStrategy());
+		if (ChooseBestMatchIndexQueryStrategy.isFullTableScan(constraints)) {
+			long totalRows = IndexCostEstimate.UNKNOWN;
+			if (histogram != null) {
+				totalRows = histogram.totalSampleSize();
+			}
+			else if ((count != null) && count.isSet()) {
+				totalRows = count.getCount();
+			}
+			return new IndexCostEstimate(
+					index,
+					totalRows,
+					0,
+					Source.FULL_TABLE_SCAN);
+		}
+		final List<ByteArrayRange> ranges = DataStoreUtils.constraintsToByteArrayRanges(
+				constraints,
+				index.getIndexStrategy(),
+				MAX_RANGE_DECOMPOSITION);
+		if (histogram != null) {
+			double rows = 0;
+			for (final ByteArrayRange range : ranges) {
+				rows += Math.max(
+						histogram.cardinality(
+								range.getStart().getBytes(),
+								range.getEnd().getBytes()),
+						0);
+			}
+			return new IndexCostEstimate(
+					index,
+					Math.round(rows),
+					ranges.size(),
+					Source.ROW_RANGE_HISTOGRAM);
+		}
+		if ((rowRange != null) && rowRange.isSet() && (count != null) && count.isSet()) {
+			return new IndexCostEstimate(
+					index,
+					Math.round(getFractionOfRowRange(
+							rowRange,
+							ranges) * count.getCount()),
+					ranges.size(),
+					Source.ROW_RANGE);
+		}
+		return new IndexCostEstimate(
+				index,
+				IndexCostEstimate.UNKNOWN,
+				ranges.size(),
+				Source.UNKNOWN);
+	}
+
+	/**
+	 * @return the fraction of the rows between the minimum and maximum row IDs
+	 *         covered by the ranges, assuming rows are evenly distributed
+	 */
+	private static double getFractionOfRowRange(
+			final RowRangeDataStatistics<?> rowRange,
+			final List<ByteArrayRange> ranges ) {
+		final double min = toUnsignedDouble(rowRange.getMin());
+		final double max = toUnsignedDouble(rowRange.getMax());
+		double fraction = 0;
+		for (final ByteArrayRange range : ranges) {
+			final double start = toUnsignedDouble(range.getStart().getBytes());
+			final double end = toUnsignedDouble(range.getEnd().getBytes());
+			if ((end < min) || (start > max)) {
+				continue;
+			}
+			if (max <= min) {
+				// every row shares the same prefix and the range covers it
+				return 1;
+			}
+			fraction += (Math.min(
+					end,
+					max) - Math.max(
+					start,
+					min)) / (max - min);
+		}
+		return Math.min(
+				fraction,
+				1);
+	}
+
+	/**
+	 * Interpret the first 8 bytes of a row ID as an unsigned number, which
+	 * preserves the lexicographic order of row IDs
+	 */
+	private static double toUnsignedDouble(
+			final byte[] bytes ) {
+		double value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = (value * 256) + (i < bytes.length ? (bytes[i] & 0xff) : 0);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,95 @@
+package mil.nga.giat.geowave.adapter.vector.index;
+
+import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+
+/**
+ * The estimated cost of answering a query using a particular index, expressed
+ * as the number of rows that will be scanned and the number of ranges that
+ * will be sought to scan them.
+ */
+public class IndexCostEstimate implements
+		Comparable<IndexCostEstimate>
+{
+	public static final long UNKNOWN = -1;
+
+	/**
+	 * Where the estimate of scanned rows came from
+	 */
+	public static enum Source {
+		ROW_RANGE_HISTOGRAM,
+		ROW_RANGE,
+		FULL_TABLE_SCAN,
+		UNKNOWN
+	}
+
+	private final PrimaryIndex index;
+	private final long estimatedRows;
+	private final int rangeCount;
+	private final Source source;
+
+	public IndexCostEstimate(
+			final PrimaryIndex index,
+			final long estimatedRows,
+			final int rangeCount,
+			final Source source ) {
+		this.index = index;
+		this.estimatedRows = estimatedRows;
+		this.rangeCount = rangeCount;
+		this.source = source;
+	}
+
+	public PrimaryIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the estimated number of rows scanned, or UNKNOWN if there are no
+	 *         statistics to estimate it from
+	 */
+	public long getEstimatedRows() {
+		return estimatedRows;
+	}
+
+	/**
+	 * @return the number of ranges scanned, 0 for a full table scan
+	 */
+	public int getRangeCount() {
+		return rangeCount;
+	}
+
+	public Source getSource() {
+		return source;
+	}
+
+	public boolean isKnown() {
+		return estimatedRows != UNKNOWN;
+	}
+
+	/**
+	 * Known estimates are ordered before unknown estimates, then by the
+	 * estimated rows and finally by the number of ranges
+	 */
+	@Override
+	public int compareTo(
+			final IndexCostEstimate other ) {
+		if (isKnown() != other.isKnown()) {
+			return isKnown() ? -1 : 1;
+		}
+		final int rowComparison = Long.compare(
+				estimatedRows,
+				other.estimatedRows);
+		if (rowComparison != 0) {
+			return rowComparison;
+		}
+		return Integer.compare(
+				rangeCount,
+				other.rangeCount);
+	}
+
+	@Override
+	public String toString() {
+		return "index '" + index.getId().getString() + "': "
+				+ (isKnown() ? "~" + estimatedRows + " rows" : "unknown rows") + " in "
+				+ (rangeCount == 0 ? "a full table scan" : rangeCount + " ranges") + " (" + source + ")";
+	}
+}
@@ -0,0 +1,281 @@
+package mil.nga.giat.geowave.adapter.vector.plugin;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import mil.nga.giat.geowave.adapter.vector.render.RenderedMaster;
+import mil.nga.giat.geowave.adapter.vector.render.RenderedStyle;
+import mil.nga.giat.geowave.adapter.vector.render.ServerFeatureStyle;
+import mil.nga.giat.geowave.adapter.vector.render.ServerMapArea;
+import mil.nga.giat.geowave.adapter.vector.render.ServerPaintArea;
+import mil.nga.giat.geowave.adapter.vector.render.ServerRenderOptions;
+import mil.nga.giat.geowave.adapter.vector.render.ServerRenderer;
+import mil.nga.giat.geowave.core.index.StringUtils;
+
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.GridCoverageFactory;
+import org.geotools.data.Query;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.process.ProcessException;
+import org.geotools.process.factory.DescribeParameter;
+import org.geotools.process.factory.DescribeProcess;
+import org.geotools.process.factory.DescribeResult;
+import org.geotools.process.gs.GSProcess;
+import org.geotools.renderer.label.LabelCacheImpl.LabelRenderingMode;
+import org.geotools.renderer.lite.RendererUtilities;
+import org.geotools.styling.FeatureTypeStyle;
+import org.geotools.styling.NamedLayer;
+import org.geotools.styling.Rule;
+import org.geotools.styling.SLDParser;
+import org.geotools.styling.Style;
+import org.geotools.styling.StyledLayer;
+import org.geotools.styling.StyledLayerDescriptor;
+import org.geotools.styling.UserLayer;
+import org.opengis.coverage.grid.GridGeometry;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * This class can be used as a GeoTools Render Transform
+ * ('nga:DistributedRender') within an SLD on any layer that uses the GeoWave
+ * Data Store. An example SLD is provided
+ * (example-slds/DistributedRender.sld). The style parameter is an SLD whose
+ * rules are rendered by the tablet or region servers, one image per feature
+ * type style, and the result is a single composited image, which is drawn by
+ * the raster symbolizer of the SLD the transform is used in. Text symbolizers
+ * are not rendered. If the data is not rendered where it is stored, the
+ * features are rendered with the same rules here instead.
+ *
+ */
+@SuppressWarnings("deprecation")
+@DescribeProcess(title = "DistributedRender", description = "This process will render WMS requests within the GeoWave tablet or region servers, so that only the composited images are returned rather than every feature.")
+public class DistributedRenderProcess implements
+		GSProcess
+{
+	@DescribeResult(name = "result", description = "The composited image of the rendered features")
+	public GridCoverage2D execute(
+			@DescribeParameter(name = "data", description = "Feature collection containing the data")
+			final SimpleFeatureCollection features,
+			@DescribeParameter(name = "style", description = "An SLD with the rules used to render the data")
+			final String style,
+			@DescribeParameter(name = "outputBBOX", description = "Georeferenced bounding box of the output")
+			final ReferencedEnvelope argOutputEnv,
+			@DescribeParameter(name = "outputWidth", description = "Width of the output raster")
+			final Integer argOutputWidth,
+			@DescribeParameter(name = "outputHeight", description = "Height of the output raster")
+			final Integer argOutputHeight )
+			throws ProcessException {
+		final List<ServerFeatureStyle> styles = createStyles(style);
+		final ServerRenderer renderer = createRenderer(
+				styles,
+				argOutputEnv,
+				argOutputWidth,
+				argOutputHeight);
+		RenderedMaster master = null;
+		try (SimpleFeatureIterator it = features.features()) {
+			while (it.hasNext()) {
+				final SimpleFeature feature = it.next();
+				final Object image = feature.getAttributeCount() == 1 ? feature.getAttribute(0) : null;
+				if (image instanceof RenderedMaster) {
+					if (master == null) {
+						master = (RenderedMaster) image;
+					}
+					else {
+						master.merge((RenderedMaster) image);
+					}
+				}
+				else {
+					// the data was not rendered where it is stored
+					renderer.render(feature);
+				}
+			}
+		}
+		catch (final Exception e) {
+			throw new ProcessException(
+					"Unable to render features",
+					e);
+		}
+		final RenderedMaster localMaster = renderer.getResult();
+		if (master == null) {
+			master = localMaster;
+		}
+		else if (localMaster != null) {
+			master.merge(localMaster);
+		}
+		return new GridCoverageFactory().create(
+				"DistributedRender",
+				composite(
+						master,
+						styles,
+						argOutputWidth,
+						argOutputHeight),
+				argOutputEnv);
+	}
+
+	public Query invertQuery(
+			@DescribeParameter(name = "style", description = "An SLD with the rules used to render the data")
+			final String style,
+			@DescribeParameter(name = "outputBBOX", description = "Georeferenced bounding box of the output")
+			final ReferencedEnvelope argOutputEnv,
+			@DescribeParameter(name = "outputWidth", description = "Width of the output raster")
+			final Integer argOutputWidth,
+			@DescribeParameter(name = "outputHeight", description = "Height of the output raster")
+			final Integer argOutputHeight,
+			final Query targetQuery,
+			final GridGeometry targetGridGeometry )
+			throws ProcessException {
+		// add to the query hints
+		targetQuery.getHints().put(
+				GeoWaveFeatureCollection.SERVER_FEATURE_RENDERER,
+				createRenderer(
+						createStyles(style),
+						argOutputEnv,
+						argOutputWidth,
+						argOutputHeight));
+		return targetQuery;
+	}
+
+	private static ServerRenderer createRenderer(
+			final List<ServerFeatureStyle> styles,
+			final ReferencedEnvelope outputEnv,
+			final int width,
+			final int height ) {
+		final RenderingHints renderingHints = new RenderingHints(
+				RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+		return new ServerRenderer(
+				new ServerPaintArea(
+						width,
+						height),
+				new ServerMapArea(
+						outputEnv),
+				new ServerRenderOptions(
+						renderingHints,
+						new Color(
+								0,
+								0,
+								0,
+								0),
+						LabelRenderingMode.STRING,
+						0,
+						RendererUtilities.calculateOGCScale(
+								outputEnv,
+								width,
+								null),
+						0,
+						true,
+						false,
+						false,
+						false,
+						false,
+						true),
+				styles);
+	}
+
+	/**
+	 * Each feature type style of the first style in the SLD is rendered to its
+	 * own image, in order
+	 */
+	private static List<ServerFeatureStyle> createStyles(
+			final String sld ) {
+		final SLDParser parser = new SLDParser(
+				CommonFactoryFinder.getStyleFactory(null),
+				new ByteArrayInputStream(
+						StringUtils.stringToBinary(sld)));
+		final Style style = getFirstStyle(parser.parseSLD());
+		if (style == null) {
+			throw new ProcessException(
+					"The style parameter does not contain a style");
+		}
+		final List<ServerFeatureStyle> styles = new ArrayList<ServerFeatureStyle>();
+		for (final FeatureTypeStyle fts : style.featureTypeStyles()) {
+			final List<Rule> rules = new ArrayList<Rule>();
+			final List<Rule> elseRules = new ArrayList<Rule>();
+			for (final Rule rule : fts.rules()) {
+				if (rule.isElseFilter()) {
+					elseRules.add(rule);
+				}
+				else {
+					rules.add(rule);
+				}
+			}
+			styles.add(new ServerFeatureStyle(
+					Integer.toString(styles.size()),
+					rules.toArray(new Rule[] {}),
+					elseRules.toArray(new Rule[] {}),
+					null));
+		}
+		return styles;
+	}
+
+	private static Style getFirstStyle(
+			final StyledLayerDescriptor sld ) {
+		for (final StyledLayer layer : sld.layers()) {
+			final Style[] styles;
+			if (layer instanceof NamedLayer) {
+				styles = ((NamedLayer) layer).getStyles();
+			}
+			else if (layer instanceof UserLayer) {
+				styles = ((UserLayer) layer).getUserStyles();
+			}
+			else {
+				continue;
+			}
+			if ((styles != null) && (styles.length > 0)) {
+				return styles[0];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Draw the style images in the order of the styles, followed by the label
+	 * image
+	 */
+	private static BufferedImage composite(
+			final RenderedMaster master,
+			final List<ServerFeatureStyle> styles,
+			final int width,
+			final int height ) {
+		final BufferedImage image = new BufferedImage(
+				width,
+				height,
+				BufferedImage.TYPE_INT_ARGB);
+		if (master == null) {
+			return image;
+		}
+		final Graphics2D graphics = image.createGraphics();
+		try {
+			for (int i = 0; i < styles.size(); i++) {
+				final String styleId = Integer.toString(i);
+				for (final RenderedStyle renderedStyle : master.getRenderedStyles()) {
+					if (styleId.equals(renderedStyle.getStyleId()) && (renderedStyle.getImage() != null)) {
+						graphics.drawImage(
+								renderedStyle.getImage(),
+								0,
+								0,
+								null);
+					}
+				}
+			}
+			if (master.getImage() != null) {
+				graphics.drawImage(
+						master.getImage(),
+						0,
+						0,
+						null);
+			}
+		}
+		finally {
+			graphics.dispose();
+		}
+		return image;
+	}
+}
@@ -23,6 +23,7 @@ import java.util.TimeZone;
 import org.apache.log4j.Logger;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.Query;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
 import org.geotools.filter.FidFilterImpl;
 import org.geotools.geometry.jts.Decimator;
 import org.geotools.geometry.jts.ReferencedEnvelope;
@@ -38,6 +39,7 @@ import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.operation.MathTransform2D;
 import org.opengis.referencing.operation.TransformException;
 
+import com.google.common.base.Function;
 import com.google.common.collect.Iterators;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
@@ -45,24 +47,32 @@ import com.vividsolutions.jts.geom.Geometry;
 import mil.nga.giat.geowave.adapter.vector.plugin.transaction.GeoWaveTransaction;
 import mil.nga.giat.geowave.adapter.vector.query.cql.CQLQuery;
 import mil.nga.giat.geowave.adapter.vector.render.DistributableRenderer;
+import mil.nga.giat.geowave.adapter.vector.render.DistributedRenderAggregation;
+import mil.nga.giat.geowave.adapter.vector.render.RenderedMaster;
 import mil.nga.giat.geowave.adapter.vector.stats.FeatureStatistic;
 import mil.nga.giat.geowave.adapter.vector.util.QueryIndexHelper;
 import mil.nga.giat.geowave.core.geotime.index.dimension.LatitudeDefinition;
 import mil.nga.giat.geowave.core.geotime.index.dimension.TimeDefinition;
+import mil.nga.giat.geowave.core.geotime.store.filter.PixelDecimationFilter;
 import mil.nga.giat.geowave.core.geotime.store.query.SpatialQuery;
 import mil.nga.giat.geowave.core.geotime.store.query.TemporalConstraintsSet;
 import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.NumericIndexStrategy;
 import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.index.dimension.NumericDimensionDefinition;
+import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.CloseableIteratorWrapper;
 import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatistics;
+import mil.nga.giat.geowave.core.store.filter.QueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
 import mil.nga.giat.geowave.core.store.index.Index;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.query.BasicQuery;
 import mil.nga.giat.geowave.core.store.query.BasicQuery.Constraints;
 import mil.nga.giat.geowave.core.store.query.DataIdQuery;
 import mil.nga.giat.geowave.core.store.query.QueryOptions;
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
 
 /**
  * This class wraps a geotools data store as well as one for statistics (for
@@ -207,11 +217,49 @@ public class GeoWaveFeatureReader implements
 								for (final CloseableIterator<SimpleFeature> result : results) {
 									result.close();
 								}
+								finishProfile(issuer.getProfile());
 							}
 						},
 						Iterators.concat(results.iterator())));
 	}
 
+	private CloseableIterator<SimpleFeature> profileResults(
+			final CloseableIterator<SimpleFeature> results,
+			final QueryProfile profile ) {
+		return new CloseableIteratorWrapper<SimpleFeature>(
+				new Closeable() {
+					@Override
+					public void close()
+							throws IOException {
+						results.close();
+						finishProfile(profile);
+					}
+				},
+				results);
+	}
+
+	/**
+	 * @return a profile for a query, or null if queries are not profiled
+	 */
+	private QueryProfile createProfile() {
+		return components.getGTstore().isProfileQueries() ? new QueryProfile() : null;
+	}
+
+	private void finishProfile(
+			final QueryProfile profile ) {
+		if ((profile == null) || !profile.finish()) {
+			// the results were already closed
+			return;
+		}
+		final int slowQueryThreshold = components.getGTstore().getSlowQueryThreshold();
+		if ((slowQueryThreshold >= 0) && (profile.getElapsedMillis() > slowQueryThreshold)) {
+			LOGGER.warn("Slow query on type '" + components.getAdapter().getType().getTypeName() + "': " + profile);
+		}
+		else if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Query on type '" + components.getAdapter().getType().getTypeName() + "': " + profile);
+		}
+	}
+
 	protected static boolean hasAtLeastSpatial(
 			final PrimaryIndex index ) {
 		if ((index == null) || (index.getIndexStrategy() == null)
@@ -251,6 +299,7 @@ public class GeoWaveFeatureReader implements
 
 		final Filter filter;
 		final Integer limit;
+		final QueryProfile profile = createProfile();
 
 		public BaseIssuer(
 				final Filter filter,
@@ -271,6 +320,7 @@ public class GeoWaveFeatureReader implements
 					limit,
 					null,
 					transaction.composeAuthorizations());
+			queryOptions.setProfile(profile);
 			if (subsetRequested()) {
 				queryOptions.setFieldIds(
 						getSubset(),
@@ -293,6 +343,11 @@ public class GeoWaveFeatureReader implements
 		public Integer getLimit() {
 			return limit;
 		}
+
+		@Override
+		public QueryProfile getProfile() {
+			return profile;
+		}
 	}
 
 	private class EnvelopeQueryIssuer extends
@@ -331,6 +386,7 @@ public class GeoWaveFeatureReader implements
 					index,
 					transaction.composeAuthorizations());
 			options.setLimit(limit);
+			options.setProfile(profile);
 			if (subsetRequested()) {
 				options.setFieldIds(
 						getSubset(),
@@ -365,10 +421,20 @@ public class GeoWaveFeatureReader implements
 					options.setMaxResolutionSubsamplingPerDimension(spans);
 					return components.getDataStore().query(
 							options,
-							new CQLQuery(
-									query,
-									filter,
-									components.getAdapter()));
+							new DecimatedQuery(
+									new CQLQuery(
+											query,
+											filter,
+											components.getAdapter()),
+									new PixelDecimationFilter(
+											new Envelope(
+													west,
+													east,
+													south,
+													north),
+											width,
+											height,
+											pixelSize)));
 				}
 				catch (final TransformException e) {
 					throw new IllegalArgumentException(
@@ -384,6 +450,46 @@ public class GeoWaveFeatureReader implements
 		}
 	}
 
+	/**
+	 * Applies a pixel decimation filter after the filters of the query, so
+	 * that features are decimated as they are scanned and only features that
+	 * pass the other filters are drawn to the decimation bitmap
+	 */
+	private static class DecimatedQuery implements
+			mil.nga.giat.geowave.core.store.query.Query
+	{
+		private final mil.nga.giat.geowave.core.store.query.Query query;
+		private final PixelDecimationFilter decimationFilter;
+
+		public DecimatedQuery(
+				final mil.nga.giat.geowave.core.store.query.Query query,
+				final PixelDecimationFilter decimationFilter ) {
+			this.query = query;
+			this.decimationFilter = decimationFilter;
+		}
+
+		@Override
+		public List<QueryFilter> createFilters(
+				final CommonIndexModel indexModel ) {
+			final List<QueryFilter> filters = new ArrayList<QueryFilter>(
+					query.createFilters(indexModel));
+			filters.add(decimationFilter);
+			return filters;
+		}
+
+		@Override
+		public boolean isSupported(
+				final Index<?, ?> index ) {
+			return query.isSupported(index);
+		}
+
+		@Override
+		public List<MultiDimensionalNumericData> getIndexConstraints(
+				final NumericIndexStrategy indexStrategy ) {
+			return query.getIndexConstraints(indexStrategy);
+		}
+	}
+
 	private class RenderQueryIssuer extends
 			BaseIssuer implements
 			QueryIssuer
@@ -408,19 +514,42 @@ public class GeoWaveFeatureReader implements
 					components.getAdapter(),
 					index,
 					transaction.composeAuthorizations());
+			queryOptions.setProfile(profile);
 			if (subsetRequested()) {
 				queryOptions.setFieldIds(
 						getSubset(),
 						components.getAdapter());
 			}
-			return components.getDataStore().query(
+			// the features are rendered where they are stored and only the
+			// composited images are returned
+			queryOptions.setAggregation(
+					new DistributedRenderAggregation(
+							renderer),
+					components.getAdapter());
+			final CloseableIterator<Object> results = components.getDataStore().query(
 					queryOptions,
 					new CQLQuery(
 							query,
 							filter,
 							components.getAdapter()));
-			// TODO: ? need to figure out how to add back CqlQueryRenderIterator
-			// renderer,
+			return new CloseableIteratorWrapper<SimpleFeature>(
+					results,
+					Iterators.transform(
+							Iterators.filter(
+									results,
+									RenderedMaster.class),
+							new Function<RenderedMaster, SimpleFeature>() {
+								@Override
+								public SimpleFeature apply(
+										final RenderedMaster input ) {
+									return SimpleFeatureBuilder.build(
+											GeoWaveFeatureCollection.getDistributedRenderFeatureType(),
+											new Object[] {
+												input
+											},
+											"render");
+								}
+							}));
 		}
 	}
 
@@ -450,6 +579,7 @@ public class GeoWaveFeatureReader implements
 					limit,
 					null,
 					transaction.composeAuthorizations());
+			queryOptions.setProfile(profile);
 			if (subsetRequested()) {
 				queryOptions.setFieldIds(
 						getSubset(),
@@ -535,17 +665,21 @@ public class GeoWaveFeatureReader implements
 					limit,
 					null,
 					transaction.composeAuthorizations());
+			final QueryProfile profile = createProfile();
+			queryOptions.setProfile(profile);
 			if (subsetRequested()) {
 				queryOptions.setFieldIds(
 						getSubset(),
 						components.getAdapter());
 			}
 
-			return components.getDataStore().query(
-					queryOptions,
-					new DataIdQuery(
-							components.getAdapter().getAdapterId(),
-							ids));
+			return profileResults(
+					components.getDataStore().query(
+							queryOptions,
+							new DataIdQuery(
+									components.getAdapter().getAdapterId(),
+									ids)),
+					profile);
 		}
 		return issueQuery(
 				jtsBounds,
@@ -4,9 +4,9 @@ import org.geotools.process.factory.AnnotatedBeanProcessFactory;
 import org.geotools.text.Text;
 
 /**
- * This is the GeoTools Factory for introducing the nga:Decimation rendering
- * transform. GeoTools uses Java SPI to inject the WPS process (see
- * META-INF/services/org.geotools.process.ProcessFactory).
+ * This is the GeoTools Factory for introducing the nga:Decimation and
+ * nga:DistributedRender rendering transforms. GeoTools uses Java SPI to inject
+ * the WPS processes (see META-INF/services/org.geotools.process.ProcessFactory).
  * 
  */
 public class GeoWaveGSProcessFactory extends
@@ -17,7 +17,8 @@ public class GeoWaveGSProcessFactory extends
 		super(
 				Text.text("GeoWave Process Factory"),
 				"nga",
-				DecimationProcess.class);
+				DecimationProcess.class,
+				DistributedRenderProcess.class);
 	}
 
 }
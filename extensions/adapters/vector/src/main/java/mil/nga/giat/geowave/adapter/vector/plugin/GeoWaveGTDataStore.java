@@ -92,6 +92,8 @@ public class GeoWaveGTDataStore extends
 	private final IndexQueryStrategySPI indexQueryStrategy;
 	private final URI featureNameSpaceURI;
 	private int transactionBufferSize = 10000;
+	private boolean profileQueries = false;
+	private int slowQueryThreshold = 5000;
 	private final TransactionsAllocator transactionsAllocator;
 
 	public GeoWaveGTDataStore(
@@ -106,6 +108,8 @@ public class GeoWaveGTDataStore extends
 		featureNameSpaceURI = config.getFeatureNamespace();
 		indexQueryStrategy = config.getIndexQueryStrategy();
 		transactionBufferSize = config.getTransactionBufferSize();
+		profileQueries = config.isProfileQueries();
+		slowQueryThreshold = config.getSlowQueryThreshold();
 		transactionsAllocator = new MemoryTransactionsAllocator();
 
 	}
@@ -131,6 +135,21 @@ public class GeoWaveGTDataStore extends
 		return indexQueryStrategy;
 	}
 
+	/**
+	 * @return true if each query is profiled, which is off by default
+	 */
+	public boolean isProfileQueries() {
+		return profileQueries;
+	}
+
+	/**
+	 * @return the elapsed milliseconds after which a profiled query is logged
+	 *         as slow, negative if slow queries are not logged
+	 */
+	public int getSlowQueryThreshold() {
+		return slowQueryThreshold;
+	}
+
 	public DataStore getDataStore() {
 		return dataStore;
 	}
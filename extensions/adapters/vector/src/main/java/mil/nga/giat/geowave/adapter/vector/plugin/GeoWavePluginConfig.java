@@ -55,6 +55,8 @@ public class GeoWavePluginConfig
 	protected static final String AUTH_MGT_KEY = "Authorization Management Provider";
 	protected static final String AUTH_URL_KEY = "Authorization Data URL";
 	protected static final String TRANSACTION_BUFFER_SIZE = "Transaction Buffer Size";
+	protected static final String PROFILE_QUERIES = "Profile Queries";
+	protected static final String SLOW_QUERY_THRESHOLD = "Slow Query Threshold";
 	public static final String QUERY_INDEX_STRATEGY_KEY = "Query Index Strategy";
 
 	private static final Param GEOWAVE_NAMESPACE = new Param(
@@ -67,6 +69,16 @@ public class GeoWavePluginConfig
 			Integer.class,
 			"Number of buffered feature insertions before flushing to the datastore.",
 			false);
+	private static final Param PROFILE_QUERIES_PARAM = new Param(
+			PROFILE_QUERIES,
+			Boolean.class,
+			"Collect a profile of the ranges, rows scanned and rows filtered of each query, which is logged for slow queries.",
+			false);
+	private static final Param SLOW_QUERY_THRESHOLD_PARAM = new Param(
+			SLOW_QUERY_THRESHOLD,
+			Integer.class,
+			"Queries taking longer than this many milliseconds are logged with a profile of their ranges, rows scanned and rows filtered, a negative value disables logging.",
+			false);
 
 	private static final Param FEATURE_NAMESPACE = new Param(
 			FEATURE_NAMESPACE_KEY,
@@ -114,6 +126,8 @@ public class GeoWavePluginConfig
 	private final AuthorizationFactorySPI authorizationFactory;
 	private final URL authorizationURL;
 	private final Integer transactionBufferSize;
+	private final Boolean profileQueries;
+	private final Integer slowQueryThreshold;
 	private final IndexQueryStrategySPI indexQueryStrategy;
 	private final AdapterIndexMappingStore adapterIndexMappingStore;
 
@@ -141,6 +155,8 @@ public class GeoWavePluginConfig
 			params.add(AUTH_MGT);
 			params.add(AUTH_URL);
 			params.add(TRANSACTION_BUFFER_SIZE_PARAM);
+			params.add(PROFILE_QUERIES_PARAM);
+			params.add(SLOW_QUERY_THRESHOLD_PARAM);
 			params.add(QUERY_INDEX_STRATEGY);
 			paramMap.put(
 					storeFactoryFamily.getName(),
@@ -196,6 +212,23 @@ public class GeoWavePluginConfig
 		}
 		transactionBufferSize = bufferSizeFromParam;
 
+		param = params.get(PROFILE_QUERIES);
+		profileQueries = param == null ? Boolean.FALSE : param instanceof Boolean ? (Boolean) param : Boolean
+				.valueOf(param.toString());
+
+		param = params.get(SLOW_QUERY_THRESHOLD);
+		Integer slowQueryThresholdFromParam = 5000;
+		if (param != null) {
+			try {
+				slowQueryThresholdFromParam = param instanceof Integer ? (Integer) param : Integer.parseInt(param
+						.toString());
+			}
+			catch (final Exception e) {
+				LOGGER.error("Malformed slow query threshold : " + param);
+			}
+		}
+		slowQueryThreshold = slowQueryThresholdFromParam;
+
 		param = params.get(LOCK_MGT_KEY);
 
 		final Iterator<LockingManagementFactory> it = getLockManagementFactoryList();
@@ -341,6 +374,21 @@ public class GeoWavePluginConfig
 		return transactionBufferSize;
 	}
 
+	/**
+	 * @return true if each query is profiled, which is off by default
+	 */
+	public Boolean isProfileQueries() {
+		return profileQueries;
+	}
+
+	/**
+	 * @return the elapsed milliseconds after which a profiled query is logged
+	 *         as slow, negative if slow queries are not logged
+	 */
+	public Integer getSlowQueryThreshold() {
+		return slowQueryThreshold;
+	}
+
 	private static Map<String, List<String>> getLockMgtOptions() {
 		final List<String> options = new ArrayList<String>();
 		final Iterator<LockingManagementFactory> it = getLockManagementFactoryList();
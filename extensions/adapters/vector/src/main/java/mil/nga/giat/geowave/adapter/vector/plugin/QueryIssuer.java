@@ -3,6 +3,7 @@ package mil.nga.giat.geowave.adapter.vector.plugin;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.query.Query;
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
 
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.Filter;
@@ -17,4 +18,9 @@ public interface QueryIssuer
 
 	Integer getLimit();
 
+	/**
+	 * @return the profile shared by the queries to each index
+	 */
+	QueryProfile getProfile();
+
 }
@@ -0,0 +1,80 @@
+package mil.nga.giat.geowave.adapter.vector.render;
+
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
+
+import org.apache.log4j.Logger;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * This aggregation executes a distributable renderer within the tablet servers
+ * (or region servers). Each feature is rendered as it is scanned and the
+ * result is the set of per-style images and the label image, which are
+ * composited with the results of the other tablets as they are merged on the
+ * client.
+ *
+ */
+public class DistributedRenderAggregation implements
+		Aggregation<DistributableRenderer, RenderedMaster, SimpleFeature>
+{
+	private final static Logger LOGGER = Logger.getLogger(DistributedRenderAggregation.class);
+	private DistributableRenderer renderer;
+	private byte[] rendererBinary;
+	private boolean rendered = false;
+
+	public DistributedRenderAggregation() {}
+
+	public DistributedRenderAggregation(
+			final DistributableRenderer renderer ) {
+		setParameters(renderer);
+	}
+
+	@Override
+	public DistributableRenderer getParameters() {
+		return renderer;
+	}
+
+	@Override
+	public void setParameters(
+			final DistributableRenderer parameters ) {
+		renderer = parameters;
+		// keep the initial state of the renderer so that it can be reset
+		rendererBinary = parameters != null ? PersistenceUtils.toBinary(parameters) : null;
+		rendered = false;
+	}
+
+	@Override
+	public RenderedMaster getResult() {
+		if ((renderer == null) || !rendered) {
+			return null;
+		}
+		return renderer.getResult();
+	}
+
+	@Override
+	public void clearResult() {
+		if (rendered && (rendererBinary != null)) {
+			renderer = PersistenceUtils.fromBinary(
+					rendererBinary,
+					DistributableRenderer.class);
+		}
+		rendered = false;
+	}
+
+	@Override
+	public void aggregate(
+			final SimpleFeature entry ) {
+		if (renderer == null) {
+			return;
+		}
+		try {
+			renderer.render(entry);
+			rendered = true;
+		}
+		catch (final Exception e) {
+			LOGGER.warn(
+					"Unable to render feature '" + entry.getID() + "'",
+					e);
+		}
+	}
+}
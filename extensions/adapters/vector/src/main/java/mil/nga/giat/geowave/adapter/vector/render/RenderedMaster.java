@@ -1,21 +1,26 @@
 package mil.nga.giat.geowave.adapter.vector.render;
 
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
+import mil.nga.giat.geowave.core.index.Mergeable;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
 
 /**
  * In addition to a main persisted image, this class also wraps rendered styles.
  * The main image contains any labels, and the styles each persist a per-style
  * image so that all of the images can be correctly layered from each Accumulo
- * Iterator for the composite image.
+ * Iterator for the composite image. Merging composites the images of another
+ * master over the images of this one, style by style.
  * 
  */
 public class RenderedMaster extends
-		PersistableRenderedImage
+		PersistableRenderedImage implements
+		Mergeable
 {
 	private List<RenderedStyle> renderedStyles = new ArrayList<RenderedStyle>();
 
@@ -38,6 +43,77 @@ public class RenderedMaster extends
 		return renderedStyles;
 	}
 
+	@Override
+	public void merge(
+			final Mergeable merge ) {
+		if (!(merge instanceof RenderedMaster)) {
+			return;
+		}
+		final RenderedMaster other = (RenderedMaster) merge;
+		image = composite(
+				image,
+				other.image);
+		for (final RenderedStyle otherStyle : other.renderedStyles) {
+			boolean found = false;
+			for (final RenderedStyle style : renderedStyles) {
+				if (style.getStyleId().equals(
+						otherStyle.getStyleId())) {
+					style.image = composite(
+							style.image,
+							otherStyle.image);
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				renderedStyles.add(otherStyle);
+			}
+		}
+	}
+
+	private static BufferedImage composite(
+			final BufferedImage background,
+			final BufferedImage foreground ) {
+		if (background == null) {
+			return foreground;
+		}
+		if (foreground == null) {
+			return background;
+		}
+		final BufferedImage target;
+		if ((background.getType() == BufferedImage.TYPE_BYTE_INDEXED) || (background.getType() == BufferedImage.TYPE_BYTE_BINARY)) {
+			// a decoded png may be palette based, which cannot be drawn on
+			// without losing colors
+			target = new BufferedImage(
+					background.getWidth(),
+					background.getHeight(),
+					BufferedImage.TYPE_INT_ARGB);
+			final Graphics2D graphics = target.createGraphics();
+			graphics.drawImage(
+					background,
+					0,
+					0,
+					null);
+			graphics.dispose();
+		}
+		else {
+			target = background;
+		}
+		final Graphics2D graphics = target.createGraphics();
+		try {
+			graphics.setComposite(AlphaComposite.SrcOver);
+			graphics.drawImage(
+					foreground,
+					0,
+					0,
+					null);
+		}
+		finally {
+			graphics.dispose();
+		}
+		return target;
+	}
+
 	@Override
 	public byte[] toBinary() {
 		final byte[] selfBinary = super.toBinary();
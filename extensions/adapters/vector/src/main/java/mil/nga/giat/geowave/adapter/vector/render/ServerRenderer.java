@@ -0,0 +1,303 @@
+package mil.nga.giat.geowave.adapter.vector.render;
+
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.giat.geowave.core.index.Persistable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+
+import org.apache.log4j.Logger;
+import org.geotools.geometry.jts.LiteShape2;
+import org.geotools.referencing.CRS;
+import org.geotools.referencing.operation.transform.ConcatenatedTransform;
+import org.geotools.referencing.operation.transform.ProjectiveTransform;
+import org.geotools.renderer.ScreenMap;
+import org.geotools.renderer.lite.RendererUtilities;
+import org.geotools.renderer.lite.StyledShapePainter;
+import org.geotools.renderer.style.Style2D;
+import org.geotools.styling.Rule;
+import org.geotools.styling.Symbolizer;
+import org.geotools.styling.TextSymbolizer;
+import org.geotools.util.NumberRange;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * This renderer paints each feature with the rules of one or more styles, in
+ * the requested map area and image size, to one image per style. It is
+ * persisted with the query and executed by the DistributedRenderAggregation
+ * wherever the data is stored, and the images from each tablet or region are
+ * composited on the client.
+ *
+ * Only symbolizers that can be painted independently of other features are
+ * rendered; text symbolizers are skipped because labels need to be placed
+ * against the labels of every other feature, which is not possible within a
+ * single tablet. A style with a screen map skips features that fall within a
+ * pixel that has already been painted.
+ *
+ */
+public class ServerRenderer implements
+		DistributableRenderer
+{
+	private final static Logger LOGGER = Logger.getLogger(ServerRenderer.class);
+	private ServerPaintArea paintArea;
+	private ServerMapArea mapArea;
+	private ServerRenderOptions options;
+	private List<ServerFeatureStyle> styles;
+
+	// the rendering state is only created once the first feature is rendered
+	private boolean initialized = false;
+	private MathTransform worldToScreen;
+	private NumberRange<Double> scaleRange;
+	private StyledShapePainter painter;
+	private final Map<CoordinateReferenceSystem, MathTransform> transforms = new HashMap<CoordinateReferenceSystem, MathTransform>();
+
+	protected ServerRenderer() {}
+
+	public ServerRenderer(
+			final ServerPaintArea paintArea,
+			final ServerMapArea mapArea,
+			final ServerRenderOptions options,
+			final List<ServerFeatureStyle> styles ) {
+		this.paintArea = paintArea;
+		this.mapArea = mapArea;
+		this.options = options;
+		this.styles = styles;
+	}
+
+	@Override
+	public void render(
+			final Object content )
+			throws Exception {
+		if (!(content instanceof SimpleFeature)) {
+			return;
+		}
+		final SimpleFeature feature = (SimpleFeature) content;
+		if (!(feature.getDefaultGeometry() instanceof Geometry)) {
+			return;
+		}
+		init();
+		LiteShape2 shape = null;
+		for (final ServerFeatureStyle style : styles) {
+			final List<Symbolizer> symbolizers = getSymbolizers(
+					style,
+					feature);
+			if (symbolizers.isEmpty()) {
+				continue;
+			}
+			if (shape == null) {
+				shape = new LiteShape2(
+						(Geometry) feature.getDefaultGeometry(),
+						getTransform(feature.getFeatureType().getCoordinateReferenceSystem()),
+						null,
+						false);
+			}
+			if (isDecimated(
+					style,
+					shape)) {
+				continue;
+			}
+			for (final Symbolizer symbolizer : symbolizers) {
+				final Style2D style2d = options.styleFactory.createStyle(
+						feature,
+						symbolizer,
+						scaleRange);
+				if (style2d != null) {
+					painter.paint(
+							style.graphics,
+							shape,
+							style2d,
+							options.scaleDenominator);
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean isDecimationEnabled() {
+		for (final ServerFeatureStyle style : styles) {
+			if (style.getScreenMap() != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public RenderedMaster getResult() {
+		if (!initialized) {
+			return null;
+		}
+		return options.getRenderedMaster(styles);
+	}
+
+	private void init() {
+		if (initialized) {
+			return;
+		}
+		options.init(paintArea);
+		final AffineTransform transform = RendererUtilities.worldToScreenTransform(
+				mapArea.getBounds(),
+				paintArea.getArea());
+		worldToScreen = ProjectiveTransform.create(transform);
+		for (final ServerFeatureStyle style : styles) {
+			style.init(
+					paintArea,
+					options,
+					worldToScreen,
+					null);
+			style.graphics.init();
+		}
+		scaleRange = NumberRange.create(
+				options.scaleDenominator,
+				options.scaleDenominator);
+		painter = new StyledShapePainter();
+		initialized = true;
+	}
+
+	private MathTransform getTransform(
+			final CoordinateReferenceSystem dataCrs )
+			throws FactoryException {
+		MathTransform transform = transforms.get(dataCrs);
+		if (transform == null) {
+			if ((dataCrs == null) || CRS.equalsIgnoreMetadata(
+					dataCrs,
+					mapArea.getCRS())) {
+				transform = worldToScreen;
+			}
+			else {
+				transform = ConcatenatedTransform.create(
+						CRS.findMathTransform(
+								dataCrs,
+								mapArea.getCRS(),
+								true),
+						worldToScreen);
+			}
+			transforms.put(
+					dataCrs,
+					transform);
+		}
+		return transform;
+	}
+
+	private boolean isDecimated(
+			final ServerFeatureStyle style,
+			final LiteShape2 shape ) {
+		final ScreenMap screenMap = style.getScreenMap();
+		if (screenMap == null) {
+			return false;
+		}
+		final Rectangle bounds = shape.getBounds();
+		if ((bounds.width > 1) || (bounds.height > 1)) {
+			// only features that collapse to a single pixel are decimated
+			return false;
+		}
+		return screenMap.checkAndSet(
+				bounds.x,
+				bounds.y);
+	}
+
+	private List<Symbolizer> getSymbolizers(
+			final ServerFeatureStyle style,
+			final SimpleFeature feature ) {
+		final List<Symbolizer> symbolizers = new ArrayList<Symbolizer>();
+		boolean matched = false;
+		if (style.ruleList != null) {
+			for (final Rule rule : style.ruleList) {
+				if (isWithinScale(rule) && ((rule.getFilter() == null) || rule.getFilter().evaluate(
+						feature))) {
+					matched = true;
+					addSymbolizers(
+							rule,
+							symbolizers);
+				}
+			}
+		}
+		if (!matched && (style.elseRules != null)) {
+			for (final Rule rule : style.elseRules) {
+				if (isWithinScale(rule)) {
+					addSymbolizers(
+							rule,
+							symbolizers);
+				}
+			}
+		}
+		return symbolizers;
+	}
+
+	private boolean isWithinScale(
+			final Rule rule ) {
+		return (rule.getMinScaleDenominator() <= options.scaleDenominator) && (rule.getMaxScaleDenominator() > options.scaleDenominator);
+	}
+
+	private static void addSymbolizers(
+			final Rule rule,
+			final List<Symbolizer> symbolizers ) {
+		for (final Symbolizer symbolizer : rule.symbolizers()) {
+			if (!(symbolizer instanceof TextSymbolizer)) {
+				symbolizers.add(symbolizer);
+			}
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] paintAreaBinary = PersistenceUtils.toBinary(paintArea);
+		final byte[] mapAreaBinary = PersistenceUtils.toBinary(mapArea);
+		final byte[] optionsBinary = PersistenceUtils.toBinary(options);
+		final byte[] stylesBinary = PersistenceUtils.toBinary(styles);
+		final ByteBuffer buf = ByteBuffer.allocate(12 + paintAreaBinary.length + mapAreaBinary.length
+				+ optionsBinary.length + stylesBinary.length);
+		buf.putInt(paintAreaBinary.length);
+		buf.put(paintAreaBinary);
+		buf.putInt(mapAreaBinary.length);
+		buf.put(mapAreaBinary);
+		buf.putInt(optionsBinary.length);
+		buf.put(optionsBinary);
+		buf.put(stylesBinary);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		final byte[] paintAreaBinary = new byte[buf.getInt()];
+		buf.get(paintAreaBinary);
+		paintArea = PersistenceUtils.fromBinary(
+				paintAreaBinary,
+				ServerPaintArea.class);
+		final byte[] mapAreaBinary = new byte[buf.getInt()];
+		buf.get(mapAreaBinary);
+		mapArea = PersistenceUtils.fromBinary(
+				mapAreaBinary,
+				ServerMapArea.class);
+		final byte[] optionsBinary = new byte[buf.getInt()];
+		buf.get(optionsBinary);
+		options = PersistenceUtils.fromBinary(
+				optionsBinary,
+				ServerRenderOptions.class);
+		final byte[] stylesBinary = new byte[buf.remaining()];
+		buf.get(stylesBinary);
+		styles = new ArrayList<ServerFeatureStyle>();
+		for (final Persistable style : PersistenceUtils.fromBinary(stylesBinary)) {
+			if (style instanceof ServerFeatureStyle) {
+				styles.add((ServerFeatureStyle) style);
+			}
+			else {
+				LOGGER.warn("Ignoring unexpected style '" + style + "'");
+			}
+		}
+		initialized = false;
+		transforms.clear();
+	}
+}
@@ -0,0 +1,45 @@
+package mil.nga.giat.geowave.adapter.vector.field;
+
+import java.util.Date;
+
+import mil.nga.giat.geowave.adapter.vector.field.SimpleFeatureSerializationProvider.WholeFeatureReader;
+import mil.nga.giat.geowave.adapter.vector.field.SimpleFeatureSerializationProvider.WholeFeatureWriter;
+
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class SimpleFeatureSerializationProviderTest
+{
+	@Test
+	public void testWholeFeatureReadWrite()
+			throws SchemaException {
+		final SimpleFeatureType type = DataUtilities.createType(
+				"sp.geostuff",
+				"geometry:Geometry:srid=4326,pop:java.lang.Long,when:Date,name:String,missing:String,score:Double");
+		final Object[] attributes = new Object[] {
+			new GeometryFactory().createPoint(new Coordinate(
+					27.25,
+					41.25)),
+			Long.valueOf(100),
+			new Date(
+					1116527635000L),
+			"caf\u00e9",
+			null,
+			Double.valueOf(0.5)
+		};
+
+		final byte[] binary = new WholeFeatureWriter().writeField(attributes);
+		final Object[] actual = new WholeFeatureReader(
+				type).readField(binary);
+
+		Assert.assertArrayEquals(
+				attributes,
+				actual);
+	}
+}
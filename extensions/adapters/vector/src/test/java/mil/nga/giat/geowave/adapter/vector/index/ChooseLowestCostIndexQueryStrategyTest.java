@@ -0,0 +1,204 @@
+package mil.nga.giat.geowave.adapter.vector.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.giat.geowave.adapter.vector.index.ChooseBestMatchIndexQueryStrategyTest.ConstrainedIndexValue;
+import mil.nga.giat.geowave.adapter.vector.index.IndexCostEstimate.Source;
+import mil.nga.giat.geowave.core.geotime.index.dimension.LatitudeDefinition;
+import mil.nga.giat.geowave.core.geotime.index.dimension.LongitudeDefinition;
+import mil.nga.giat.geowave.core.geotime.index.dimension.TimeDefinition;
+import mil.nga.giat.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider.SpatialIndexBuilder;
+import mil.nga.giat.geowave.core.geotime.ingest.SpatialTemporalDimensionalityTypeProvider.SpatialTemporalIndexBuilder;
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
+import mil.nga.giat.geowave.core.store.adapter.statistics.DataStatistics;
+import mil.nga.giat.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
+import mil.nga.giat.geowave.core.store.adapter.statistics.histogram.FixedBinNumericHistogram.FixedBinNumericHistogramFactory;
+import mil.nga.giat.geowave.core.store.index.Index;
+import mil.nga.giat.geowave.core.store.index.NullIndex;
+import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.memory.DataStoreUtils;
+import mil.nga.giat.geowave.core.store.query.BasicQuery;
+import mil.nga.giat.geowave.core.store.query.BasicQuery.ConstraintData;
+import mil.nga.giat.geowave.core.store.query.BasicQuery.ConstraintSet;
+import mil.nga.giat.geowave.core.store.query.BasicQuery.Constraints;
+
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+
+public class ChooseLowestCostIndexQueryStrategyTest
+{
+	private final PrimaryIndex spatialTemporalIndex = new SpatialTemporalIndexBuilder().createIndex();
+	private final PrimaryIndex spatialIndex = new SpatialIndexBuilder().createIndex();
+	private final PrimaryIndex[] indices = new PrimaryIndex[] {
+		new NullIndex(
+				"IMAGERY_CHIPS"),
+		spatialTemporalIndex,
+		spatialIndex
+	};
+
+	private static BasicQuery createQuery() {
+		final ConstraintSet spatialConstraints = new ConstraintSet();
+		spatialConstraints.addConstraint(
+				LatitudeDefinition.class,
+				new ConstraintData(
+						new ConstrainedIndexValue(
+								0.3,
+								0.5),
+						true));
+		spatialConstraints.addConstraint(
+				LongitudeDefinition.class,
+				new ConstraintData(
+						new ConstrainedIndexValue(
+								0.4,
+								0.7),
+						true));
+		final ConstraintSet temporalConstraints = new ConstraintSet();
+		temporalConstraints.addConstraint(
+				TimeDefinition.class,
+				new ConstraintData(
+						new ConstrainedIndexValue(
+								0.1,
+								0.2),
+						true));
+		return new BasicQuery(
+				new Constraints(
+						Arrays.asList(temporalConstraints)).merge(Collections.singletonList(spatialConstraints)));
+	}
+
+	private static RowRangeHistogramStatistics<SimpleFeature> createHistogram(
+			final PrimaryIndex index,
+			final List<ByteArrayId> rowIds ) {
+		final RowRangeHistogramStatistics<SimpleFeature> histogram = new RowRangeHistogramStatistics<SimpleFeature>(
+				index.getId(),
+				index.getId(),
+				new FixedBinNumericHistogramFactory(),
+				1024);
+		for (final ByteArrayId rowId : rowIds) {
+			histogram.entryIngested(
+					new DataStoreEntryInfo(
+							new byte[] {
+								1
+							},
+							Arrays.asList(rowId),
+							Collections.<FieldInfo<?>> emptyList()),
+					null);
+		}
+		return histogram;
+	}
+
+	private static List<ByteArrayId> getRowIdsWithinQuery(
+			final PrimaryIndex index,
+			final BasicQuery query ) {
+		final List<ByteArrayId> rowIds = new ArrayList<ByteArrayId>();
+		final List<ByteArrayRange> ranges = DataStoreUtils.constraintsToByteArrayRanges(
+				query.getIndexConstraints(index.getIndexStrategy()),
+				index.getIndexStrategy(),
+				5000);
+		for (final ByteArrayRange range : ranges) {
+			rowIds.add(range.getStart());
+			rowIds.add(range.getEnd());
+		}
+		return rowIds;
+	}
+
+	private static List<ByteArrayId> getRowIdsOutsideQuery(
+			final int count ) {
+		// sorts after every row ID within the query
+		final ByteArrayId rowId = new ByteArrayId(
+				new byte[] {
+					(byte) 0x7f,
+					(byte) 0xff,
+					(byte) 0xff,
+					(byte) 0xff,
+					(byte) 0xff,
+					(byte) 0xff,
+					(byte) 0xff,
+					(byte) 0xff
+				});
+		return Collections.nCopies(
+				count,
+				rowId);
+	}
+
+	@Test
+	public void testChooseLowestCost() {
+		final BasicQuery query = createQuery();
+		final Map<ByteArrayId, DataStatistics<SimpleFeature>> statsMap = new HashMap<ByteArrayId, DataStatistics<SimpleFeature>>();
+		statsMap.put(
+				RowRangeHistogramStatistics.composeId(spatialTemporalIndex.getId()),
+				createHistogram(
+						spatialTemporalIndex,
+						getRowIdsOutsideQuery(1000)));
+		statsMap.put(
+				RowRangeHistogramStatistics.composeId(spatialIndex.getId()),
+				createHistogram(
+						spatialIndex,
+						getRowIdsWithinQuery(
+								spatialIndex,
+								query)));
+
+		final ChooseLowestCostIndexQueryStrategy strategy = new ChooseLowestCostIndexQueryStrategy();
+		final List<IndexCostEstimate> estimates = strategy.estimateCosts(
+				statsMap,
+				query,
+				indices);
+		// the null index has no dimensions and is never a candidate
+		assertEquals(
+				2,
+				estimates.size());
+		for (final IndexCostEstimate estimate : estimates) {
+			assertEquals(
+					Source.ROW_RANGE_HISTOGRAM,
+					estimate.getSource());
+			assertTrue(estimate.isKnown());
+		}
+		assertTrue(estimates.get(
+				0).getEstimatedRows() < estimates.get(
+				1).getEstimatedRows());
+
+		// most of the rows in the spatial temporal index are outside of the
+		// query so it is cheaper despite having more rows overall
+		final Iterator<Index<?, ?>> it = strategy.getIndices(
+				statsMap,
+				query,
+				indices);
+		assertTrue(it.hasNext());
+		assertEquals(
+				spatialTemporalIndex.getId(),
+				it.next().getId());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testFallBackWithoutStats() {
+		final BasicQuery query = createQuery();
+		final Map<ByteArrayId, DataStatistics<SimpleFeature>> statsMap = new HashMap<ByteArrayId, DataStatistics<SimpleFeature>>();
+		final Iterator<Index<?, ?>> heuristicIt = new ChooseHeuristicMatchIndexQueryStrategy().getIndices(
+				statsMap,
+				query,
+				indices);
+		final Iterator<Index<?, ?>> it = new ChooseLowestCostIndexQueryStrategy().getIndices(
+				statsMap,
+				query,
+				indices);
+		assertTrue(heuristicIt.hasNext());
+		assertTrue(it.hasNext());
+		assertEquals(
+				heuristicIt.next().getId(),
+				it.next().getId());
+		assertFalse(it.hasNext());
+	}
+}
@@ -61,6 +61,8 @@ public class GeoWavePluginConfigTest
 		Assert.assertEquals(
 				1000,
 				(int) config.getTransactionBufferSize());
+		// queries are only profiled when it is asked for
+		Assert.assertFalse(config.isProfileQueries());
 		assertNotNull(config.getLockingManagementFactory());
 		assertNotNull(config.getLockingManagementFactory().createLockingManager(
 				config));
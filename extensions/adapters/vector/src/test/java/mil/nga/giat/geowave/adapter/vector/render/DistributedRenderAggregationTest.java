@@ -0,0 +1,206 @@
+package mil.nga.giat.geowave.adapter.vector.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.awt.Color;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+
+import mil.nga.giat.geowave.adapter.vector.plugin.GeoWaveGTDataStore;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.renderer.label.LabelCacheImpl.LabelRenderingMode;
+import org.geotools.styling.Rule;
+import org.geotools.styling.StyleBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Polygon;
+
+public class DistributedRenderAggregationTest
+{
+	private static final int SIZE = 10;
+	private final GeometryFactory factory = new GeometryFactory();
+	private SimpleFeatureType type;
+	private SimpleFeature left;
+	private SimpleFeature right;
+
+	@Before
+	public void setup() {
+		final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+		typeBuilder.setName("render");
+		typeBuilder.setCRS(GeoWaveGTDataStore.DEFAULT_CRS);
+		typeBuilder.add(
+				"geom",
+				Polygon.class);
+		type = typeBuilder.buildFeatureType();
+		left = createFeature(
+				"left",
+				new Envelope(
+						0,
+						5,
+						0,
+						10));
+		right = createFeature(
+				"right",
+				new Envelope(
+						5,
+						10,
+						0,
+						10));
+	}
+
+	private SimpleFeature createFeature(
+			final String id,
+			final Envelope envelope ) {
+		return SimpleFeatureBuilder.build(
+				type,
+				new Object[] {
+					factory.toGeometry(envelope)
+				},
+				id);
+	}
+
+	private static DistributableRenderer createRenderer() {
+		final StyleBuilder styleBuilder = new StyleBuilder();
+		final Rule rule = styleBuilder.createRule(styleBuilder.createPolygonSymbolizer(Color.RED));
+		return new ServerRenderer(
+				new ServerPaintArea(
+						SIZE,
+						SIZE),
+				new ServerMapArea(
+						new ReferencedEnvelope(
+								0,
+								10,
+								0,
+								10,
+								GeoWaveGTDataStore.DEFAULT_CRS)),
+				new ServerRenderOptions(
+						new RenderingHints(
+								RenderingHints.KEY_ANTIALIASING,
+								RenderingHints.VALUE_ANTIALIAS_OFF),
+						new Color(
+								0,
+								0,
+								0,
+								0),
+						LabelRenderingMode.STRING,
+						0,
+						1000000,
+						0,
+						true,
+						false,
+						false,
+						false,
+						false,
+						true),
+				Collections.singletonList(new ServerFeatureStyle(
+						"0",
+						new Rule[] {
+							rule
+						},
+						new Rule[] {},
+						null)));
+	}
+
+	private static boolean isPainted(
+			final RenderedMaster master,
+			final int x ) {
+		final BufferedImage image = master.getRenderedStyles().get(
+				0).getImage();
+		return ((image.getRGB(
+				x,
+				SIZE / 2) >>> 24) & 0xFF) > 0;
+	}
+
+	@Test
+	public void testAggregate() {
+		final DistributedRenderAggregation aggregation = new DistributedRenderAggregation(
+				createRenderer());
+		assertNull(aggregation.getResult());
+		aggregation.aggregate(left);
+		final RenderedMaster result = aggregation.getResult();
+		assertNotNull(result);
+		assertEquals(
+				1,
+				result.getRenderedStyles().size());
+		assertEquals(
+				true,
+				isPainted(
+						result,
+						2));
+		assertEquals(
+				false,
+				isPainted(
+						result,
+						7));
+	}
+
+	@Test
+	public void testClearResult() {
+		final DistributedRenderAggregation aggregation = new DistributedRenderAggregation(
+				createRenderer());
+		aggregation.aggregate(left);
+		aggregation.clearResult();
+		assertNull(aggregation.getResult());
+		// the renderer starts again from its initial state
+		aggregation.aggregate(right);
+		final RenderedMaster result = aggregation.getResult();
+		assertEquals(
+				false,
+				isPainted(
+						result,
+						2));
+		assertEquals(
+				true,
+				isPainted(
+						result,
+						7));
+	}
+
+	@Test
+	public void testSerializeAndMerge() {
+		// each tablet deserializes the renderer and the client merges the
+		// serialized results
+		final DistributedRenderAggregation leftAggregation = new DistributedRenderAggregation(
+				PersistenceUtils.fromBinary(
+						PersistenceUtils.toBinary(createRenderer()),
+						DistributableRenderer.class));
+		final DistributedRenderAggregation rightAggregation = new DistributedRenderAggregation(
+				PersistenceUtils.fromBinary(
+						PersistenceUtils.toBinary(createRenderer()),
+						DistributableRenderer.class));
+		leftAggregation.aggregate(left);
+		rightAggregation.aggregate(right);
+		final RenderedMaster result = PersistenceUtils.fromBinary(
+				PersistenceUtils.toBinary(leftAggregation.getResult()),
+				RenderedMaster.class);
+		result.merge(PersistenceUtils.fromBinary(
+				PersistenceUtils.toBinary(rightAggregation.getResult()),
+				RenderedMaster.class));
+		assertEquals(
+				1,
+				result.getRenderedStyles().size());
+		assertEquals(
+				true,
+				isPainted(
+						result,
+						2));
+		assertEquals(
+				true,
+				isPainted(
+						result,
+						7));
+	}
+}
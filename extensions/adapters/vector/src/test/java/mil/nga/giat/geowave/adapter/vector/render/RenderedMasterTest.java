@@ -0,0 +1,187 @@
+package mil.nga.giat.geowave.adapter.vector.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+
+import org.junit.Test;
+
+public class RenderedMasterTest
+{
+	private static final int RED = Color.RED.getRGB();
+	private static final int BLUE = Color.BLUE.getRGB();
+	private static final int GREEN = Color.GREEN.getRGB();
+
+	private static BufferedImage createImage(
+			final int left,
+			final int right ) {
+		final BufferedImage image = new BufferedImage(
+				2,
+				1,
+				BufferedImage.TYPE_INT_ARGB);
+		image.setRGB(
+				0,
+				0,
+				left);
+		image.setRGB(
+				1,
+				0,
+				right);
+		return image;
+	}
+
+	private static RenderedMaster createMaster(
+			final BufferedImage labels,
+			final RenderedStyle... styles ) {
+		final RenderedMaster master = new RenderedMaster(
+				Collections.<ServerFeatureStyle> emptyList(),
+				labels);
+		for (final RenderedStyle style : styles) {
+			master.getRenderedStyles().add(
+					style);
+		}
+		return master;
+	}
+
+	@Test
+	public void testMergeCompositesOver() {
+		// the right pixel of the merged style is transparent, so the pixel
+		// underneath must show through
+		final RenderedMaster master = createMaster(
+				null,
+				new RenderedStyle(
+						"0",
+						createImage(
+								RED,
+								RED)));
+		final BufferedImage labels = createImage(
+				GREEN,
+				0);
+		final RenderedMaster other = createMaster(
+				labels,
+				new RenderedStyle(
+						"0",
+						createImage(
+								BLUE,
+								0)),
+				new RenderedStyle(
+						"1",
+						createImage(
+								GREEN,
+								GREEN)));
+		master.merge(other);
+
+		assertEquals(
+				2,
+				master.getRenderedStyles().size());
+		final RenderedStyle style0 = master.getRenderedStyles().get(
+				0);
+		assertEquals(
+				"0",
+				style0.getStyleId());
+		assertEquals(
+				BLUE,
+				style0.getImage().getRGB(
+						0,
+						0));
+		assertEquals(
+				RED,
+				style0.getImage().getRGB(
+						1,
+						0));
+		// a style that is only rendered by the other master is appended
+		assertEquals(
+				"1",
+				master.getRenderedStyles().get(
+						1).getStyleId());
+		// without labels of its own the master takes the other's labels
+		assertSame(
+				labels,
+				master.getImage());
+	}
+
+	@Test
+	public void testMergeOrderMatters() {
+		final RenderedMaster first = createMaster(
+				createImage(
+						RED,
+						0));
+		first.merge(createMaster(createImage(
+				BLUE,
+				0)));
+		assertEquals(
+				BLUE,
+				first.getImage().getRGB(
+						0,
+						0));
+
+		final RenderedMaster second = createMaster(createImage(
+				BLUE,
+				0));
+		second.merge(createMaster(createImage(
+				RED,
+				0)));
+		assertEquals(
+				RED,
+				second.getImage().getRGB(
+						0,
+						0));
+	}
+
+	@Test
+	public void testMergeAfterSerialization() {
+		final RenderedMaster master = PersistenceUtils.fromBinary(
+				PersistenceUtils.toBinary(createMaster(
+						createImage(
+								RED,
+								0),
+						new RenderedStyle(
+								"0",
+								createImage(
+										0,
+										RED)))),
+				RenderedMaster.class);
+		final RenderedMaster other = PersistenceUtils.fromBinary(
+				PersistenceUtils.toBinary(createMaster(
+						createImage(
+								0,
+								BLUE),
+						new RenderedStyle(
+								"0",
+								createImage(
+										BLUE,
+										0)))),
+				RenderedMaster.class);
+		master.merge(other);
+		assertEquals(
+				RED,
+				master.getImage().getRGB(
+						0,
+						0));
+		assertEquals(
+				BLUE,
+				master.getImage().getRGB(
+						1,
+						0));
+		assertEquals(
+				1,
+				master.getRenderedStyles().size());
+		final BufferedImage style = master.getRenderedStyles().get(
+				0).getImage();
+		assertEquals(
+				BLUE,
+				style.getRGB(
+						0,
+						0));
+		assertEquals(
+				RED,
+				style.getRGB(
+						1,
+						0));
+	}
+}
@@ -74,6 +74,8 @@ import mil.nga.giat.geowave.core.store.query.PrefixIdQuery;
 import mil.nga.giat.geowave.core.store.query.Query;
 import mil.nga.giat.geowave.core.store.query.QueryOptions;
 import mil.nga.giat.geowave.core.store.query.RowIdQuery;
+import mil.nga.giat.geowave.core.store.query.SortKey;
+import mil.nga.giat.geowave.core.store.query.TopKCollector;
 import mil.nga.giat.geowave.datastore.accumulo.index.secondary.AccumuloSecondaryIndexDataStore;
 import mil.nga.giat.geowave.datastore.accumulo.mapreduce.AccumuloMRUtils;
 import mil.nga.giat.geowave.datastore.accumulo.mapreduce.GeoWaveAccumuloRecordReader;
@@ -208,6 +210,7 @@ public class AccumuloDataStore implements
 					i == 0);
 
 			callbackManager.setPersistStats(accumuloOptions.isPersistDataStatistics());
+			callbackManager.setAsyncSecondaryIndexing(accumuloOptions.isAsyncSecondaryIndexing());
 
 			final List<IngestCallback<T>> callbacks = new ArrayList<IngestCallback<T>>();
 
@@ -391,6 +394,10 @@ public class AccumuloDataStore implements
 		final Query sanitizedQuery = (query == null) ? new EverythingQuery() : query;
 
 		final DedupeFilter filter = new DedupeFilter();
+		// the top K entries are selected from each result and merged below,
+		// aggregations are not entries so they are never sorted
+		final SortKey<?> sortKey = sanitizedQueryOptions.getAggregation() == null ? sanitizedQueryOptions
+				.getSortKey() : null;
 		MemoryAdapterStore tempAdapterStore;
 		try {
 			tempAdapterStore = new MemoryAdapterStore(
@@ -411,6 +418,7 @@ public class AccumuloDataStore implements
 								(ScanCallback<Object>) sanitizedQueryOptions.getScanCallback(),
 								filter,
 								sanitizedQueryOptions.getAuthorizations());
+						q.setProfile(sanitizedQueryOptions.getProfile());
 
 						results.add(q.query(
 								accumuloOperations,
@@ -441,8 +449,9 @@ public class AccumuloDataStore implements
 								indexAdapterPair.getLeft(),
 								prefixIdQuery.getRowPrefix(),
 								(ScanCallback<Object>) sanitizedQueryOptions.getScanCallback(),
-								sanitizedQueryOptions.getLimit(),
+								sortKey == null ? sanitizedQueryOptions.getLimit() : null,
 								sanitizedQueryOptions.getAuthorizations());
+						prefixQuery.setProfile(sanitizedQueryOptions.getProfile());
 						results.add(prefixQuery.query(
 								accumuloOperations,
 								sanitizedQueryOptions.getMaxResolutionSubsamplingPerDimension(),
@@ -469,6 +478,8 @@ public class AccumuloDataStore implements
 									adapterIdsToQuery,
 									sanitizedQueryOptions.getAuthorizations()),
 							sanitizedQueryOptions.getAuthorizations());
+					accumuloQuery.setProfile(sanitizedQueryOptions.getProfile());
+					accumuloQuery.setSortKey(sortKey);
 
 					results.add(accumuloQuery.query(
 							accumuloOperations,
@@ -486,6 +497,12 @@ public class AccumuloDataStore implements
 					"Failed to resolve adapter or index for query",
 					e1);
 		}
+		if (sortKey != null) {
+			return TopKCollector.sortAndMerge(
+					(List) results,
+					(SortKey<T>) sortKey,
+					sanitizedQueryOptions.getLimit());
+		}
 		return new CloseableIteratorWrapper<T>(
 				new Closeable() {
 					@Override
@@ -34,6 +34,7 @@ import mil.nga.giat.geowave.core.store.filter.DistributableFilterList;
 import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndex;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndexDataStore;
+import mil.nga.giat.geowave.core.store.index.SecondaryIndexUpdate;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
 import mil.nga.giat.geowave.datastore.accumulo.Writer;
 import mil.nga.giat.geowave.datastore.accumulo.operations.config.AccumuloOptions;
@@ -98,21 +99,11 @@ public class AccumuloSecondaryIndexDataStore implements
 			final List<FieldInfo<?>> indexedAttributes ) {
 		final Writer writer = getWriter(secondaryIndex);
 		if (writer != null) {
-			for (final FieldInfo<?> indexedAttribute : indexedAttributes) {
-				@SuppressWarnings("unchecked")
-				final List<ByteArrayId> secondaryIndexInsertionIds = secondaryIndex.getIndexStrategy().getInsertionIds(
-						Arrays.asList(indexedAttribute));
-				for (final ByteArrayId insertionId : secondaryIndexInsertionIds) {
-					writer.write(buildMutation(
-							insertionId.getBytes(),
-							secondaryIndex.getId().getBytes(),
-							indexedAttribute.getDataValue().getId().getBytes(),
-							indexedAttribute.getWrittenValue(),
-							indexedAttribute.getVisibility(),
-							primaryIndexId.getBytes(),
-							primaryIndexRowId.getBytes()));
-				}
-			}
+			writer.write(buildMutations(
+					secondaryIndex,
+					primaryIndexId,
+					primaryIndexRowId,
+					indexedAttributes));
 		}
 	}
 
@@ -122,18 +113,77 @@ public class AccumuloSecondaryIndexDataStore implements
 			final List<FieldInfo<?>> indexedAttributes ) {
 		final Writer writer = getWriter(secondaryIndex);
 		if (writer != null) {
-			for (final FieldInfo<?> indexedAttribute : indexedAttributes) {
-				@SuppressWarnings("unchecked")
-				final List<ByteArrayId> secondaryIndexInsertionIds = secondaryIndex.getIndexStrategy().getInsertionIds(
-						Arrays.asList(indexedAttribute));
-				for (final ByteArrayId insertionId : secondaryIndexInsertionIds) {
-					writer.write(buildDeleteMutation(
-							insertionId.getBytes(),
-							secondaryIndex.getId().getBytes(),
-							indexedAttribute.getDataValue().getId().getBytes()));
+			writer.write(buildDeleteMutations(
+					secondaryIndex,
+					indexedAttributes));
+		}
+	}
+
+	@Override
+	public void write(
+			final SecondaryIndex<?> secondaryIndex,
+			final List<SecondaryIndexUpdate> updates ) {
+		final Writer writer = getWriter(secondaryIndex);
+		if (writer != null) {
+			final List<Mutation> mutations = new ArrayList<Mutation>();
+			for (final SecondaryIndexUpdate update : updates) {
+				if (update.isDelete()) {
+					mutations.addAll(buildDeleteMutations(
+							secondaryIndex,
+							update.getIndexedAttributes()));
 				}
+				else {
+					mutations.addAll(buildMutations(
+							secondaryIndex,
+							update.getPrimaryIndexId(),
+							update.getPrimaryIndexRowId(),
+							update.getIndexedAttributes()));
+				}
+			}
+			writer.write(mutations);
+		}
+	}
+
+	private List<Mutation> buildMutations(
+			final SecondaryIndex<?> secondaryIndex,
+			final ByteArrayId primaryIndexId,
+			final ByteArrayId primaryIndexRowId,
+			final List<FieldInfo<?>> indexedAttributes ) {
+		final List<Mutation> mutations = new ArrayList<Mutation>();
+		for (final FieldInfo<?> indexedAttribute : indexedAttributes) {
+			@SuppressWarnings("unchecked")
+			final List<ByteArrayId> secondaryIndexInsertionIds = secondaryIndex.getIndexStrategy().getInsertionIds(
+					Arrays.asList(indexedAttribute));
+			for (final ByteArrayId insertionId : secondaryIndexInsertionIds) {
+				mutations.add(buildMutation(
+						insertionId.getBytes(),
+						secondaryIndex.getId().getBytes(),
+						indexedAttribute.getDataValue().getId().getBytes(),
+						indexedAttribute.getWrittenValue(),
+						indexedAttribute.getVisibility(),
+						primaryIndexId.getBytes(),
+						primaryIndexRowId.getBytes()));
+			}
+		}
+		return mutations;
+	}
+
+	private List<Mutation> buildDeleteMutations(
+			final SecondaryIndex<?> secondaryIndex,
+			final List<FieldInfo<?>> indexedAttributes ) {
+		final List<Mutation> mutations = new ArrayList<Mutation>();
+		for (final FieldInfo<?> indexedAttribute : indexedAttributes) {
+			@SuppressWarnings("unchecked")
+			final List<ByteArrayId> secondaryIndexInsertionIds = secondaryIndex.getIndexStrategy().getInsertionIds(
+					Arrays.asList(indexedAttribute));
+			for (final ByteArrayId insertionId : secondaryIndexInsertionIds) {
+				mutations.add(buildDeleteMutation(
+						insertionId.getBytes(),
+						secondaryIndex.getId().getBytes(),
+						indexedAttribute.getDataValue().getId().getBytes()));
 			}
 		}
+		return mutations;
 	}
 
 	public void clearCache() {
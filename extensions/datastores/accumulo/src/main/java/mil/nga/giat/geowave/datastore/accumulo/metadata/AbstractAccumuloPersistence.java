@@ -4,14 +4,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
@@ -24,8 +26,10 @@ import org.apache.log4j.Logger;
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.Persistable;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.CloseableIteratorWrapper;
+import mil.nga.giat.geowave.core.store.MetadataCache;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
 import mil.nga.giat.geowave.datastore.accumulo.IteratorConfig;
 import mil.nga.giat.geowave.datastore.accumulo.Writer;
@@ -36,9 +40,10 @@ import mil.nga.giat.geowave.datastore.accumulo.util.ScannerClosableWrapper;
  * Accumulo and can be easily extended for any object that needs to be
  * persisted.
  * 
- * There is an LRU cache associated with it so staying in sync with external
- * updates is not practical - it assumes the objects are not updated often or at
- * all. The objects are stored in their own table.
+ * Objects are cached in a MetadataCache shared by all instances persisting the
+ * same type of object to the same table. Every write or delete also changes a
+ * version row, which is read periodically to clear the cache when another
+ * process has changed the objects. The objects are stored in their own table.
  * 
  * @param <T>
  *            The type of persistable object that this stores
@@ -49,27 +54,15 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 	private final static Logger LOGGER = Logger.getLogger(AbstractAccumuloPersistence.class);
 	protected final AccumuloOperations accumuloOperations;
 
-	// TODO: should we concern ourselves with multiple distributed processes
-	// updating and looking up objects simultaneously that would require some
-	// locking/synchronization mechanism, and even possibly update
-	// notifications?
-	private static final int MAX_ENTRIES = 100;
-	protected final Map<ByteArrayId, T> cache = Collections.synchronizedMap(new LinkedHashMap<ByteArrayId, T>(
-			MAX_ENTRIES + 1,
-			.75F,
-			true) {
-		/**
-				 *
-				 */
-		private static final long serialVersionUID = 1L;
-
-		// This method is called just after a new entry has been added
-		@Override
-		public boolean removeEldestEntry(
-				final Map.Entry<ByteArrayId, T> eldest ) {
-			return size() > MAX_ENTRIES;
-		}
-	});
+	public final static String METADATA_VERSION_ROW = "GEOWAVE_METADATA_VERSION";
+	private final static String METADATA_VERSION_CF = "VERSION";
+
+	// the cache is shared by every store persisting the same type of object
+	// to the same table, and lazily initialized because the cache ID depends
+	// on the subclass
+	private volatile MetadataCache<T> cache;
+	private final AtomicLong nextVersionCheck = new AtomicLong(
+			0);
 
 	// just attach iterators once per instance
 	private boolean iteratorsAttached = false;
@@ -167,8 +160,100 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 		return primaryId;
 	}
 
+	protected MetadataCache<T> getCache() {
+		MetadataCache<T> result = cache;
+		if (result == null) {
+			result = MetadataCache.getInstance(getCacheId());
+			cache = result;
+		}
+		return result;
+	}
+
+	protected String getCacheId() {
+		final String instanceName = (accumuloOperations.getInstance() != null) ? accumuloOperations.getInstance().getInstanceName() : "";
+		return AbstractAccumuloPersistence.class.getName() + "_" + instanceName + "_"
+				+ accumuloOperations.getTableNameSpace() + "_" + getAccumuloTablename() + "_"
+				+ getPersistenceTypeName();
+	}
+
 	public void clearCache() {
-		cache.clear();
+		getCache().clear();
+	}
+
+	/**
+	 * Read the persisted metadata version at most once per version check
+	 * interval and clear the cache if another process has changed it
+	 */
+	protected void checkMetadataVersion() {
+		final MetadataCache<T> metadataCache = getCache();
+		final long interval = metadataCache.getVersionCheckIntervalMillis();
+		if (interval < 0) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		final long nextCheck = nextVersionCheck.get();
+		if ((now >= nextCheck) && nextVersionCheck.compareAndSet(
+				nextCheck,
+				now + interval)) {
+			metadataCache.validateVersion(readMetadataVersion());
+		}
+	}
+
+	private byte[] readMetadataVersion() {
+		try {
+			final Scanner scanner = accumuloOperations.createScanner(getAccumuloTablename());
+			scanner.setRange(new Range(
+					new Text(
+							METADATA_VERSION_ROW)));
+			scanner.fetchColumn(
+					new Text(
+							METADATA_VERSION_CF),
+					new Text(
+							getPersistenceTypeName()));
+			final Iterator<Entry<Key, Value>> it = scanner.iterator();
+			if (it.hasNext()) {
+				return it.next().getValue().get();
+			}
+		}
+		catch (final TableNotFoundException e) {
+			// the table has not been created yet, or has been deleted
+			LOGGER.debug(
+					"Unable to read metadata version, table '" + getAccumuloTablename() + "' does not exist",
+					e);
+		}
+		return null;
+	}
+
+	/**
+	 * Change the persisted metadata version so that other processes clear
+	 * their caches
+	 */
+	protected void updateMetadataVersion() {
+		final byte[] version = StringUtils.stringToBinary(UUID.randomUUID().toString());
+		try {
+			final Writer writer = accumuloOperations.createWriter(
+					getAccumuloTablename(),
+					true);
+			final Mutation mutation = new Mutation(
+					new Text(
+							METADATA_VERSION_ROW));
+			mutation.put(
+					new Text(
+							METADATA_VERSION_CF),
+					new Text(
+							getPersistenceTypeName()),
+					new Value(
+							version));
+			writer.write(mutation);
+			writer.close();
+			getCache().setVersion(
+					version);
+		}
+		catch (final TableNotFoundException e) {
+			LOGGER.error(
+					"Unable to update metadata version",
+					e);
+		}
 	}
 
 	protected void addObject(
@@ -193,43 +278,12 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 			final Writer writer = accumuloOperations.createWriter(
 					getAccumuloTablename(),
 					true);
-			synchronized (this) {
-				if (!iteratorsAttached) {
-					iteratorsAttached = true;
-					final IteratorConfig[] configs = getIteratorConfig();
-					if ((configs != null) && (configs.length > 0)) {
-						accumuloOperations.attachIterators(
-								getAccumuloTablename(),
-								true,
-								configs);
-					}
-				}
-			}
-
-			final Mutation mutation = new Mutation(
-					new Text(
-							id.getBytes()));
-			final Text cf = getSafeText(getAccumuloColumnFamily());
-			final Text cq = getSafeText(getAccumuloColumnQualifier(object));
-			final byte[] visibility = getAccumuloVisibility(object);
-			if (visibility != null) {
-				mutation.put(
-						cf,
-						cq,
-						new ColumnVisibility(
-								visibility),
-						new Value(
-								PersistenceUtils.toBinary(object)));
-			}
-			else {
-				mutation.put(
-						cf,
-						cq,
-						new Value(
-								PersistenceUtils.toBinary(object)));
-			}
-			writer.write(mutation);
+			attachIterators();
+			writer.write(createMutation(
+					id,
+					object));
 			writer.close();
+			updateMetadataVersion();
 		}
 		catch (final TableNotFoundException e) {
 			LOGGER.error(
@@ -238,6 +292,89 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 		}
 	}
 
+	/**
+	 * Add the objects using a single writer, changing the metadata version
+	 * once for all of them. Unlike addObject, a failure to write the objects
+	 * is thrown so that the caller can retry them.
+	 */
+	protected void addObjects(
+			final Collection<? extends T> objects ) {
+		if (objects.isEmpty()) {
+			return;
+		}
+		final List<Mutation> mutations = new ArrayList<Mutation>(
+				objects.size());
+		for (final T object : objects) {
+			mutations.add(createMutation(
+					getPrimaryId(object),
+					object));
+		}
+		try {
+			final Writer writer = accumuloOperations.createWriter(
+					getAccumuloTablename(),
+					true);
+			attachIterators();
+			writer.write(mutations);
+			writer.close();
+		}
+		catch (final TableNotFoundException e) {
+			throw new RuntimeException(
+					"Unable to add objects",
+					e);
+		}
+		for (final T object : objects) {
+			addObjectToCache(
+					getPrimaryId(object),
+					getSecondaryId(object),
+					object);
+		}
+		updateMetadataVersion();
+	}
+
+	private void attachIterators()
+			throws TableNotFoundException {
+		synchronized (this) {
+			if (!iteratorsAttached) {
+				iteratorsAttached = true;
+				final IteratorConfig[] configs = getIteratorConfig();
+				if ((configs != null) && (configs.length > 0)) {
+					accumuloOperations.attachIterators(
+							getAccumuloTablename(),
+							true,
+							configs);
+				}
+			}
+		}
+	}
+
+	private Mutation createMutation(
+			final ByteArrayId id,
+			final T object ) {
+		final Mutation mutation = new Mutation(
+				new Text(
+						id.getBytes()));
+		final Text cf = getSafeText(getAccumuloColumnFamily());
+		final Text cq = getSafeText(getAccumuloColumnQualifier(object));
+		final byte[] visibility = getAccumuloVisibility(object);
+		if (visibility != null) {
+			mutation.put(
+					cf,
+					cq,
+					new ColumnVisibility(
+							visibility),
+					new Value(
+							PersistenceUtils.toBinary(object)));
+		}
+		else {
+			mutation.put(
+					cf,
+					cq,
+					new Value(
+							PersistenceUtils.toBinary(object)));
+		}
+		return mutation;
+	}
+
 	protected void addObjectToCache(
 			final ByteArrayId primaryId,
 			final ByteArrayId secondaryId,
@@ -245,7 +382,7 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 		final ByteArrayId combinedId = getCombinedId(
 				primaryId,
 				secondaryId);
-		cache.put(
+		getCache().put(
 				combinedId,
 				object);
 	}
@@ -256,7 +393,8 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 		final ByteArrayId combinedId = getCombinedId(
 				primaryId,
 				secondaryId);
-		return cache.get(combinedId);
+		checkMetadataVersion();
+		return getCache().get(combinedId);
 	}
 
 	protected boolean deleteObjectFromCache(
@@ -265,7 +403,16 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 		final ByteArrayId combinedId = getCombinedId(
 				primaryId,
 				secondaryId);
-		return (cache.remove(combinedId) != null);
+		return getCache().remove(combinedId);
+	}
+
+	protected boolean isObjectCachedAsAbsent(
+			final ByteArrayId primaryId,
+			final ByteArrayId secondaryId ) {
+		return getCache().isCachedAsAbsent(
+				getCombinedId(
+						primaryId,
+						secondaryId));
 	}
 
 	protected IteratorConfig[] getIteratorConfig() {
@@ -310,6 +457,11 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 		if (cacheResult != null) {
 			return (T) cacheResult;
 		}
+		if (isObjectCachedAsAbsent(
+				primaryId,
+				secondaryId)) {
+			return null;
+		}
 		try {
 			final BatchScanner scanner = getScanner(
 					primaryId,
@@ -321,6 +473,10 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 					LOGGER.warn("Object '" + getCombinedId(
 							primaryId,
 							secondaryId).getString() + "' not found");
+					getCache().putAbsent(
+							getCombinedId(
+									primaryId,
+									secondaryId));
 					return null;
 				}
 				final Entry<Key, Value> entry = it.next();
@@ -429,14 +585,18 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 			final ByteArrayId primaryId,
 			final ByteArrayId secondaryId,
 			final String... authorizations ) {
-		return deleteObjectFromCache(
+		if (deleteObjectFromCache(
 				primaryId,
 				secondaryId) && accumuloOperations.delete(
 				getAccumuloTablename(),
 				Arrays.asList(primaryId),
 				getAccumuloColumnFamily(),
 				getAccumuloColumnQualifier(secondaryId),
-				authorizations);
+				authorizations)) {
+			updateMetadataVersion();
+			return true;
+		}
+		return false;
 	}
 
 	public boolean deleteObjects(
@@ -448,6 +608,7 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 					secondaryId,
 					authorizations);
 			final Iterator<Entry<Key, Value>> it = scanner.iterator();
+			boolean deleted = false;
 			try (final CloseableIterator<?> cit = new CloseableIteratorWrapper<T>(
 					new ScannerClosableWrapper(
 							scanner),
@@ -458,6 +619,7 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 					deleteObjectFromCache(
 							getPrimaryId((T) cit.next()),
 							secondaryId);
+					deleted = true;
 				}
 			}
 			catch (final IOException e) {
@@ -465,6 +627,11 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 						"Unable to delete objects",
 						e);
 			}
+			// other processes only need to reload their caches if something
+			// was actually deleted
+			if (deleted) {
+				updateMetadataVersion();
+			}
 		}
 		catch (final TableNotFoundException e) {
 			LOGGER.error(
@@ -483,6 +650,11 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 				secondaryId) != null) {
 			return true;
 		}
+		if (isObjectCachedAsAbsent(
+				primaryId,
+				secondaryId)) {
+			return false;
+		}
 		try {
 			final BatchScanner scanner = getScanner(
 					primaryId,
@@ -495,6 +667,10 @@ abstract public class AbstractAccumuloPersistence<T extends Persistable>
 					return (entryToValue(it.next()) != null);
 				}
 				else {
+					getCache().putAbsent(
+							getCombinedId(
+									primaryId,
+									secondaryId));
 					return false;
 				}
 
@@ -1,5 +1,6 @@
 package mil.nga.giat.geowave.datastore.accumulo.metadata;
 
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -68,6 +69,14 @@ public class AccumuloDataStatisticsStore extends
 
 	}
 
+	@Override
+	public void incorporateAllStatistics(
+			final Collection<? extends DataStatistics<?>> statistics ) {
+		// the combiner merges each of the statistics with what is stored, so
+		// they can all be written together
+		addObjects(statistics);
+	}
+
 	@Override
 	protected void addObjectToCache(
 			final ByteArrayId primaryId,
@@ -107,6 +116,21 @@ public class AccumuloDataStatisticsStore extends
 		return true;
 	}
 
+	@Override
+	protected boolean isObjectCachedAsAbsent(
+			final ByteArrayId primaryId,
+			final ByteArrayId secondaryId ) {
+		// don't use the cache at all
+		return false;
+	}
+
+	@Override
+	protected void updateMetadataVersion() {
+		// statistics are not cached so there is no need to invalidate the
+		// caches of other processes, which would otherwise add a write to
+		// every statistics update
+	}
+
 	@Override
 	protected IteratorConfig[] getIteratorConfig() {
 		final Column adapterColumn = new Column(
@@ -29,6 +29,9 @@ public class AccumuloOptions
 	@Parameter(names = "--enableBlockCache", hidden = true, arity = 1)
 	protected boolean enableBlockCache = true;
 
+	@Parameter(names = "--asyncSecondaryIndexing", hidden = true, arity = 1, description = "Write secondary indices in the background rather than on the ingest thread")
+	protected boolean asyncSecondaryIndexing = false;
+
 	public boolean isPersistDataStatistics() {
 		return persistDataStatistics;
 	}
@@ -91,4 +94,13 @@ public class AccumuloOptions
 			boolean enableBlockCache ) {
 		this.enableBlockCache = enableBlockCache;
 	}
+
+	public boolean isAsyncSecondaryIndexing() {
+		return asyncSecondaryIndexing;
+	}
+
+	public void setAsyncSecondaryIndexing(
+			final boolean asyncSecondaryIndexing ) {
+		this.asyncSecondaryIndexing = asyncSecondaryIndexing;
+	}
 }
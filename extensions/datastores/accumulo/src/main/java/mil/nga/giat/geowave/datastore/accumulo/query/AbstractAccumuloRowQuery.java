@@ -56,7 +56,8 @@ abstract public class AbstractAccumuloRowQuery<T> extends
 						index,
 						scanner.iterator(),
 						null,
-						this.scanCallback));
+						this.scanCallback,
+						profile));
 	}
 
 	protected void addScanIteratorSettings(
@@ -18,8 +18,10 @@ import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.ByteArrayRange;
 import mil.nga.giat.geowave.core.index.ByteArrayUtils;
 import mil.nga.giat.geowave.core.index.Mergeable;
+import mil.nga.giat.geowave.core.index.Persistable;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
 import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.ScanCallback;
 import mil.nga.giat.geowave.core.store.adapter.AdapterStore;
 import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
@@ -31,7 +33,9 @@ import mil.nga.giat.geowave.core.store.index.IndexMetaDataSet;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.memory.DataStoreUtils;
 import mil.nga.giat.geowave.core.store.query.Query;
+import mil.nga.giat.geowave.core.store.query.SortKey;
 import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
+import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
 
 /**
  * This class represents basic numeric contraints applied to an Accumulo Query
@@ -46,6 +50,9 @@ public class AccumuloConstraintsQuery extends
 	protected boolean queryFiltersEnabled;
 	protected final IndexMetaDataSet indexMetaData;
 	protected final Pair<DataAdapter<?>, Aggregation<?, ?, ?>> aggregation;
+	protected SortKey<?> sortKey = null;
+	private Integer topK = null;
+	private List<DataAdapter<?>> topKAdapters = null;
 
 	public AccumuloConstraintsQuery(
 			final List<ByteArrayId> adapterIds,
@@ -115,12 +122,92 @@ public class AccumuloConstraintsQuery extends
 		return ((aggregation != null) && (aggregation.getLeft() != null) && (aggregation.getRight() != null));
 	}
 
+	/**
+	 * Only the entries with the best values of the sort key, up to the limit,
+	 * are returned from each range, which the caller is responsible for
+	 * sorting and merging.
+	 */
+	public void setSortKey(
+			final SortKey<?> sortKey ) {
+		this.sortKey = sortKey;
+	}
+
+	/**
+	 * The top K entries can only be selected on the tablet servers if no
+	 * entries are rejected afterwards by client filters
+	 */
+	protected boolean isServerSideTopK() {
+		if ((sortKey == null) || isAggregation() || !queryFiltersEnabled) {
+			return false;
+		}
+		if (clientFilters != null) {
+			for (final QueryFilter filter : clientFilters) {
+				if (!(filter instanceof DistributableQueryFilter)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public CloseableIterator<Object> query(
+			final AccumuloOperations accumuloOperations,
+			final AdapterStore adapterStore,
+			final double[] maxResolutionSubsamplingPerDimension,
+			final Integer limit ) {
+		if ((sortKey == null) || isAggregation()) {
+			return super.query(
+					accumuloOperations,
+					adapterStore,
+					maxResolutionSubsamplingPerDimension,
+					limit);
+		}
+		topK = limit;
+		topKAdapters = null;
+		if (isServerSideTopK()) {
+			topKAdapters = DataStoreUtils.getAdapters(
+					adapterStore,
+					adapterIds);
+		}
+		// the limit applies to the sorted entries rather than the first
+		// entries scanned
+		return super.query(
+				accumuloOperations,
+				adapterStore,
+				maxResolutionSubsamplingPerDimension,
+				null);
+	}
+
 	@Override
 	protected void addScanIteratorSettings(
 			final ScannerBase scanner ) {
 		addFieldSubsettingToIterator(scanner);
 
-		if ((distributableFilters != null) && !distributableFilters.isEmpty() && queryFiltersEnabled) {
+		if (topKAdapters != null) {
+			final IteratorSetting iteratorSettings = new IteratorSetting(
+					QueryFilterIterator.QUERY_ITERATOR_PRIORITY,
+					TopKIterator.TOP_K_ITERATOR_NAME,
+					TopKIterator.class);
+			iteratorSettings.addOption(
+					TopKIterator.SORT_KEY_OPTION_NAME,
+					ByteArrayUtils.byteArrayToString(PersistenceUtils.toBinary(sortKey)));
+			iteratorSettings.addOption(
+					TopKIterator.K_OPTION_NAME,
+					Integer.toString(topK == null ? -1 : topK));
+			iteratorSettings.addOption(
+					TopKIterator.ADAPTERS_OPTION_NAME,
+					ByteArrayUtils.byteArrayToString(PersistenceUtils.toBinary(topKAdapters)));
+			iteratorSettings.addOption(
+					QueryFilterIterator.FILTER,
+					ByteArrayUtils.byteArrayToString(PersistenceUtils.toBinary(new DistributableFilterList(
+							distributableFilters))));
+			iteratorSettings.addOption(
+					QueryFilterIterator.MODEL,
+					ByteArrayUtils.byteArrayToString(PersistenceUtils.toBinary(index.getIndexModel())));
+			scanner.addScanIterator(iteratorSettings);
+		}
+		else if ((distributableFilters != null) && !distributableFilters.isEmpty() && queryFiltersEnabled) {
 
 			final IteratorSetting iteratorSettings;
 			if (isAggregation()) {
@@ -135,6 +222,12 @@ public class AccumuloConstraintsQuery extends
 				iteratorSettings.addOption(
 						AggregationIterator.AGGREGATION_OPTION_NAME,
 						aggr.getClass().getName());
+				final Persistable aggregationParams = aggr.getParameters();
+				if (aggregationParams != null) {
+					iteratorSettings.addOption(
+							AggregationIterator.PARAMETER_OPTION_NAME,
+							ByteArrayUtils.byteArrayToString(PersistenceUtils.toBinary(aggregationParams)));
+				}
 				iteratorSettings.addOption(
 						AggregationIterator.CONSTRAINTS_OPTION_NAME,
 						ByteArrayUtils.byteArrayToString((PersistenceUtils.toBinary((List) constraints))));
@@ -99,7 +99,8 @@ public abstract class AccumuloFilteredIndexQuery extends
 				scanner.iterator(),
 				new FilterList<QueryFilter>(
 						clientFilters),
-				scanCallback);
+				scanCallback,
+				profile);
 	}
 
 }
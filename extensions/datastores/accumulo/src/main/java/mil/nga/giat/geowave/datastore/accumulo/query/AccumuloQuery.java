@@ -18,6 +18,7 @@ import mil.nga.giat.geowave.core.index.IndexUtils;
 import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloOperations;
 import mil.nga.giat.geowave.datastore.accumulo.util.AccumuloUtils;
 
@@ -34,6 +35,7 @@ abstract public class AccumuloQuery
 	protected final Pair<List<String>, DataAdapter<?>> fieldIdsAdapterPair;
 
 	private final String[] authorizations;
+	protected QueryProfile profile = null;
 
 	public AccumuloQuery(
 			final PrimaryIndex index,
@@ -58,6 +60,16 @@ abstract public class AccumuloQuery
 
 	abstract protected List<ByteArrayRange> getRanges();
 
+	/**
+	 * @param profile
+	 *            the profile to record the stages of this query in, or null to
+	 *            skip profiling
+	 */
+	public void setProfile(
+			final QueryProfile profile ) {
+		this.profile = profile;
+	}
+
 	protected boolean isAggregation() {
 		return false;
 	}
@@ -66,7 +78,15 @@ abstract public class AccumuloQuery
 			final AccumuloOperations accumuloOperations,
 			final double[] maxResolutionSubsamplingPerDimension,
 			final Integer limit ) {
+		final long decompositionStart = System.nanoTime();
 		final List<ByteArrayRange> ranges = getRanges();
+		final long scannerSetupStart = System.nanoTime();
+		if (profile != null) {
+			profile.indexQueried(index.getId());
+			profile.rangesDecomposed(
+					ranges == null ? 0 : ranges.size(),
+					scannerSetupStart - decompositionStart);
+		}
 		final String tableName = StringUtils.stringFromBinary(index.getId().getBytes());
 		ScannerBase scanner;
 		try {
@@ -133,6 +153,9 @@ abstract public class AccumuloQuery
 						adapterId.getBytes()));
 			}
 		}
+		if (profile != null) {
+			profile.scannerCreated(System.nanoTime() - scannerSetupStart);
+		}
 		return scanner;
 	}
 
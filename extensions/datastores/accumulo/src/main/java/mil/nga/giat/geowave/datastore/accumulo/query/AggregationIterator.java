@@ -22,15 +22,10 @@ import mil.nga.giat.geowave.core.index.Mergeable;
 import mil.nga.giat.geowave.core.index.NumericIndexStrategy;
 import mil.nga.giat.geowave.core.index.Persistable;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
-import mil.nga.giat.geowave.core.store.adapter.AbstractAdapterPersistenceEncoding;
 import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
-import mil.nga.giat.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
 import mil.nga.giat.geowave.core.store.data.CommonIndexedPersistenceEncoding;
-import mil.nga.giat.geowave.core.store.data.PersistentDataset;
-import mil.nga.giat.geowave.core.store.data.PersistentValue;
 import mil.nga.giat.geowave.core.store.data.field.FieldReader;
 import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
-import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.memory.DataStoreUtils;
 import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
 import mil.nga.giat.geowave.datastore.accumulo.util.AccumuloUtils;
@@ -104,40 +99,10 @@ public class AggregationIterator extends
 				persistenceEncoding)) {
 			if (persistenceEncoding.getAdapterId().getString().equals(
 					adapter.getAdapterId().getString())) {
-				final PersistentDataset<Object> adapterExtendedValues = new PersistentDataset<Object>();
-				if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
-					((AbstractAdapterPersistenceEncoding) persistenceEncoding).convertUnknownValues(
-							adapter,
-							model);
-					final PersistentDataset<Object> existingExtValues = ((AbstractAdapterPersistenceEncoding) persistenceEncoding)
-							.getAdapterExtendedData();
-					if (existingExtValues != null) {
-						for (final PersistentValue<Object> val : existingExtValues.getValues()) {
-							adapterExtendedValues.addValue(val);
-						}
-					}
-				}
-				final IndexedAdapterPersistenceEncoding encoding = new IndexedAdapterPersistenceEncoding(
-						persistenceEncoding.getAdapterId(),
-						persistenceEncoding.getDataId(),
-						persistenceEncoding.getIndexInsertionId(),
-						persistenceEncoding.getDuplicateCount(),
-						persistenceEncoding.getCommonData(),
-						new PersistentDataset<byte[]>(),
-						adapterExtendedValues);
-				final Object row = adapter.decode(
-						encoding,
-						new PrimaryIndex(
-								null, // the data adapter can't use the numeric
-										// index
-										// strategy and only the common index
-										// model to decode which is the case for
-										// feature data,
-										// we pass along a null strategy to
-										// eliminate the necessity to send a
-										// serialization of the strategy in the
-										// options of this iterator
-								model));
+				final Object row = decodeRow(
+						adapter,
+						model,
+						persistenceEncoding);
 				if (row != null) {
 					// for now ignore field info
 					aggregationFunction.aggregate(row);
@@ -176,7 +141,7 @@ public class AggregationIterator extends
 					className,
 					Aggregation.class);
 			final String parameterStr = options.get(PARAMETER_OPTION_NAME);
-			if ((parameterStr != null) && parameterStr.isEmpty()) {
+			if ((parameterStr != null) && !parameterStr.isEmpty()) {
 				final byte[] parameterBytes = ByteArrayUtils.byteArrayFromString(parameterStr);
 				final Persistable aggregationParams = PersistenceUtils.fromBinary(
 						parameterBytes,
@@ -19,6 +19,9 @@ import org.apache.log4j.Logger;
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.ByteArrayUtils;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.adapter.AbstractAdapterPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
 import mil.nga.giat.geowave.core.store.data.CommonIndexedPersistenceEncoding;
 import mil.nga.giat.geowave.core.store.data.PersistentDataset;
 import mil.nga.giat.geowave.core.store.data.PersistentValue;
@@ -27,6 +30,7 @@ import mil.nga.giat.geowave.core.store.dimension.NumericDimensionField;
 import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
 import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
 import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
+import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.datastore.accumulo.AccumuloRowId;
 import mil.nga.giat.geowave.datastore.accumulo.encoding.AccumuloCommonIndexedPersistenceEncoding;
 import mil.nga.giat.geowave.datastore.accumulo.encoding.AccumuloFieldInfo;
@@ -177,6 +181,45 @@ public class QueryFilterIterator extends
 				encoding);
 	}
 
+	/**
+	 * Decode the row into an entry of the adapter. The data adapter can't use
+	 * the numeric index strategy and only uses the common index model to
+	 * decode, which is the case for feature data, so a null strategy is passed
+	 * along to avoid sending a serialization of the strategy in the options of
+	 * this iterator.
+	 */
+	protected static Object decodeRow(
+			final DataAdapter adapter,
+			final CommonIndexModel model,
+			final CommonIndexedPersistenceEncoding persistenceEncoding ) {
+		final PersistentDataset<Object> adapterExtendedValues = new PersistentDataset<Object>();
+		if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
+			((AbstractAdapterPersistenceEncoding) persistenceEncoding).convertUnknownValues(
+					adapter,
+					model);
+			final PersistentDataset<Object> existingExtValues = ((AbstractAdapterPersistenceEncoding) persistenceEncoding)
+					.getAdapterExtendedData();
+			if (existingExtValues != null) {
+				for (final PersistentValue<Object> val : existingExtValues.getValues()) {
+					adapterExtendedValues.addValue(val);
+				}
+			}
+		}
+		final IndexedAdapterPersistenceEncoding encoding = new IndexedAdapterPersistenceEncoding(
+				persistenceEncoding.getAdapterId(),
+				persistenceEncoding.getDataId(),
+				persistenceEncoding.getIndexInsertionId(),
+				persistenceEncoding.getDuplicateCount(),
+				persistenceEncoding.getCommonData(),
+				new PersistentDataset<byte[]>(),
+				adapterExtendedValues);
+		return adapter.decode(
+				encoding,
+				new PrimaryIndex(
+						null,
+						model));
+	}
+
 	@Override
 	public void init(
 			final SortedKeyValueIterator<Key, Value> source,
@@ -0,0 +1,218 @@
+package mil.nga.giat.geowave.datastore.accumulo.query;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.ByteArrayUtils;
+import mil.nga.giat.geowave.core.index.Persistable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.data.CommonIndexedPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.query.SortKey;
+import mil.nga.giat.geowave.core.store.query.TopKCollector;
+
+/**
+ * This iterator filters each row like the QueryFilterIterator, then decodes
+ * the accepted rows with their adapter to keep only the K rows with the best
+ * values of a sort key within each seeked range. The kept rows are returned
+ * encoded as whole rows in the order of their keys, as Accumulo requires, so
+ * the client is responsible for sorting and merging the rows of each range.
+ *
+ * If the iterator is seeked again part way through a range, only the rest of
+ * the range is considered, which can return more than K rows for the range
+ * but never omits any of its top K rows.
+ */
+public class TopKIterator extends
+		QueryFilterIterator
+{
+	private static final Logger LOGGER = Logger.getLogger(TopKIterator.class);
+	public static final String TOP_K_ITERATOR_NAME = "GEOWAVE_TOP_K_ITERATOR";
+	public static final String SORT_KEY_OPTION_NAME = "SORT_KEY";
+	public static final String K_OPTION_NAME = "K";
+	public static final String ADAPTERS_OPTION_NAME = "ADAPTERS";
+	private SortKey<Object> sortKey;
+	private Map<ByteArrayId, DataAdapter<?>> adapters;
+	private TopKCollector<Pair<Key, Value>> topRows;
+	private Iterator<Entry<Key, Value>> sortedRows = null;
+	private Entry<Key, Value> top = null;
+
+	public TopKIterator() {
+		super();
+	}
+
+	@Override
+	protected boolean accept(
+			final Text currentRow,
+			final List<Key> keys,
+			final List<Value> values,
+			final CommonIndexModel model,
+			final CommonIndexedPersistenceEncoding persistenceEncoding ) {
+		if (super.accept(
+				currentRow,
+				keys,
+				values,
+				model,
+				persistenceEncoding)) {
+			final DataAdapter<?> adapter = adapters.get(persistenceEncoding.getAdapterId());
+			if (adapter != null) {
+				final Object entry = decodeRow(
+						adapter,
+						model,
+						persistenceEncoding);
+				if (entry != null) {
+					final Comparable<?> sortValue = sortKey.getSortValue(entry);
+					// only encode the rows that are kept
+					if (topRows.isCandidate(sortValue)) {
+						try {
+							topRows.add(
+									getEntryId(persistenceEncoding),
+									sortValue,
+									new ImmutablePair<Key, Value>(
+											new Key(
+													currentRow),
+											WholeRowIterator.encodeRow(
+													keys,
+													values)));
+						}
+						catch (final IOException e) {
+							LOGGER.error(
+									"Unable to encode row",
+									e);
+						}
+					}
+				}
+			}
+		}
+		// every row is consumed here and the kept rows are returned once the
+		// range is exhausted
+		return false;
+	}
+
+	/**
+	 * An entry written to more than one row of the range is only kept once
+	 */
+	private static ByteArrayId getEntryId(
+			final CommonIndexedPersistenceEncoding persistenceEncoding ) {
+		final byte[] adapterId = persistenceEncoding.getAdapterId().getBytes();
+		final byte[] dataId = persistenceEncoding.getDataId().getBytes();
+		final ByteBuffer buf = ByteBuffer.allocate(adapterId.length + dataId.length + 4);
+		buf.put(adapterId);
+		buf.put(dataId);
+		buf.putInt(adapterId.length);
+		return new ByteArrayId(
+				buf.array());
+	}
+
+	@Override
+	public void seek(
+			final Range range,
+			final Collection<ByteSequence> columnFamilies,
+			final boolean inclusive )
+			throws IOException {
+		topRows.clear();
+		// the whole row iterator consumes the range looking for a row that is
+		// accepted, which offers every row to the top K
+		super.seek(
+				range,
+				columnFamilies,
+				inclusive);
+		final TreeMap<Key, Value> rows = new TreeMap<Key, Value>();
+		for (final Pair<Key, Value> row : topRows.getSorted()) {
+			rows.put(
+					row.getLeft(),
+					row.getRight());
+		}
+		topRows.clear();
+		sortedRows = rows.entrySet().iterator();
+		top = sortedRows.hasNext() ? sortedRows.next() : null;
+	}
+
+	@Override
+	public boolean hasTop() {
+		return top != null;
+	}
+
+	@Override
+	public Key getTopKey() {
+		return top != null ? top.getKey() : null;
+	}
+
+	@Override
+	public Value getTopValue() {
+		return top != null ? top.getValue() : null;
+	}
+
+	@Override
+	public void next()
+			throws IOException {
+		top = ((sortedRows != null) && sortedRows.hasNext()) ? sortedRows.next() : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void init(
+			final SortedKeyValueIterator<Key, Value> source,
+			final Map<String, String> options,
+			final IteratorEnvironment env )
+			throws IOException {
+		super.init(
+				source,
+				options,
+				env);
+		try {
+			sortKey = PersistenceUtils.fromBinary(
+					ByteArrayUtils.byteArrayFromString(options.get(SORT_KEY_OPTION_NAME)),
+					SortKey.class);
+			topRows = new TopKCollector<Pair<Key, Value>>(
+					sortKey.isAscending(),
+					Integer.parseInt(options.get(K_OPTION_NAME)));
+			adapters = new HashMap<ByteArrayId, DataAdapter<?>>();
+			final List<Persistable> adapterList = PersistenceUtils.fromBinary(ByteArrayUtils.byteArrayFromString(options
+					.get(ADAPTERS_OPTION_NAME)));
+			for (final Persistable adapter : adapterList) {
+				adapters.put(
+						((DataAdapter<?>) adapter).getAdapterId(),
+						(DataAdapter<?>) adapter);
+			}
+		}
+		catch (final Exception e) {
+			throw new IllegalArgumentException(
+					e);
+		}
+	}
+
+	@Override
+	public SortedKeyValueIterator<Key, Value> deepCopy(
+			final IteratorEnvironment env ) {
+		final SortedKeyValueIterator<Key, Value> iterator = super.deepCopy(env);
+		if (iterator instanceof TopKIterator) {
+			((TopKIterator) iterator).sortKey = sortKey;
+			((TopKIterator) iterator).adapters = adapters;
+			((TopKIterator) iterator).topRows = new TopKCollector<Pair<Key, Value>>(
+					sortKey.isAscending(),
+					topRows.getK());
+		}
+		return iterator;
+	}
+}
@@ -11,6 +11,7 @@ import mil.nga.giat.geowave.core.store.ScanCallback;
 import mil.nga.giat.geowave.core.store.adapter.AdapterStore;
 import mil.nga.giat.geowave.core.store.filter.QueryFilter;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
 
 /**
  * This is used internally to translate Accumulo rows into native objects (using
@@ -29,6 +30,7 @@ public class EntryIteratorWrapper<T> implements
 	private final Iterator<Entry<Key, Value>> scannerIt;
 	private final QueryFilter clientFilter;
 	private final ScanCallback<T> scanCallback;
+	private final QueryProfile profile;
 
 	private T nextValue;
 
@@ -42,6 +44,7 @@ public class EntryIteratorWrapper<T> implements
 		this.scannerIt = scannerIt;
 		this.clientFilter = clientFilter;
 		this.scanCallback = null;
+		this.profile = null;
 	}
 
 	public EntryIteratorWrapper(
@@ -50,20 +53,52 @@ public class EntryIteratorWrapper<T> implements
 			final Iterator<Entry<Key, Value>> scannerIt,
 			final QueryFilter clientFilter,
 			final ScanCallback<T> scanCallback ) {
+		this(
+				adapterStore,
+				index,
+				scannerIt,
+				clientFilter,
+				scanCallback,
+				null);
+	}
+
+	public EntryIteratorWrapper(
+			final AdapterStore adapterStore,
+			final PrimaryIndex index,
+			final Iterator<Entry<Key, Value>> scannerIt,
+			final QueryFilter clientFilter,
+			final ScanCallback<T> scanCallback,
+			final QueryProfile profile ) {
 		this.adapterStore = adapterStore;
 		this.index = index;
 		this.scannerIt = scannerIt;
 		this.clientFilter = clientFilter;
 		this.scanCallback = scanCallback;
+		this.profile = profile;
 	}
 
 	private void findNext() {
-		while ((nextValue == null) && scannerIt.hasNext()) {
+		while (nextValue == null) {
+			// the Accumulo scanner fetches its next batch of rows in hasNext()
+			final long scanStart = System.nanoTime();
+			if (!scannerIt.hasNext()) {
+				if (profile != null) {
+					profile.scannerWaited(System.nanoTime() - scanStart);
+				}
+				return;
+			}
 			final Entry<Key, Value> row = scannerIt.next();
+			final long decodeStart = System.nanoTime();
 			final T decodedValue = decodeRow(
 					row,
 					clientFilter,
 					index);
+			if (profile != null) {
+				profile.rowScanned(decodeStart - scanStart);
+				profile.rowDecoded(
+						decodedValue != null,
+						System.nanoTime() - decodeStart);
+			}
 			if (decodedValue != null) {
 				nextValue = decodedValue;
 				return;
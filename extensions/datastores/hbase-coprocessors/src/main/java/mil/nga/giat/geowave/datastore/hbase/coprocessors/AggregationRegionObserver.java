@@ -0,0 +1,85 @@
+package mil.nga.giat.geowave.datastore.hbase.coprocessors;
+
+import java.io.IOException;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
+import org.apache.hadoop.hbase.coprocessor.ObserverContext;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.log4j.Logger;
+
+import mil.nga.giat.geowave.core.index.Persistable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
+
+/**
+ * This is the HBase equivalent of Accumulo's AggregationIterator. When a scan
+ * carries the aggregation attributes, the region scanner is wrapped so that
+ * every row within the region is decoded, filtered and aggregated on the
+ * region server, and only the partial aggregation result is returned to the
+ * client to be merged with the results from the other regions.
+ *
+ * The geowave-datastore-hbase-coprocessors jar must be on the region server
+ * classpath for this coprocessor to be loaded. It is registered on index
+ * tables created with the --enableCoprocessors option.
+ */
+public class AggregationRegionObserver extends
+		BaseRegionObserver
+{
+	private final static Logger LOGGER = Logger.getLogger(AggregationRegionObserver.class);
+
+	@Override
+	public RegionScanner postScannerOpen(
+			final ObserverContext<RegionCoprocessorEnvironment> e,
+			final Scan scan,
+			final RegionScanner s )
+			throws IOException {
+		final byte[] aggregationBytes = scan.getAttribute(HBaseCoprocessors.AGGREGATION_ATTRIBUTE);
+		if ((aggregationBytes == null) || (s == null)) {
+			return s;
+		}
+		try {
+			final Aggregation aggregationFunction = PersistenceUtils.classFactory(
+					Bytes.toString(aggregationBytes),
+					Aggregation.class);
+			final byte[] parameterBytes = scan.getAttribute(HBaseCoprocessors.AGGREGATION_PARAMETER_ATTRIBUTE);
+			if ((parameterBytes != null) && (parameterBytes.length > 0)) {
+				aggregationFunction.setParameters(PersistenceUtils.fromBinary(
+						parameterBytes,
+						Persistable.class));
+			}
+			final DataAdapter adapter = PersistenceUtils.fromBinary(
+					scan.getAttribute(HBaseCoprocessors.AGGREGATION_ADAPTER_ATTRIBUTE),
+					DataAdapter.class);
+			final CommonIndexModel model = PersistenceUtils.fromBinary(
+					scan.getAttribute(HBaseCoprocessors.AGGREGATION_MODEL_ATTRIBUTE),
+					CommonIndexModel.class);
+			DistributableQueryFilter filter = null;
+			final byte[] filterBytes = scan.getAttribute(HBaseCoprocessors.AGGREGATION_FILTER_ATTRIBUTE);
+			if ((filterBytes != null) && (filterBytes.length > 0)) {
+				filter = PersistenceUtils.fromBinary(
+						filterBytes,
+						DistributableQueryFilter.class);
+			}
+			return new AggregationRegionScanner(
+					s,
+					aggregationFunction,
+					adapter,
+					model,
+					filter);
+		}
+		catch (final Exception ex) {
+			LOGGER.error(
+					"Unable to initialize aggregation for region '"
+							+ e.getEnvironment().getRegionInfo().getRegionNameAsString() + "'",
+					ex);
+			throw new IOException(
+					ex);
+		}
+	}
+}
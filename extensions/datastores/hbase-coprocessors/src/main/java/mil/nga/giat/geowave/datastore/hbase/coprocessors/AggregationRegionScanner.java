@@ -0,0 +1,182 @@
+package mil.nga.giat.geowave.datastore.hbase.coprocessors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.regionserver.ScannerContext;
+
+import mil.nga.giat.geowave.core.index.Mergeable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.filter.QueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
+import mil.nga.giat.geowave.datastore.hbase.entities.HBaseRowId;
+import mil.nga.giat.geowave.datastore.hbase.util.HBaseUtils;
+
+/**
+ * Wraps a region scanner, consuming every row from the underlying scanner on
+ * the first call to next and returning a single cell whose value is the
+ * serialized partial aggregation result for the region.
+ */
+public class AggregationRegionScanner implements
+		RegionScanner
+{
+
+	private final RegionScanner delegate;
+	private final Aggregation aggregationFunction;
+	private final DataAdapter adapter;
+	private final PrimaryIndex index;
+	private final QueryFilter filter;
+	private boolean aggregated = false;
+
+	public AggregationRegionScanner(
+			final RegionScanner delegate,
+			final Aggregation aggregationFunction,
+			final DataAdapter adapter,
+			final CommonIndexModel model,
+			final QueryFilter filter ) {
+		this.delegate = delegate;
+		this.aggregationFunction = aggregationFunction;
+		this.adapter = adapter;
+		// the data adapter can't use the numeric index strategy and only the
+		// common index model to decode, so a null strategy is used to
+		// eliminate the necessity to send a serialization of the strategy
+		index = new PrimaryIndex(
+				null,
+				model);
+		this.filter = filter;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean aggregate(
+			final List<Cell> results )
+			throws IOException {
+		if (aggregated) {
+			return false;
+		}
+		aggregated = true;
+		aggregationFunction.clearResult();
+		byte[] startRowOfAggregation = null;
+		final List<Cell> rowCells = new ArrayList<Cell>();
+		boolean moreRows;
+		do {
+			rowCells.clear();
+			moreRows = delegate.nextRaw(rowCells);
+			if (rowCells.isEmpty()) {
+				continue;
+			}
+			final Result row = Result.create(rowCells);
+			final Pair<Object, DataStoreEntryInfo> entry = HBaseUtils.decodeRow(
+					row,
+					new HBaseRowId(
+							row.getRow()),
+					adapter,
+					null,
+					filter,
+					index,
+					null);
+			if ((entry != null) && (entry.getLeft() != null)) {
+				aggregationFunction.aggregate(entry.getLeft());
+				if (startRowOfAggregation == null) {
+					startRowOfAggregation = row.getRow();
+				}
+			}
+		}
+		while (moreRows);
+
+		if (startRowOfAggregation != null) {
+			final Mergeable result = aggregationFunction.getResult();
+			if (result != null) {
+				results.add(CellUtil.createCell(
+						startRowOfAggregation,
+						adapter.getAdapterId().getBytes(),
+						HBaseCoprocessors.AGGREGATION_QUALIFIER,
+						HConstants.LATEST_TIMESTAMP,
+						KeyValue.Type.Put.getCode(),
+						PersistenceUtils.toBinary(result)));
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean next(
+			final List<Cell> results )
+			throws IOException {
+		return aggregate(results);
+	}
+
+	@Override
+	public boolean next(
+			final List<Cell> results,
+			final ScannerContext scannerContext )
+			throws IOException {
+		return aggregate(results);
+	}
+
+	@Override
+	public boolean nextRaw(
+			final List<Cell> results )
+			throws IOException {
+		return aggregate(results);
+	}
+
+	@Override
+	public boolean nextRaw(
+			final List<Cell> results,
+			final ScannerContext scannerContext )
+			throws IOException {
+		return aggregate(results);
+	}
+
+	@Override
+	public void close()
+			throws IOException {
+		delegate.close();
+	}
+
+	@Override
+	public HRegionInfo getRegionInfo() {
+		return delegate.getRegionInfo();
+	}
+
+	@Override
+	public boolean isFilterDone()
+			throws IOException {
+		return aggregated;
+	}
+
+	@Override
+	public boolean reseek(
+			final byte[] row )
+			throws IOException {
+		return delegate.reseek(row);
+	}
+
+	@Override
+	public long getMaxResultSize() {
+		return delegate.getMaxResultSize();
+	}
+
+	@Override
+	public long getMvccReadPoint() {
+		return delegate.getMvccReadPoint();
+	}
+
+	@Override
+	public int getBatch() {
+		return delegate.getBatch();
+	}
+}
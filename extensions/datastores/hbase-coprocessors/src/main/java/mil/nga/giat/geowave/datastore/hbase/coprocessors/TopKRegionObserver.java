@@ -0,0 +1,81 @@
+package mil.nga.giat.geowave.datastore.hbase.coprocessors;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.coprocessor.BaseRegionObserver;
+import org.apache.hadoop.hbase.coprocessor.ObserverContext;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.log4j.Logger;
+
+import mil.nga.giat.geowave.core.index.Persistable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.query.SortKey;
+
+/**
+ * This is the HBase equivalent of Accumulo's TopKIterator. When a scan carries
+ * the top K attributes, the region scanner is wrapped so that every row within
+ * the region is decoded and filtered on the region server, and only the rows
+ * of the K entries with the best values of the sort key are returned to the
+ * client to be merged with the rows from the other regions.
+ *
+ * The geowave-datastore-hbase-coprocessors jar must be on the region server
+ * classpath for this coprocessor to be loaded. It is registered on index
+ * tables created with the --enableCoprocessors option.
+ */
+public class TopKRegionObserver extends
+		BaseRegionObserver
+{
+	private final static Logger LOGGER = Logger.getLogger(TopKRegionObserver.class);
+
+	@Override
+	public RegionScanner postScannerOpen(
+			final ObserverContext<RegionCoprocessorEnvironment> e,
+			final Scan scan,
+			final RegionScanner s )
+			throws IOException {
+		final byte[] sortKeyBytes = scan.getAttribute(HBaseCoprocessors.TOP_K_SORT_KEY_ATTRIBUTE);
+		if ((sortKeyBytes == null) || (s == null)) {
+			return s;
+		}
+		try {
+			final SortKey sortKey = PersistenceUtils.fromBinary(
+					sortKeyBytes,
+					SortKey.class);
+			final byte[] kBytes = scan.getAttribute(HBaseCoprocessors.TOP_K_ATTRIBUTE);
+			final int k = kBytes != null ? Bytes.toInt(kBytes) : -1;
+			final List<Persistable> adapters = PersistenceUtils.fromBinary(scan.getAttribute(HBaseCoprocessors.TOP_K_ADAPTERS_ATTRIBUTE));
+			final CommonIndexModel model = PersistenceUtils.fromBinary(
+					scan.getAttribute(HBaseCoprocessors.TOP_K_MODEL_ATTRIBUTE),
+					CommonIndexModel.class);
+			DistributableQueryFilter filter = null;
+			final byte[] filterBytes = scan.getAttribute(HBaseCoprocessors.TOP_K_FILTER_ATTRIBUTE);
+			if ((filterBytes != null) && (filterBytes.length > 0)) {
+				filter = PersistenceUtils.fromBinary(
+						filterBytes,
+						DistributableQueryFilter.class);
+			}
+			return new TopKRegionScanner(
+					s,
+					sortKey,
+					k,
+					adapters.toArray(new DataAdapter[adapters.size()]),
+					model,
+					filter);
+		}
+		catch (final Exception ex) {
+			LOGGER.error(
+					"Unable to initialize top K for region '"
+							+ e.getEnvironment().getRegionInfo().getRegionNameAsString() + "'",
+					ex);
+			throw new IOException(
+					ex);
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package mil.nga.giat.geowave.datastore.hbase.coprocessors;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.regionserver.RegionScanner;
+import org.apache.hadoop.hbase.regionserver.ScannerContext;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.store.DataStoreEntryInfo;
+import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
+import mil.nga.giat.geowave.core.store.filter.QueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.memory.MemoryAdapterStore;
+import mil.nga.giat.geowave.core.store.query.SortKey;
+import mil.nga.giat.geowave.core.store.query.TopKCollector;
+import mil.nga.giat.geowave.datastore.hbase.entities.HBaseRowId;
+import mil.nga.giat.geowave.datastore.hbase.util.HBaseUtils;
+
+/**
+ * Wraps a region scanner, consuming the rows from the underlying scanner and
+ * keeping the rows of the K entries with the best values of the sort key. The
+ * rows are consumed in bounded batches, one batch per call to next without
+ * returning a row, so that the region server can renew the scanner lease and
+ * send heartbeats to the client while the region is read. Once every row has
+ * been consumed, the kept rows are returned one per call to next in the order
+ * of their row IDs, as the client expects.
+ */
+public class TopKRegionScanner implements
+		RegionScanner
+{
+	private static final int ROWS_PER_BATCH = 1000;
+	private final RegionScanner delegate;
+	private final SortKey<Object> sortKey;
+	private final int k;
+	private final MemoryAdapterStore adapterStore;
+	private final PrimaryIndex index;
+	private final QueryFilter filter;
+	private final TopKCollector<List<Cell>> collector;
+	private Iterator<List<Cell>> topRows = null;
+
+	public TopKRegionScanner(
+			final RegionScanner delegate,
+			final SortKey<Object> sortKey,
+			final int k,
+			final DataAdapter<?>[] adapters,
+			final CommonIndexModel model,
+			final QueryFilter filter ) {
+		this.delegate = delegate;
+		this.sortKey = sortKey;
+		this.k = k;
+		adapterStore = new MemoryAdapterStore(
+				adapters);
+		// the data adapter can't use the numeric index strategy and only the
+		// common index model to decode, so a null strategy is used to
+		// eliminate the necessity to send a serialization of the strategy
+		index = new PrimaryIndex(
+				null,
+				model);
+		this.filter = filter;
+		collector = new TopKCollector<List<Cell>>(
+				sortKey.isAscending(),
+				k);
+	}
+
+	/**
+	 * Consume at most one batch of rows from the underlying scanner
+	 *
+	 * @return true if there are more rows to consume
+	 */
+	private boolean collectRows()
+			throws IOException {
+		boolean moreRows;
+		int rowCount = 0;
+		do {
+			final List<Cell> rowCells = new ArrayList<Cell>();
+			moreRows = delegate.nextRaw(rowCells);
+			if (rowCells.isEmpty()) {
+				continue;
+			}
+			final Result row = Result.create(rowCells);
+			final HBaseRowId rowId = new HBaseRowId(
+					row.getRow());
+			final Pair<Object, DataStoreEntryInfo> entry = HBaseUtils.decodeRow(
+					row,
+					rowId,
+					null,
+					adapterStore,
+					filter,
+					index,
+					null);
+			if ((entry != null) && (entry.getLeft() != null)) {
+				collector.add(
+						getEntryId(rowId),
+						sortKey.getSortValue(entry.getLeft()),
+						rowCells);
+			}
+		}
+		while (moreRows && (++rowCount < ROWS_PER_BATCH));
+		return moreRows;
+	}
+
+	private void selectTopRows() {
+		final TreeMap<byte[], List<Cell>> rows = new TreeMap<byte[], List<Cell>>(
+				Bytes.BYTES_COMPARATOR);
+		for (final List<Cell> rowCells : collector.getSorted()) {
+			final Cell cell = rowCells.get(0);
+			rows.put(
+					Bytes.copy(
+							cell.getRowArray(),
+							cell.getRowOffset(),
+							cell.getRowLength()),
+					rowCells);
+		}
+		topRows = rows.values().iterator();
+	}
+
+	/**
+	 * An entry written to more than one row of the region is only kept once
+	 */
+	private static ByteArrayId getEntryId(
+			final HBaseRowId rowId ) {
+		final byte[] adapterId = rowId.getAdapterId();
+		final byte[] dataId = rowId.getDataId();
+		final ByteBuffer buf = ByteBuffer.allocate(adapterId.length + dataId.length + 4);
+		buf.put(adapterId);
+		buf.put(dataId);
+		buf.putInt(adapterId.length);
+		return new ByteArrayId(
+				buf.array());
+	}
+
+	private boolean nextTopRow(
+			final List<Cell> results )
+			throws IOException {
+		if (topRows == null) {
+			if (collectRows()) {
+				// no row is selected until the region has been read
+				return true;
+			}
+			selectTopRows();
+		}
+		if (topRows.hasNext()) {
+			results.addAll(topRows.next());
+		}
+		return topRows.hasNext();
+	}
+
+	@Override
+	public boolean next(
+			final List<Cell> results )
+			throws IOException {
+		return nextTopRow(results);
+	}
+
+	@Override
+	public boolean next(
+			final List<Cell> results,
+			final ScannerContext scannerContext )
+			throws IOException {
+		return nextTopRow(results);
+	}
+
+	@Override
+	public boolean nextRaw(
+			final List<Cell> results )
+			throws IOException {
+		return nextTopRow(results);
+	}
+
+	@Override
+	public boolean nextRaw(
+			final List<Cell> results,
+			final ScannerContext scannerContext )
+			throws IOException {
+		return nextTopRow(results);
+	}
+
+	@Override
+	public void close()
+			throws IOException {
+		delegate.close();
+	}
+
+	@Override
+	public HRegionInfo getRegionInfo() {
+		return delegate.getRegionInfo();
+	}
+
+	@Override
+	public boolean isFilterDone()
+			throws IOException {
+		return (topRows != null) && !topRows.hasNext();
+	}
+
+	@Override
+	public boolean reseek(
+			final byte[] row )
+			throws IOException {
+		return delegate.reseek(row);
+	}
+
+	@Override
+	public long getMaxResultSize() {
+		return delegate.getMaxResultSize();
+	}
+
+	@Override
+	public long getMvccReadPoint() {
+		return delegate.getMvccReadPoint();
+	}
+
+	@Override
+	public int getBatch() {
+		return delegate.getBatch();
+	}
+}
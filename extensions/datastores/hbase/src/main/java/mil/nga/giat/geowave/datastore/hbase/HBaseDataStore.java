@@ -62,6 +62,8 @@ import mil.nga.giat.geowave.core.store.query.PrefixIdQuery;
 import mil.nga.giat.geowave.core.store.query.Query;
 import mil.nga.giat.geowave.core.store.query.QueryOptions;
 import mil.nga.giat.geowave.core.store.query.RowIdQuery;
+import mil.nga.giat.geowave.core.store.query.SortKey;
+import mil.nga.giat.geowave.core.store.query.TopKCollector;
 import mil.nga.giat.geowave.datastore.hbase.index.secondary.HBaseSecondaryIndexDataStore;
 import mil.nga.giat.geowave.datastore.hbase.io.HBaseWriter;
 import mil.nga.giat.geowave.datastore.hbase.mapreduce.GeoWaveHBaseRecordReader;
@@ -219,6 +221,7 @@ public class HBaseDataStore implements
 					statisticsStore,
 					secondaryIndexDataStore,
 					i == 0);
+			callbackManager.setAsyncSecondaryIndexing(options.isAsyncSecondaryIndexing());
 
 			final List<IngestCallback<T>> callbacks = new ArrayList<IngestCallback<T>>();
 
@@ -304,6 +307,7 @@ public class HBaseDataStore implements
 						callback,
 						dedupeFilter,
 						authorizations);
+				q.setOptions(options);
 
 				return q.query(
 						operations,
@@ -441,6 +445,10 @@ public class HBaseDataStore implements
 		final Query sanitizedQuery = (query == null) ? new EverythingQuery() : query;
 
 		final DedupeFilter filter = new DedupeFilter();
+		// the top K entries are selected from each result and merged below,
+		// aggregations are not entries so they are never sorted
+		final SortKey<?> sortKey = sanitizedQueryOptions.getAggregation() == null ? sanitizedQueryOptions
+				.getSortKey() : null;
 		MemoryAdapterStore tempAdapterStore;
 		try {
 			tempAdapterStore = new MemoryAdapterStore(
@@ -462,6 +470,8 @@ public class HBaseDataStore implements
 								(ScanCallback<Object>) sanitizedQueryOptions.getScanCallback(),
 								filter,
 								sanitizedQueryOptions.getAuthorizations());
+						q.setOptions(options);
+						q.setProfile(sanitizedQueryOptions.getProfile());
 
 						results.add(q.query(
 								operations,
@@ -522,6 +532,9 @@ public class HBaseDataStore implements
 							// TODO support field subsetting
 							// queryOptions.getFieldIds(),
 							sanitizedQueryOptions.getAuthorizations());
+					hbaseQuery.setOptions(options);
+					hbaseQuery.setProfile(sanitizedQueryOptions.getProfile());
+					hbaseQuery.setSortKey(sortKey);
 
 					results.add(hbaseQuery.query(
 							operations,
@@ -541,6 +554,12 @@ public class HBaseDataStore implements
 					"Failed to resolve adapter or index for query",
 					e1);
 		}
+		if (sortKey != null) {
+			return TopKCollector.sortAndMerge(
+					(List) results,
+					(SortKey<T>) sortKey,
+					sanitizedQueryOptions.getLimit());
+		}
 		return new CloseableIteratorWrapper<T>(
 				new Closeable() {
 					@Override
@@ -664,6 +683,7 @@ public class HBaseDataStore implements
 								callback,
 								null,
 								queryOptions.getAuthorizations());
+						q.setOptions(options);
 
 						dataIt = q.query(
 								operations,
@@ -696,7 +716,7 @@ public class HBaseDataStore implements
 
 					}
 					else {
-						dataIt = new HBaseConstraintsQuery(
+						final HBaseConstraintsQuery constraintsQuery = new HBaseConstraintsQuery(
 								Collections.singletonList(adapter.getAdapterId()),
 								index,
 								query,
@@ -705,7 +725,9 @@ public class HBaseDataStore implements
 								null,
 								// TODO support field subsetting
 								// queryOptions.getFieldIds(),
-								queryOptions.getAuthorizations()).query(
+								queryOptions.getAuthorizations());
+						constraintsQuery.setOptions(options);
+						dataIt = constraintsQuery.query(
 								operations,
 								adapterStore,
 								null);
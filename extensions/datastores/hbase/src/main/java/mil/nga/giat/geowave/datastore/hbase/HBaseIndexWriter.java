@@ -20,6 +20,7 @@ import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
 import mil.nga.giat.geowave.core.store.adapter.WritableDataAdapter;
 import mil.nga.giat.geowave.core.store.data.VisibilityWriter;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.datastore.hbase.coprocessors.HBaseCoprocessors;
 import mil.nga.giat.geowave.datastore.hbase.io.HBaseWriter;
 import mil.nga.giat.geowave.datastore.hbase.operations.BasicHBaseOperations;
 import mil.nga.giat.geowave.datastore.hbase.operations.config.HBaseOptions;
@@ -131,7 +132,8 @@ public class HBaseIndexWriter<T> implements
 				writer = operations.createWriter(
 						StringUtils.stringFromBinary(index.getId().getBytes()),
 						adapter.getAdapterId().getString(),
-						options.isCreateTable());
+						options.isCreateTable(),
+						options.isEnableCoprocessors() ? HBaseCoprocessors.OBSERVERS : new String[0]);
 			}
 			catch (final IOException e) {
 				LOGGER.error(
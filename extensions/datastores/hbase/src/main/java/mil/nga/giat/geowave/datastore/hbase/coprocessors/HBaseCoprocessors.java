@@ -0,0 +1,39 @@
+package mil.nga.giat.geowave.datastore.hbase.coprocessors;
+
+import mil.nga.giat.geowave.core.index.StringUtils;
+
+/**
+ * The names shared by the client and the region observers of the
+ * geowave-datastore-hbase-coprocessors module. The observers are referenced by
+ * class name only, so that the client does not depend on the HBase server
+ * libraries.
+ */
+public class HBaseCoprocessors
+{
+	public static final String AGGREGATION_OBSERVER = "mil.nga.giat.geowave.datastore.hbase.coprocessors.AggregationRegionObserver";
+	public static final String TOP_K_OBSERVER = "mil.nga.giat.geowave.datastore.hbase.coprocessors.TopKRegionObserver";
+
+	public static final String AGGREGATION_ATTRIBUTE = "GEOWAVE_AGGREGATION";
+	public static final String AGGREGATION_PARAMETER_ATTRIBUTE = "GEOWAVE_AGGREGATION_PARAMETER";
+	public static final String AGGREGATION_ADAPTER_ATTRIBUTE = "GEOWAVE_AGGREGATION_ADAPTER";
+	public static final String AGGREGATION_MODEL_ATTRIBUTE = "GEOWAVE_AGGREGATION_MODEL";
+	public static final String AGGREGATION_FILTER_ATTRIBUTE = "GEOWAVE_AGGREGATION_FILTER";
+	public static final byte[] AGGREGATION_QUALIFIER = StringUtils.stringToBinary("GEOWAVE_AGGREGATION_RESULT");
+
+	public static final String TOP_K_SORT_KEY_ATTRIBUTE = "GEOWAVE_TOP_K_SORT_KEY";
+	public static final String TOP_K_ATTRIBUTE = "GEOWAVE_TOP_K";
+	public static final String TOP_K_ADAPTERS_ATTRIBUTE = "GEOWAVE_TOP_K_ADAPTERS";
+	public static final String TOP_K_MODEL_ATTRIBUTE = "GEOWAVE_TOP_K_MODEL";
+	public static final String TOP_K_FILTER_ATTRIBUTE = "GEOWAVE_TOP_K_FILTER";
+
+	/**
+	 * The observers registered on index tables created with coprocessors
+	 * enabled
+	 */
+	public static final String[] OBSERVERS = new String[] {
+		AGGREGATION_OBSERVER,
+		TOP_K_OBSERVER
+	};
+
+	private HBaseCoprocessors() {}
+}
@@ -14,6 +14,7 @@ import mil.nga.giat.geowave.core.store.DataStoreEntryInfo.FieldInfo;
 import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndex;
 import mil.nga.giat.geowave.core.store.index.SecondaryIndexDataStore;
+import mil.nga.giat.geowave.core.store.index.SecondaryIndexUpdate;
 import mil.nga.giat.geowave.datastore.hbase.io.HBaseWriter;
 import mil.nga.giat.geowave.datastore.hbase.operations.BasicHBaseOperations;
 import mil.nga.giat.geowave.datastore.hbase.operations.config.HBaseOptions;
@@ -121,6 +122,26 @@ public class HBaseSecondaryIndexDataStore implements
 		// }
 	}
 
+	@Override
+	public void write(
+			final SecondaryIndex<?> secondaryIndex,
+			final List<SecondaryIndexUpdate> updates ) {
+		for (final SecondaryIndexUpdate update : updates) {
+			if (update.isDelete()) {
+				delete(
+						secondaryIndex,
+						update.getIndexedAttributes());
+			}
+			else {
+				store(
+						secondaryIndex,
+						update.getPrimaryIndexId(),
+						update.getPrimaryIndexRowId(),
+						update.getIndexedAttributes());
+			}
+		}
+	}
+
 	// TODO
 	// private Mutation buildMutation(
 	// final byte[] secondaryIndexRowId,
@@ -3,11 +3,11 @@ package mil.nga.giat.geowave.datastore.hbase.metadata;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
@@ -22,13 +22,27 @@ import org.apache.log4j.Logger;
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.Persistable;
 import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
+import mil.nga.giat.geowave.core.store.MetadataCache;
 import mil.nga.giat.geowave.datastore.hbase.io.HBaseWriter;
 import mil.nga.giat.geowave.datastore.hbase.operations.BasicHBaseOperations;
 import mil.nga.giat.geowave.datastore.hbase.util.HBaseCloseableIteratorWrapper;
 import mil.nga.giat.geowave.datastore.hbase.util.HBaseCloseableIteratorWrapper.ScannerClosableWrapper;
 import mil.nga.giat.geowave.datastore.hbase.util.HBaseUtils;
 
+/**
+ * This abstract class does most of the work for storing persistable objects in
+ * HBase and can be easily extended for any object that needs to be persisted.
+ *
+ * Objects are cached in a MetadataCache shared by all instances persisting the
+ * same type of object to the same table. Every write or delete also changes a
+ * version row, which is read periodically to clear the cache when another
+ * process has changed the objects.
+ *
+ * @param <T>
+ *            The type of persistable object that this stores
+ */
 public abstract class AbstractHBasePersistence<T extends Persistable>
 {
 
@@ -36,19 +50,15 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 	private final static Logger LOGGER = Logger.getLogger(AbstractHBasePersistence.class);
 	protected final BasicHBaseOperations operations;
 
-	private static final int MAX_ENTRIES = 100;
-	protected final Map<ByteArrayId, T> cache = Collections.synchronizedMap(new LinkedHashMap<ByteArrayId, T>(
-			MAX_ENTRIES + 1,
-			.75F,
-			true) {
-		private static final long serialVersionUID = 1L;
+	public final static String METADATA_VERSION_ROW = "GEOWAVE_METADATA_VERSION";
+	private final static String METADATA_VERSION_CF = "VERSION";
 
-		@Override
-		public boolean removeEldestEntry(
-				final Map.Entry<ByteArrayId, T> eldest ) {
-			return size() > MAX_ENTRIES;
-		}
-	});
+	// the cache is shared by every store persisting the same type of object
+	// to the same table, and lazily initialized because the cache ID depends
+	// on the subclass
+	private volatile MetadataCache<T> cache;
+	private final AtomicLong nextVersionCheck = new AtomicLong(
+			0);
 
 	public AbstractHBasePersistence(
 			final BasicHBaseOperations operations ) {
@@ -66,6 +76,11 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 		if (cacheResult != null) {
 			return (T) cacheResult;
 		}
+		if (isObjectCachedAsAbsent(
+				primaryId,
+				secondaryId)) {
+			return null;
+		}
 		final Scan scanner = getScanner(
 				primaryId,
 				secondaryId,
@@ -81,6 +96,10 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 				LOGGER.warn("Object '" + getCombinedId(
 						primaryId,
 						secondaryId).getString() + "' not found");
+				getCache().putAbsent(
+						getCombinedId(
+								primaryId,
+								secondaryId));
 				return null;
 			}
 			return iter.next();
@@ -112,7 +131,7 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 		final ByteArrayId combinedId = getCombinedId(
 				getPrimaryId(object),
 				getSecondaryId(object));
-		cache.put(
+		getCache().put(
 				combinedId,
 				object);
 	}
@@ -224,7 +243,17 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 		final ByteArrayId combinedId = getCombinedId(
 				primaryId,
 				secondaryId);
-		return cache.get(combinedId);
+		checkMetadataVersion();
+		return getCache().get(combinedId);
+	}
+
+	protected boolean isObjectCachedAsAbsent(
+			final ByteArrayId primaryId,
+			final ByteArrayId secondaryId ) {
+		return getCache().isCachedAsAbsent(
+				getCombinedId(
+						primaryId,
+						secondaryId));
 	}
 
 	protected CloseableIterator<T> getObjects(
@@ -257,8 +286,101 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 				authorizations);
 	}
 
+	protected MetadataCache<T> getCache() {
+		MetadataCache<T> result = cache;
+		if (result == null) {
+			result = MetadataCache.getInstance(getCacheId());
+			cache = result;
+		}
+		return result;
+	}
+
+	protected String getCacheId() {
+		return AbstractHBasePersistence.class.getName() + "_" + operations.getQualifiedTableName(getTablename())
+				+ "_" + getPersistenceTypeName();
+	}
+
 	public void clearCache() {
-		cache.clear();
+		getCache().clear();
+	}
+
+	/**
+	 * Read the persisted metadata version at most once per version check
+	 * interval and clear the cache if another process has changed it
+	 */
+	protected void checkMetadataVersion() {
+		final MetadataCache<T> metadataCache = getCache();
+		final long interval = metadataCache.getVersionCheckIntervalMillis();
+		if (interval < 0) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		final long nextCheck = nextVersionCheck.get();
+		if ((now >= nextCheck) && nextVersionCheck.compareAndSet(
+				nextCheck,
+				now + interval)) {
+			metadataCache.validateVersion(readMetadataVersion());
+		}
+	}
+
+	private byte[] readMetadataVersion() {
+		final Scan scanner = new Scan();
+		scanner.addColumn(
+				toBytes(METADATA_VERSION_CF),
+				toBytes(getPersistenceTypeName()));
+		scanner.setStartRow(toBytes(METADATA_VERSION_ROW));
+		scanner.setStopRow(toBytes(METADATA_VERSION_ROW));
+		try (final ResultScanner rS = operations.getScannedResults(
+				scanner,
+				getTablename())) {
+			final Result result = rS.next();
+			if ((result != null) && !result.isEmpty()) {
+				return CellUtil.cloneValue(result.listCells().get(
+						0));
+			}
+		}
+		catch (final IOException e) {
+			// the table or the version column family has not been created
+			// yet, or the table has been deleted
+			LOGGER.debug(
+					"Unable to read metadata version from " + getTablename(),
+					e);
+		}
+		return null;
+	}
+
+	/**
+	 * Change the persisted metadata version so that other processes clear
+	 * their caches
+	 */
+	protected void updateMetadataVersion() {
+		final byte[] version = StringUtils.stringToBinary(UUID.randomUUID().toString());
+		try {
+			final HBaseWriter writer = operations.createWriter(
+					getTablename(),
+					METADATA_VERSION_CF,
+					true);
+			final RowMutations mutation = new RowMutations(
+					toBytes(METADATA_VERSION_ROW));
+			final Put row = new Put(
+					toBytes(METADATA_VERSION_ROW));
+			row.addColumn(
+					toBytes(METADATA_VERSION_CF),
+					toBytes(getPersistenceTypeName()),
+					version);
+			mutation.add(row);
+			writer.write(
+					mutation,
+					METADATA_VERSION_CF);
+			writer.close();
+			getCache().setVersion(
+					version);
+		}
+		catch (final IOException e) {
+			LOGGER.error(
+					"Unable to update metadata version",
+					e);
+		}
 	}
 
 	protected ByteArrayId getRowId(
@@ -290,6 +412,7 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 					mutation,
 					getColumnFamily().toString());
 			writer.close();
+			updateMetadataVersion();
 		}
 		catch (final IOException e) {
 			LOGGER.error(
@@ -298,6 +421,63 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 		}
 	}
 
+	/**
+	 * Add the objects using a single writer, changing the metadata version
+	 * once for all of them. Unlike addObject, a failure to write the objects
+	 * is thrown so that the caller can retry them.
+	 */
+	protected void addObjects(
+			final Collection<? extends T> objects ) {
+		if (objects.isEmpty()) {
+			return;
+		}
+		final List<T> written = new ArrayList<T>(
+				objects.size());
+		final List<RowMutations> mutations = new ArrayList<RowMutations>(
+				objects.size());
+		for (final T object : objects) {
+			final ByteArrayId id = getRowId(object);
+			final RowMutations mutation = new RowMutations(
+					id.getBytes());
+			final Put row = new Put(
+					id.getBytes());
+			try {
+				row.addColumn(
+						toBytes(getColumnFamily()),
+						getColumnQualifier(object),
+						PersistenceUtils.toBinary(object));
+				mutation.add(row);
+			}
+			catch (final IOException e) {
+				LOGGER.error(
+						"Unable add object",
+						e);
+				continue;
+			}
+			mutations.add(mutation);
+			written.add(object);
+		}
+		try {
+			final HBaseWriter writer = operations.createWriter(
+					getTablename(),
+					getColumnFamily().toString(),
+					true);
+			writer.write(
+					mutations,
+					getColumnFamily().toString());
+			writer.close();
+		}
+		catch (final IOException e) {
+			throw new RuntimeException(
+					"Unable to add objects",
+					e);
+		}
+		for (final T object : written) {
+			addObjectToCache(object);
+		}
+		updateMetadataVersion();
+	}
+
 	public boolean deleteObjects(
 			final ByteArrayId primaryId,
 			final ByteArrayId secondaryId,
@@ -328,12 +508,17 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 				l.add(deleteMutations);
 
 			}
-			HBaseWriter deleter = operations.createWriter(
-					getTablename(),
-					getColumnFamily(),
-					false);
-
-			deleter.delete(l);
+			// other processes only need to reload their caches if something
+			// was actually deleted
+			if (!l.isEmpty()) {
+				HBaseWriter deleter = operations.createWriter(
+						getTablename(),
+						getColumnFamily(),
+						false);
+
+				deleter.delete(l);
+				updateMetadataVersion();
+			}
 			return true;
 		}
 		catch (IOException e) {
@@ -350,6 +535,11 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 				secondaryId) != null) {
 			return true;
 		}
+		if (isObjectCachedAsAbsent(
+				primaryId,
+				secondaryId)) {
+			return false;
+		}
 		try {
 			final Scan scanner = getScanner(
 					primaryId,
@@ -365,6 +555,10 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 				return iter.next() != null;
 			}
 			else {
+				getCache().putAbsent(
+						getCombinedId(
+								primaryId,
+								secondaryId));
 				return false;
 			}
 		}
@@ -450,6 +644,6 @@ public abstract class AbstractHBasePersistence<T extends Persistable>
 		final ByteArrayId combinedId = getCombinedId(
 				primaryId,
 				secondaryId);
-		return (cache.remove(combinedId) != null);
+		return getCache().remove(combinedId);
 	}
 }
\ No newline at end of file
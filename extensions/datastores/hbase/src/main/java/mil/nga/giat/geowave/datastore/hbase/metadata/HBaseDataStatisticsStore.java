@@ -1,6 +1,7 @@
 package mil.nga.giat.geowave.datastore.hbase.metadata;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.UUID;
 
@@ -50,6 +51,18 @@ public class HBaseDataStatisticsStore extends
 
 	}
 
+	@Override
+	public void incorporateAllStatistics(
+			final Collection<? extends DataStatistics<?>> statistics ) {
+		addObjects(statistics);
+	}
+
+	@Override
+	protected void updateMetadataVersion() {
+		// statistics are incorporated far too often to invalidate the caches
+		// of other processes on every update
+	}
+
 	@Override
 	public CloseableIterator<DataStatistics<?>> getDataStatistics(
 			final ByteArrayId adapterId,
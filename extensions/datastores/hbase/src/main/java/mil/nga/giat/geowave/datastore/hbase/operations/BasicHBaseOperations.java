@@ -1,12 +1,18 @@
 package mil.nga.giat.geowave.datastore.hbase.operations;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
@@ -26,6 +32,7 @@ public class BasicHBaseOperations
 
 	private final Connection conn;
 	private final String tableNamespace;
+	private final Set<String> verifiedCoprocessors = Collections.synchronizedSet(new HashSet<String>());
 
 	public BasicHBaseOperations(
 			final String zookeeperInstances,
@@ -86,11 +93,31 @@ public class BasicHBaseOperations
 			final String columnFamily,
 			final boolean createTable )
 			throws IOException {
+		return createWriter(
+				sTableName,
+				columnFamily,
+				createTable,
+				new String[0]);
+	}
+
+	/**
+	 * @param coprocessors
+	 *            the class names of the coprocessors to register on the table
+	 *            if it is created, which must be available on the region
+	 *            server classpath
+	 */
+	public HBaseWriter createWriter(
+			final String sTableName,
+			final String columnFamily,
+			final boolean createTable,
+			final String[] coprocessors )
+			throws IOException {
 		final TableName tName = getTableName(getQualifiedTableName(sTableName));
 		Table table = null;
 		table = getTable(
 				createTable,
 				columnFamily,
+				coprocessors,
 				tName);
 		return new HBaseWriter(
 				conn.getAdmin(),
@@ -105,6 +132,7 @@ public class BasicHBaseOperations
 	private Table getTable(
 			final boolean create,
 			final String columnFamily,
+			final String[] coprocessors,
 			final TableName name )
 			throws IOException {
 		Table table;
@@ -115,6 +143,9 @@ public class BasicHBaseOperations
 						name);
 				desc.addFamily(new HColumnDescriptor(
 						columnFamily));
+				for (final String coprocessor : coprocessors) {
+					desc.addCoprocessor(coprocessor);
+				}
 				conn.getAdmin().createTable(
 						desc);
 			}
@@ -190,6 +221,19 @@ public class BasicHBaseOperations
 				scanner);
 	}
 
+	/**
+	 * Fetch the given rows in a single multi-get, which the client groups
+	 * into one request per region server
+	 */
+	public Result[] getRows(
+			final List<Get> gets,
+			final String tableName )
+			throws IOException {
+		try (Table table = conn.getTable(getTableName(getQualifiedTableName(tableName)))) {
+			return table.get(gets);
+		}
+	}
+
 	public boolean deleteTable(
 			final String tableName ) {
 		final String qName = getQualifiedTableName(tableName);
@@ -207,6 +251,38 @@ public class BasicHBaseOperations
 
 	}
 
+	/**
+	 * Check whether the given coprocessor is registered on the table. The
+	 * table is never modified, coprocessors are only registered when the
+	 * table is created.
+	 */
+	public boolean hasCoprocessor(
+			final String tableName,
+			final String coprocessorName ) {
+		final String qName = getQualifiedTableName(tableName);
+		final String key = qName + "/" + coprocessorName;
+		if (verifiedCoprocessors.contains(key)) {
+			return true;
+		}
+		try {
+			final HTableDescriptor descriptor;
+			synchronized (ADMIN_MUTEX) {
+				descriptor = conn.getAdmin().getTableDescriptor(
+						getTableName(qName));
+			}
+			if ((descriptor != null) && descriptor.hasCoprocessor(coprocessorName)) {
+				verifiedCoprocessors.add(key);
+				return true;
+			}
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to read the coprocessors of table '" + qName + "'",
+					e);
+		}
+		return false;
+	}
+
 	public RegionLocator getRegionLocator(
 			final String tableName )
 			throws IOException {
@@ -25,6 +25,21 @@ public class HBaseOptions
 	@Parameter(names = "--enableBlockCache", hidden = true, arity = 1)
 	protected boolean enableBlockCache = true;
 
+	@Parameter(names = "--scanThreads", hidden = true, description = "The number of threads used to execute the ranges of a query in parallel, which returns results out of row order (1, the default, scans serially in order)")
+	protected int scanThreads = 1;
+
+	@Parameter(names = "--scanPrefetchSize", hidden = true, description = "The number of rows a parallel scan may queue ahead of the client")
+	protected int scanPrefetchSize = 1000;
+
+	@Parameter(names = "--enableCoprocessors", hidden = true, arity = 1, description = "Register the GeoWave coprocessors on new index tables and run aggregations within the region servers (requires HBase 1.1 or later, with geowave-datastore-hbase-coprocessors on the region server classpath)")
+	protected boolean enableCoprocessors = false;
+
+	@Parameter(names = "--enableCustomFilters", hidden = true, arity = 1, description = "Evaluate query filters within the region servers (requires GeoWave on the region server classpath)")
+	protected boolean enableCustomFilters = false;
+
+	@Parameter(names = "--asyncSecondaryIndexing", hidden = true, arity = 1, description = "Write secondary indices in the background rather than on the ingest thread")
+	protected boolean asyncSecondaryIndexing = false;
+
 	public boolean isPersistDataStatistics() {
 		return persistDataStatistics;
 	}
@@ -87,4 +102,49 @@ public class HBaseOptions
 			boolean enableBlockCache ) {
 		this.enableBlockCache = enableBlockCache;
 	}
+
+	public int getScanThreads() {
+		return scanThreads;
+	}
+
+	public void setScanThreads(
+			final int scanThreads ) {
+		this.scanThreads = scanThreads;
+	}
+
+	public int getScanPrefetchSize() {
+		return scanPrefetchSize;
+	}
+
+	public void setScanPrefetchSize(
+			final int scanPrefetchSize ) {
+		this.scanPrefetchSize = scanPrefetchSize;
+	}
+
+	public boolean isEnableCoprocessors() {
+		return enableCoprocessors;
+	}
+
+	public void setEnableCoprocessors(
+			final boolean enableCoprocessors ) {
+		this.enableCoprocessors = enableCoprocessors;
+	}
+
+	public boolean isEnableCustomFilters() {
+		return enableCustomFilters;
+	}
+
+	public void setEnableCustomFilters(
+			final boolean enableCustomFilters ) {
+		this.enableCustomFilters = enableCustomFilters;
+	}
+
+	public boolean isAsyncSecondaryIndexing() {
+		return asyncSecondaryIndexing;
+	}
+
+	public void setAsyncSecondaryIndexing(
+			final boolean asyncSecondaryIndexing ) {
+		this.asyncSecondaryIndexing = asyncSecondaryIndexing;
+	}
 }
@@ -3,16 +3,24 @@ package mil.nga.giat.geowave.datastore.hbase.query;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.log4j.Logger;
 
 import com.google.common.collect.Iterators;
 
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.Mergeable;
+import mil.nga.giat.geowave.core.index.Persistable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
 import mil.nga.giat.geowave.core.index.sfc.data.MultiDimensionalNumericData;
 import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.CloseableIterator.Wrapper;
@@ -20,12 +28,15 @@ import mil.nga.giat.geowave.core.store.ScanCallback;
 import mil.nga.giat.geowave.core.store.adapter.AdapterStore;
 import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
 import mil.nga.giat.geowave.core.store.filter.DedupeFilter;
+import mil.nga.giat.geowave.core.store.filter.DistributableFilterList;
 import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
 import mil.nga.giat.geowave.core.store.filter.QueryFilter;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.memory.DataStoreUtils;
 import mil.nga.giat.geowave.core.store.query.Query;
+import mil.nga.giat.geowave.core.store.query.SortKey;
 import mil.nga.giat.geowave.core.store.query.aggregate.Aggregation;
+import mil.nga.giat.geowave.datastore.hbase.coprocessors.HBaseCoprocessors;
 import mil.nga.giat.geowave.datastore.hbase.operations.BasicHBaseOperations;
 
 public class HBaseConstraintsQuery extends
@@ -38,8 +49,11 @@ public class HBaseConstraintsQuery extends
 	protected final List<DistributableQueryFilter> distributableFilters;
 	protected boolean queryFiltersEnabled;
 
-	// TODO How to use?
 	protected final Pair<DataAdapter<?>, Aggregation<?, ?, ?>> aggregation;
+	private boolean serverSideAggregation = false;
+	protected SortKey<?> sortKey = null;
+	private Integer topK = null;
+	private List<DataAdapter<?>> topKAdapters = null;
 
 	public HBaseConstraintsQuery(
 			final List<ByteArrayId> adapterIds,
@@ -142,8 +156,7 @@ public class HBaseConstraintsQuery extends
 		}
 		queryFiltersEnabled = true;
 		if (isAggregation()) {
-			// TODO because aggregations are done client-side make sure to set
-			// the adapter ID here
+			// aggregations are only ever performed on a single adapter
 
 			this.adapterIds = Collections.singletonList(aggregation.getLeft().getAdapterId());
 		}
@@ -154,6 +167,48 @@ public class HBaseConstraintsQuery extends
 
 	}
 
+	/**
+	 * The aggregation can only be pushed to the region servers if every
+	 * filter can be evaluated there as well
+	 */
+	protected boolean isServerSideAggregationSupported() {
+		if (!isAggregation() || (options == null) || !options.isEnableCoprocessors()) {
+			return false;
+		}
+		for (final QueryFilter filter : clientFilters) {
+			if (!(filter instanceof DistributableQueryFilter)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Only the entries with the best values of the sort key, up to the limit,
+	 * are returned from each region, which the caller is responsible for
+	 * sorting and merging.
+	 */
+	public void setSortKey(
+			final SortKey<?> sortKey ) {
+		this.sortKey = sortKey;
+	}
+
+	/**
+	 * The top K entries can only be selected on the region servers if no
+	 * entries are rejected afterwards by client filters
+	 */
+	protected boolean isServerSideTopKSupported() {
+		if ((sortKey == null) || isAggregation() || (options == null) || !options.isEnableCoprocessors()) {
+			return false;
+		}
+		for (final QueryFilter filter : clientFilters) {
+			if (!(filter instanceof DistributableQueryFilter)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private static SplitFilterLists splitList(
 			final List<QueryFilter> allFilters ) {
 		final List<DistributableQueryFilter> distributableFilters = new ArrayList<DistributableQueryFilter>();
@@ -197,9 +252,17 @@ public class HBaseConstraintsQuery extends
 				MAX_RANGE_DECOMPOSITION);
 	}
 
+	protected boolean isServerSideFilteringEnabled() {
+		return (options != null) && options.isEnableCustomFilters();
+	}
+
 	@Override
 	protected List<QueryFilter> getAllFiltersList() {
 		final List<QueryFilter> filters = super.getAllFiltersList();
+		if (isServerSideFilteringEnabled()) {
+			// the distributable filters are evaluated on the region servers
+			return filters;
+		}
 		for (final QueryFilter distributable : distributableFilters) {
 			if (!filters.contains(distributable)) {
 				filters.add(distributable);
@@ -210,7 +273,140 @@ public class HBaseConstraintsQuery extends
 
 	@Override
 	protected List<Filter> getDistributableFilter() {
-		return new ArrayList<Filter>();
+		final List<Filter> filters = new ArrayList<Filter>();
+		if (isServerSideFilteringEnabled() && !distributableFilters.isEmpty()) {
+			filters.add(new HBaseDistributableFilter(
+					new DistributableFilterList(
+							distributableFilters),
+					index.getIndexModel()));
+		}
+		return filters;
+	}
+
+	@Override
+	protected List<Scan> getScanners(
+			final Integer limit,
+			final List<Filter> distributableFilters,
+			final CloseableIterator<DataAdapter<?>> adapters ) {
+		final List<Scan> scanners = super.getScanners(
+				limit,
+				distributableFilters,
+				adapters);
+		if (topKAdapters != null) {
+			final byte[] sortKeyBytes = PersistenceUtils.toBinary(sortKey);
+			final byte[] kBytes = Bytes.toBytes(topK == null ? -1 : topK);
+			final byte[] adaptersBytes = PersistenceUtils.toBinary(topKAdapters);
+			final byte[] modelBytes = PersistenceUtils.toBinary(index.getIndexModel());
+			final byte[] filterBytes = !isServerSideFilteringEnabled() && !this.distributableFilters.isEmpty() ? PersistenceUtils
+					.toBinary(new DistributableFilterList(
+							this.distributableFilters)) : null;
+			for (final Scan scanner : scanners) {
+				scanner.setAttribute(
+						HBaseCoprocessors.TOP_K_SORT_KEY_ATTRIBUTE,
+						sortKeyBytes);
+				scanner.setAttribute(
+						HBaseCoprocessors.TOP_K_ATTRIBUTE,
+						kBytes);
+				scanner.setAttribute(
+						HBaseCoprocessors.TOP_K_ADAPTERS_ATTRIBUTE,
+						adaptersBytes);
+				scanner.setAttribute(
+						HBaseCoprocessors.TOP_K_MODEL_ATTRIBUTE,
+						modelBytes);
+				if (filterBytes != null) {
+					scanner.setAttribute(
+							HBaseCoprocessors.TOP_K_FILTER_ATTRIBUTE,
+							filterBytes);
+				}
+			}
+		}
+		if (serverSideAggregation) {
+			final Aggregation<?, ?, ?> aggregationFunction = aggregation.getRight();
+			final byte[] aggregationBytes = StringUtils.stringToBinary(aggregationFunction.getClass().getName());
+			final Persistable parameters = aggregationFunction.getParameters();
+			final byte[] parameterBytes = parameters != null ? PersistenceUtils.toBinary(parameters) : null;
+			final byte[] adapterBytes = PersistenceUtils.toBinary(aggregation.getLeft());
+			final byte[] modelBytes = PersistenceUtils.toBinary(index.getIndexModel());
+			// if the filters are not already applied to the scan, the
+			// coprocessor must apply them before aggregating
+			final byte[] filterBytes = !isServerSideFilteringEnabled() && !this.distributableFilters.isEmpty() ? PersistenceUtils
+					.toBinary(new DistributableFilterList(
+							this.distributableFilters)) : null;
+			for (final Scan scanner : scanners) {
+				scanner.setAttribute(
+						HBaseCoprocessors.AGGREGATION_ATTRIBUTE,
+						aggregationBytes);
+				scanner.setAttribute(
+						HBaseCoprocessors.AGGREGATION_ADAPTER_ATTRIBUTE,
+						adapterBytes);
+				scanner.setAttribute(
+						HBaseCoprocessors.AGGREGATION_MODEL_ATTRIBUTE,
+						modelBytes);
+				if (parameterBytes != null) {
+					scanner.setAttribute(
+							HBaseCoprocessors.AGGREGATION_PARAMETER_ATTRIBUTE,
+							parameterBytes);
+				}
+				if (filterBytes != null) {
+					scanner.setAttribute(
+							HBaseCoprocessors.AGGREGATION_FILTER_ATTRIBUTE,
+							filterBytes);
+				}
+			}
+		}
+		return scanners;
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	protected Iterator initIterator(
+			final AdapterStore adapterStore,
+			final Iterator<Result> resultsIterator ) {
+		if (!serverSideAggregation) {
+			return super.initIterator(
+					adapterStore,
+					resultsIterator);
+		}
+		final Mergeable mergedAggregationResult = mergeAggregationResults(
+				resultsIterator,
+				aggregation.getLeft().getAdapterId().getBytes());
+		if (mergedAggregationResult == null) {
+			return Iterators.emptyIterator();
+		}
+		return Iterators.singletonIterator(mergedAggregationResult);
+	}
+
+	/**
+	 * Each region returns its partial aggregation result, merge them into a
+	 * single value
+	 * 
+	 * @param resultsIterator
+	 *            the results of the regions
+	 * @param family
+	 *            the column family of the aggregated adapter
+	 * @return the merged result, or null if no region returned a result
+	 */
+	protected static Mergeable mergeAggregationResults(
+			final Iterator<Result> resultsIterator,
+			final byte[] family ) {
+		Mergeable mergedAggregationResult = null;
+		while (resultsIterator.hasNext()) {
+			final byte[] value = resultsIterator.next().getValue(
+					family,
+					HBaseCoprocessors.AGGREGATION_QUALIFIER);
+			if (value != null) {
+				final Mergeable partialResult = PersistenceUtils.fromBinary(
+						value,
+						Mergeable.class);
+				if (mergedAggregationResult == null) {
+					mergedAggregationResult = partialResult;
+				}
+				else {
+					mergedAggregationResult.merge(partialResult);
+				}
+			}
+		}
+		return mergedAggregationResult;
 	}
 
 	@Override
@@ -218,13 +414,27 @@ public class HBaseConstraintsQuery extends
 			final BasicHBaseOperations operations,
 			final AdapterStore adapterStore,
 			final Integer limit ) {
+		serverSideAggregation = isServerSideAggregationSupported() && operations.hasCoprocessor(
+				StringUtils.stringFromBinary(index.getId().getBytes()),
+				HBaseCoprocessors.AGGREGATION_OBSERVER);
+		topK = limit;
+		topKAdapters = null;
+		if (isServerSideTopKSupported() && operations.hasCoprocessor(
+				StringUtils.stringFromBinary(index.getId().getBytes()),
+				HBaseCoprocessors.TOP_K_OBSERVER)) {
+			topKAdapters = DataStoreUtils.getAdapters(
+					adapterStore,
+					adapterIds);
+		}
+		// when sorted, the limit applies to the sorted entries rather than the
+		// first entries scanned
 		final CloseableIterator<Object> it = super.query(
 				operations,
 				adapterStore,
-				limit);
-		if (isAggregation() && (it != null) && it.hasNext()) {
-			// TODO implement aggregation as a co-processor on the server side,
-			// but for now simply aggregate client-side here
+				(sortKey == null) || isAggregation() ? limit : null);
+		if (!serverSideAggregation && isAggregation() && (it != null) && it.hasNext()) {
+			// the aggregation could not be pushed to the region servers so
+			// aggregate client-side here
 
 			final Aggregation aggregationFunction = aggregation.getRight();
 			synchronized (aggregationFunction) {
@@ -249,10 +459,7 @@ public class HBaseConstraintsQuery extends
 			}
 		}
 		else {
-			return super.query(
-					operations,
-					adapterStore,
-					limit);
+			return it;
 		}
 	}
 }
@@ -0,0 +1,167 @@
+package mil.nga.giat.geowave.datastore.hbase.query;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.exceptions.DeserializationException;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterBase;
+import org.apache.log4j.Logger;
+
+import mil.nga.giat.geowave.core.index.ByteArrayId;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
+import mil.nga.giat.geowave.core.store.data.PersistentDataset;
+import mil.nga.giat.geowave.core.store.data.PersistentValue;
+import mil.nga.giat.geowave.core.store.data.field.FieldReader;
+import mil.nga.giat.geowave.core.store.filter.DistributableQueryFilter;
+import mil.nga.giat.geowave.core.store.index.CommonIndexModel;
+import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
+import mil.nga.giat.geowave.datastore.hbase.entities.HBaseRowId;
+
+/**
+ * This is the HBase equivalent of Accumulo's QueryFilterIterator. It wraps a
+ * DistributableQueryFilter and the CommonIndexModel needed to deserialize a
+ * row into a set of fields that can be used by the filter, and rejects rows on
+ * the region server so that they are never sent to the client.
+ *
+ * The GeoWave jar must be on the region server classpath for this filter to be
+ * deserialized.
+ */
+public class HBaseDistributableFilter extends
+		FilterBase
+{
+	private final static Logger LOGGER = Logger.getLogger(HBaseDistributableFilter.class);
+	private final DistributableQueryFilter filter;
+	private final CommonIndexModel model;
+	private boolean filterOutRow = false;
+
+	public HBaseDistributableFilter(
+			final DistributableQueryFilter filter,
+			final CommonIndexModel model ) {
+		if (filter == null) {
+			throw new IllegalArgumentException(
+					"'filter' must be set for " + HBaseDistributableFilter.class.getName());
+		}
+		if (model == null) {
+			throw new IllegalArgumentException(
+					"'model' must be set for " + HBaseDistributableFilter.class.getName());
+		}
+		this.filter = filter;
+		this.model = model;
+	}
+
+	@Override
+	public ReturnCode filterKeyValue(
+			final Cell v )
+			throws IOException {
+		// the filter is applied to the whole row within filterRowCells
+		return ReturnCode.INCLUDE;
+	}
+
+	@Override
+	public boolean hasFilterRow() {
+		return true;
+	}
+
+	@Override
+	public void filterRowCells(
+			final List<Cell> rowCells )
+			throws IOException {
+		if (rowCells.isEmpty()) {
+			return;
+		}
+		final Cell firstCell = rowCells.get(0);
+		final HBaseRowId rowId = new HBaseRowId(
+				CellUtil.cloneRow(firstCell));
+		final PersistentDataset<CommonIndexValue> commonData = new PersistentDataset<CommonIndexValue>();
+		final PersistentDataset<byte[]> unknownData = new PersistentDataset<byte[]>();
+		for (final Cell cell : rowCells) {
+			final ByteArrayId fieldId = new ByteArrayId(
+					CellUtil.cloneQualifier(cell));
+			final byte[] value = CellUtil.cloneValue(cell);
+			final FieldReader<? extends CommonIndexValue> reader = model.getReader(fieldId);
+			if (reader != null) {
+				commonData.addValue(new PersistentValue<CommonIndexValue>(
+						fieldId,
+						reader.readField(value)));
+			}
+			else {
+				// adapter extended fields are left for the filter to read if
+				// it is aware of the adapter
+				unknownData.addValue(new PersistentValue<byte[]>(
+						fieldId,
+						value));
+			}
+		}
+		final IndexedAdapterPersistenceEncoding encoding = new IndexedAdapterPersistenceEncoding(
+				new ByteArrayId(
+						CellUtil.cloneFamily(firstCell)),
+				new ByteArrayId(
+						rowId.getDataId()),
+				new ByteArrayId(
+						rowId.getInsertionId()),
+				rowId.getNumberOfDuplicates(),
+				commonData,
+				unknownData,
+				new PersistentDataset<Object>());
+		if (!filter.accept(
+				model,
+				encoding)) {
+			filterOutRow = true;
+			rowCells.clear();
+		}
+	}
+
+	@Override
+	public boolean filterRow()
+			throws IOException {
+		return filterOutRow;
+	}
+
+	@Override
+	public void reset()
+			throws IOException {
+		filterOutRow = false;
+	}
+
+	public static Filter parseFrom(
+			final byte[] bytes )
+			throws DeserializationException {
+		try {
+			final ByteBuffer buf = ByteBuffer.wrap(bytes);
+			final byte[] filterBytes = new byte[buf.getInt()];
+			buf.get(filterBytes);
+			final byte[] modelBytes = new byte[buf.remaining()];
+			buf.get(modelBytes);
+			return new HBaseDistributableFilter(
+					PersistenceUtils.fromBinary(
+							filterBytes,
+							DistributableQueryFilter.class),
+					PersistenceUtils.fromBinary(
+							modelBytes,
+							CommonIndexModel.class));
+		}
+		catch (final Exception e) {
+			LOGGER.error(
+					"Unable to deserialize " + HBaseDistributableFilter.class.getName(),
+					e);
+			throw new DeserializationException(
+					e);
+		}
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		final byte[] filterBytes = PersistenceUtils.toBinary(filter);
+		final byte[] modelBytes = PersistenceUtils.toBinary(model);
+		final ByteBuffer buf = ByteBuffer.allocate(4 + filterBytes.length + modelBytes.length);
+		buf.putInt(filterBytes.length);
+		buf.put(filterBytes);
+		buf.put(modelBytes);
+		return buf.array();
+	}
+}
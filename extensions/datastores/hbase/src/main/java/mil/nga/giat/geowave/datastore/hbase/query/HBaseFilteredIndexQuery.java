@@ -30,9 +30,11 @@ import mil.nga.giat.geowave.core.store.filter.QueryFilter;
 import mil.nga.giat.geowave.core.store.index.CommonIndexValue;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.datastore.hbase.operations.BasicHBaseOperations;
+import mil.nga.giat.geowave.datastore.hbase.operations.config.HBaseOptions;
 import mil.nga.giat.geowave.datastore.hbase.util.HBaseCloseableIteratorWrapper;
 import mil.nga.giat.geowave.datastore.hbase.util.HBaseCloseableIteratorWrapper.MultiScannerClosableWrapper;
 import mil.nga.giat.geowave.datastore.hbase.util.HBaseEntryIteratorWrapper;
+import mil.nga.giat.geowave.datastore.hbase.util.HBaseParallelScanner;
 import mil.nga.giat.geowave.datastore.hbase.util.HBaseUtils;
 
 public abstract class HBaseFilteredIndexQuery extends
@@ -43,6 +45,7 @@ public abstract class HBaseFilteredIndexQuery extends
 	protected List<QueryFilter> clientFilters;
 	private final static Logger LOGGER = Logger.getLogger(HBaseFilteredIndexQuery.class);
 	private Collection<String> fieldIds = null;
+	protected HBaseOptions options = null;
 
 	public HBaseFilteredIndexQuery(
 			final List<ByteArrayId> adapterIds,
@@ -66,6 +69,15 @@ public abstract class HBaseFilteredIndexQuery extends
 		this.fieldIds = fieldIds;
 	}
 
+	/**
+	 * Provide the data store options, which determine whether the ranges of
+	 * this query are scanned serially or in parallel
+	 */
+	public void setOptions(
+			final HBaseOptions options ) {
+		this.options = options;
+	}
+
 	private boolean validateAdapters(
 			final BasicHBaseOperations operations )
 			throws IOException {
@@ -122,16 +134,36 @@ public abstract class HBaseFilteredIndexQuery extends
 				distributableFilters,
 				adapters);
 
+		if ((options != null) && (options.getScanThreads() > 1)) {
+			final HBaseParallelScanner parallelScanner = new HBaseParallelScanner(
+					operations,
+					tableName,
+					scanners,
+					options.getScanThreads(),
+					options.getScanPrefetchSize(),
+					profile);
+			parallelScanner.start();
+			return new HBaseCloseableIteratorWrapper(
+					parallelScanner,
+					limitIterator(
+							initIterator(
+									adapterStore,
+									parallelScanner),
+							limit));
+		}
+
 		final List<Iterator<Result>> resultsIterators = new ArrayList<Iterator<Result>>();
 		final List<ResultScanner> results = new ArrayList<ResultScanner>();
 
-		// TODO Consider parallelization as list of scanners can be long and
-		// getScannedResults might be slow?
 		for (final Scan scanner : scanners) {
 			try {
+				final long scannerSetupStart = System.nanoTime();
 				final ResultScanner rs = operations.getScannedResults(
 						scanner,
 						tableName);
+				if (profile != null) {
+					profile.scannerCreated(System.nanoTime() - scannerSetupStart);
+				}
 
 				if (rs != null) {
 					results.add(rs);
@@ -147,25 +179,32 @@ public abstract class HBaseFilteredIndexQuery extends
 		}
 
 		if (results.iterator().hasNext()) {
-			Iterator it = initIterator(
-					adapterStore,
-					Iterators.concat(resultsIterators.iterator()));
-
-			if ((limit != null) && (limit > 0)) {
-				it = Iterators.limit(
-						it,
-						limit);
-			}
 			return new HBaseCloseableIteratorWrapper(
 					new MultiScannerClosableWrapper(
 							results),
-					it);
+					limitIterator(
+							initIterator(
+									adapterStore,
+									Iterators.concat(resultsIterators.iterator())),
+							limit));
 		}
 
 		LOGGER.error("Results were empty");
 		return new CloseableIterator.Empty();
 	}
 
+	@SuppressWarnings("rawtypes")
+	private static Iterator limitIterator(
+			final Iterator it,
+			final Integer limit ) {
+		if ((limit != null) && (limit > 0)) {
+			return Iterators.limit(
+					it,
+					limit);
+		}
+		return it;
+	}
+
 	protected abstract List<Filter> getDistributableFilter();
 
 	protected List<Scan> getScanners(
@@ -179,7 +218,14 @@ public abstract class HBaseFilteredIndexQuery extends
 				filterList.addFilter(filter);
 			}
 		}
+		final long decompositionStart = System.nanoTime();
 		List<ByteArrayRange> ranges = getRanges();
+		if (profile != null) {
+			profile.indexQueried(index.getId());
+			profile.rangesDecomposed(
+					ranges == null ? 0 : ranges.size(),
+					System.nanoTime() - decompositionStart);
+		}
 		if ((ranges == null) || ranges.isEmpty()) {
 			ranges = Collections.singletonList(new ByteArrayRange(
 					null,
@@ -269,10 +315,8 @@ public abstract class HBaseFilteredIndexQuery extends
 	protected Iterator initIterator(
 			final AdapterStore adapterStore,
 			final Iterator<Result> resultsIterator ) {
-		// TODO Fix #406 Since currently we are not supporting server side
-		// iterator/coprocessors, we also cannot run
-		// server side filters and hence they have to run on clients itself. So
-		// need to add server side filters also in list of client filters.
+		// unless custom filters are enabled on the region servers, the
+		// distributable filters are included in this list and run client-side
 		final List<QueryFilter> filters = getAllFiltersList();
 		return new HBaseEntryIteratorWrapper(
 				adapterStore,
@@ -280,7 +324,8 @@ public abstract class HBaseFilteredIndexQuery extends
 				resultsIterator,
 				new mil.nga.giat.geowave.core.store.filter.FilterList<QueryFilter>(
 						filters),
-				scanCallback);
+				scanCallback,
+				profile);
 	}
 
 	protected List<QueryFilter> getAllFiltersList() {
@@ -7,6 +7,7 @@ import org.apache.log4j.Logger;
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.ByteArrayRange;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
 
 abstract public class HBaseQuery
 {
@@ -16,6 +17,7 @@ abstract public class HBaseQuery
 	protected final PrimaryIndex index;
 
 	private final String[] authorizations;
+	protected QueryProfile profile = null;
 
 	public HBaseQuery(
 			final PrimaryIndex index,
@@ -41,4 +43,14 @@ abstract public class HBaseQuery
 
 	abstract protected List<ByteArrayRange> getRanges();
 
+	/**
+	 * @param profile
+	 *            the profile to record the stages of this query in, or null to
+	 *            skip profiling
+	 */
+	public void setProfile(
+			final QueryProfile profile ) {
+		this.profile = profile;
+	}
+
 }
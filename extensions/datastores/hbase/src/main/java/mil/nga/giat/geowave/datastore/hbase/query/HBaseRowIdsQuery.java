@@ -1,19 +1,31 @@
 package mil.nga.giat.geowave.datastore.hbase.query;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
 import org.apache.log4j.Logger;
 
+import com.google.common.collect.Iterators;
+
 import mil.nga.giat.geowave.core.index.ByteArrayId;
 import mil.nga.giat.geowave.core.index.ByteArrayRange;
+import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.CloseableIterator;
 import mil.nga.giat.geowave.core.store.ScanCallback;
+import mil.nga.giat.geowave.core.store.adapter.AdapterStore;
 import mil.nga.giat.geowave.core.store.adapter.DataAdapter;
 import mil.nga.giat.geowave.core.store.filter.DedupeFilter;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
 import mil.nga.giat.geowave.core.store.query.Query;
+import mil.nga.giat.geowave.datastore.hbase.operations.BasicHBaseOperations;
 
 public class HBaseRowIdsQuery<T> extends
 		HBaseConstraintsQuery
@@ -82,6 +94,76 @@ public class HBaseRowIdsQuery<T> extends
 	// return retVal;
 	// }
 
+	/**
+	 * Multiple rows are fetched with a single multi-get rather than a scanner
+	 * per row, the row IDs already identify the adapter so no column families
+	 * need to be given. The distributable filters are applied to each get as
+	 * they would be to a scan.
+	 */
+	@SuppressWarnings("rawtypes")
+	@Override
+	public CloseableIterator<Object> query(
+			final BasicHBaseOperations operations,
+			final AdapterStore adapterStore,
+			final Integer limit ) {
+		if (rows.size() < 2) {
+			return super.query(
+					operations,
+					adapterStore,
+					limit);
+		}
+		final String tableName = StringUtils.stringFromBinary(index.getId().getBytes());
+		final List<ByteArrayId> sortedRows = new ArrayList<ByteArrayId>(
+				rows);
+		Collections.sort(sortedRows);
+		// the same server side filters as a scan, when custom filters are
+		// enabled
+		final List<Filter> distributableFilters = getDistributableFilter();
+		final FilterList filterList = distributableFilters.isEmpty() ? null : new FilterList(
+				distributableFilters);
+		final List<Get> gets = new ArrayList<Get>(
+				sortedRows.size());
+		for (final ByteArrayId row : sortedRows) {
+			final Get get = new Get(
+					row.getBytes());
+			if (filterList != null) {
+				get.setFilter(filterList);
+			}
+			gets.add(get);
+		}
+		final List<Result> results = new ArrayList<Result>(
+				gets.size());
+		try {
+			if (!operations.tableExists(tableName)) {
+				LOGGER.warn("Table does not exist " + tableName);
+				return new CloseableIterator.Empty();
+			}
+			for (final Result result : operations.getRows(
+					gets,
+					tableName)) {
+				if ((result != null) && !result.isEmpty()) {
+					results.add(result);
+				}
+			}
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to get rows from table '" + tableName + "'",
+					e);
+			return new CloseableIterator.Empty();
+		}
+		Iterator it = initIterator(
+				adapterStore,
+				results.iterator());
+		if ((limit != null) && (limit > 0)) {
+			it = Iterators.limit(
+					it,
+					limit);
+		}
+		return new CloseableIterator.Wrapper(
+				it);
+	}
+
 	@Override
 	protected List<ByteArrayRange> getRanges() {
 		final List<ByteArrayRange> ranges = new ArrayList<ByteArrayRange>();
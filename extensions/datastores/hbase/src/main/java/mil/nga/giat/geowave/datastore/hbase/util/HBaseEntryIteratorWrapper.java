@@ -10,6 +10,7 @@ import mil.nga.giat.geowave.core.store.ScanCallback;
 import mil.nga.giat.geowave.core.store.adapter.AdapterStore;
 import mil.nga.giat.geowave.core.store.filter.QueryFilter;
 import mil.nga.giat.geowave.core.store.index.PrimaryIndex;
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
 
 public class HBaseEntryIteratorWrapper<T> implements
 		Iterator<T>
@@ -20,6 +21,7 @@ public class HBaseEntryIteratorWrapper<T> implements
 	private final Iterator<Result> scannerIt;
 	protected final QueryFilter clientFilter;
 	private final ScanCallback<T> scanCallback;
+	protected final QueryProfile profile;
 
 	protected T nextValue;
 
@@ -33,6 +35,7 @@ public class HBaseEntryIteratorWrapper<T> implements
 		this.scannerIt = scannerIt;
 		this.clientFilter = clientFilter;
 		this.scanCallback = null;
+		this.profile = null;
 	}
 
 	public HBaseEntryIteratorWrapper(
@@ -41,11 +44,28 @@ public class HBaseEntryIteratorWrapper<T> implements
 			final Iterator<Result> scannerIt,
 			final QueryFilter clientFilter,
 			final ScanCallback<T> scanCallback ) {
+		this(
+				adapterStore,
+				index,
+				scannerIt,
+				clientFilter,
+				scanCallback,
+				null);
+	}
+
+	public HBaseEntryIteratorWrapper(
+			final AdapterStore adapterStore,
+			final PrimaryIndex index,
+			final Iterator<Result> scannerIt,
+			final QueryFilter clientFilter,
+			final ScanCallback<T> scanCallback,
+			final QueryProfile profile ) {
 		this.adapterStore = adapterStore;
 		this.index = index;
 		this.scannerIt = scannerIt;
 		this.clientFilter = clientFilter;
 		this.scanCallback = scanCallback;
+		this.profile = profile;
 	}
 
 	@Override
@@ -66,12 +86,27 @@ public class HBaseEntryIteratorWrapper<T> implements
 	}
 
 	protected void findNext() {
-		while ((nextValue == null) && scannerIt.hasNext()) {
+		while (nextValue == null) {
+			// the scanner fetches its next batch of results in hasNext()
+			final long scanStart = System.nanoTime();
+			if (!scannerIt.hasNext()) {
+				if (profile != null) {
+					profile.scannerWaited(System.nanoTime() - scanStart);
+				}
+				return;
+			}
 			final Result row = scannerIt.next();
+			final long decodeStart = System.nanoTime();
 			final T decodedValue = decodeRow(
 					row,
 					clientFilter,
 					index);
+			if (profile != null) {
+				profile.rowScanned(decodeStart - scanStart);
+				profile.rowDecoded(
+						decodedValue != null,
+						System.nanoTime() - decodeStart);
+			}
 			if (decodedValue != null) {
 				nextValue = decodedValue;
 				return;
@@ -0,0 +1,418 @@
+package mil.nga.giat.geowave.datastore.hbase.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.log4j.Logger;
+
+import mil.nga.giat.geowave.core.store.query.QueryProfile;
+import mil.nga.giat.geowave.datastore.hbase.operations.BasicHBaseOperations;
+
+/**
+ * This is the HBase equivalent of Accumulo's BatchScanner. The given scans are
+ * first split on region boundaries so that each task reads from exactly one
+ * region, and then executed on a bounded thread pool. Results are handed back
+ * to the calling thread through a bounded prefetch queue, so a slow consumer
+ * applies back pressure to the region servers rather than buffering the
+ * entire result set in memory.
+ *
+ * Like the BatchScanner, results are not returned in row order. A failed scan
+ * is rethrown to the caller from hasNext() or next() and cancels the remaining
+ * scans, as does closing the scanner. The scan tasks only weakly reference the
+ * scanner, so the scans are also cancelled if the scanner is abandoned without
+ * being closed.
+ */
+public class HBaseParallelScanner implements
+		Iterator<Result>,
+		Closeable
+{
+	private final static Logger LOGGER = Logger.getLogger(HBaseParallelScanner.class);
+	// marker placed on the queue once every scan task has completed
+	private static final Object END_OF_SCANS = new Object();
+	// how often a task blocked on a full queue checks whether the scanner was
+	// abandoned
+	private static final long ENQUEUE_TIMEOUT_MILLIS = 1000;
+	// static so that the pool does not reference the scanner
+	private static final ThreadFactory SCAN_THREAD_FACTORY = new ThreadFactory() {
+		@Override
+		public Thread newThread(
+				final Runnable r ) {
+			final Thread thread = new Thread(
+					r,
+					"GeoWave HBase scan");
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+
+	private final BasicHBaseOperations operations;
+	private final String tableName;
+	private final List<Scan> scans;
+	private final int numThreads;
+	private final QueryProfile profile;
+	private final ScanState state;
+	private Result nextResult = null;
+	private boolean finished = false;
+
+	public HBaseParallelScanner(
+			final BasicHBaseOperations operations,
+			final String tableName,
+			final List<Scan> scans,
+			final int numThreads,
+			final int prefetchSize,
+			final QueryProfile profile ) {
+		this.operations = operations;
+		this.tableName = tableName;
+		this.scans = scans;
+		this.numThreads = Math.max(
+				1,
+				numThreads);
+		this.profile = profile;
+		state = new ScanState(
+				new ArrayBlockingQueue<Object>(
+						Math.max(
+								1,
+								prefetchSize)));
+	}
+
+	/**
+	 * Split the scans by region and submit them to the thread pool. Results
+	 * will start queueing immediately.
+	 */
+	public void start() {
+		final List<Scan> regionScans = splitByRegion(scans);
+		if (regionScans.isEmpty()) {
+			finished = true;
+			return;
+		}
+		final AtomicInteger remainingScans = new AtomicInteger(
+				regionScans.size());
+		final WeakReference<HBaseParallelScanner> consumer = new WeakReference<HBaseParallelScanner>(
+				this);
+		state.executor = Executors.newFixedThreadPool(
+				Math.min(
+						numThreads,
+						regionScans.size()),
+				SCAN_THREAD_FACTORY);
+		for (final Scan scan : regionScans) {
+			state.executor.execute(new ScanTask(
+					operations,
+					tableName,
+					scan,
+					profile,
+					state,
+					consumer,
+					remainingScans));
+		}
+		// let the submitted tasks run to completion, but accept no more
+		state.executor.shutdown();
+	}
+
+	private List<Scan> splitByRegion(
+			final List<Scan> scans ) {
+		byte[][] regionStartKeys = null;
+		try (RegionLocator locator = operations.getRegionLocator(tableName)) {
+			regionStartKeys = locator.getStartKeys();
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to locate regions for table '" + tableName + "', scans will not be split by region",
+					e);
+		}
+		if ((regionStartKeys == null) || (regionStartKeys.length < 2)) {
+			return scans;
+		}
+		final List<Scan> regionScans = new ArrayList<Scan>();
+		for (final Scan scan : scans) {
+			final byte[] stopRow = scan.getStopRow();
+			final List<Scan> splitScans = new ArrayList<Scan>();
+			byte[] currentStart = scan.getStartRow();
+			for (final byte[] regionStart : regionStartKeys) {
+				// the first region starts with an empty key and never splits a
+				// scan
+				if ((regionStart.length == 0) || (Bytes.compareTo(
+						regionStart,
+						currentStart) <= 0)) {
+					continue;
+				}
+				if ((stopRow.length > 0) && (Bytes.compareTo(
+						regionStart,
+						stopRow) >= 0)) {
+					break;
+				}
+				splitScans.add(copyScan(
+						scan,
+						currentStart,
+						regionStart));
+				currentStart = regionStart;
+			}
+			if (splitScans.isEmpty()) {
+				// the scan lies entirely within one region
+				regionScans.add(scan);
+				continue;
+			}
+			splitScans.add(copyScan(
+					scan,
+					currentStart,
+					stopRow));
+			if (splitScans.contains(null)) {
+				// copying failed, fall back to the original scan
+				regionScans.add(scan);
+			}
+			else {
+				regionScans.addAll(splitScans);
+			}
+		}
+		return regionScans;
+	}
+
+	private static Scan copyScan(
+			final Scan scan,
+			final byte[] startRow,
+			final byte[] stopRow ) {
+		try {
+			final Scan copy = new Scan(
+					scan);
+			copy.setStartRow(startRow);
+			copy.setStopRow(stopRow);
+			return copy;
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to copy scan",
+					e);
+		}
+		return null;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (nextResult != null) {
+			return true;
+		}
+		if (finished) {
+			return false;
+		}
+		final Object result;
+		try {
+			result = state.resultQueue.take();
+		}
+		catch (final InterruptedException e) {
+			LOGGER.warn(
+					"Interrupted while waiting for scan results",
+					e);
+			Thread.currentThread().interrupt();
+			close();
+			return false;
+		}
+		if (result == END_OF_SCANS) {
+			finished = true;
+			return false;
+		}
+		if (result instanceof ScanFailure) {
+			close();
+			throw new RuntimeException(
+					"Unable to scan table '" + tableName + "'",
+					((ScanFailure) result).cause);
+		}
+		nextResult = (Result) result;
+		return true;
+	}
+
+	@Override
+	public Result next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final Result result = nextResult;
+		nextResult = null;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException(
+				"Remove is not supported by the parallel scanner");
+	}
+
+	@Override
+	public void close() {
+		finished = true;
+		nextResult = null;
+		state.cancel();
+	}
+
+	/**
+	 * The state shared by the scanner and its tasks, which must not reference
+	 * the scanner itself
+	 */
+	private static class ScanState
+	{
+		private final BlockingQueue<Object> resultQueue;
+		private final List<ResultScanner> openScanners = new ArrayList<ResultScanner>();
+		private volatile ExecutorService executor;
+		private volatile boolean closed = false;
+
+		private ScanState(
+				final BlockingQueue<Object> resultQueue ) {
+			this.resultQueue = resultQueue;
+		}
+
+		private void cancel() {
+			closed = true;
+			final ExecutorService executor = this.executor;
+			if (executor != null) {
+				// interrupts any task blocked on a full queue
+				executor.shutdownNow();
+			}
+			resultQueue.clear();
+			synchronized (openScanners) {
+				for (final ResultScanner scanner : openScanners) {
+					scanner.close();
+				}
+				openScanners.clear();
+			}
+		}
+	}
+
+	private static class ScanFailure
+	{
+		private final Throwable cause;
+
+		private ScanFailure(
+				final Throwable cause ) {
+			this.cause = cause;
+		}
+	}
+
+	private static class ScanTask implements
+			Runnable
+	{
+		private final BasicHBaseOperations operations;
+		private final String tableName;
+		private final Scan scan;
+		private final QueryProfile profile;
+		private final ScanState state;
+		private final WeakReference<HBaseParallelScanner> consumer;
+		private final AtomicInteger remainingScans;
+
+		public ScanTask(
+				final BasicHBaseOperations operations,
+				final String tableName,
+				final Scan scan,
+				final QueryProfile profile,
+				final ScanState state,
+				final WeakReference<HBaseParallelScanner> consumer,
+				final AtomicInteger remainingScans ) {
+			this.operations = operations;
+			this.tableName = tableName;
+			this.scan = scan;
+			this.profile = profile;
+			this.state = state;
+			this.consumer = consumer;
+			this.remainingScans = remainingScans;
+		}
+
+		@Override
+		public void run() {
+			ResultScanner scanner = null;
+			boolean failed = false;
+			try {
+				if (state.closed) {
+					return;
+				}
+				final long scannerSetupStart = System.nanoTime();
+				scanner = operations.getScannedResults(
+						scan,
+						tableName);
+				if (profile != null) {
+					profile.scannerCreated(System.nanoTime() - scannerSetupStart);
+				}
+				synchronized (state.openScanners) {
+					if (state.closed) {
+						scanner.close();
+						return;
+					}
+					state.openScanners.add(scanner);
+				}
+				for (final Result result : scanner) {
+					if (!enqueue(result)) {
+						return;
+					}
+				}
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch (final IOException | RuntimeException e) {
+				// ResultScanner's iterator wraps IOExceptions as runtime
+				// exceptions
+				if (!state.closed) {
+					failed = true;
+					try {
+						enqueue(new ScanFailure(
+								e));
+					}
+					catch (final InterruptedException ie) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+			finally {
+				if (scanner != null) {
+					synchronized (state.openScanners) {
+						if (state.openScanners.remove(scanner)) {
+							scanner.close();
+						}
+					}
+				}
+				if ((remainingScans.decrementAndGet() == 0) && !failed && !state.closed) {
+					try {
+						enqueue(END_OF_SCANS);
+					}
+					catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return false if the scans were cancelled
+		 */
+		private boolean enqueue(
+				final Object item )
+				throws InterruptedException {
+			while (!state.closed) {
+				if (state.resultQueue.offer(
+						item,
+						ENQUEUE_TIMEOUT_MILLIS,
+						TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+				if (consumer.get() == null) {
+					LOGGER.warn("Parallel scanner of table '" + tableName + "' was not closed, cancelling its scans");
+					state.cancel();
+				}
+			}
+			return false;
+		}
+	}
+}
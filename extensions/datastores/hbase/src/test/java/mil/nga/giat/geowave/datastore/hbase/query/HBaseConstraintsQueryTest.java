@@ -0,0 +1,72 @@
+package mil.nga.giat.geowave.datastore.hbase.query;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.junit.Assert;
+import org.junit.Test;
+
+import mil.nga.giat.geowave.core.index.Mergeable;
+import mil.nga.giat.geowave.core.index.PersistenceUtils;
+import mil.nga.giat.geowave.core.index.StringUtils;
+import mil.nga.giat.geowave.core.store.query.aggregate.CountResult;
+import mil.nga.giat.geowave.datastore.hbase.coprocessors.HBaseCoprocessors;
+
+public class HBaseConstraintsQueryTest
+{
+	private static final byte[] FAMILY = StringUtils.stringToBinary("adapter");
+
+	@Test
+	public void testMergeAggregationResults() {
+		final Mergeable merged = HBaseConstraintsQuery.mergeAggregationResults(
+				Arrays.asList(
+						createRegionResult(
+								"region1",
+								3),
+						createRegionResult(
+								"region2",
+								0),
+						// a region without a result is skipped
+						Result.create(new Cell[0]),
+						createRegionResult(
+								"region3",
+								5)).iterator(),
+				FAMILY);
+
+		Assert.assertTrue(merged instanceof CountResult);
+		Assert.assertEquals(
+				8,
+				((CountResult) merged).getCount());
+	}
+
+	@Test
+	public void testMergeNoAggregationResults() {
+		Assert.assertNull(HBaseConstraintsQuery.mergeAggregationResults(
+				Collections.<Result> emptyList().iterator(),
+				FAMILY));
+		Assert.assertNull(HBaseConstraintsQuery.mergeAggregationResults(
+				Collections.singletonList(
+						Result.create(new Cell[0])).iterator(),
+				FAMILY));
+	}
+
+	private static Result createRegionResult(
+			final String region,
+			final long count ) {
+		final CountResult partialResult = new CountResult();
+		partialResult.fromBinary(ByteBuffer.allocate(
+				8).putLong(
+				count).array());
+		return Result.create(new Cell[] {
+			new KeyValue(
+					StringUtils.stringToBinary(region),
+					FAMILY,
+					HBaseCoprocessors.AGGREGATION_QUALIFIER,
+					PersistenceUtils.toBinary(partialResult))
+		});
+	}
+}
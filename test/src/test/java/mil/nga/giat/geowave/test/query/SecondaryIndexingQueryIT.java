@@ -173,7 +173,8 @@ public class SecondaryIndexingQueryIT
 						MILWAUKEE)),
 				additionalConstraints);
 		final SecondaryIndexQueryManager secondaryIndexQueryManager = new SecondaryIndexQueryManager(
-				dataStoreOptions.createSecondaryIndexStore());
+				dataStoreOptions.createSecondaryIndexStore(),
+				dataStore);
 		for (final SecondaryIndex<?> secondaryIndex : dataAdapter.getSupportedSecondaryIndices()) {
 			final CloseableIterator<ByteArrayId> matches = secondaryIndexQueryManager.query(
 					(BasicQuery) query,
@@ -192,6 +193,22 @@ public class SecondaryIndexingQueryIT
 			// TEMPORARY
 			if (secondaryIndex.getIndexStrategy() instanceof NumericIndexStrategy) {
 				Assert.assertTrue(numMatches == 16);
+				// join the row IDs to the features they reference
+				final QueryOptions queryOptions = new QueryOptions(
+						dataAdapter,
+						index);
+				final CloseableIterator<SimpleFeature> joined = secondaryIndexQueryManager.queryEntries(
+						(BasicQuery) query,
+						secondaryIndex,
+						queryOptions);
+				int numJoined = 0;
+				while (joined.hasNext()) {
+					final SimpleFeature feature = joined.next();
+					Assert.assertTrue(((Number) feature.getAttribute("landArea")).doubleValue() >= 100);
+					numJoined++;
+				}
+				joined.close();
+				Assert.assertTrue((numJoined > 0) && (numJoined <= numMatches));
 			}
 			else if (secondaryIndex.getIndexStrategy() instanceof TemporalIndexStrategy) {
 				Assert.assertTrue(numMatches == 0);